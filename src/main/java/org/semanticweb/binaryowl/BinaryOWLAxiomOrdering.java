@@ -0,0 +1,36 @@
+package org.semanticweb.binaryowl;
+
+/**
+ * <p>
+ *     Determines the order in which the axioms of each axiom table are written.  Any ordering reads back as the same
+ *     ontology - it only affects whether writing the same ontology twice produces the same bytes, and how long writing
+ *     takes.  From version 8 an axiom may refer back to class expressions in the axioms written before it, so the
+ *     bytes of an axiom depend on its position in the table and writers must encode the axioms in the order in which
+ *     they are written.
+ * </p>
+ */
+public enum BinaryOWLAxiomOrdering {
+
+    /**
+     * Axioms are sorted with {@link org.semanticweb.owlapi.model.OWLObject#compareTo(Object)}.  This is a deep
+     * structural comparison, which is the most expensive ordering, but it produces the same bytes as earlier versions
+     * of the writer.
+     */
+    STRUCTURAL,
+
+    /**
+     * Each axiom is encoded on its own and the axioms are sorted on their encoded bytes.  The output is still
+     * deterministic for a given ontology, but sorting compares flat byte arrays (in which entities are IRI table
+     * indexes) rather than walking object trees.  Axioms that contain anonymous individuals are written after the
+     * others, in structural order, because their encoding depends on the order in which they are written.  From
+     * version 8 the sort keys are encoded without back-references and the axioms are then encoded again in sorted
+     * order, so this ordering costs an extra encoding of each axiom.
+     */
+    ENCODED,
+
+    /**
+     * Axioms are written in whatever order the document supplies them, without copying or sorting.  The output may
+     * differ between runs, so this is intended for temporary files and caches.
+     */
+    UNORDERED
+}
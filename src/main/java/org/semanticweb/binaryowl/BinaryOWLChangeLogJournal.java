@@ -0,0 +1,289 @@
+package org.semanticweb.binaryowl;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
+import org.semanticweb.binaryowl.stream.BackPatchableByteArrayOutputStream;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     A long-lived, thread-safe appender for change log files.  The file is opened once, in append mode, and kept open
+ *     until the journal is closed.  Change lists may be appended from any number of threads: each is encoded on the
+ *     appending thread, and a single writer thread gathers whatever appends are pending into a batch and writes the
+ *     batch with one write call (group commit).  The file that is written is the same as one written by
+ *     {@link BinaryOWLOntologyChangeLog#appendChanges(OntologyChangeRecordList, File)}, one change list at a time, and
+ *     can be read with {@link BinaryOWLOntologyChangeLog#readChanges}.
+ * </p>
+ * <p>
+ *     Each append returns a future that completes when the change list has been written, and, if the
+ *     {@link BinaryOWLJournalDurability} says so, forced to the storage device.  Change lists are written in the order
+ *     in which their appends were called.  If a write fails then the appends in the batch, and all later appends,
+ *     fail with the same exception.
+ * </p>
+ */
+public class BinaryOWLChangeLogJournal implements Closeable {
+
+    /**
+     * Marks the end of the queue.  Appended by {@link #close()}.
+     */
+    private static final PendingAppend CLOSE = new PendingAppend(null);
+
+    private final FileChannel channel;
+
+    private final BinaryOWLJournalDurability durability;
+
+    private final BinaryOWLOntologyChangeLog changeLog = new BinaryOWLOntologyChangeLog();
+
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<PendingAppend>();
+
+    private final Thread writerThread;
+
+    /**
+     * Guards {@link #closed}, so that nothing is queued after {@link #CLOSE}.
+     */
+    private final Object closeLock = new Object();
+
+    private boolean closed = false;
+
+    /**
+     * The first write failure.  Only accessed by the writer thread until it has terminated.
+     */
+    private IOException failure = null;
+
+    /**
+     * Opens a journal that appends to a file.  The file is created if it does not exist.
+     * @param file The change log file.  Not {@code null}.
+     * @param durability Specifies when written change lists are forced to the storage device.  Not {@code null}.
+     * @throws IOException If the file could not be opened.
+     */
+    public BinaryOWLChangeLogJournal(File file, BinaryOWLJournalDurability durability) throws IOException {
+        this.durability = checkNotNull(durability);
+        this.channel = new FileOutputStream(checkNotNull(file), true).getChannel();
+        this.writerThread = new Thread(new Runnable() {
+            public void run() {
+                writeBatches();
+            }
+        }, "BinaryOWL change log journal: " + file.getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public BinaryOWLJournalDurability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Appends a list of changes.
+     * @param changeList The changes.  Not {@code null}.
+     * @param timestamp The timestamp of the changes.
+     * @param changeListMetadata The metadata for the changes.  Not {@code null}.
+     * @return A future that completes when the changes have been written.
+     * @throws IOException If the changes could not be encoded.
+     * @throws IllegalStateException If the journal has been closed.
+     */
+    public ListenableFuture<Void> append(List<OWLOntologyChange> changeList, long timestamp, BinaryOWLMetadata changeListMetadata) throws IOException {
+        return append(new OntologyChangeRecordList(changeList, timestamp, changeListMetadata));
+    }
+
+    /**
+     * Appends a change list.
+     * @param changeList The change list.  Not {@code null}.
+     * @return A future that completes when the change list has been written, or fails with the {@link IOException}
+     * that prevented it from being written.
+     * @throws IOException If the change list could not be encoded.
+     * @throws IllegalStateException If the journal has been closed.
+     */
+    public ListenableFuture<Void> append(OntologyChangeRecordList changeList) throws IOException {
+        checkNotNull(changeList);
+        BackPatchableByteArrayOutputStream bytes = new BackPatchableByteArrayOutputStream();
+        changeLog.appendChanges(changeList, bytes);
+        PendingAppend pendingAppend = new PendingAppend(bytes.asByteBuffer());
+        synchronized (closeLock) {
+            if(closed) {
+                throw new IllegalStateException("The journal has been closed");
+            }
+            queue.add(pendingAppend);
+        }
+        return pendingAppend.getFuture();
+    }
+
+    /**
+     * Writes the pending appends, then closes the file.  Unless the durability policy is
+     * {@link BinaryOWLJournalDurability#neverSync()}, the file is forced to the storage device first.  Calling this
+     * method more than once has no further effect.
+     * @throws IOException If an append could not be written, or the file could not be forced or closed.
+     */
+    public void close() throws IOException {
+        synchronized (closeLock) {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSE);
+        }
+        boolean interrupted = false;
+        while(writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if(failure != null) {
+            throw new IOException("Could not write to the change log journal", failure);
+        }
+    }
+
+    private void writeBatches() {
+        List<PendingAppend> batch = new ArrayList<PendingAppend>();
+        long lastSync = System.nanoTime();
+        boolean unsynced = false;
+        try {
+            while(true) {
+                PendingAppend first;
+                try {
+                    if(unsynced) {
+                        long untilSync = lastSync + durability.getSyncIntervalNanos() - System.nanoTime();
+                        first = queue.poll(Math.max(untilSync, 0), TimeUnit.NANOSECONDS);
+                    }
+                    else {
+                        first = queue.take();
+                    }
+                }
+                catch (InterruptedException e) {
+                    // Nobody else should be interrupting this thread
+                    continue;
+                }
+                if(first == null) {
+                    // The sync interval has elapsed with nothing more to write
+                    sync();
+                    lastSync = System.nanoTime();
+                    unsynced = false;
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                boolean closing = batch.remove(CLOSE);
+                if(!batch.isEmpty()) {
+                    writeBatch(batch);
+                    batch.clear();
+                    if(!durability.isNeverSync() && !durability.isSyncEachBatch()) {
+                        unsynced = true;
+                        if(System.nanoTime() - lastSync >= durability.getSyncIntervalNanos()) {
+                            sync();
+                            lastSync = System.nanoTime();
+                            unsynced = false;
+                        }
+                    }
+                }
+                if(closing) {
+                    if(!durability.isNeverSync()) {
+                        sync();
+                    }
+                    return;
+                }
+            }
+        }
+        finally {
+            try {
+                channel.close();
+            }
+            catch (IOException e) {
+                recordFailure(e);
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) {
+        if(failure != null) {
+            failAll(batch, failure);
+            return;
+        }
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for(int i = 0; i < buffers.length; i++) {
+            buffers[i] = batch.get(i).getBytes();
+        }
+        ByteBuffer last = buffers[buffers.length - 1];
+        try {
+            while(last.hasRemaining()) {
+                channel.write(buffers);
+            }
+            if(durability.isSyncEachBatch()) {
+                channel.force(false);
+            }
+        }
+        catch (IOException e) {
+            recordFailure(e);
+            failAll(batch, e);
+            return;
+        }
+        for(PendingAppend pendingAppend : batch) {
+            pendingAppend.getFuture().set(null);
+        }
+    }
+
+    private void sync() {
+        if(failure != null) {
+            return;
+        }
+        try {
+            channel.force(false);
+        }
+        catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    private void recordFailure(IOException e) {
+        if(failure == null) {
+            failure = e;
+        }
+    }
+
+    private static void failAll(List<PendingAppend> batch, IOException e) {
+        for(PendingAppend pendingAppend : batch) {
+            pendingAppend.getFuture().setException(e);
+        }
+    }
+
+    /**
+     * An encoded change list, waiting to be written.
+     */
+    private static class PendingAppend {
+
+        private final ByteBuffer bytes;
+
+        private final SettableFuture<Void> future = SettableFuture.create();
+
+        private PendingAppend(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        public ByteBuffer getBytes() {
+            return bytes;
+        }
+
+        public SettableFuture<Void> getFuture() {
+            return future;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.semanticweb.binaryowl;
+
+import com.google.common.util.concurrent.Striped;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * <p>
+ *     Opens a binary OWL document file for writing and keeps other writers out until it is closed.  Writers in other
+ *     processes are kept out by a {@link java.nio.channels.FileLock} on the file.  A file lock is held on behalf of the
+ *     whole JVM, so writers on other threads of this JVM are kept out by a lock that is shared by every writer of the
+ *     same file.
+ * </p>
+ * <p>
+ *     A writer that replaces the file (see {@link BinaryOWLOntologyDocumentCompactor}) calls {@link #discard()} once
+ *     the file has been replaced.  This empties the file that was replaced, so that a writer in another process that
+ *     opened it before it was replaced, and then waited for the lock, can tell that it has to open the file again.
+ * </p>
+ */
+final class BinaryOWLDocumentFileLock implements Closeable {
+
+    private static final Striped<Lock> THREAD_LOCKS = Striped.lock(32);
+
+    private final Lock threadLock;
+
+    private RandomAccessFile file;
+
+    /**
+     * Opens and locks a file, waiting for other writers of the file to finish.
+     * @param file The file.  Not {@code null}.  The file must exist.
+     * @throws FileNotFoundException If the file does not exist.
+     * @throws IOException If the file could not be opened or locked.
+     */
+    BinaryOWLDocumentFileLock(File file) throws IOException {
+        if(!file.isFile()) {
+            throw new FileNotFoundException(file.toString());
+        }
+        threadLock = THREAD_LOCKS.get(file.getCanonicalPath());
+        threadLock.lock();
+        try {
+            this.file = openAndLock(file);
+            // An empty file that used to hold a document has been replaced by a writer in another process
+            while(this.file.length() == 0 && file.length() > 0) {
+                this.file.close();
+                this.file = openAndLock(file);
+            }
+        }
+        catch (IOException e) {
+            close();
+            throw e;
+        }
+        catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private static RandomAccessFile openAndLock(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.getChannel().lock();
+            return raf;
+        }
+        catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the locked file.
+     * @return The file, which is open for reading and writing.
+     */
+    RandomAccessFile getFile() {
+        return file;
+    }
+
+    /**
+     * Empties the locked file, which has been replaced.  See the class documentation.
+     * @throws IOException If the file could not be emptied.
+     */
+    void discard() throws IOException {
+        file.setLength(0);
+    }
+
+    /**
+     * Closes the file, which releases the file lock, and lets other writers in this JVM in.
+     * @throws IOException If the file could not be closed.
+     */
+    public void close() throws IOException {
+        try {
+            if(file != null) {
+                file.close();
+            }
+        }
+        finally {
+            threadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.semanticweb.binaryowl;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     Specifies when a {@link BinaryOWLChangeLogJournal} forces the change lists that it has written out to the
+ *     storage device.  Instances are immutable.
+ * </p>
+ */
+public final class BinaryOWLJournalDurability {
+
+    private static final long SYNC_EACH_BATCH = 0;
+
+    private static final long NEVER_SYNC = -1;
+
+    private static final BinaryOWLJournalDurability SYNC_EACH_BATCH_DURABILITY = new BinaryOWLJournalDurability(SYNC_EACH_BATCH);
+
+    private static final BinaryOWLJournalDurability NEVER_SYNC_DURABILITY = new BinaryOWLJournalDurability(NEVER_SYNC);
+
+    private final long syncIntervalNanos;
+
+    private BinaryOWLJournalDurability(long syncIntervalNanos) {
+        this.syncIntervalNanos = syncIntervalNanos;
+    }
+
+    /**
+     * Forces each batch to the storage device before the appends in it complete.  An append that completes survives
+     * a crash of the operating system.
+     * @return The durability policy.
+     */
+    public static BinaryOWLJournalDurability syncEachBatch() {
+        return SYNC_EACH_BATCH_DURABILITY;
+    }
+
+    /**
+     * Forces written batches to the storage device at most once per interval.  Appends complete as soon as they have
+     * been written to the operating system, so a crash of the operating system may lose the appends made during the
+     * last interval.
+     * @param interval The interval.  Must be greater than zero.
+     * @param unit The unit of the interval.  Not {@code null}.
+     * @return The durability policy.
+     */
+    public static BinaryOWLJournalDurability syncPeriodically(long interval, TimeUnit unit) {
+        checkArgument(interval > 0, "interval must be greater than zero");
+        return new BinaryOWLJournalDurability(checkNotNull(unit).toNanos(interval));
+    }
+
+    /**
+     * Leaves it to the operating system to decide when written batches reach the storage device.  Appends complete as
+     * soon as they have been written to the operating system.
+     * @return The durability policy.
+     */
+    public static BinaryOWLJournalDurability neverSync() {
+        return NEVER_SYNC_DURABILITY;
+    }
+
+    public boolean isSyncEachBatch() {
+        return syncIntervalNanos == SYNC_EACH_BATCH;
+    }
+
+    public boolean isNeverSync() {
+        return syncIntervalNanos == NEVER_SYNC;
+    }
+
+    /**
+     * Gets the interval at which written batches are forced to the storage device.
+     * @return The interval in nanoseconds, or zero if each batch is forced, or a negative number if batches are never
+     * forced.
+     */
+    public long getSyncIntervalNanos() {
+        return syncIntervalNanos;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (syncIntervalNanos ^ (syncIntervalNanos >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this) {
+            return true;
+        }
+        if(!(obj instanceof BinaryOWLJournalDurability)) {
+            return false;
+        }
+        return syncIntervalNanos == ((BinaryOWLJournalDurability) obj).syncIntervalNanos;
+    }
+
+    @Override
+    public String toString() {
+        if(isSyncEachBatch()) {
+            return "BinaryOWLJournalDurability(SyncEachBatch)";
+        }
+        else if(isNeverSync()) {
+            return "BinaryOWLJournalDurability(NeverSync)";
+        }
+        else {
+            return "BinaryOWLJournalDurability(SyncEvery " + TimeUnit.NANOSECONDS.toMillis(syncIntervalNanos) + " ms)";
+        }
+    }
+}
@@ -50,6 +50,8 @@ import org.semanticweb.owlapi.model.OWLOntologyChange;
 import java.io.*;
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Author: Matthew Horridge<br>
  * Stanford University<br>
@@ -58,6 +60,24 @@ import java.util.List;
  */
 public class BinaryOWLOntologyChangeLog {
 
+    private final BinaryOWLVersion version;
+
+    /**
+     * Creates a change log that writes change lists using record format 2, which all readers understand.
+     */
+    public BinaryOWLOntologyChangeLog() {
+        this(BinaryOWLVersion.getVersion(1));
+    }
+
+    /**
+     * Creates a change log that writes change lists using the encoding rules of a given document format version.  For
+     * version 4 and later this is the more compact record format 3, which older readers cannot read.  Change lists in
+     * any record format can be read whatever the version.
+     * @param version The version.  Not {@code null}.
+     */
+    public BinaryOWLOntologyChangeLog(BinaryOWLVersion version) {
+        this.version = checkNotNull(version);
+    }
 
     public void appendChanges(List<OWLOntologyChange> changeList, long timestamp, BinaryOWLMetadata changeListMetadata, File file) throws IOException {
         final BufferedOutputStream os = new BufferedOutputStream(new FileOutputStream(file, true));
@@ -75,10 +95,17 @@ public class BinaryOWLOntologyChangeLog {
         os.close();
     }
 
+    /**
+     * Appends a change list to a stream.  To append many change lists to the same file from several threads, use a
+     * {@link BinaryOWLChangeLogJournal}, which keeps the file open and batches the writes.
+     * @param changeList The change list.
+     * @param os The stream.  If the stream is a {@link org.semanticweb.binaryowl.stream.BackPatchableOutput} then the
+     *           change list is written to it in a single pass.
+     * @throws IOException If there was a problem writing to the stream.
+     */
     public void appendChanges(OntologyChangeRecordList changeList, OutputStream os) throws IOException {
-        DataOutputStream dos = new DataOutputStream(os);
-        dos.writeByte(BinaryOWLOntologyDocumentSerializer.CHUNK_FOLLOWS_MARKER);
-        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(dos, BinaryOWLVersion.getVersion(1));
+        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(os, version);
+        outputStream.writeByte(BinaryOWLOntologyDocumentSerializer.CHUNK_FOLLOWS_MARKER);
         changeList.write(outputStream);
     }
 
@@ -0,0 +1,31 @@
+package org.semanticweb.binaryowl;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import java.util.List;
+
+/**
+ * <p>
+ *     A document handler that receives the axioms of a document in bounded batches, as they are decoded, rather than
+ *     as one set per axiom type.  Handlers that index or forward axioms can therefore process a document without
+ *     holding a whole axiom table in memory.
+ * </p>
+ * <p>
+ *     When a handler implements this interface the reader passes the axioms of the initial document block to
+ *     {@link #handleAxiomBatch(java.util.List)} and never calls
+ *     {@link BinaryOWLOntologyDocumentHandler#handleAxioms(java.util.Set)}.  The size of each batch is at most the
+ *     {@link BinaryOWLReaderConfiguration#getAxiomBatchSize() batch size} of the reader configuration.  Batches never
+ *     span two axiom types.  Axiom tables are decoded on the calling thread for streaming handlers, whatever executor
+ *     the configuration specifies.
+ * </p>
+ */
+public interface BinaryOWLOntologyDocumentAxiomStreamHandler<E extends Throwable> extends BinaryOWLOntologyDocumentHandler<E> {
+
+    /**
+     * Handles a batch of axioms that have been decoded from the document.
+     * @param axioms The axioms.  Not {@code null} and never empty.  The list belongs to the handler once it has been
+     *               passed to this method.
+     * @throws E If the handler fails.
+     */
+    void handleAxiomBatch(List<OWLAxiom> axioms) throws E;
+}
@@ -0,0 +1,339 @@
+package org.semanticweb.binaryowl;
+
+import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
+import org.semanticweb.owlapi.change.*;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     Folds the changes that have been appended to a binary OWL document back into the document body.  The document
+ *     and its change chunks are read in one pass, the net changes are applied to plain sets of axioms, annotations and
+ *     imports declarations, and a fresh body with no trailing change chunks is written in place of the original.  No
+ *     {@link OWLOntology} or {@link OWLOntologyManager} is involved.
+ * </p>
+ * <p>
+ *     The compacted document keeps the format version and metadata of the original.  It is written to a temporary
+ *     file next to the original, which is then renamed over the original, so a failed compaction leaves the original
+ *     document as it was.
+ * </p>
+ * <p>
+ *     The document is locked from before it is read until it has been replaced, and
+ *     {@link BinaryOWLOntologyDocumentSerializer#appendOntologyChanges(java.io.File, OntologyChangeDataList)} takes
+ *     the same lock, so changes that are appended whilst a compaction is running, by another thread or by another
+ *     process, wait for it and are then appended to the compacted document.  Appending through a stream (see
+ *     {@link BinaryOWLOntologyDocumentSerializer#appendOntologyChanges(org.semanticweb.binaryowl.stream.BinaryOWLOutputStream, OntologyChangeDataList)})
+ *     does not take the lock, and a document that is appended to that way must not be compacted at the same time.
+ *     If the length of the document changes whilst it is locked then the compaction fails.  On platforms that cannot
+ *     rename over an open file the compaction fails and leaves the document as it was.
+ * </p>
+ */
+public class BinaryOWLOntologyDocumentCompactor {
+
+    private final BinaryOWLOntologyDocumentSerializer serializer;
+
+    public BinaryOWLOntologyDocumentCompactor() {
+        this(new BinaryOWLOntologyDocumentSerializer());
+    }
+
+    public BinaryOWLOntologyDocumentCompactor(BinaryOWLOntologyDocumentSerializer serializer) {
+        this.serializer = checkNotNull(serializer);
+    }
+
+    /**
+     * Compacts a binary OWL document stored in a file.
+     * @param file The file that contains the document.  Not {@code null}.
+     * @param df An {@link OWLDataFactory} that can be used to instantiate {@link OWLObject}s.  Not {@code null}.
+     * @return {@code true} if the document had appended changes and was rewritten, or {@code false} if there was
+     * nothing to compact, in which case the file is left untouched.
+     * @throws IOException If there was a problem reading or writing the file.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     */
+    public boolean compact(File file, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        checkNotNull(file);
+        checkNotNull(df);
+        BinaryOWLDocumentFileLock lock = new BinaryOWLDocumentFileLock(file);
+        try {
+            long length = lock.getFile().length();
+            CompactingHandler handler = new CompactingHandler();
+            try {
+                serializer.read(file, handler, df);
+            }
+            catch (UnloadableImportException e) {
+                // Imports are never loaded by this handler
+                throw new BinaryOWLParseException(e);
+            }
+            if(!handler.hasChanges()) {
+                return false;
+            }
+            // Only a writer that ignores the lock can have changed the document
+            if(lock.getFile().length() != length) {
+                throw new IOException("Could not compact " + file + " because it was changed whilst it was being read");
+            }
+            serializer.writeAtomically(handler.getDocument(), file, handler.getMetadata(), handler.getVersion(), new BinaryOWLWriterConfiguration());
+            lock.discard();
+            return true;
+        }
+        finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Collects the initial document block and applies each appended change to it as the change is read.
+     */
+    private static class CompactingHandler extends BinaryOWLOntologyDocumentHandlerAdapter<RuntimeException> implements OWLOntologyChangeDataVisitor<Void, RuntimeException> {
+
+        private BinaryOWLVersion version;
+
+        private BinaryOWLMetadata metadata = new BinaryOWLMetadata();
+
+        private OWLOntologyID ontologyID = new OWLOntologyID();
+
+        private final Set<OWLImportsDeclaration> importsDeclarations = new LinkedHashSet<OWLImportsDeclaration>();
+
+        private final Set<OWLAnnotation> annotations = new LinkedHashSet<OWLAnnotation>();
+
+        private final Map<AxiomType<?>, Set<OWLAxiom>> axiomsByType = new HashMap<AxiomType<?>, Set<OWLAxiom>>();
+
+        private boolean changes = false;
+
+        public boolean hasChanges() {
+            return changes;
+        }
+
+        public BinaryOWLVersion getVersion() {
+            return version;
+        }
+
+        public BinaryOWLMetadata getMetadata() {
+            return metadata;
+        }
+
+        public OWLOntologyDocument getDocument() {
+            return new CompactedDocument(ontologyID, importsDeclarations, annotations, axiomsByType);
+        }
+
+        @Override
+        public void handlePreamble(BinaryOWLOntologyDocumentPreamble preamble) {
+            version = preamble.getFileFormatVersion();
+        }
+
+        @Override
+        public void handleDocumentMetaData(BinaryOWLMetadata metadata) {
+            this.metadata = metadata;
+        }
+
+        @Override
+        public void handleOntologyID(OWLOntologyID ontologyID) {
+            this.ontologyID = ontologyID;
+        }
+
+        @Override
+        public void handleImportsDeclarations(Set<OWLImportsDeclaration> importsDeclarations) {
+            this.importsDeclarations.addAll(importsDeclarations);
+        }
+
+        @Override
+        public void handleOntologyAnnotations(Set<OWLAnnotation> annotations) {
+            this.annotations.addAll(annotations);
+        }
+
+        @Override
+        public void handleAxioms(Set<OWLAxiom> axioms) {
+            for(OWLAxiom axiom : axioms) {
+                getAxioms(axiom.getAxiomType()).add(axiom);
+            }
+        }
+
+        @Override
+        public void handleChanges(OntologyChangeDataList changesList) {
+            changes = true;
+            for(OWLOntologyChangeData changeData : changesList) {
+                changeData.accept(this);
+            }
+        }
+
+        private Set<OWLAxiom> getAxioms(AxiomType<?> axiomType) {
+            Set<OWLAxiom> axioms = axiomsByType.get(axiomType);
+            if(axioms == null) {
+                axioms = new HashSet<OWLAxiom>();
+                axiomsByType.put(axiomType, axioms);
+            }
+            return axioms;
+        }
+
+        @Override
+        public Void visit(AddAxiomData data) {
+            getAxioms(data.getAxiom().getAxiomType()).add(data.getAxiom());
+            return null;
+        }
+
+        @Override
+        public Void visit(RemoveAxiomData data) {
+            getAxioms(data.getAxiom().getAxiomType()).remove(data.getAxiom());
+            return null;
+        }
+
+        @Override
+        public Void visit(AddOntologyAnnotationData data) {
+            annotations.add(data.getAnnotation());
+            return null;
+        }
+
+        @Override
+        public Void visit(RemoveOntologyAnnotationData data) {
+            annotations.remove(data.getAnnotation());
+            return null;
+        }
+
+        @Override
+        public Void visit(SetOntologyIDData data) {
+            ontologyID = data.getNewId();
+            return null;
+        }
+
+        @Override
+        public Void visit(AddImportData data) {
+            importsDeclarations.add(data.getDeclaration());
+            return null;
+        }
+
+        @Override
+        public Void visit(RemoveImportData data) {
+            importsDeclarations.remove(data.getDeclaration());
+            return null;
+        }
+    }
+
+    /**
+     * An {@link OWLOntologyDocument} backed by plain sets.  The signature is computed once, from the axioms and
+     * ontology annotations.
+     */
+    private static class CompactedDocument implements OWLOntologyDocument {
+
+        private final OWLOntologyID ontologyID;
+
+        private final Set<OWLImportsDeclaration> importsDeclarations;
+
+        private final Set<OWLAnnotation> annotations;
+
+        private final Map<AxiomType<?>, Set<OWLAxiom>> axiomsByType;
+
+        private final Set<OWLClass> classes = new HashSet<OWLClass>();
+
+        private final Set<OWLObjectProperty> objectProperties = new HashSet<OWLObjectProperty>();
+
+        private final Set<OWLDataProperty> dataProperties = new HashSet<OWLDataProperty>();
+
+        private final Set<OWLAnnotationProperty> annotationProperties = new HashSet<OWLAnnotationProperty>();
+
+        private final Set<OWLNamedIndividual> individuals = new HashSet<OWLNamedIndividual>();
+
+        private final Set<OWLDatatype> datatypes = new HashSet<OWLDatatype>();
+
+        private CompactedDocument(OWLOntologyID ontologyID, Set<OWLImportsDeclaration> importsDeclarations, Set<OWLAnnotation> annotations, Map<AxiomType<?>, Set<OWLAxiom>> axiomsByType) {
+            this.ontologyID = ontologyID;
+            this.importsDeclarations = importsDeclarations;
+            this.annotations = annotations;
+            this.axiomsByType = axiomsByType;
+            for(Set<OWLAxiom> axioms : axiomsByType.values()) {
+                for(OWLAxiom axiom : axioms) {
+                    addToSignature(axiom.getSignature());
+                }
+            }
+            for(OWLAnnotation annotation : annotations) {
+                addToSignature(annotation.getSignature());
+            }
+        }
+
+        private void addToSignature(Set<OWLEntity> entities) {
+            for(OWLEntity entity : entities) {
+                if(entity.isOWLClass()) {
+                    classes.add(entity.asOWLClass());
+                }
+                else if(entity.isOWLObjectProperty()) {
+                    objectProperties.add(entity.asOWLObjectProperty());
+                }
+                else if(entity.isOWLDataProperty()) {
+                    dataProperties.add(entity.asOWLDataProperty());
+                }
+                else if(entity.isOWLAnnotationProperty()) {
+                    annotationProperties.add(entity.asOWLAnnotationProperty());
+                }
+                else if(entity.isOWLNamedIndividual()) {
+                    individuals.add(entity.asOWLNamedIndividual());
+                }
+                else if(entity.isOWLDatatype()) {
+                    datatypes.add(entity.asOWLDatatype());
+                }
+            }
+        }
+
+        @Override
+        public OWLOntologyID getOntologyID() {
+            return ontologyID;
+        }
+
+        @Override
+        public Set<OWLImportsDeclaration> getImportsDeclarations() {
+            return importsDeclarations;
+        }
+
+        @Override
+        public Set<OWLAnnotation> getAnnotations() {
+            return annotations;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> axiomType) {
+            Set<OWLAxiom> axioms = axiomsByType.get(axiomType);
+            if(axioms == null) {
+                return Collections.emptySet();
+            }
+            return (Set<T>) axioms;
+        }
+
+        @Override
+        public Set<OWLClass> getClassesInSignature() {
+            return classes;
+        }
+
+        @Override
+        public Set<OWLObjectProperty> getObjectPropertiesInSignature() {
+            return objectProperties;
+        }
+
+        @Override
+        public Set<OWLDataProperty> getDataPropertiesInSignature() {
+            return dataProperties;
+        }
+
+        @Override
+        public Set<OWLAnnotationProperty> getAnnotationPropertiesInSignature() {
+            return annotationProperties;
+        }
+
+        @Override
+        public Set<OWLNamedIndividual> getIndividualsInSignature() {
+            return individuals;
+        }
+
+        @Override
+        public Set<OWLDatatype> getDatatypesInSignature() {
+            return datatypes;
+        }
+    }
+}
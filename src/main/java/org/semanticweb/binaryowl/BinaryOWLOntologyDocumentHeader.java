@@ -0,0 +1,44 @@
+package org.semanticweb.binaryowl;
+
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     The first few elements of a binary OWL document: the preamble, which gives the format version, the document
+ *     metadata and the ID of the ontology.  These are at the very start of a document, so they can be read without
+ *     reading (or even buffering) the rest of it.
+ * </p>
+ */
+public final class BinaryOWLOntologyDocumentHeader {
+
+    private final BinaryOWLOntologyDocumentPreamble preamble;
+
+    private final BinaryOWLMetadata metadata;
+
+    private final OWLOntologyID ontologyID;
+
+    public BinaryOWLOntologyDocumentHeader(BinaryOWLOntologyDocumentPreamble preamble, BinaryOWLMetadata metadata, OWLOntologyID ontologyID) {
+        this.preamble = checkNotNull(preamble);
+        this.metadata = checkNotNull(metadata);
+        this.ontologyID = checkNotNull(ontologyID);
+    }
+
+    public BinaryOWLOntologyDocumentPreamble getPreamble() {
+        return preamble;
+    }
+
+    public BinaryOWLMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Gets the ID of the ontology as it was when the document was written.  Changes that have been appended to the
+     * document may have changed the ID since.
+     * @return The ontology ID.
+     */
+    public OWLOntologyID getOntologyID() {
+        return ontologyID;
+    }
+}
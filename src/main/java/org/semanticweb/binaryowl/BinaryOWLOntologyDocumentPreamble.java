@@ -42,8 +42,8 @@ package org.semanticweb.binaryowl;
 
 import org.semanticweb.binaryowl.chunk.ChunkUtil;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 
 /**
@@ -65,20 +65,20 @@ public class BinaryOWLOntologyDocumentPreamble {
         this(DEFAULT_VERSION);
     }
 
-    public BinaryOWLOntologyDocumentPreamble(DataInputStream dataInputStream) throws IOException, BinaryOWLParseException {
-        read(dataInputStream);
+    public BinaryOWLOntologyDocumentPreamble(DataInput dataInput) throws IOException, BinaryOWLParseException {
+        read(dataInput);
     }
 
-    private BinaryOWLOntologyDocumentPreamble(BinaryOWLVersion version) {
+    public BinaryOWLOntologyDocumentPreamble(BinaryOWLVersion version) {
         this.fileFormatVersion = version;
     }
 
-    private void read(DataInputStream dataInputStream) throws IOException, BinaryOWLParseException {
-        int magicNumber = dataInputStream.readInt();
+    private void read(DataInput dataInput) throws IOException, BinaryOWLParseException {
+        int magicNumber = dataInput.readInt();
         if(magicNumber != MAGIC_NUMBER) {
             throw new BinaryOWLParseException("Corrupt file or not a binary OWL format (Magic Number Not Present)");
         }
-        short version = dataInputStream.readShort();
+        short version = dataInput.readShort();
         fileFormatVersion = BinaryOWLVersion.getVersion(version);
     }
 
@@ -93,10 +93,10 @@ public class BinaryOWLOntologyDocumentPreamble {
 
     /**
      * Writes this preamble out to the specified output stream.
-     * @param dos The {@link DataOutputStream}.
+     * @param dos The {@link DataOutput}.
      * @throws IOException If there was a problem writing to the specified stream.
      */
-    public void write(DataOutputStream dos) throws IOException {
+    public void write(DataOutput dos) throws IOException {
         dos.writeInt(MAGIC_NUMBER);
         dos.writeShort(fileFormatVersion.getVersion());
     }
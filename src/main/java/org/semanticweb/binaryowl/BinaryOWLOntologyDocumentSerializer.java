@@ -40,16 +40,31 @@
 package org.semanticweb.binaryowl;
 
 import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.chunk.ChangeIndexChunk;
 import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
 import org.semanticweb.binaryowl.owlobject.serializer.SerializerBase;
+import org.semanticweb.binaryowl.stream.BackPatchableByteArrayOutputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
 import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
 import org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil;
+import org.semanticweb.binaryowl.stream.ByteBufferInputStream;
+import org.semanticweb.binaryowl.stream.ChannelInputStream;
+import org.semanticweb.binaryowl.stream.ChannelOutputStream;
+import org.semanticweb.binaryowl.stream.MappedFileInputStream;
 import org.semanticweb.binaryowl.serializer.BinaryOWLDocumentBodySerializer;
 import org.semanticweb.binaryowl.serializer.BinaryOWLDocumentBodySerializerSelector;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.UnloadableImportException;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -63,9 +78,21 @@ public class BinaryOWLOntologyDocumentSerializer extends SerializerBase {
 
     public static final byte CHUNK_FOLLOWS_MARKER = 33;
 
+    /**
+     * Precedes the optional change index footer at the end of a document.  See {@link ChangeIndexChunk}.
+     */
+    public static final byte CHANGE_INDEX_FOLLOWS_MARKER = 35;
+
+    /**
+     * The size of the buffer that {@link #peek(File)} reads through.  Document headers are usually much smaller than
+     * this, in which case a peek reads a single block of the file.
+     */
+    private static final int PEEK_BUFFER_SIZE = 4096;
+
     /**
      * Reads an {@link org.semanticweb.binaryowl.doc.OWLOntologyDocument} that is stored in binary OWL.
-     * @param inputStream The input stream to read the document from.  Not {@code null}.
+     * @param inputStream The input stream to read the document from.  Not {@code null}.  The stream does not need to
+     *                    be buffered - it is read in large blocks.  The stream is not closed by this method.
      * @param handler The handler that handels document elements as they are read.  Not {@code null}.
      * @param df An {@link OWLDataFactory} that can be used to instantiate {@link org.semanticweb.owlapi.model.OWLObject}s.  Not {@code null}.
      * @param <E> The type of exception thrown by the handler.
@@ -75,12 +102,136 @@ public class BinaryOWLOntologyDocumentSerializer extends SerializerBase {
      * @throws E A custom exception type.
      */
     public <E extends Throwable> void read(InputStream inputStream, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        read(inputStream, handler, df, new BinaryOWLReaderConfiguration());
+    }
+
+    /**
+     * Reads an {@link org.semanticweb.binaryowl.doc.OWLOntologyDocument} that is stored in binary OWL from an input stream, using
+     * the specified configuration.
+     * @see #read(InputStream, BinaryOWLOntologyDocumentHandler, OWLDataFactory)
+     * @param configuration Options that control how the document is read, for example, whether axiom tables are
+     *                      decoded concurrently.  Not {@code null}.
+     */
+    public <E extends Throwable> void read(InputStream inputStream, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df, BinaryOWLReaderConfiguration configuration) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
         checkNotNull(inputStream);
         checkNotNull(handler);
         checkNotNull(df);
+        checkNotNull(configuration);
+        if(inputStream instanceof ByteBufferInputStream) {
+            readDocument((ByteBufferInputStream) inputStream, handler, df, configuration);
+        }
+        else {
+            readDocument(new ChannelInputStream(inputStream), handler, df, configuration);
+        }
+    }
+
+    /**
+     * Reads an {@link org.semanticweb.binaryowl.doc.OWLOntologyDocument} that is stored in binary OWL in the
+     * specified file.  The file is read through a {@link FileChannel} in large blocks.
+     * @param file The file to read the document from.  Not {@code null}.
+     * @param handler The handler that handels document elements as they are read.  Not {@code null}.
+     * @param df An {@link OWLDataFactory} that can be used to instantiate {@link org.semanticweb.owlapi.model.OWLObject}s.  Not {@code null}.
+     * @param <E> The type of exception thrown by the handler.
+     * @throws IOException If there was a problem reading from the file.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     * @throws UnloadableImportException If an import could not be loaded.
+     * @throws E A custom exception type.
+     */
+    public <E extends Throwable> void read(File file, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        read(file, handler, df, new BinaryOWLReaderConfiguration());
+    }
+
+    /**
+     * Reads an {@link org.semanticweb.binaryowl.doc.OWLOntologyDocument} that is stored in binary OWL in a file, using
+     * the specified configuration.
+     * @see #read(File, BinaryOWLOntologyDocumentHandler, OWLDataFactory)
+     * @param configuration Options that control how the document is read, for example, whether axiom tables are
+     *                      decoded concurrently.  Not {@code null}.
+     */
+    public <E extends Throwable> void read(File file, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df, BinaryOWLReaderConfiguration configuration) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        checkNotNull(file);
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            read(fis.getChannel(), handler, df, configuration);
+        }
+        finally {
+            fis.close();
+        }
+    }
+
+    /**
+     * Reads an {@link org.semanticweb.binaryowl.doc.OWLOntologyDocument} that is stored in binary OWL from the
+     * current position of the specified channel.  The channel is not closed by this method.
+     * @param channel The channel to read the document from.  Not {@code null}.
+     * @param handler The handler that handels document elements as they are read.  Not {@code null}.
+     * @param df An {@link OWLDataFactory} that can be used to instantiate {@link org.semanticweb.owlapi.model.OWLObject}s.  Not {@code null}.
+     * @param <E> The type of exception thrown by the handler.
+     * @throws IOException If there was a problem reading from the channel.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     * @throws UnloadableImportException If an import could not be loaded.
+     * @throws E A custom exception type.
+     */
+    public <E extends Throwable> void read(FileChannel channel, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        read(channel, handler, df, new BinaryOWLReaderConfiguration());
+    }
+
+    /**
+     * Reads an {@link org.semanticweb.binaryowl.doc.OWLOntologyDocument} that is stored in binary OWL from a channel, using
+     * the specified configuration.
+     * @see #read(FileChannel, BinaryOWLOntologyDocumentHandler, OWLDataFactory)
+     * @param configuration Options that control how the document is read, for example, whether axiom tables are
+     *                      decoded concurrently.  Not {@code null}.
+     */
+    public <E extends Throwable> void read(FileChannel channel, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df, BinaryOWLReaderConfiguration configuration) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        checkNotNull(channel);
+        checkNotNull(handler);
+        checkNotNull(df);
+        checkNotNull(configuration);
+        readDocument(new ChannelInputStream(channel), handler, df, configuration);
+    }
+
+    /**
+     * Reads an {@link org.semanticweb.binaryowl.doc.OWLOntologyDocument} that is stored in binary OWL in the
+     * specified file by memory mapping the file and decoding directly from the mapped buffers.  Files larger than
+     * 2GB are mapped in segments.  Unlike {@link #read(File, BinaryOWLOntologyDocumentHandler, OWLDataFactory)},
+     * no file content is copied into the Java heap, and several processes that read the same file share the
+     * operating system's page cache.
+     * @param file The file to read the document from.  Not {@code null}.
+     * @param handler The handler that handels document elements as they are read.  Not {@code null}.
+     * @param df An {@link OWLDataFactory} that can be used to instantiate {@link org.semanticweb.owlapi.model.OWLObject}s.  Not {@code null}.
+     * @param <E> The type of exception thrown by the handler.
+     * @throws IOException If there was a problem mapping or reading the file.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     * @throws UnloadableImportException If an import could not be loaded.
+     * @throws E A custom exception type.
+     */
+    public <E extends Throwable> void readMemoryMapped(File file, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        readMemoryMapped(file, handler, df, new BinaryOWLReaderConfiguration());
+    }
+
+    /**
+     * Reads an {@link org.semanticweb.binaryowl.doc.OWLOntologyDocument} that is stored in binary OWL in a memory mapped file, using
+     * the specified configuration.
+     * @see #readMemoryMapped(File, BinaryOWLOntologyDocumentHandler, OWLDataFactory)
+     * @param configuration Options that control how the document is read, for example, whether axiom tables are
+     *                      decoded concurrently.  Not {@code null}.
+     */
+    public <E extends Throwable> void readMemoryMapped(File file, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df, BinaryOWLReaderConfiguration configuration) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        checkNotNull(file);
+        checkNotNull(handler);
+        checkNotNull(df);
+        checkNotNull(configuration);
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            readDocument(new MappedFileInputStream(fis.getChannel()), handler, df, configuration);
+        }
+        finally {
+            fis.close();
+        }
+    }
 
-        DataInputStream dis = BinaryOWLStreamUtil.getDataInputStream(inputStream);
-        BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble(dis);
+    private <E extends Throwable> void readDocument(ByteBufferInputStream inputStream, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df, BinaryOWLReaderConfiguration configuration) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble(inputStream);
         BinaryOWLVersion fileFormatVersion = preamble.getFileFormatVersion();
 
         handler.handleBeginDocument();
@@ -88,7 +239,7 @@ public class BinaryOWLOntologyDocumentSerializer extends SerializerBase {
 
         BinaryOWLDocumentBodySerializerSelector selector = new BinaryOWLDocumentBodySerializerSelector();
         BinaryOWLDocumentBodySerializer serializer = selector.getSerializerForVersion(fileFormatVersion);
-        serializer.read(dis, handler, df);
+        serializer.read(inputStream, handler, df, configuration);
     }
 
 
@@ -112,29 +263,497 @@ public class BinaryOWLOntologyDocumentSerializer extends SerializerBase {
      * @throws NullPointerException if any parameters are {@code null}.
      */
     public void write(OWLOntologyDocument document, OutputStream os, BinaryOWLMetadata documentMetadata) throws IOException {
+        write(document, os, documentMetadata, BinaryOWLOntologyDocumentPreamble.DEFAULT_VERSION);
+    }
+
+    /**
+     * Writes out an {@link OWLOntologyDocument} in binary OWL using a specific version of the format.
+     * @param document The document to be written out. Not {@code null}.
+     * @param os The output stream to write the document to.  Not {@code null}.
+     * @param documentMetadata Document metadata.  Not {@code null}.
+     * @param version The version of the format to write.  Not {@code null}.  Version 3 adds a section directory that
+     *                lets readers skip to individual axiom tables.
+     * @throws IOException If there was a problem writing to the stream.
+     * @throws NullPointerException if any parameters are {@code null}.
+     * @throws RuntimeException if the version is not supported.
+     */
+    public void write(OWLOntologyDocument document, OutputStream os, BinaryOWLMetadata documentMetadata, BinaryOWLVersion version) throws IOException {
+        write(document, os, documentMetadata, version, new BinaryOWLWriterConfiguration());
+    }
+
+    /**
+     * Writes out an {@link OWLOntologyDocument} in binary OWL using a specific version of the format and the
+     * specified configuration.
+     * @see #write(OWLOntologyDocument, OutputStream, BinaryOWLMetadata, BinaryOWLVersion)
+     * @param configuration Options that control how the document is written, for example, whether axiom tables are
+     *                      encoded concurrently.  Not {@code null}.
+     */
+    public void write(OWLOntologyDocument document, OutputStream os, BinaryOWLMetadata documentMetadata, BinaryOWLVersion version, BinaryOWLWriterConfiguration configuration) throws IOException {
         checkNotNull(document);
         checkNotNull(os);
         checkNotNull(documentMetadata);
+        checkNotNull(version);
+        checkNotNull(configuration);
 
-        DataOutputStream dos = new DataOutputStream(os);
-        BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble();
-        preamble.write(dos);
         BinaryOWLDocumentBodySerializerSelector selector = new BinaryOWLDocumentBodySerializerSelector();
-        BinaryOWLVersion fileFormatVersion = preamble.getFileFormatVersion();
-        BinaryOWLDocumentBodySerializer serializer = selector.getSerializerForVersion(fileFormatVersion);
-        serializer.write(document, dos, documentMetadata);
+        BinaryOWLDocumentBodySerializer serializer = selector.getSerializerForVersion(version);
+        BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble(version);
+        preamble.write(BinaryOWLStreamUtil.asDataOutput(os));
+        serializer.write(document, os, documentMetadata, configuration);
+    }
+
+    /**
+     * Writes out an {@link OWLOntologyDocument} in binary OWL to a file, replacing any existing contents.  Values are
+     * encoded straight into a direct buffer that is drained to the file's channel (see {@link ChannelOutputStream}),
+     * which avoids the stream layering of {@link #write(OWLOntologyDocument, OutputStream, BinaryOWLMetadata, BinaryOWLVersion, BinaryOWLWriterConfiguration)}.
+     * @param document The document to be written out. Not {@code null}.
+     * @param file The file to write the document to.  Not {@code null}.
+     * @param documentMetadata Document metadata.  Not {@code null}.
+     * @param version The version of the format to write.  Not {@code null}.
+     * @param configuration Options that control how the document is written.  Not {@code null}.
+     * @throws IOException If there was a problem writing to the file.
+     */
+    public void write(OWLOntologyDocument document, File file, BinaryOWLMetadata documentMetadata, BinaryOWLVersion version, BinaryOWLWriterConfiguration configuration) throws IOException {
+        checkNotNull(file);
+        ChannelOutputStream os = new ChannelOutputStream(new FileOutputStream(file).getChannel());
+        try {
+            write(document, os, documentMetadata, version, configuration);
+        }
+        finally {
+            os.close();
+        }
+    }
+
+    /**
+     * Writes out an {@link OWLOntologyDocument} in binary OWL to a temporary file next to the specified file, and then
+     * renames the temporary file over the specified file.  The temporary file is forced to the storage device before it
+     * is renamed.  Readers of the file therefore see either the old contents or the complete new contents, and if
+     * writing fails then the file is left as it was.
+     * <p>
+     *     On platforms that will not rename over an existing file, the existing file is first moved aside to a backup
+     *     file, and moved back if the temporary file cannot then be renamed.  If even that fails then neither the
+     *     backup nor the temporary file is deleted, and the exception names both of them.
+     * </p>
+     * @param document The document to be written out. Not {@code null}.
+     * @param file The file to replace.  Not {@code null}.  The file does not have to exist.
+     * @param documentMetadata Document metadata.  Not {@code null}.
+     * @param version The version of the format to write.  Not {@code null}.
+     * @param configuration Options that control how the document is written.  Not {@code null}.
+     * @throws IOException If there was a problem writing the temporary file, or it could not be renamed.
+     */
+    public void writeAtomically(OWLOntologyDocument document, File file, BinaryOWLMetadata documentMetadata, BinaryOWLVersion version, BinaryOWLWriterConfiguration configuration) throws IOException {
+        checkNotNull(file);
+        File parentDirectory = file.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile(file.getName(), ".tmp", parentDirectory);
+        boolean fileExisted = file.exists();
+        try {
+            FileChannel channel = new FileOutputStream(tempFile).getChannel();
+            ChannelOutputStream os = new ChannelOutputStream(channel);
+            try {
+                write(document, os, documentMetadata, version, configuration);
+                os.flush();
+                // The new contents must be on disk before they replace the old ones
+                channel.force(true);
+            }
+            finally {
+                os.close();
+            }
+            replace(tempFile, file);
+        }
+        finally {
+            // If the file has gone then the temporary file holds the only copy of the document
+            if(tempFile.exists() && (file.exists() || !fileExisted)) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static void replace(File source, File target) throws IOException {
+        if(source.renameTo(target)) {
+            return;
+        }
+        if(!target.exists()) {
+            throw new IOException("Could not rename " + source + " to " + target);
+        }
+        // Some platforms will not rename over an existing file, so the existing file is moved aside first
+        File backup = File.createTempFile(target.getName(), ".bak", target.getAbsoluteFile().getParentFile());
+        if(!backup.delete() || !target.renameTo(backup)) {
+            backup.delete();
+            throw new IOException("Could not replace " + target + " with " + source);
+        }
+        if(!source.renameTo(target)) {
+            if(backup.renameTo(target)) {
+                throw new IOException("Could not replace " + target + " with " + source);
+            }
+            throw new IOException("Could not replace " + target + " with " + source + " or restore it from " + backup);
+        }
+        backup.delete();
+    }
+
+    /**
+     * Reads the axioms of one type from a binary OWL document stored in a file.  If the document contains a section
+     * directory (version 3 and later) then every other axiom table is skipped without being decoded.  Changes that
+     * have been appended to the document are not taken into account.
+     * @param file The file that contains the document.  Not {@code null}.
+     * @param axiomType The type of axioms to read.  Not {@code null}.
+     * @param df An {@link OWLDataFactory} that can be used to instantiate {@link org.semanticweb.owlapi.model.OWLObject}s.  Not {@code null}.
+     * @param <A> The type of axioms.
+     * @return The axioms of the specified type.
+     * @throws IOException If there was a problem reading from the file.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     */
+    public <A extends OWLAxiom> Set<A> readAxioms(File file, AxiomType<A> axiomType, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        checkNotNull(file);
+        checkNotNull(axiomType);
+        checkNotNull(df);
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            ChannelInputStream inputStream = new ChannelInputStream(fis.getChannel());
+            BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble(inputStream);
+            BinaryOWLDocumentBodySerializerSelector selector = new BinaryOWLDocumentBodySerializerSelector();
+            BinaryOWLDocumentBodySerializer serializer = selector.getSerializerForVersion(preamble.getFileFormatVersion());
+            return serializer.readAxioms(inputStream, axiomType, df);
+        }
+        finally {
+            fis.close();
+        }
+    }
+
+    /**
+     * Reads the header of a binary OWL document stored in a file: the preamble, the document metadata and the
+     * ontology ID.  Only the first few kilobytes of the file are read (more only if the metadata is very large), and
+     * nothing after the ontology ID is decoded.
+     * @param file The file that contains the document.  Not {@code null}.
+     * @return The header of the document.
+     * @throws IOException If there was a problem reading from the file.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     */
+    public static BinaryOWLOntologyDocumentHeader peek(File file) throws IOException, BinaryOWLParseException {
+        checkNotNull(file);
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            ChannelInputStream inputStream = new ChannelInputStream(fis.getChannel(), PEEK_BUFFER_SIZE);
+            BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble(inputStream);
+            BinaryOWLDocumentBodySerializerSelector selector = new BinaryOWLDocumentBodySerializerSelector();
+            BinaryOWLDocumentBodySerializer serializer = selector.getSerializerForVersion(preamble.getFileFormatVersion());
+            return serializer.readHeader(preamble, inputStream, OWLManager.getOWLDataFactory());
+        }
+        finally {
+            fis.close();
+        }
     }
 
+    /**
+     * Reads the signature of a binary OWL document stored in a file: the preamble, metadata, ontology ID, imports and
+     * the IRIs of the entities in the document.  Reading stops after the IRI table, so no axioms are decoded.
+     * @param file The file that contains the document.  Not {@code null}.
+     * @param df An {@link OWLDataFactory} that can be used to instantiate {@link org.semanticweb.owlapi.model.OWLObject}s.  Not {@code null}.
+     * @return The signature of the document.  Changes that have been appended to the document are not taken into
+     * account.
+     * @throws IOException If there was a problem reading from the file.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     */
+    public BinaryOWLOntologyDocumentSignature readSignature(File file, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        checkNotNull(file);
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            return readSignature(fis, df);
+        }
+        finally {
+            fis.close();
+        }
+    }
 
+    /**
+     * Reads the signature of a binary OWL document from an input stream.  The stream is not closed by this method.
+     * Unless it is a {@link ByteBufferInputStream}, it is read in blocks through a buffer, so it may have been read
+     * beyond the IRI table, up to the end of the document, and its position afterwards is undefined.  It should be
+     * closed or discarded rather than read from again.
+     * @see #readSignature(File, OWLDataFactory)
+     * @param inputStream The input stream to read the document from.  Not {@code null}.
+     */
+    public BinaryOWLOntologyDocumentSignature readSignature(InputStream inputStream, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        checkNotNull(inputStream);
+        checkNotNull(df);
+        ByteBufferInputStream bis;
+        if(inputStream instanceof ByteBufferInputStream) {
+            bis = (ByteBufferInputStream) inputStream;
+        }
+        else {
+            bis = new ChannelInputStream(inputStream);
+        }
+        BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble(bis);
+        BinaryOWLDocumentBodySerializerSelector selector = new BinaryOWLDocumentBodySerializerSelector();
+        BinaryOWLDocumentBodySerializer serializer = selector.getSerializerForVersion(preamble.getFileFormatVersion());
+        return serializer.readSignature(preamble, bis, df);
+    }
+
+
+    /**
+     * Writes a chunk of changes to a stream that is positioned at the end of a binary OWL document.  The stream cannot
+     * see whether the document ends with a change index footer (see
+     * {@link #indexOntologyChanges(File, OWLDataFactory)}), so an existing footer is left where it is and no longer
+     * covers the new chunk.  Readers skip such a footer and still read the chunk, but
+     * {@link #readOntologyChangesSince(File, long, OWLDataFactory, BinaryOWLOntologyDocumentAppendedChangeHandler)}
+     * then has to scan every chunk until the document is indexed again.  Use
+     * {@link #appendOntologyChanges(File, OntologyChangeDataList)} to keep the index up to date.
+     * @param dos The stream to write the chunk to.  Not {@code null}.
+     * @param changeRecords The changes to append.  Not {@code null}.
+     * @throws IOException If there was a problem writing to the stream.
+     */
     public void appendOntologyChanges(BinaryOWLOutputStream dos, OntologyChangeDataList changeRecords) throws IOException {
         dos.writeByte(BinaryOWLOntologyDocumentSerializer.CHUNK_FOLLOWS_MARKER);
         changeRecords.write(dos);
     }
 
+    /**
+     * Appends a chunk of changes to a binary OWL document stored in a file.  If the document has a change index (see
+     * {@link #indexOntologyChanges(File, OWLDataFactory)}) then the index is updated to include the new chunk.  The
+     * chunk is encoded for the format version recorded in the preamble of the document.  The file is locked whilst
+     * the chunk is appended, so this waits for other writers of the file, including
+     * {@link BinaryOWLOntologyDocumentCompactor}, to finish.
+     * @param file The file that contains the document.  Not {@code null}.
+     * @param changeRecords The changes to append.  Not {@code null}.
+     * @throws IOException If there was a problem writing to the file.
+     * @throws BinaryOWLParseException If the file does not start with a binary OWL document preamble.
+     */
     public void appendOntologyChanges(File file, OntologyChangeDataList changeRecords) throws IOException {
-        FileOutputStream fos = new FileOutputStream(file, true);
-        appendOntologyChanges(new BinaryOWLOutputStream(fos, BinaryOWLVersion.getVersion(1)), changeRecords);
-        fos.close();
+        checkNotNull(file);
+        checkNotNull(changeRecords);
+        BinaryOWLDocumentFileLock lock = new BinaryOWLDocumentFileLock(file);
+        try {
+            RandomAccessFile raf = lock.getFile();
+            BinaryOWLVersion version = new BinaryOWLOntologyDocumentPreamble(raf).getFileFormatVersion();
+            // The chunk is written once, and its size filled in afterwards
+            BackPatchableByteArrayOutputStream bos = new BackPatchableByteArrayOutputStream();
+            appendOntologyChanges(new BinaryOWLOutputStream(bos, version), changeRecords);
+            ChangeIndexFooter footer = readChangeIndexFooter(raf.getChannel());
+            long chunkOffset;
+            if(footer == null) {
+                chunkOffset = raf.length();
+            }
+            else {
+                // The new chunk goes where the footer was, and the footer is rewritten after it
+                chunkOffset = footer.getOffset();
+                List<ChangeIndexChunk.Entry> entries = new ArrayList<ChangeIndexChunk.Entry>(footer.getIndex().getEntries());
+                entries.add(new ChangeIndexChunk.Entry(chunkOffset, changeRecords.getTimestamp()));
+                writeChangeIndexFooter(new ChangeIndexChunk(entries), chunkOffset + bos.size(), bos);
+            }
+            raf.seek(chunkOffset);
+            ByteBuffer chunk = bos.asByteBuffer();
+            FileChannel channel = raf.getChannel();
+            while(chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+            raf.setLength(chunkOffset + bos.size());
+        }
+        finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Adds a change index footer to a binary OWL document stored in a file.  The footer records the offset and
+     * timestamp of every chunk of changes that has been appended to the document, and it is kept up to date by
+     * {@link #appendOntologyChanges(File, OntologyChangeDataList)}.  Readers can then use
+     * {@link #readOntologyChangesSince(File, long, OWLDataFactory, BinaryOWLOntologyDocumentAppendedChangeHandler)}
+     * to jump straight to recent changes.  If the document already has a footer then this method does nothing.  If
+     * the document ends with chunks that were appended after a footer without updating it, a new footer that covers
+     * every chunk is added at the end.
+     * <p>
+     *     The footer is not part of the original format, so indexed documents, whatever their format version, can
+     *     only be read by readers that know to skip it.  Readers that predate the footer stop with an error when they
+     *     reach it.
+     * </p>
+     * @param file The file that contains the document.  Not {@code null}.
+     * @param df An {@link OWLDataFactory} that can be used to instantiate {@link org.semanticweb.owlapi.model.OWLObject}s.  Not {@code null}.
+     * @throws IOException If there was a problem reading from or writing to the file.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     */
+    public void indexOntologyChanges(File file, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        checkNotNull(file);
+        checkNotNull(df);
+        BinaryOWLDocumentFileLock lock = new BinaryOWLDocumentFileLock(file);
+        try {
+            FileChannel channel = lock.getFile().getChannel();
+            if(readChangeIndexFooter(channel) != null) {
+                return;
+            }
+            ChannelInputStream inputStream = new ChannelInputStream(channel);
+            BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble(inputStream);
+            BinaryOWLDocumentBodySerializerSelector selector = new BinaryOWLDocumentBodySerializerSelector();
+            BinaryOWLDocumentBodySerializer serializer = selector.getSerializerForVersion(preamble.getFileFormatVersion());
+            serializer.skipBody(inputStream, df);
+            // Only the header of each chunk is read - the change data itself is skipped
+            List<ChangeIndexChunk.Entry> entries = new ArrayList<ChangeIndexChunk.Entry>();
+            long chunkOffset = inputStream.getPosition();
+            int marker = inputStream.read();
+            while(marker != -1) {
+                if(marker == CHUNK_FOLLOWS_MARKER) {
+                    int chunkSize = inputStream.readInt();
+                    int chunkType = inputStream.readInt();
+                    if(chunkType != OntologyChangeDataList.CHUNK_TYPE) {
+                        throw new BinaryOWLParseException("Expected change record chunk but found chunk type " + Integer.toHexString(chunkType));
+                    }
+                    long timestamp = inputStream.readLong();
+                    skipFully(inputStream, chunkSize - 8);
+                    entries.add(new ChangeIndexChunk.Entry(chunkOffset, timestamp));
+                }
+                else if(marker == CHANGE_INDEX_FOLLOWS_MARKER) {
+                    // A superseded footer, followed by chunks that were appended without updating it
+                    ChangeIndexChunk.skipFooter(inputStream);
+                }
+                else {
+                    throw new BinaryOWLParseException("Unexpected marker after change chunks: " + marker);
+                }
+                chunkOffset = inputStream.getPosition();
+                marker = inputStream.read();
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            writeChangeIndexFooter(new ChangeIndexChunk(entries), chunkOffset, new DataOutputStream(bos));
+            RandomAccessFile raf = lock.getFile();
+            raf.seek(chunkOffset);
+            raf.write(bos.toByteArray());
+        }
+        finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Reads the chunks of changes that were appended to a binary OWL document at or after a given time.  If the
+     * document has a change index then the reader seeks straight to the relevant chunks, otherwise the document body
+     * is skipped and every chunk is read.
+     * @param file The file that contains the document.  Not {@code null}.
+     * @param timestamp The time.  Chunks with an earlier timestamp are not passed to the handler.
+     * @param df An {@link OWLDataFactory} that can be used to instantiate {@link org.semanticweb.owlapi.model.OWLObject}s.  Not {@code null}.
+     * @param handler The handler that the chunks are passed to, in file order.  Not {@code null}.
+     * @throws IOException If there was a problem reading from the file.
+     * @throws BinaryOWLParseException If the binary OWL format was corrupt.
+     */
+    public void readOntologyChangesSince(File file, long timestamp, OWLDataFactory df, BinaryOWLOntologyDocumentAppendedChangeHandler handler) throws IOException, BinaryOWLParseException {
+        checkNotNull(file);
+        checkNotNull(df);
+        checkNotNull(handler);
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel channel = fis.getChannel();
+            ChannelInputStream inputStream = new ChannelInputStream(channel);
+            BinaryOWLOntologyDocumentPreamble preamble = new BinaryOWLOntologyDocumentPreamble(inputStream);
+            BinaryOWLInputStream changesInputStream = new BinaryOWLInputStream(inputStream, df, preamble.getFileFormatVersion());
+            ChangeIndexFooter footer = readChangeIndexFooter(channel);
+            if(footer != null) {
+                for(ChangeIndexChunk.Entry entry : footer.getIndex().getEntries()) {
+                    if(entry.getTimestamp() >= timestamp) {
+                        // Skip to the chunk itself, just after its marker
+                        skipFully(inputStream, entry.getOffset() + 1 - inputStream.getPosition());
+                        handler.handleChanges(new OntologyChangeDataList(changesInputStream));
+                    }
+                }
+            }
+            else {
+                BinaryOWLDocumentBodySerializerSelector selector = new BinaryOWLDocumentBodySerializerSelector();
+                BinaryOWLDocumentBodySerializer serializer = selector.getSerializerForVersion(preamble.getFileFormatVersion());
+                serializer.skipBody(inputStream, df);
+                int marker = inputStream.read();
+                while(marker != -1) {
+                    if(marker == CHUNK_FOLLOWS_MARKER) {
+                        OntologyChangeDataList list = new OntologyChangeDataList(changesInputStream);
+                        if(list.getTimestamp() >= timestamp) {
+                            handler.handleChanges(list);
+                        }
+                    }
+                    else if(marker == CHANGE_INDEX_FOLLOWS_MARKER) {
+                        ChangeIndexChunk.skipFooter(inputStream);
+                    }
+                    else {
+                        throw new BinaryOWLParseException("Unexpected marker after change chunks: " + marker);
+                    }
+                    marker = inputStream.read();
+                }
+            }
+        }
+        finally {
+            fis.close();
+        }
+    }
+
+    private static void writeChangeIndexFooter(ChangeIndexChunk index, long footerOffset, DataOutput dos) throws IOException {
+        dos.writeByte(CHANGE_INDEX_FOLLOWS_MARKER);
+        index.write(dos);
+        dos.writeLong(footerOffset);
+        dos.writeInt(ChangeIndexChunk.TRAILER_MAGIC);
+    }
+
+    /**
+     * Reads the change index footer at the end of a file, without moving the position of the channel.
+     * @return The footer, or {@code null} if the file does not end with a change index footer.
+     */
+    private static ChangeIndexFooter readChangeIndexFooter(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if(size < ChangeIndexChunk.TRAILER_SIZE + 1) {
+            return null;
+        }
+        ByteBuffer trailer = readFully(channel, size - ChangeIndexChunk.TRAILER_SIZE, ChangeIndexChunk.TRAILER_SIZE);
+        long footerOffset = trailer.getLong();
+        int magic = trailer.getInt();
+        long footerLength = size - ChangeIndexChunk.TRAILER_SIZE - footerOffset;
+        if(magic != ChangeIndexChunk.TRAILER_MAGIC || footerOffset < 0 || footerLength < 1 || footerLength > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBufferInputStream footerInputStream = new ByteBufferInputStream(readFully(channel, footerOffset, (int) footerLength));
+        if(footerInputStream.readByte() != CHANGE_INDEX_FOLLOWS_MARKER) {
+            return null;
+        }
+        try {
+            return new ChangeIndexFooter(footerOffset, new ChangeIndexChunk(footerInputStream));
+        }
+        catch (BinaryOWLParseException e) {
+            return null;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) == -1) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void skipFully(InputStream inputStream, long n) throws IOException, BinaryOWLParseException {
+        if(n < 0) {
+            throw new BinaryOWLParseException("Corrupt change index: chunk offsets are out of order");
+        }
+        if(inputStream.skip(n) != n) {
+            throw new EOFException();
+        }
+    }
+
+    /**
+     * A change index and the offset of the footer that contains it.
+     */
+    private static final class ChangeIndexFooter {
+
+        private final long offset;
+
+        private final ChangeIndexChunk index;
+
+        private ChangeIndexFooter(long offset, ChangeIndexChunk index) {
+            this.offset = offset;
+            this.index = index;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public ChangeIndexChunk getIndex() {
+            return index;
+        }
     }
 
 
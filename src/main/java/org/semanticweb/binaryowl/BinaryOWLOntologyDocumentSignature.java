@@ -0,0 +1,66 @@
+package org.semanticweb.binaryowl;
+
+import com.google.common.collect.ImmutableSet;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     The header of a binary OWL document together with the IRIs of the entities in its signature.  This is
+ *     everything that precedes the axioms of a document, so it can be read without decoding any axioms.
+ * </p>
+ * <p>
+ *     The IRI table of a document does not record the types of the entities that it names, so the signature is a
+ *     set of IRIs rather than a set of entities.  The signature is that of the initial document block - changes
+ *     appended to the document are not taken into account.
+ * </p>
+ */
+public final class BinaryOWLOntologyDocumentSignature {
+
+    private final BinaryOWLOntologyDocumentPreamble preamble;
+
+    private final BinaryOWLMetadata metadata;
+
+    private final OWLOntologyID ontologyID;
+
+    private final ImmutableSet<OWLImportsDeclaration> importsDeclarations;
+
+    private final ImmutableSet<IRI> iris;
+
+    public BinaryOWLOntologyDocumentSignature(BinaryOWLOntologyDocumentPreamble preamble, BinaryOWLMetadata metadata, OWLOntologyID ontologyID, Set<OWLImportsDeclaration> importsDeclarations, Set<IRI> iris) {
+        this.preamble = checkNotNull(preamble);
+        this.metadata = checkNotNull(metadata);
+        this.ontologyID = checkNotNull(ontologyID);
+        this.importsDeclarations = ImmutableSet.copyOf(importsDeclarations);
+        this.iris = ImmutableSet.copyOf(iris);
+    }
+
+    public BinaryOWLOntologyDocumentPreamble getPreamble() {
+        return preamble;
+    }
+
+    public BinaryOWLMetadata getMetadata() {
+        return metadata;
+    }
+
+    public OWLOntologyID getOntologyID() {
+        return ontologyID;
+    }
+
+    public Set<OWLImportsDeclaration> getImportsDeclarations() {
+        return importsDeclarations;
+    }
+
+    /**
+     * Gets the IRIs of the entities in the signature of the document.
+     * @return The IRIs, in the order in which they appear in the IRI table of the document.
+     */
+    public Set<IRI> getIRIs() {
+        return iris;
+    }
+}
@@ -0,0 +1,123 @@
+package org.semanticweb.binaryowl;
+
+import com.google.common.collect.ImmutableSet;
+import org.semanticweb.owlapi.model.AxiomType;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     Options that control how binary OWL documents are read.  Instances are immutable - the {@code with} methods
+ *     return modified copies.
+ * </p>
+ */
+public final class BinaryOWLReaderConfiguration {
+
+    /**
+     * The default maximum number of axioms passed to a {@link BinaryOWLOntologyDocumentAxiomStreamHandler} at once.
+     */
+    public static final int DEFAULT_AXIOM_BATCH_SIZE = 1024;
+
+    private final ExecutorService executor;
+
+    private final int axiomBatchSize;
+
+    private final ImmutableSet<AxiomType<?>> axiomTypes;
+
+    /**
+     * Creates a configuration with the default options.  Documents are decoded entirely on the calling thread, and
+     * axioms of every type are read.
+     */
+    public BinaryOWLReaderConfiguration() {
+        this(null, DEFAULT_AXIOM_BATCH_SIZE, null);
+    }
+
+    private BinaryOWLReaderConfiguration(ExecutorService executor, int axiomBatchSize, ImmutableSet<AxiomType<?>> axiomTypes) {
+        this.executor = executor;
+        this.axiomBatchSize = axiomBatchSize;
+        this.axiomTypes = axiomTypes;
+    }
+
+    /**
+     * Gets the executor that axiom tables are decoded on.
+     * @return The executor, or {@code null} if axiom tables are decoded on the calling thread.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns a copy of this configuration which decodes the axiom tables of a document concurrently, using the
+     * specified executor.  (On Java 7 and later a {@code ForkJoinPool} may be used.)  Only documents that record the
+     * length of each axiom table (version 3 and later) can be decoded concurrently; other documents are decoded on
+     * the calling thread.  Handlers are always called on the calling thread, and axiom tables are passed to
+     * {@link BinaryOWLOntologyDocumentHandler#handleAxioms(java.util.Set)} in document order.
+     * @param executor The executor.  Not {@code null}.  The executor is not shut down by the reader.
+     * @return The modified configuration.
+     */
+    public BinaryOWLReaderConfiguration withExecutor(ExecutorService executor) {
+        return new BinaryOWLReaderConfiguration(checkNotNull(executor), axiomBatchSize, axiomTypes);
+    }
+
+    /**
+     * Returns a copy of this configuration which decodes everything on the calling thread.
+     * @return The modified configuration.
+     */
+    public BinaryOWLReaderConfiguration withoutExecutor() {
+        return new BinaryOWLReaderConfiguration(null, axiomBatchSize, axiomTypes);
+    }
+
+    /**
+     * Gets the maximum number of axioms that are passed to a {@link BinaryOWLOntologyDocumentAxiomStreamHandler} in
+     * one batch.
+     * @return The batch size.  Always greater than zero.
+     */
+    public int getAxiomBatchSize() {
+        return axiomBatchSize;
+    }
+
+    /**
+     * Returns a copy of this configuration with the specified axiom batch size.
+     * @param axiomBatchSize The maximum number of axioms passed to a {@link BinaryOWLOntologyDocumentAxiomStreamHandler}
+     *                       in one batch.  Must be greater than zero.
+     * @return The modified configuration.
+     */
+    public BinaryOWLReaderConfiguration withAxiomBatchSize(int axiomBatchSize) {
+        checkArgument(axiomBatchSize > 0, "axiomBatchSize must be greater than zero");
+        return new BinaryOWLReaderConfiguration(executor, axiomBatchSize, axiomTypes);
+    }
+
+    /**
+     * Determines whether the axiom table for a given axiom type should be read.
+     * @param axiomType The axiom type.
+     * @return {@code true} if axioms of the type are passed to the handler, {@code false} if their table is skipped.
+     */
+    public boolean isAxiomTypeIncluded(AxiomType<?> axiomType) {
+        return axiomTypes == null || axiomTypes.contains(axiomType);
+    }
+
+    /**
+     * Returns a copy of this configuration which only reads the axiom tables for the specified axiom types.  The
+     * tables for other types are skipped without building any objects: documents that record the length of each
+     * table (version 3 and later) jump straight over them; older documents are skipped structurally.  The filter
+     * applies to the initial document block - changes appended to the document are passed to the handler as they
+     * are.
+     * @param axiomTypes The axiom types to read.  Not {@code null}.
+     * @return The modified configuration.
+     */
+    public BinaryOWLReaderConfiguration withAxiomTypes(Set<? extends AxiomType<?>> axiomTypes) {
+        return new BinaryOWLReaderConfiguration(executor, axiomBatchSize, ImmutableSet.<AxiomType<?>>copyOf(checkNotNull(axiomTypes)));
+    }
+
+    /**
+     * Returns a copy of this configuration which reads axioms of every type.
+     * @return The modified configuration.
+     */
+    public BinaryOWLReaderConfiguration withAllAxiomTypes() {
+        return new BinaryOWLReaderConfiguration(executor, axiomBatchSize, null);
+    }
+}
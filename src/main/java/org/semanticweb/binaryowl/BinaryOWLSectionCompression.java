@@ -0,0 +1,23 @@
+package org.semanticweb.binaryowl;
+
+/**
+ * <p>
+ *     Determines whether the sections of a document (the IRI table, the ontology annotations and the axiom tables) are
+ *     compressed.  Each section is compressed on its own, so a reader can still jump straight to any section through
+ *     the section directory, and sections can be decompressed concurrently.  Only documents of version 5 and later can
+ *     contain compressed sections - the option is ignored when writing earlier versions.
+ * </p>
+ */
+public enum BinaryOWLSectionCompression {
+
+    /**
+     * Sections are stored as they are encoded.
+     */
+    NONE,
+
+    /**
+     * Sections are compressed with the deflate algorithm ({@link java.util.zip.Deflater}).  Sections that are very
+     * small, or that would not get any smaller, are stored as they are.
+     */
+    DEFLATE
+}
@@ -34,6 +34,86 @@ public final class BinaryOWLVersion {
         return version;
     }
 
+    /**
+     * Determines whether counts, indices and lengths are written as variable length integers (see
+     * {@link org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil#writeVarInt(int, java.io.DataOutput)}) rather than
+     * as fixed size ints.  This is the case from version 4 onwards.
+     * @return {@code true} if variable length integers are used, otherwise {@code false}.
+     */
+    public boolean isVarIntEncoded() {
+        return version >= 4;
+    }
+
+    /**
+     * Determines whether the sections of a document start with a marker that says whether they are compressed (see
+     * {@link BinaryOWLSectionCompression}).  This is the case from version 5 onwards.
+     * @return {@code true} if sections may be compressed, otherwise {@code false}.
+     */
+    public boolean isSectionCompressionSupported() {
+        return version >= 5;
+    }
+
+    /**
+     * Determines whether the IRI table of a document is a sorted, front coded dictionary (see
+     * {@link org.semanticweb.binaryowl.lookup.FrontCodedIRIDictionary}).  This is the case from version 6 onwards.
+     * @return {@code true} if the IRI table is front coded, otherwise {@code false}.
+     */
+    public boolean isIRITableFrontCoded() {
+        return version >= 6;
+    }
+
+    /**
+     * Determines whether literals that occur more than once in a document are written once, in the literal table,
+     * and referred to by index (see {@link org.semanticweb.binaryowl.lookup.LiteralLookupTable}).  This is the case
+     * from version 7 onwards.
+     * @return {@code true} if literals are interned, otherwise {@code false}.
+     */
+    public boolean isLiteralTableInterned() {
+        return version >= 7;
+    }
+
+    /**
+     * Determines whether anonymous class expressions that are repeated within a stream are written as back-references
+     * to their first occurrence (see {@link org.semanticweb.binaryowl.owlobject.OWLObjectBinaryType#BACK_REFERENCE_MARKER}).
+     * This is the case from version 8 onwards.
+     * @return {@code true} if repeated class expressions are back-referenced, otherwise {@code false}.
+     */
+    public boolean isClassExpressionBackReferenced() {
+        return version >= 8;
+    }
+
+    /**
+     * Determines whether typed literals with common numeric and date-time datatypes are written in binary form rather
+     * than as a datatype IRI and lexical form (see
+     * {@link org.semanticweb.binaryowl.owlobject.serializer.OWLLiteralSerializer}).  This is the case from version 9
+     * onwards.
+     * @return {@code true} if typed literals are natively encoded, otherwise {@code false}.
+     */
+    public boolean isTypedLiteralNativelyEncoded() {
+        return version >= 9;
+    }
+
+    /**
+     * Determines whether the IRI table of a document has a separate front coded dictionary for each type of entity,
+     * with entities written as indices into the dictionary for their type (see
+     * {@link org.semanticweb.binaryowl.lookup.IRILookupTable}).  This is the case from version 10 onwards.
+     * @return {@code true} if the IRI table is partitioned by entity type, otherwise {@code false}.
+     */
+    public boolean isIRITablePartitioned() {
+        return version >= 10;
+    }
+
+    /**
+     * Determines whether the type marker of an axiom says whether the axiom has annotations, so that nothing is
+     * written for the annotations of an axiom that has none (see
+     * {@link org.semanticweb.binaryowl.owlobject.OWLObjectBinaryType#ANNOTATED_AXIOM_FLAG}).  This is the case from
+     * version 11 onwards.
+     * @return {@code true} if axiom type markers carry an annotation flag, otherwise {@code false}.
+     */
+    public boolean isAxiomAnnotationFlagged() {
+        return version >= 11;
+    }
+
     @Override
     public int hashCode() {
         return "BinaryOWLVersion".hashCode() + version;
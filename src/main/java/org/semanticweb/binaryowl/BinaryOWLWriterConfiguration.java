@@ -0,0 +1,97 @@
+package org.semanticweb.binaryowl;
+
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     Options that control how binary OWL documents are written.  Instances are immutable - the {@code with} methods
+ *     return modified copies.
+ * </p>
+ */
+public final class BinaryOWLWriterConfiguration {
+
+    private final ExecutorService executor;
+
+    private final BinaryOWLAxiomOrdering axiomOrdering;
+
+    private final BinaryOWLSectionCompression sectionCompression;
+
+    /**
+     * Creates a configuration with the default options.  Documents are encoded entirely on the calling thread, axioms
+     * are written in {@link BinaryOWLAxiomOrdering#STRUCTURAL structural} order, and sections are not compressed.
+     */
+    public BinaryOWLWriterConfiguration() {
+        this(null, BinaryOWLAxiomOrdering.STRUCTURAL, BinaryOWLSectionCompression.NONE);
+    }
+
+    private BinaryOWLWriterConfiguration(ExecutorService executor, BinaryOWLAxiomOrdering axiomOrdering, BinaryOWLSectionCompression sectionCompression) {
+        this.executor = executor;
+        this.axiomOrdering = axiomOrdering;
+        this.sectionCompression = sectionCompression;
+    }
+
+    /**
+     * Gets the executor that axiom tables are encoded on.
+     * @return The executor, or {@code null} if axiom tables are encoded on the calling thread.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns a copy of this configuration which sorts and encodes the axiom tables of a document concurrently, using
+     * the specified executor.  The document that is written is byte-for-byte the same as one written on the calling
+     * thread.  Axiom tables that contain anonymous individuals are always encoded on the calling thread.  Sections are
+     * also compressed concurrently.
+     * @param executor The executor.  Not {@code null}.  The executor is not shut down by the writer.
+     * @return The modified configuration.
+     */
+    public BinaryOWLWriterConfiguration withExecutor(ExecutorService executor) {
+        return new BinaryOWLWriterConfiguration(checkNotNull(executor), axiomOrdering, sectionCompression);
+    }
+
+    /**
+     * Returns a copy of this configuration which encodes everything on the calling thread.
+     * @return The modified configuration.
+     */
+    public BinaryOWLWriterConfiguration withoutExecutor() {
+        return new BinaryOWLWriterConfiguration(null, axiomOrdering, sectionCompression);
+    }
+
+    /**
+     * Gets the order in which the axioms of each axiom table are written.
+     * @return The ordering.  Not {@code null}.
+     */
+    public BinaryOWLAxiomOrdering getAxiomOrdering() {
+        return axiomOrdering;
+    }
+
+    /**
+     * Returns a copy of this configuration which writes axioms in the specified order.
+     * @param axiomOrdering The ordering.  Not {@code null}.
+     * @return The modified configuration.
+     */
+    public BinaryOWLWriterConfiguration withAxiomOrdering(BinaryOWLAxiomOrdering axiomOrdering) {
+        return new BinaryOWLWriterConfiguration(executor, checkNotNull(axiomOrdering), sectionCompression);
+    }
+
+    /**
+     * Gets how the sections of a document are compressed.
+     * @return The compression.  Not {@code null}.
+     */
+    public BinaryOWLSectionCompression getSectionCompression() {
+        return sectionCompression;
+    }
+
+    /**
+     * Returns a copy of this configuration which compresses the sections of a document as specified.  Compression
+     * only applies to documents of version 5 and later.
+     * @param sectionCompression The compression.  Not {@code null}.
+     * @return The modified configuration.
+     */
+    public BinaryOWLWriterConfiguration withSectionCompression(BinaryOWLSectionCompression sectionCompression) {
+        return new BinaryOWLWriterConfiguration(executor, axiomOrdering, checkNotNull(sectionCompression));
+    }
+}
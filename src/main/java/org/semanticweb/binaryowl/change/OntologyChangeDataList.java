@@ -42,6 +42,7 @@ package org.semanticweb.binaryowl.change;
 import org.semanticweb.binaryowl.BinaryOWLMetadata;
 import org.semanticweb.binaryowl.BinaryOWLParseException;
 import org.semanticweb.binaryowl.chunk.ChunkUtil;
+import org.semanticweb.binaryowl.chunk.ChunkWriter;
 import org.semanticweb.binaryowl.chunk.TimeStampedMetadataChunk;
 import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
 import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
@@ -50,8 +51,6 @@ import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -141,16 +140,14 @@ public class OntologyChangeDataList implements TimeStampedMetadataChunk, Iterabl
 
 
     public void write(BinaryOWLOutputStream dos) throws IOException {
-
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        BinaryOWLOutputStream buffer = new BinaryOWLOutputStream(bos, dos.getVersion());
-        buffer.writeLong(timestamp);
-        writeMetadata(buffer);
-        writeChangeRecordData(buffer);
-
-        dos.writeInt(bos.size());
-        dos.writeInt(CHUNK_TYPE);
-        bos.writeTo(dos);
+        ChunkWriter.writeChunk(dos, CHUNK_TYPE, new ChunkWriter.Payload() {
+            @Override
+            public void write(BinaryOWLOutputStream outputStream) throws IOException {
+                outputStream.writeLong(timestamp);
+                writeMetadata(outputStream);
+                writeChangeRecordData(outputStream);
+            }
+        });
     }
 
 
@@ -171,7 +168,7 @@ public class OntologyChangeDataList implements TimeStampedMetadataChunk, Iterabl
 
     private List<OWLOntologyChangeData> readChangeRecordData(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
         int recordSizeInBytes = inputStream.readInt();
-        int listSize = inputStream.readInt();
+        int listSize = inputStream.readCompactInt();
         List<OWLOntologyChangeData> list = new ArrayList<OWLOntologyChangeData>(listSize + 2);
         for(int i = 0; i < listSize; i++) {
             OWLOntologyChangeData representative = OntologyChangeDataType.read(inputStream);
@@ -188,36 +185,29 @@ public class OntologyChangeDataList implements TimeStampedMetadataChunk, Iterabl
     }
 
     private void writeMetadata(BinaryOWLOutputStream mainOutputStream) throws IOException {
-        ByteArrayOutputStream metadataByteOutputStream = new ByteArrayOutputStream();
-        DataOutputStream metaDataOutputStream = new DataOutputStream(metadataByteOutputStream);
-        BinaryOWLOutputStream metadataOWLOutputStream = new BinaryOWLOutputStream(metaDataOutputStream, mainOutputStream.getVersion());
-        metadata.write(metadataOWLOutputStream);
-
-        // Size of metadata in bytes
-        int recordSize = metaDataOutputStream.size();
-        mainOutputStream.writeInt(recordSize);
-        // Actual metadata
-        metadataByteOutputStream.writeTo(mainOutputStream);
+        // Size of metadata in bytes, followed by the actual metadata
+        ChunkWriter.writeSizedRecord(mainOutputStream, new ChunkWriter.Payload() {
+            @Override
+            public void write(BinaryOWLOutputStream outputStream) throws IOException {
+                metadata.write(outputStream);
+            }
+        });
     }
 
 
 
-    @SuppressWarnings("unchecked")
     private void writeChangeRecordData(BinaryOWLOutputStream mainOutputStream) throws IOException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        DataOutputStream changeRecordDataOutputStream = new DataOutputStream(byteArrayOutputStream);
-        BinaryOWLOutputStream dataOWLOutputStream = new BinaryOWLOutputStream(changeRecordDataOutputStream, mainOutputStream.getVersion());
-        // Change List
-        changeRecordDataOutputStream.writeInt(list.size());
-        for(OWLOntologyChangeData Data : list) {
-            OntologyChangeDataType.write(Data, dataOWLOutputStream);
-        }
-
-        // Size of changes in bytes
-        int size = changeRecordDataOutputStream.size();
-        mainOutputStream.writeInt(size);
-        // Actual changes
-        byteArrayOutputStream.writeTo(mainOutputStream);
+        // Size of changes in bytes, followed by the actual changes
+        ChunkWriter.writeSizedRecord(mainOutputStream, new ChunkWriter.Payload() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void write(BinaryOWLOutputStream outputStream) throws IOException {
+                outputStream.writeCompactInt(list.size());
+                for(OWLOntologyChangeData Data : list) {
+                    OntologyChangeDataType.write(Data, outputStream);
+                }
+            }
+        });
     }
 
 }
@@ -41,7 +41,9 @@ package org.semanticweb.binaryowl.change;
 
 import org.semanticweb.binaryowl.BinaryOWLMetadata;
 import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
 import org.semanticweb.binaryowl.chunk.ChunkUtil;
+import org.semanticweb.binaryowl.chunk.ChunkWriter;
 import org.semanticweb.binaryowl.chunk.SkipSetting;
 import org.semanticweb.binaryowl.chunk.TimeStampedMetadataChunk;
 import org.semanticweb.binaryowl.lookup.IRILookupTable;
@@ -53,8 +55,6 @@ import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
 
@@ -66,6 +66,11 @@ import java.util.*;
  * <p>
  *     Represents a list of {@link OWLOntologyChangeRecord}s with a timestamp and metadata.
  * </p>
+ * <p>
+ *     Lists written to a stream for format version 4 or later use record format 3, which is record format 2 with
+ *     everything after the format number encoded using the variable length integers of version 4.  Otherwise lists
+ *     are written with record format 2.
+ * </p>
  */
 public class OntologyChangeRecordList implements TimeStampedMetadataChunk {
     
@@ -73,6 +78,13 @@ public class OntologyChangeRecordList implements TimeStampedMetadataChunk {
 
     private static final short VERSION_2 = 2;
 
+    private static final short VERSION_3 = 3;
+
+    /**
+     * The document format version whose encoding rules are used for the body of {@link #VERSION_3} records.
+     */
+    private static final BinaryOWLVersion VERSION_3_ENCODING = BinaryOWLVersion.getVersion(4);
+
     public static final int CHUNK_TYPE_MARKER = ChunkUtil.toInt("ochr");
 
     private long timestamp;
@@ -145,46 +157,53 @@ public class OntologyChangeRecordList implements TimeStampedMetadataChunk {
     }
     
     public void write(BinaryOWLOutputStream os) throws IOException {
-        ByteArrayOutputStream buf = new ByteArrayOutputStream();
-        DataOutputStream bufDataOutputStream = new DataOutputStream(buf);
-
-        // TODO: Lookup table should go here - VERSION 2
-        IRILookupTable iriLookupTable = new IRILookupTable(getChangeSignature());
-        LookupTable lookupTable = new LookupTable(iriLookupTable);
-        BinaryOWLOutputStream bufOWLOutputStream = new BinaryOWLOutputStream(bufDataOutputStream, lookupTable);
+        // Size, Type, Data
+        ChunkWriter.writeChunk(os, CHUNK_TYPE_MARKER, new ChunkWriter.Payload() {
+            @Override
+            public void write(BinaryOWLOutputStream outputStream) throws IOException {
+                writeData(outputStream);
+            }
+        });
+    }
 
+    private void writeData(BinaryOWLOutputStream outputStream) throws IOException {
         // Record format version
-        bufDataOutputStream.writeShort(VERSION_2);
+        if(outputStream.getVersion().isVarIntEncoded()) {
+            outputStream.writeShort(VERSION_3);
+            writeRecords(new BinaryOWLOutputStream(outputStream, LookupTable.emptyLookupTable(), VERSION_3_ENCODING));
+        }
+        else {
+            outputStream.writeShort(VERSION_2);
+            writeRecords(outputStream);
+        }
+    }
+
+    private void writeRecords(BinaryOWLOutputStream outputStream) throws IOException {
+        IRILookupTable iriLookupTable = new IRILookupTable(getChangeSignature(), outputStream.getVersion());
+        LookupTable lookupTable = new LookupTable(iriLookupTable);
+        BinaryOWLOutputStream runOutputStream = new BinaryOWLOutputStream(outputStream, lookupTable, outputStream.getVersion());
 
         // LookupTable
-        lookupTable.getIRILookupTable().write(bufDataOutputStream);
+        lookupTable.getIRILookupTable().write(outputStream);
 
         // Timestamp
-        bufDataOutputStream.writeLong(timestamp);
-        
+        outputStream.writeLong(timestamp);
+
         // Metadata:  Size and Data
-        ByteArrayOutputStream metadataBuffer = new ByteArrayOutputStream();
-        DataOutputStream metadataDataOutputStream = new DataOutputStream(metadataBuffer);
-        BinaryOWLOutputStream metadataOWLOutputStream = new BinaryOWLOutputStream(metadataDataOutputStream, os.getVersion());
-        metadata.write(metadataOWLOutputStream);
-        bufDataOutputStream.writeInt(metadataBuffer.size());
-        metadataBuffer.writeTo(bufDataOutputStream);
+        ChunkWriter.writeSizedRecord(outputStream, new ChunkWriter.Payload() {
+            @Override
+            public void write(BinaryOWLOutputStream metadataOutputStream) throws IOException {
+                metadata.write(metadataOutputStream);
+            }
+        });
 
         // Split into runs - saves us repeatedly storing the same ontology id.
         List<OntologyChangeRecordRun> runs = getRuns();
 
-        bufDataOutputStream.writeInt(runs.size());
+        outputStream.writeCompactInt(runs.size());
         for(OntologyChangeRecordRun run : runs) {
-            run.write(bufOWLOutputStream);
+            run.write(runOutputStream);
         }
-        bufOWLOutputStream.flush();
-
-
-        // Size, Type, Data
-        final int bufferSize = buf.size();
-        os.writeInt(bufferSize);
-        os.writeInt(CHUNK_TYPE_MARKER);
-        buf.writeTo(os);
     }
 
     /**
@@ -247,12 +266,14 @@ public class OntologyChangeRecordList implements TimeStampedMetadataChunk {
 
         // Record format version
         short versionNumber = inputStream.readShort();
-        // For the moment we can only handle version 1 stuff
-        if(versionNumber != VERSION_1 && versionNumber != VERSION_2) {
-            throw new BinaryOWLParseException("Invalid version specifier.  Found 0x" + Integer.toHexString(versionNumber) + " but expected 0x" + Integer.toHexString(VERSION_1) + " or 0x" + Integer.toHexString(VERSION_2));
+        if(versionNumber != VERSION_1 && versionNumber != VERSION_2 && versionNumber != VERSION_3) {
+            throw new BinaryOWLParseException("Invalid version specifier.  Found 0x" + Integer.toHexString(versionNumber) + " but expected 0x" + Integer.toHexString(VERSION_1) + ", 0x" + Integer.toHexString(VERSION_2) + " or 0x" + Integer.toHexString(VERSION_3));
+        }
+        if(versionNumber == VERSION_3) {
+            inputStream = inputStream.withVersion(VERSION_3_ENCODING);
         }
 
-        if(versionNumber == VERSION_2) {
+        if(versionNumber != VERSION_1) {
             IRILookupTable iriLookupTable = inputStream.readIRILookupTable();
             LookupTable lookupTable = new LookupTable(iriLookupTable);
             inputStream.pushLookupTable(lookupTable);
@@ -278,13 +299,13 @@ public class OntologyChangeRecordList implements TimeStampedMetadataChunk {
             changeRecords = Collections.unmodifiableList(readRecords(inputStream));
         }
 
-        if(versionNumber == VERSION_2) {
+        if(versionNumber != VERSION_1) {
             inputStream.popLookupTable();
         }
     }
 
     private static List<OWLOntologyChangeRecord> readRecords(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
-        int numberOfRuns = inputStream.readInt();
+        int numberOfRuns = inputStream.readCompactInt();
         List<OWLOntologyChangeRecord> records = new ArrayList<OWLOntologyChangeRecord>(numberOfRuns + 1);
         for(int i = 0; i < numberOfRuns; i++) {
             OntologyChangeRecordRun run = new OntologyChangeRecordRun(inputStream);
@@ -83,7 +83,7 @@ public class OntologyChangeRecordRun {
         BinaryOWLOntologyID serializer = new BinaryOWLOntologyID(ontologyID);
         serializer.write(outputStream);
 
-        outputStream.writeInt(records.size());
+        outputStream.writeCompactInt(records.size());
         for(OWLOntologyChangeData info : records) {
             OntologyChangeDataType.write(info, outputStream);
         }
@@ -92,7 +92,7 @@ public class OntologyChangeRecordRun {
     private void read(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
         BinaryOWLOntologyID idSerializer = new BinaryOWLOntologyID(inputStream);
         ontologyID = idSerializer.getOntologyID();
-        int recordCount = inputStream.readInt();
+        int recordCount = inputStream.readCompactInt();
         records = new ArrayList<OWLOntologyChangeData>(recordCount + 1);
         for(int i = 0; i < recordCount; i++) {
             OWLOntologyChangeData info = OntologyChangeDataType.read(inputStream);
@@ -44,7 +44,6 @@ import org.semanticweb.binaryowl.BinaryOWLParseException;
 import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
 import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 /**
@@ -73,13 +72,11 @@ public class BinaryOWLMetadataChunk {
     }
     
     public void write(BinaryOWLOutputStream outputStream) throws IOException {
-
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        metadata.write(new BinaryOWLOutputStream(buffer, outputStream.getVersion()));
-
-        outputStream.writeInt(buffer.size());
-        outputStream.writeInt(CHUNK_TYPE);
-
-        buffer.writeTo(outputStream);
+        ChunkWriter.writeChunk(outputStream, CHUNK_TYPE, new ChunkWriter.Payload() {
+            @Override
+            public void write(BinaryOWLOutputStream payloadOutputStream) throws IOException {
+                metadata.write(payloadOutputStream);
+            }
+        });
     }
 }
@@ -0,0 +1,133 @@
+package org.semanticweb.binaryowl.chunk;
+
+import org.semanticweb.binaryowl.BinaryOWLParseException;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ *     An index of the change chunks that have been appended to a document.  Each entry records the file offset of a
+ *     chunk (the offset of the marker byte that precedes it) and the timestamp of the chunk, so that a reader can seek
+ *     directly to the changes made after a given time.
+ * </p>
+ * <p>
+ *     The index is stored in an optional footer at the very end of a document:
+ *     <ol>
+ *         <li>{@link org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer#CHANGE_INDEX_FOLLOWS_MARKER}</li>
+ *         <li>The index chunk</li>
+ *         <li>A trailer of {@link #TRAILER_SIZE} bytes: the offset of the marker byte as a long, followed by
+ *         {@link #TRAILER_MAGIC}</li>
+ *     </ol>
+ *     The footer is rewritten each time a chunk is appended to a file.  Chunks that are appended to a stream are
+ *     written after the footer, which readers skip (see {@link #skipFooter(InputStream)}).  Readers that predate the
+ *     footer cannot read indexed documents.
+ * </p>
+ */
+public class ChangeIndexChunk {
+
+    public static final int CHUNK_TYPE = ChunkUtil.toInt("boci");
+
+    public static final int TRAILER_MAGIC = ChunkUtil.toInt("BOCI");
+
+    public static final int TRAILER_SIZE = 8 + 4;
+
+    private static final int ENTRY_SIZE = 8 + 8;
+
+    private final List<Entry> entries;
+
+    public ChangeIndexChunk(List<Entry> entries) {
+        this.entries = new ArrayList<Entry>(entries);
+    }
+
+    public ChangeIndexChunk(DataInput dataInput) throws IOException, BinaryOWLParseException {
+        int chunkSize = dataInput.readInt();
+        int chunkType = dataInput.readInt();
+        if(chunkType != CHUNK_TYPE) {
+            throw new BinaryOWLParseException("Expected change index chunk but found chunk type " + Integer.toHexString(chunkType));
+        }
+        int count = dataInput.readInt();
+        if(chunkSize != 4 + count * ENTRY_SIZE) {
+            throw new BinaryOWLParseException("Corrupt change index: size " + chunkSize + " does not match " + count + " entries");
+        }
+        entries = new ArrayList<Entry>(count);
+        for(int i = 0; i < count; i++) {
+            long offset = dataInput.readLong();
+            long timestamp = dataInput.readLong();
+            entries.add(new Entry(offset, timestamp));
+        }
+    }
+
+    /**
+     * Gets the entries in this index, in file order.
+     * @return The entries.
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Moves past a change index footer whose marker byte has already been read.  A footer is normally the last thing
+     * in a document, but chunks that were appended by a writer that did not update the index follow the footer that
+     * was there at the time, which readers skip.
+     * @param inputStream The stream to skip the footer in.
+     * @throws IOException If there was a problem reading from the stream.
+     * @throws BinaryOWLParseException If the footer is corrupt.
+     */
+    public static void skipFooter(InputStream inputStream) throws IOException, BinaryOWLParseException {
+        DataInputStream dataInput = new DataInputStream(inputStream);
+        new ChangeIndexChunk(dataInput);
+        dataInput.readLong();
+        if(dataInput.readInt() != TRAILER_MAGIC) {
+            throw new BinaryOWLParseException("Corrupt change index: missing trailer");
+        }
+    }
+
+    public void write(DataOutput dataOutput) throws IOException {
+        dataOutput.writeInt(4 + entries.size() * ENTRY_SIZE);
+        dataOutput.writeInt(CHUNK_TYPE);
+        dataOutput.writeInt(entries.size());
+        for(Entry entry : entries) {
+            dataOutput.writeLong(entry.getOffset());
+            dataOutput.writeLong(entry.getTimestamp());
+        }
+    }
+
+    /**
+     * Describes the position and timestamp of one appended change chunk.
+     */
+    public static final class Entry {
+
+        private final long offset;
+
+        private final long timestamp;
+
+        public Entry(long offset, long timestamp) {
+            this.offset = offset;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * Gets the offset of the chunk from the start of the document.
+         * @return The offset of the marker byte that precedes the chunk.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry(" + offset + " " + timestamp + ")";
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.semanticweb.binaryowl.chunk;
+
+import org.semanticweb.binaryowl.lookup.LookupTable;
+import org.semanticweb.binaryowl.stream.BackPatchableByteArrayOutputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ *     Writes chunks and sized records, both of which are prefixed with the length of their payload in bytes.
+ * </p>
+ * <p>
+ *     If the output is back-patchable (see {@link BinaryOWLOutputStream#isBackPatchable()}) then the length is
+ *     reserved, the payload is written straight to the output, and the length is filled in afterwards, so the payload
+ *     is encoded exactly once and never copied.  Records nested within a chunk are therefore written in place too.
+ *     Otherwise the payload is encoded into a per-thread buffer, which is reused from one chunk to the next, and
+ *     copied to the output in a single write.  Either way the bytes written are the same.
+ * </p>
+ */
+public final class ChunkWriter {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Buffers that grow larger than this are dropped after use rather than being held on to by the thread.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<BackPatchableByteArrayOutputStream> retainedBuffer = new ThreadLocal<BackPatchableByteArrayOutputStream>();
+
+    private ChunkWriter() {
+    }
+
+    /**
+     * Writes a chunk: the size of the payload (an int), the chunk type (an int), and then the payload.
+     * @param outputStream The stream to write the chunk to.
+     * @param chunkType The chunk type.
+     * @param payload The payload.  This is written to a stream that has the version of {@code outputStream} and an
+     *                empty lookup table.
+     * @throws IOException If there was a problem writing the chunk.
+     */
+    public static void writeChunk(BinaryOWLOutputStream outputStream, int chunkType, Payload payload) throws IOException {
+        write(outputStream, true, chunkType, payload);
+    }
+
+    /**
+     * Writes a sized record: the size of the payload (an int), and then the payload.
+     * @param outputStream The stream to write the record to.
+     * @param payload The payload.  This is written to a stream that has the version of {@code outputStream} and an
+     *                empty lookup table.
+     * @throws IOException If there was a problem writing the record.
+     */
+    public static void writeSizedRecord(BinaryOWLOutputStream outputStream, Payload payload) throws IOException {
+        write(outputStream, false, 0, payload);
+    }
+
+    private static void write(BinaryOWLOutputStream outputStream, boolean typed, int chunkType, Payload payload) throws IOException {
+        if(outputStream.isBackPatchable()) {
+            long sizePosition = outputStream.getPosition();
+            outputStream.writeInt(0);
+            if(typed) {
+                outputStream.writeInt(chunkType);
+            }
+            long payloadStart = outputStream.getPosition();
+            payload.write(new BinaryOWLOutputStream(outputStream, LookupTable.emptyLookupTable(), outputStream.getVersion()));
+            outputStream.writeIntAt(sizePosition, toSize(outputStream.getPosition() - payloadStart));
+        }
+        else {
+            BackPatchableByteArrayOutputStream buffer = acquireBuffer();
+            try {
+                payload.write(new BinaryOWLOutputStream(buffer, LookupTable.emptyLookupTable(), outputStream.getVersion()));
+                outputStream.writeInt(buffer.size());
+                if(typed) {
+                    outputStream.writeInt(chunkType);
+                }
+                buffer.writeTo(outputStream);
+            }
+            finally {
+                releaseBuffer(buffer);
+            }
+        }
+    }
+
+    private static int toSize(long size) throws IOException {
+        if(size > Integer.MAX_VALUE) {
+            throw new IOException("Chunk too large: " + size + " bytes");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Takes the buffer retained by the current thread, if there is one.  A payload that writes a further chunk to a
+     * stream that is not back-patchable gets a fresh buffer, as the retained one is in use.
+     */
+    private static BackPatchableByteArrayOutputStream acquireBuffer() {
+        BackPatchableByteArrayOutputStream buffer = retainedBuffer.get();
+        if(buffer == null) {
+            return new BackPatchableByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        }
+        retainedBuffer.remove();
+        return buffer;
+    }
+
+    private static void releaseBuffer(BackPatchableByteArrayOutputStream buffer) {
+        if(buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+            buffer.reset();
+            retainedBuffer.set(buffer);
+        }
+    }
+
+    /**
+     * The payload of a chunk or a sized record.
+     */
+    public interface Payload {
+
+        /**
+         * Writes the payload.
+         * @param outputStream The stream to write the payload to.
+         * @throws IOException If there was a problem writing the payload.
+         */
+        void write(BinaryOWLOutputStream outputStream) throws IOException;
+    }
+}
@@ -0,0 +1,131 @@
+package org.semanticweb.binaryowl.chunk;
+
+import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ *     A table of contents for the sections of a document body.  Each entry records the identifier of a section, the
+ *     offset of its first byte and its length in bytes.  Offsets are relative to the first byte after the directory
+ *     chunk itself, so a reader that knows where the directory ends can skip straight to any section.
+ * </p>
+ * <p>
+ *     Axiom table sections are identified by the {@link org.semanticweb.owlapi.model.AxiomType#getIndex() index} of
+ *     their axiom type.  Other sections are identified by four character codes.
+ * </p>
+ */
+public class SectionDirectoryChunk {
+
+    public static final int CHUNK_TYPE = ChunkUtil.toInt("bosd");
+
+    public static final int IRI_TABLE_SECTION = ChunkUtil.toInt("iris");
+
+    public static final int LITERAL_TABLE_SECTION = ChunkUtil.toInt("lits");
+
+    public static final int ONTOLOGY_ANNOTATIONS_SECTION = ChunkUtil.toInt("anno");
+
+    private static final int ENTRY_SIZE = 4 + 8 + 8;
+
+    private final List<Entry> entries;
+
+    public SectionDirectoryChunk(List<Entry> entries) {
+        this.entries = new ArrayList<Entry>(entries);
+    }
+
+    public SectionDirectoryChunk(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        int chunkSize = inputStream.readInt();
+        int chunkType = inputStream.readInt();
+        if(chunkType != CHUNK_TYPE) {
+            throw new BinaryOWLParseException("Expected section directory chunk but found chunk type " + Integer.toHexString(chunkType));
+        }
+        int count = inputStream.readInt();
+        if(chunkSize != 4 + count * ENTRY_SIZE) {
+            throw new BinaryOWLParseException("Corrupt section directory: size " + chunkSize + " does not match " + count + " entries");
+        }
+        entries = new ArrayList<Entry>(count);
+        for(int i = 0; i < count; i++) {
+            int sectionId = inputStream.readInt();
+            long offset = inputStream.readLong();
+            long length = inputStream.readLong();
+            entries.add(new Entry(sectionId, offset, length));
+        }
+    }
+
+    /**
+     * Gets the entries in this directory, in the order in which their sections appear in the document.
+     * @return The entries.
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Gets the entry for a given section.
+     * @param sectionId The section identifier.
+     * @return The entry, or {@code null} if the directory does not contain the section.
+     */
+    public Entry getEntry(int sectionId) {
+        for(Entry entry : entries) {
+            if(entry.getSectionId() == sectionId) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public void write(BinaryOWLOutputStream outputStream) throws IOException {
+        outputStream.writeInt(4 + entries.size() * ENTRY_SIZE);
+        outputStream.writeInt(CHUNK_TYPE);
+        outputStream.writeInt(entries.size());
+        for(Entry entry : entries) {
+            outputStream.writeInt(entry.getSectionId());
+            outputStream.writeLong(entry.getOffset());
+            outputStream.writeLong(entry.getLength());
+        }
+    }
+
+    /**
+     * Describes the position of one section of a document body.
+     */
+    public static final class Entry {
+
+        private final int sectionId;
+
+        private final long offset;
+
+        private final long length;
+
+        public Entry(int sectionId, long offset, long length) {
+            this.sectionId = sectionId;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int getSectionId() {
+            return sectionId;
+        }
+
+        /**
+         * Gets the offset of the section, relative to the first byte after the directory chunk.
+         * @return The offset in bytes.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry(" + Integer.toHexString(sectionId) + " " + offset + " " + length + ")";
+        }
+    }
+}
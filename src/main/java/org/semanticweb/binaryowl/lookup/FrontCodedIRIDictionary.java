@@ -0,0 +1,358 @@
+package org.semanticweb.binaryowl.lookup;
+
+import com.google.common.primitives.UnsignedBytes;
+import org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil;
+import org.semanticweb.owlapi.model.IRI;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>
+ *     A sorted dictionary of IRIs that is stored with front coding, which is how the IRI table is written in version 6
+ *     and later.  IRIs are sorted on their modified UTF-8 bytes, the encoding that the rest of the format uses for
+ *     strings (see {@link BinaryOWLStreamUtil#encodeUTF(String)}), and split into blocks of
+ *     {@link #RESTART_INTERVAL} IRIs.  The first IRI in a block (the restart point) is stored in full, and each
+ *     following IRI is stored as the number of leading bytes it shares with the previous IRI followed by the bytes
+ *     that differ.  Sorted IRIs that share long namespaces and numbering schemes (for example
+ *     {@code http://purl.obolibrary.org/obo/GO_0001234}) take a few bytes each.
+ * </p>
+ * <p>
+ *     The layout is:
+ *     <ol>
+ *         <li>The number of IRIs, as a varint</li>
+ *         <li>The restart interval, as a varint</li>
+ *         <li>The length of the block data, in bytes, as a varint</li>
+ *         <li>For each block, the offset of the block from the start of the previous block, as a varint</li>
+ *         <li>The block data.  Each IRI is written as the number of bytes shared with the previous IRI (always zero at
+ *         a restart point), the number of bytes that follow, those bytes, and the length in bytes of the fragment of
+ *         the IRI, all lengths being varints.</li>
+ *     </ol>
+ * </p>
+ * <p>
+ *     A dictionary that has been read holds the block data as it was stored.  IRIs are decoded a block at a time as
+ *     they are asked for, and an IRI can be looked up with a binary search over the restart points, so a reader never
+ *     needs to decode the whole table.  Dictionaries are immutable and may be shared between threads.
+ * </p>
+ */
+public final class FrontCodedIRIDictionary {
+
+    /**
+     * The number of IRIs in each block.
+     */
+    public static final int RESTART_INTERVAL = 16;
+
+    private static final Comparator<byte[]> KEY_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+    private final int size;
+
+    private final int restartInterval;
+
+    private final int [] blockOffsets;
+
+    private final byte [] data;
+
+    /**
+     * Reads a dictionary.
+     * @param dataInput The input to read the dictionary from.
+     * @throws IOException If there was a problem reading the dictionary.
+     */
+    public FrontCodedIRIDictionary(DataInput dataInput) throws IOException {
+        size = BinaryOWLStreamUtil.readVarInt(dataInput);
+        restartInterval = BinaryOWLStreamUtil.readVarInt(dataInput);
+        if(restartInterval <= 0) {
+            throw new IOException("Corrupt IRI dictionary: restart interval " + restartInterval);
+        }
+        int dataLength = BinaryOWLStreamUtil.readVarInt(dataInput);
+        blockOffsets = new int[getBlockCount(size, restartInterval)];
+        int offset = 0;
+        for(int i = 0; i < blockOffsets.length; i++) {
+            offset += BinaryOWLStreamUtil.readVarInt(dataInput);
+            if(offset > dataLength) {
+                throw new IOException("Corrupt IRI dictionary: block " + i + " starts after the end of the data");
+            }
+            blockOffsets[i] = offset;
+        }
+        data = new byte[dataLength];
+        dataInput.readFully(data);
+    }
+
+    /**
+     * Sorts IRIs into dictionary order, which is the order of their indices in a dictionary.
+     * @param iris The IRIs.  Not {@code null}.
+     * @return The sorted IRIs.
+     */
+    public static List<IRI> sort(Collection<IRI> iris) {
+        List<Entry> entries = new ArrayList<Entry>(iris.size());
+        for(IRI iri : iris) {
+            entries.add(new Entry(iri));
+        }
+        Collections.sort(entries);
+        List<IRI> result = new ArrayList<IRI>(entries.size());
+        for(Entry entry : entries) {
+            result.add(entry.iri);
+        }
+        return result;
+    }
+
+    /**
+     * Writes a dictionary.
+     * @param iris The IRIs, in the order given by {@link #sort(java.util.Collection)}.
+     * @param dataOutput The output to write the dictionary to.
+     * @throws IOException If there was a problem writing the dictionary.
+     */
+    public static void write(List<IRI> iris, DataOutput dataOutput) throws IOException {
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+        DataOutputStream blocksOutput = new DataOutputStream(blocks);
+        int [] blockOffsets = new int[getBlockCount(iris.size(), RESTART_INTERVAL)];
+        byte [] previousKey = null;
+        for(int i = 0; i < iris.size(); i++) {
+            Entry entry = new Entry(iris.get(i));
+            int shared = 0;
+            if(i % RESTART_INTERVAL == 0) {
+                blockOffsets[i / RESTART_INTERVAL] = blocksOutput.size();
+            }
+            else {
+                shared = getSharedPrefixLength(previousKey, entry.key);
+            }
+            BinaryOWLStreamUtil.writeVarInt(shared, blocksOutput);
+            BinaryOWLStreamUtil.writeVarInt(entry.key.length - shared, blocksOutput);
+            blocksOutput.write(entry.key, shared, entry.key.length - shared);
+            BinaryOWLStreamUtil.writeVarInt(entry.fragmentLength, blocksOutput);
+            previousKey = entry.key;
+        }
+        BinaryOWLStreamUtil.writeVarInt(iris.size(), dataOutput);
+        BinaryOWLStreamUtil.writeVarInt(RESTART_INTERVAL, dataOutput);
+        BinaryOWLStreamUtil.writeVarInt(blocks.size(), dataOutput);
+        int previousOffset = 0;
+        for(int blockOffset : blockOffsets) {
+            BinaryOWLStreamUtil.writeVarInt(blockOffset - previousOffset, dataOutput);
+            previousOffset = blockOffset;
+        }
+        dataOutput.write(blocks.toByteArray());
+    }
+
+    /**
+     * Gets the number of IRIs in this dictionary.
+     * @return The number of IRIs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of IRIs in each block of this dictionary, except for the last block, which may have fewer.
+     * @return The restart interval.
+     */
+    public int getRestartInterval() {
+        return restartInterval;
+    }
+
+    /**
+     * Gets the IRI at a given index.
+     * @param index The index.
+     * @return The IRI.
+     * @throws IndexOutOfBoundsException If the index is not between zero and {@link #size()}.
+     */
+    public IRI get(int index) {
+        IRI [] block = new IRI[restartInterval];
+        decodeBlock(getBlock(index), block, 0);
+        return block[index % restartInterval];
+    }
+
+    /**
+     * Decodes the block that contains the IRI at a given index.
+     * @param index The index of any IRI in the block.
+     * @param iris The array to store the IRIs of the block in, at their indices.  Must have at least {@link #size()}
+     *             elements.
+     */
+    public void decodeBlockContaining(int index, IRI [] iris) {
+        int block = getBlock(index);
+        decodeBlock(block, iris, block * restartInterval);
+    }
+
+    /**
+     * Decodes the block that contains the IRI at a given index into consecutive elements of an array.  The first IRI
+     * in the block is at index {@code index - index % getRestartInterval()}.
+     * @param index The index of any IRI in the block.
+     * @param iris The array to store the IRIs of the block in.
+     * @param start The element of the array to store the first IRI of the block in.  There must be at least
+     *              {@link #getRestartInterval()} elements from here to the end of the array.
+     * @return The number of IRIs in the block.
+     */
+    public int decodeBlockContaining(int index, IRI [] iris, int start) {
+        return decodeBlock(getBlock(index), iris, start);
+    }
+
+    /**
+     * Decodes every IRI in this dictionary.
+     * @return The IRIs, in index order.
+     */
+    public List<IRI> getIRIs() {
+        IRI [] iris = new IRI[size];
+        for(int block = 0; block < blockOffsets.length; block++) {
+            decodeBlock(block, iris, block * restartInterval);
+        }
+        return Arrays.asList(iris);
+    }
+
+    /**
+     * Looks up the index of an IRI, decoding at most one block.
+     * @param iri The IRI.  Not {@code null}.
+     * @return The index of the IRI, or -1 if the IRI is not in this dictionary.
+     */
+    public int indexOf(IRI iri) {
+        byte [] key = new Entry(iri).key;
+        // Find the last block whose first key is not after the key
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        int block = -1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            Cursor cursor = new Cursor(blockOffsets[mid]);
+            cursor.readVarInt();
+            int length = cursor.readVarInt();
+            int cmp = compare(data, cursor.position, length, key);
+            if(cmp <= 0) {
+                block = mid;
+                low = mid + 1;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        if(block == -1) {
+            return -1;
+        }
+        IRI [] iris = new IRI[restartInterval];
+        int count = decodeBlock(block, iris, 0);
+        for(int i = 0; i < count; i++) {
+            if(iris[i].equals(iri)) {
+                return block * restartInterval + i;
+            }
+        }
+        return -1;
+    }
+
+    private int getBlock(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index / restartInterval;
+    }
+
+    /**
+     * Decodes a block into an array.
+     * @return The number of IRIs in the block.
+     */
+    private int decodeBlock(int block, IRI [] iris, int start) {
+        int count = Math.min(restartInterval, size - block * restartInterval);
+        Cursor cursor = new Cursor(blockOffsets[block]);
+        byte [] key = new byte[0];
+        for(int i = 0; i < count; i++) {
+            int shared = cursor.readVarInt();
+            int suffixLength = cursor.readVarInt();
+            byte [] nextKey = new byte[shared + suffixLength];
+            System.arraycopy(key, 0, nextKey, 0, shared);
+            System.arraycopy(data, cursor.position, nextKey, shared, suffixLength);
+            cursor.position += suffixLength;
+            int fragmentLength = cursor.readVarInt();
+            key = nextKey;
+            int startLength = key.length - fragmentLength;
+            try {
+                iris[start + i] = IRI.create(BinaryOWLStreamUtil.decodeUTF(key, 0, startLength), BinaryOWLStreamUtil.decodeUTF(key, startLength, fragmentLength));
+            }
+            catch (UTFDataFormatException e) {
+                throw new IllegalStateException("Corrupt IRI dictionary: " + e.getMessage(), e);
+            }
+        }
+        return count;
+    }
+
+    private static int getBlockCount(int size, int restartInterval) {
+        return (size + restartInterval - 1) / restartInterval;
+    }
+
+    private static int getSharedPrefixLength(byte [] a, byte [] b) {
+        int max = Math.min(a.length, b.length);
+        int i = 0;
+        while(i < max && a[i] == b[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int compare(byte [] data, int offset, int length, byte [] key) {
+        int max = Math.min(length, key.length);
+        for(int i = 0; i < max; i++) {
+            int cmp = UnsignedBytes.compare(data[offset + i], key[i]);
+            if(cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * Reads varints from the block data.
+     */
+    private class Cursor {
+
+        private int position;
+
+        private Cursor(int position) {
+            this.position = position;
+        }
+
+        private int readVarInt() {
+            int result = 0;
+            for(int shift = 0; shift < 35; shift += 7) {
+                byte b = data[position++];
+                result |= (b & 0x7F) << shift;
+                if(b >= 0) {
+                    return result;
+                }
+            }
+            throw new IllegalStateException("Corrupt IRI dictionary: malformed varint");
+        }
+    }
+
+    /**
+     * An IRI and its key, which is the modified UTF-8 encoding of the IRI.  Unlike standard UTF-8,
+     * modified UTF-8 gives every string its own encoding, even a string with unpaired surrogates, so distinct IRIs
+     * always have distinct keys.
+     */
+    private static class Entry implements Comparable<Entry> {
+
+        private final IRI iri;
+
+        private final byte [] key;
+
+        private final int fragmentLength;
+
+        private Entry(IRI iri) {
+            this.iri = iri;
+            byte [] start = BinaryOWLStreamUtil.encodeUTF(iri.getStart());
+            String fragment = iri.getFragment();
+            byte [] fragmentBytes = fragment == null ? new byte[0] : BinaryOWLStreamUtil.encodeUTF(fragment);
+            key = new byte[start.length + fragmentBytes.length];
+            System.arraycopy(start, 0, key, 0, start.length);
+            System.arraycopy(fragmentBytes, 0, key, start.length, fragmentBytes.length);
+            fragmentLength = fragmentBytes.length;
+        }
+
+        public int compareTo(Entry o) {
+            return KEY_COMPARATOR.compare(key, o.key);
+        }
+    }
+}
@@ -39,7 +39,9 @@
 
 package org.semanticweb.binaryowl.lookup;
 
+import org.semanticweb.binaryowl.BinaryOWLVersion;
 import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
+import org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil;
 import org.semanticweb.owlapi.model.*;
 import uk.ac.manchester.cs.owl.owlapi.*;
 
@@ -53,11 +55,61 @@ import java.util.*;
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 06/04/2012
+ * <p>
+ *     In version 4 and later the counts and start indices in the table, and the indices that refer to it, are written
+ *     as variable length integers.  An index {@code i} is then written as the varint {@code i + 1}, with zero meaning
+ *     that the IRI is not indexed.  A table uses the encoding of the version that it was created (or read) for.
+ * </p>
+ * <p>
+ *     In version 6 and later the table is a {@link FrontCodedIRIDictionary}.  IRIs are indexed in dictionary order
+ *     rather than in the order that they were found in the signature, and a table that has been read decodes IRIs a
+ *     block at a time as they are referred to.
+ * </p>
+ * <p>
+ *     In version 10 and later the table is partitioned by entity type.  There is a dictionary for each of classes,
+ *     object properties, data properties, annotation properties, named individuals and datatypes, in that order, and
+ *     an IRI that is used as an entity of several types (punning) is in several of them.  An entity is written as its
+ *     index within the dictionary for its type, so a table that has been read holds one cache per type that is
+ *     exactly as big as that dictionary.  An IRI that is written on its own, rather than as an entity, is written as
+ *     its index in the concatenation of the dictionaries.
+ * </p>
  */
 public class IRILookupTable {
 
+    private static final BinaryOWLVersion DEFAULT_VERSION = BinaryOWLVersion.getVersion(1);
+
     public static final int NOT_INDEXED_MARKER = -8;
 
+    private static final int VAR_INT_NOT_INDEXED_MARKER = 0;
+
+    private final boolean varIntEncoded;
+
+    private final boolean frontCoded;
+
+    private final boolean partitioned;
+
+    private static final int CLASS_PARTITION = 0;
+
+    private static final int OBJECT_PROPERTY_PARTITION = 1;
+
+    private static final int DATA_PROPERTY_PARTITION = 2;
+
+    private static final int ANNOTATION_PROPERTY_PARTITION = 3;
+
+    private static final int INDIVIDUAL_PARTITION = 4;
+
+    private static final int DATATYPE_PARTITION = 5;
+
+    private static final int PARTITION_COUNT = 6;
+
+    private FrontCodedIRIDictionary dictionary;
+
+    private List<Map<IRI, Integer>> partitionIndexMaps;
+
+    private FrontCodedIRIDictionary [] partitions;
+
+    private int [] partitionOffsets;
+
     private Map<String, Integer> startIndex = new LinkedHashMap<String, Integer>();
 
     private Map<IRI, Integer> iri2IndexMap = new LinkedHashMap<IRI, Integer>();
@@ -78,23 +130,185 @@ public class IRILookupTable {
 
     
     public IRILookupTable(OWLOntologyDocument ontology) {
+        this(ontology, DEFAULT_VERSION);
+    }
+
+    public IRILookupTable(OWLOntologyDocument ontology, BinaryOWLVersion version) {
+        this.varIntEncoded = version.isVarIntEncoded();
+        this.frontCoded = version.isIRITableFrontCoded();
+        this.partitioned = version.isIRITablePartitioned();
+        if(partitioned) {
+            processPartition(CLASS_PARTITION, ontology.getClassesInSignature());
+            processPartition(OBJECT_PROPERTY_PARTITION, ontology.getObjectPropertiesInSignature());
+            processPartition(DATA_PROPERTY_PARTITION, ontology.getDataPropertiesInSignature());
+            processPartition(ANNOTATION_PROPERTY_PARTITION, ontology.getAnnotationPropertiesInSignature());
+            processPartition(INDIVIDUAL_PARTITION, ontology.getIndividualsInSignature());
+            processPartition(DATATYPE_PARTITION, ontology.getDatatypesInSignature());
+            return;
+        }
         processSignatureSubset(ontology.getClassesInSignature());
         processSignatureSubset(ontology.getObjectPropertiesInSignature());
         processSignatureSubset(ontology.getDataPropertiesInSignature());
         processSignatureSubset(ontology.getAnnotationPropertiesInSignature());
         processSignatureSubset(ontology.getIndividualsInSignature());
         processSignatureSubset(ontology.getDatatypesInSignature());
+        if(frontCoded) {
+            sortIRIs();
+        }
     }
 
     public IRILookupTable(Set<? extends OWLEntity> signature) {
+        this(signature, DEFAULT_VERSION);
+    }
+
+    public IRILookupTable(Set<? extends OWLEntity> signature, BinaryOWLVersion version) {
+        this.varIntEncoded = version.isVarIntEncoded();
+        this.frontCoded = version.isIRITableFrontCoded();
+        this.partitioned = version.isIRITablePartitioned();
+        if(partitioned) {
+            List<Set<OWLEntity>> entitiesByPartition = new ArrayList<Set<OWLEntity>>();
+            for(int partition = 0; partition < PARTITION_COUNT; partition++) {
+                entitiesByPartition.add(new LinkedHashSet<OWLEntity>());
+            }
+            for(OWLEntity entity : signature) {
+                entitiesByPartition.get(getPartition(entity.getEntityType())).add(entity);
+            }
+            for(int partition = 0; partition < PARTITION_COUNT; partition++) {
+                processPartition(partition, entitiesByPartition.get(partition));
+            }
+            return;
+        }
         processSignatureSubset(signature);
+        if(frontCoded) {
+            sortIRIs();
+        }
     }
 
     public IRILookupTable(DataInput dis) throws IOException {
+        this(dis, DEFAULT_VERSION);
+    }
+
+    public IRILookupTable(DataInput dis, BinaryOWLVersion version) throws IOException {
+        this.varIntEncoded = version.isVarIntEncoded();
+        this.frontCoded = version.isIRITableFrontCoded();
+        this.partitioned = version.isIRITablePartitioned();
         read(dis);
     }
 
     public IRILookupTable() {
+        this.varIntEncoded = false;
+        this.frontCoded = false;
+        this.partitioned = false;
+    }
+
+    /**
+     * Indexes the entities of one type, which must be processed in partition order, in dictionary order.  The first
+     * time that an IRI is seen it is also given an index in the concatenation of the partitions, which is the index
+     * that it is written with when it is written on its own.
+     */
+    private void processPartition(int partition, Set<? extends OWLEntity> entities) {
+        if(partitionIndexMaps == null) {
+            partitionIndexMaps = new ArrayList<Map<IRI, Integer>>();
+        }
+        Set<IRI> iris = new HashSet<IRI>();
+        for(OWLEntity entity : entities) {
+            iris.add(entity.getIRI());
+        }
+        int offset = 0;
+        for(Map<IRI, Integer> previous : partitionIndexMaps) {
+            offset += previous.size();
+        }
+        Map<IRI, Integer> indexMap = new LinkedHashMap<IRI, Integer>();
+        for(IRI iri : FrontCodedIRIDictionary.sort(iris)) {
+            if(!iri2IndexMap.containsKey(iri)) {
+                iri2IndexMap.put(iri, offset + indexMap.size());
+            }
+            indexMap.put(iri, indexMap.size());
+        }
+        partitionIndexMaps.add(indexMap);
+    }
+
+    private static int getPartition(EntityType<?> entityType) {
+        if(entityType == EntityType.CLASS) {
+            return CLASS_PARTITION;
+        }
+        else if(entityType == EntityType.OBJECT_PROPERTY) {
+            return OBJECT_PROPERTY_PARTITION;
+        }
+        else if(entityType == EntityType.DATA_PROPERTY) {
+            return DATA_PROPERTY_PARTITION;
+        }
+        else if(entityType == EntityType.ANNOTATION_PROPERTY) {
+            return ANNOTATION_PROPERTY_PARTITION;
+        }
+        else if(entityType == EntityType.NAMED_INDIVIDUAL) {
+            return INDIVIDUAL_PARTITION;
+        }
+        else {
+            return DATATYPE_PARTITION;
+        }
+    }
+
+    private static OWLEntity createEntity(int partition, IRI iri) {
+        switch (partition) {
+            case CLASS_PARTITION:
+                return new OWLClassImpl(iri);
+            case OBJECT_PROPERTY_PARTITION:
+                return new OWLObjectPropertyImpl(iri);
+            case DATA_PROPERTY_PARTITION:
+                return new OWLDataPropertyImpl(iri);
+            case ANNOTATION_PROPERTY_PARTITION:
+                return new OWLAnnotationPropertyImpl(iri);
+            case INDIVIDUAL_PARTITION:
+                return new OWLNamedIndividualImpl(iri);
+            default:
+                return new OWLDatatypeImpl(iri);
+        }
+    }
+
+    private OWLEntity [] getPartitionTable(int partition) {
+        switch (partition) {
+            case CLASS_PARTITION:
+                return clsTable;
+            case OBJECT_PROPERTY_PARTITION:
+                return objectPropertyTable;
+            case DATA_PROPERTY_PARTITION:
+                return dataPropertyTable;
+            case ANNOTATION_PROPERTY_PARTITION:
+                return annotationPropertyTable;
+            case INDIVIDUAL_PARTITION:
+                return individualTable;
+            default:
+                return datatypeTable;
+        }
+    }
+
+    /**
+     * Gets an entity from the cache for its partition, decoding the block that contains it if it has not been
+     * decoded yet.
+     */
+    private OWLEntity getPartitionEntity(int partition, int index) {
+        OWLEntity [] table = getPartitionTable(partition);
+        OWLEntity entity = table[index];
+        if(entity == null) {
+            FrontCodedIRIDictionary partitionDictionary = partitions[partition];
+            IRI [] block = new IRI[partitionDictionary.getRestartInterval()];
+            int count = partitionDictionary.decodeBlockContaining(index, block, 0);
+            int start = index - index % block.length;
+            for(int i = 0; i < count; i++) {
+                table[start + i] = createEntity(partition, block[i]);
+            }
+            entity = table[index];
+        }
+        return entity;
+    }
+
+    private OWLEntity readPartitionEntity(int partition, DataInput dis) throws IOException {
+        int index = readIndex(dis);
+        if(index == NOT_INDEXED_MARKER) {
+            return createEntity(partition, readNonIndexedIRI(dis));
+        }
+        return getPartitionEntity(partition, index);
     }
 
     private void processSignatureSubset(Set<? extends OWLEntity> signature) {
@@ -119,6 +333,17 @@ public class IRILookupTable {
         }
     }
 
+    /**
+     * Renumbers the IRIs in dictionary order, which is the order that a front coded table stores them in.
+     */
+    private void sortIRIs() {
+        List<IRI> sorted = FrontCodedIRIDictionary.sort(iri2IndexMap.keySet());
+        iri2IndexMap.clear();
+        for(IRI iri : sorted) {
+            iri2IndexMap.put(iri, iri2IndexMap.size());
+        }
+    }
+
     private int get(OWLEntity e) {
         return iri2IndexMap.get(e.getIRI());
     }
@@ -128,7 +353,19 @@ public class IRILookupTable {
     }
 
     private IRI get(int index) {
-        return iriTable [index];
+        if(partitions != null) {
+            int partition = PARTITION_COUNT - 1;
+            while(index < partitionOffsets[partition]) {
+                partition--;
+            }
+            return getPartitionEntity(partition, index - partitionOffsets[partition]).getIRI();
+        }
+        IRI iri = iriTable [index];
+        if(iri == null && dictionary != null) {
+            dictionary.decodeBlockContaining(index, iriTable);
+            iri = iriTable [index];
+        }
+        return iri;
     }
 
     private int getIndex(IRI iri) {
@@ -142,14 +379,25 @@ public class IRILookupTable {
     }
 
     public void write(DataOutput os) throws IOException {
-        os.writeInt(startIndex.size());
+        if(partitioned) {
+            for(int partition = 0; partition < PARTITION_COUNT; partition++) {
+                Map<IRI, Integer> indexMap = partitionIndexMaps != null ? partitionIndexMaps.get(partition) : Collections.<IRI, Integer>emptyMap();
+                FrontCodedIRIDictionary.write(new ArrayList<IRI>(indexMap.keySet()), os);
+            }
+            return;
+        }
+        if(frontCoded) {
+            FrontCodedIRIDictionary.write(new ArrayList<IRI>(iri2IndexMap.keySet()), os);
+            return;
+        }
+        writeCount(startIndex.size(), os);
         for (String start : startIndex.keySet()) {
             os.writeUTF(start);
         }
-        os.writeInt(iri2IndexMap.size());
+        writeCount(iri2IndexMap.size(), os);
         for (IRI iri : iri2IndexMap.keySet()) {
             int si = startIndex.get(iri.getStart());
-            os.writeInt(si);
+            writeCount(si, os);
             String fragment = iri.getFragment();
             if (fragment == null) {
                 os.writeUTF("");
@@ -161,30 +409,135 @@ public class IRILookupTable {
     }
 
     private void read(DataInput is) throws IOException {
-        int startIndexSize = is.readInt();
+        if(partitioned) {
+            partitions = new FrontCodedIRIDictionary[PARTITION_COUNT];
+            partitionOffsets = new int[PARTITION_COUNT];
+            int offset = 0;
+            for(int partition = 0; partition < PARTITION_COUNT; partition++) {
+                partitions[partition] = new FrontCodedIRIDictionary(is);
+                partitionOffsets[partition] = offset;
+                offset += partitions[partition].size();
+            }
+            clsTable = new OWLClass[partitions[CLASS_PARTITION].size()];
+            objectPropertyTable = new OWLObjectProperty[partitions[OBJECT_PROPERTY_PARTITION].size()];
+            dataPropertyTable = new OWLDataProperty[partitions[DATA_PROPERTY_PARTITION].size()];
+            annotationPropertyTable = new OWLAnnotationProperty[partitions[ANNOTATION_PROPERTY_PARTITION].size()];
+            individualTable = new OWLNamedIndividual[partitions[INDIVIDUAL_PARTITION].size()];
+            datatypeTable = new OWLDatatype[partitions[DATATYPE_PARTITION].size()];
+            return;
+        }
+        if(frontCoded) {
+            dictionary = new FrontCodedIRIDictionary(is);
+            if(dictionary.size() > 0) {
+                iriTable = new IRI [dictionary.size()];
+                allocateReadCaches();
+            }
+            return;
+        }
+        int startIndexSize = readCount(is);
         List<String> startIndexes = new ArrayList<String>(startIndexSize);
         for (int i = 0; i < startIndexSize; i++) {
             String s = is.readUTF();
             startIndexes.add(s);
         }
 
-        int size = is.readInt();
+        int size = readCount(is);
         if(size == 0) {
             return;
         }
         iriTable = new IRI [size];
         for (int i = 0; i < size; i++) {
-            int startIndex = is.readInt();
+            int startIndex = readCount(is);
             String start = startIndexes.get(startIndex);
             String s = is.readUTF();//new String(bytes);
             IRI iri = IRI.create(start, s);
             iriTable[i] = iri;
         }
+        allocateReadCaches();
+    }
+
+    private void allocateReadCaches() {
+        int size = iriTable.length;
         clsTable = new OWLClass[size];
         annotationPropertyTable = new OWLAnnotationProperty[size];
         datatypeTable = new OWLDatatype[size];
     }
-    
+
+    /**
+     * Gets the IRIs in a table that has been read from a document.
+     * @return The IRIs, in index order.
+     */
+    public List<IRI> getIRIs() {
+        if(partitions != null) {
+            List<IRI> iris = new ArrayList<IRI>();
+            for(FrontCodedIRIDictionary partition : partitions) {
+                iris.addAll(partition.getIRIs());
+            }
+            return Collections.unmodifiableList(iris);
+        }
+        if(iriTable == null) {
+            return Collections.emptyList();
+        }
+        if(dictionary != null) {
+            for(int i = 0; i < iriTable.length; i++) {
+                get(i);
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(iriTable));
+    }
+
+    /**
+     * Looks up the index of an IRI in a table that has been read from a document.  A front coded table finds the IRI
+     * with a binary search that decodes at most one block, so the table does not need to be decoded in full.
+     * @param iri The IRI.  Not {@code null}.
+     * @return The index of the IRI, or -1 if the IRI is not in the table.
+     */
+    public int indexOf(IRI iri) {
+        if(partitions != null) {
+            for(int partition = 0; partition < PARTITION_COUNT; partition++) {
+                int index = partitions[partition].indexOf(iri);
+                if(index != -1) {
+                    return partitionOffsets[partition] + index;
+                }
+            }
+            return -1;
+        }
+        if(dictionary != null) {
+            return dictionary.indexOf(iri);
+        }
+        if(iriTable == null) {
+            return -1;
+        }
+        for(int i = 0; i < iriTable.length; i++) {
+            if(iriTable[i].equals(iri)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Allocates every entity cache up front.  After this has been called, reading does not modify the structure of
+     * the table, so the table may be shared by several threads that decode different sections of a document.  Cache
+     * slots may then be filled by more than one thread, which is harmless because entities are immutable and equal
+     * entities are interchangeable.  A partitioned table allocates its caches when it is read.
+     */
+    public void allocateEntityCaches() {
+        if(iriTable == null) {
+            return;
+        }
+        int size = iriTable.length;
+        if(objectPropertyTable == null) {
+            objectPropertyTable = new OWLObjectProperty[size];
+        }
+        if(dataPropertyTable == null) {
+            dataPropertyTable = new OWLDataProperty[size];
+        }
+        if(individualTable == null) {
+            individualTable = new OWLNamedIndividual[size];
+        }
+    }
+
     public IRI readIRI(DataInput dis) throws IOException {
         int index = readIndex(dis);
         
@@ -192,10 +545,32 @@ public class IRILookupTable {
             return readNonIndexedIRI(dis);
         }
         else {
-            return iriTable[index];
+            return get(index);
+        }
+    }
+
+    /**
+     * Moves past an IRI that was written by {@link #writeIRI(IRI, DataOutput)} without looking it up or creating it.
+     * @param dis The input to skip the IRI in.
+     * @throws IOException If there was a problem reading from the input.
+     */
+    public void skipIRI(DataInput dis) throws IOException {
+        int index = readIndex(dis);
+        if(index == NOT_INDEXED_MARKER) {
+            if(dis.readByte() != 0) {
+                skipUTF(dis);
+            }
+            if(dis.readByte() != 0) {
+                skipUTF(dis);
+            }
         }
     }
 
+    private static void skipUTF(DataInput dis) throws IOException {
+        int length = dis.readUnsignedShort();
+        BinaryOWLStreamUtil.skipFully(dis, length);
+    }
+
     private IRI readNonIndexedIRI(DataInput dis) throws IOException {
         byte startMarker = dis.readByte();
         String start;
@@ -216,7 +591,32 @@ public class IRILookupTable {
         return IRI.create(start, fragment);
     }
 
+    private void writeCount(int count, DataOutput dos) throws IOException {
+        if(varIntEncoded) {
+            BinaryOWLStreamUtil.writeVarInt(count, dos);
+        }
+        else {
+            dos.writeInt(count);
+        }
+    }
+
+    private int readCount(DataInput dis) throws IOException {
+        if(varIntEncoded) {
+            return BinaryOWLStreamUtil.readVarInt(dis);
+        }
+        else {
+            return dis.readInt();
+        }
+    }
+
     private int readIndex(DataInput dataInput) throws IOException {
+        if(varIntEncoded) {
+            int value = BinaryOWLStreamUtil.readVarInt(dataInput);
+            if(value == VAR_INT_NOT_INDEXED_MARKER) {
+                return NOT_INDEXED_MARKER;
+            }
+            return value - 1;
+        }
         byte size = dataInput.readByte();
         if(size == 0) {
             return 0;
@@ -239,7 +639,15 @@ public class IRILookupTable {
     }
     
     private void writeIndex(int i, DataOutput dos) throws IOException {
-        if(i == NOT_INDEXED_MARKER) {
+        if(varIntEncoded) {
+            if(i == NOT_INDEXED_MARKER) {
+                BinaryOWLStreamUtil.writeVarInt(VAR_INT_NOT_INDEXED_MARKER, dos);
+            }
+            else {
+                BinaryOWLStreamUtil.writeVarInt(i + 1, dos);
+            }
+        }
+        else if(i == NOT_INDEXED_MARKER) {
             dos.writeByte(i);
         }
         else if(i == 0) {
@@ -261,6 +669,9 @@ public class IRILookupTable {
 
 
     public OWLClass readClassIRI(DataInput dis) throws IOException {
+        if(partitions != null) {
+            return (OWLClass) readPartitionEntity(CLASS_PARTITION, dis);
+        }
         if(iriTable == null) {
             IRI iri = readIRI(dis);
             return new OWLClassImpl(iri);
@@ -272,13 +683,16 @@ public class IRILookupTable {
         }
         OWLClass cls = clsTable[index];
         if(cls == null) {
-            cls = new OWLClassImpl(iriTable[index]);
+            cls = new OWLClassImpl(get(index));
             clsTable[index] = cls;
         }
         return cls;
     }
     
     public OWLObjectProperty readObjectPropertyIRI(DataInput dis) throws IOException {
+        if(partitions != null) {
+            return (OWLObjectProperty) readPartitionEntity(OBJECT_PROPERTY_PARTITION, dis);
+        }
         if(iriTable == null) {
             IRI iri = readIRI(dis);
             return new OWLObjectPropertyImpl(iri);
@@ -294,13 +708,16 @@ public class IRILookupTable {
         }
         OWLObjectProperty prop = objectPropertyTable[index];
         if(prop == null) {
-            prop = new OWLObjectPropertyImpl(iriTable[index]);
+            prop = new OWLObjectPropertyImpl(get(index));
             objectPropertyTable[index] = prop;
         }
         return prop;
     }
 
     public OWLDataProperty readDataPropertyIRI(DataInput dis) throws IOException {
+        if(partitions != null) {
+            return (OWLDataProperty) readPartitionEntity(DATA_PROPERTY_PARTITION, dis);
+        }
         if(iriTable == null) {
             IRI iri = readIRI(dis);
             return new OWLDataPropertyImpl(iri);
@@ -315,13 +732,16 @@ public class IRILookupTable {
         }
         OWLDataProperty prop = dataPropertyTable[index];
         if(prop == null) {
-            prop = new OWLDataPropertyImpl(iriTable[index]);
+            prop = new OWLDataPropertyImpl(get(index));
             dataPropertyTable[index] = prop;
         }
         return prop;
     }
 
     public OWLAnnotationProperty readAnnotationPropertyIRI(DataInput dis) throws IOException {
+        if(partitions != null) {
+            return (OWLAnnotationProperty) readPartitionEntity(ANNOTATION_PROPERTY_PARTITION, dis);
+        }
         if(iriTable == null) {
             IRI iri = readIRI(dis);
             return new OWLAnnotationPropertyImpl(iri);
@@ -333,13 +753,16 @@ public class IRILookupTable {
         }
         OWLAnnotationProperty prop = annotationPropertyTable[index];
         if(prop == null) {
-            prop = new OWLAnnotationPropertyImpl(iriTable[index]);
+            prop = new OWLAnnotationPropertyImpl(get(index));
             annotationPropertyTable[index] = prop;
         }
         return prop;
     }
 
     public OWLDatatype readDataypeIRI(DataInput dis) throws IOException {
+        if(partitions != null) {
+            return (OWLDatatype) readPartitionEntity(DATATYPE_PARTITION, dis);
+        }
         if(iriTable == null) {
             IRI iri = readIRI(dis);
             return new OWLDatatypeImpl(iri);
@@ -351,13 +774,16 @@ public class IRILookupTable {
         }
         OWLDatatype prop = datatypeTable[index];
         if(prop == null) {
-            prop = new OWLDatatypeImpl(iriTable[index]);
+            prop = new OWLDatatypeImpl(get(index));
             datatypeTable[index] = prop;
         }
         return prop;
     }
 
     public OWLNamedIndividual readIndividualIRI(DataInput dis) throws IOException {
+        if(partitions != null) {
+            return (OWLNamedIndividual) readPartitionEntity(INDIVIDUAL_PARTITION, dis);
+        }
         if(iriTable == null) {
             IRI iri = readIRI(dis);
             return new OWLNamedIndividualImpl(iri);
@@ -374,37 +800,62 @@ public class IRILookupTable {
         }
         OWLNamedIndividual ind = individualTable[index];
         if(ind == null) {
-            ind = new OWLNamedIndividualImpl(iriTable[index]);
+            ind = new OWLNamedIndividualImpl(get(index));
             individualTable[index] = ind;
         }
         return ind;
     }
     
+    /**
+     * Writes an entity.  A partitioned table writes the index of the entity within the partition for its type, and
+     * any other table writes the IRI of the entity as {@link #writeIRI(IRI, DataOutput)} does.
+     * @param entity The entity.
+     * @param dataOutput The output to write the entity to.
+     * @throws IOException If there was a problem writing the entity.
+     */
+    public void writeEntityIRI(OWLEntity entity, DataOutput dataOutput) throws IOException {
+        if(!partitioned) {
+            writeIRI(entity.getIRI(), dataOutput);
+            return;
+        }
+        Integer index = partitionIndexMaps != null ? partitionIndexMaps.get(getPartition(entity.getEntityType())).get(entity.getIRI()) : null;
+        if(index == null) {
+            writeNonIndexedIRI(entity.getIRI(), dataOutput);
+        }
+        else {
+            writeIndex(index, dataOutput);
+        }
+    }
+
     public void writeIRI(IRI iri, DataOutput dataOutput) throws IOException {
         int index = getIndex(iri);
         if(index == -1) {
-            writeIndex(NOT_INDEXED_MARKER, dataOutput);
-            String start = iri.getStart();
-            if(start == null) {
-                dataOutput.writeByte(0);
-            }
-            else {
-                dataOutput.writeByte(1);
-                dataOutput.writeUTF(start);
-            }
-            String fragment = iri.getFragment();
-            if(fragment == null) {
-                dataOutput.writeByte(0);
-            }
-            else {
-                dataOutput.writeByte(1);
-                dataOutput.writeUTF(fragment);
-            }
+            writeNonIndexedIRI(iri, dataOutput);
         }
         else {
             writeIndex(index, dataOutput);
         }
     }
 
+    private void writeNonIndexedIRI(IRI iri, DataOutput dataOutput) throws IOException {
+        writeIndex(NOT_INDEXED_MARKER, dataOutput);
+        String start = iri.getStart();
+        if(start == null) {
+            dataOutput.writeByte(0);
+        }
+        else {
+            dataOutput.writeByte(1);
+            dataOutput.writeUTF(start);
+        }
+        String fragment = iri.getFragment();
+        if(fragment == null) {
+            dataOutput.writeByte(0);
+        }
+        else {
+            dataOutput.writeByte(1);
+            dataOutput.writeUTF(fragment);
+        }
+    }
+
 
 }
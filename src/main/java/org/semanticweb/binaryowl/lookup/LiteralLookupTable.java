@@ -39,17 +39,29 @@
 
 package org.semanticweb.binaryowl.lookup;
 
+import com.google.common.collect.LinkedHashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
+import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
 import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil;
 import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.OWLObjectVisitorExAdapter;
+import org.semanticweb.owlapi.util.OWLObjectWalker;
 import org.semanticweb.owlapi.vocab.OWL2Datatype;
 import uk.ac.manchester.cs.owl.owlapi.OWLDatatypeImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLLiteralImplNoCompression;
 
 import java.io.DataInput;
 import java.io.DataOutput;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,9 +71,21 @@ import java.util.Map;
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 06/04/2012
+ * <p>
+ *     In version 7 and later the table holds every literal that occurs more than once in a document, most frequent
+ *     first, so that the most common literals are referred to by the shortest varint indices.  The table is written as
+ *     a varint count followed by the literals, each encoded as by
+ *     {@link org.semanticweb.binaryowl.owlobject.serializer.OWLLiteralSerializer}.  Every literal in the document is
+ *     then written as the varint {@code i + 1} if it is at index {@code i} in the table, or as zero followed by the
+ *     literal itself if it is not in the table (see {@link BinaryOWLOutputStream#writeLiteral(OWLLiteral)}).  A table
+ *     that has been read hands back the same {@link OWLLiteral} instance for every reference to an index.
+ * </p>
  */
 public class LiteralLookupTable {
 
+    private static final BinaryOWLVersion DEFAULT_VERSION = BinaryOWLVersion.getVersion(1);
+
+    private BinaryOWLVersion version = DEFAULT_VERSION;
 
     private boolean useInterning = false;
 
@@ -113,6 +137,42 @@ public class LiteralLookupTable {
         }
     }
 
+    public LiteralLookupTable(OWLOntologyDocument ontology, IRILookupTable lookupTable, BinaryOWLVersion version) {
+        this(ontology, lookupTable);
+        this.version = version;
+        if(version.isLiteralTableInterned()) {
+            rankLiterals(ontology);
+        }
+    }
+
+    /**
+     * Indexes the literals that occur more than once in a document, most frequent first.  Literals that only occur
+     * once are cheaper to write in place.
+     */
+    private void rankLiterals(OWLOntologyDocument ontology) {
+        final Multiset<OWLLiteral> literals = LinkedHashMultiset.create();
+        OWLObjectVisitorExAdapter<Object> literalCounter = new OWLObjectVisitorExAdapter<Object>() {
+            @Override
+            public Object visit(OWLLiteral node) {
+                literals.add(node);
+                return null;
+            }
+        };
+        new OWLObjectWalker<OWLAnnotation>(ontology.getAnnotations(), true).walkStructure(literalCounter);
+        for(AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+            new OWLObjectWalker<OWLAxiom>(Collections.<OWLAxiom>unmodifiableSet(ontology.getAxioms(axiomType)), true).walkStructure(literalCounter);
+        }
+        indexMap = new HashMap<OWLLiteral, Integer>();
+        tableList = new ArrayList<OWLLiteral>();
+        for(Multiset.Entry<OWLLiteral> entry : Multisets.copyHighestCountFirst(literals).entrySet()) {
+            if(entry.getCount() < 2) {
+                break;
+            }
+            indexMap.put(entry.getElement(), tableList.size());
+            tableList.add(entry.getElement());
+        }
+    }
+
     private void internLiterals(OWLOntologyDocument ontology) {
         for (OWLAnnotationAssertionAxiom ax : ontology.getAxioms(AxiomType.ANNOTATION_ASSERTION)) {
             OWLAnnotationValue value = ax.getValue();
@@ -144,6 +204,30 @@ public class LiteralLookupTable {
         read(dis, df);
     }
 
+    /**
+     * Reads a table that was written for a particular version.
+     * @param iriLookupTable The IRI table of the document, which datatypes are looked up in.
+     * @param is The input to read the table from.
+     * @param df The data factory.
+     * @param version The version of the document.
+     * @throws IOException If there was a problem reading the table.
+     */
+    public LiteralLookupTable(IRILookupTable iriLookupTable, InputStream is, OWLDataFactory df, BinaryOWLVersion version) throws IOException {
+        this(iriLookupTable);
+        this.version = version;
+        if(version.isLiteralTableInterned()) {
+            BinaryOWLInputStream inputStream = new BinaryOWLInputStream(is, new LookupTable(iriLookupTable), df, version);
+            int size = inputStream.readCompactInt();
+            tableList = new ArrayList<OWLLiteral>(size);
+            for(int i = 0; i < size; i++) {
+                tableList.add(BinaryOWLInputStream.LITERAL_SERIALIZER.readLiteral(inputStream));
+            }
+        }
+        else {
+            read(BinaryOWLStreamUtil.getDataInputStream(is), df);
+        }
+    }
+
     public LiteralLookupTable() {
         this(new IRILookupTable());
     }
@@ -152,8 +236,21 @@ public class LiteralLookupTable {
         return tableList.get(index);
     }
 
+    /**
+     * Gets the literal at a given index in a table that has been read from a version 7 (or later) document.
+     * @param index The index.
+     * @return The literal.  The same instance is returned for every call with the same index.
+     * @throws BinaryOWLParseException If there is no literal at the index.
+     */
+    public OWLLiteral getInternedLiteral(int index) throws BinaryOWLParseException {
+        if(index < 0 || index >= tableList.size()) {
+            throw new BinaryOWLParseException("Literal index " + index + " is out of range of the literal table (size " + tableList.size() + ")");
+        }
+        return tableList.get(index);
+    }
+
     public int getIndex(OWLLiteral literal) {
-        if(!useInterning) {
+        if(!useInterning && !version.isLiteralTableInterned()) {
             return -1;
         }
         Integer i = indexMap.get(literal);
@@ -165,8 +262,15 @@ public class LiteralLookupTable {
         }
     }
 
-    public void write(DataOutputStream os) throws IOException {
-        if(useInterning) {
+    public void write(DataOutput os) throws IOException {
+        if(version.isLiteralTableInterned()) {
+            BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(os, new LookupTable(iriLookupTable), version);
+            outputStream.writeCompactInt(tableList.size());
+            for(OWLLiteral literal : tableList) {
+                BinaryOWLOutputStream.LITERAL_SERIALIZER.writeLiteral(outputStream, literal);
+            }
+        }
+        else if(useInterning) {
             os.writeByte(INTERNING_USED_MARKER);
             os.writeInt(indexMap.size());
             for (OWLLiteral literal : indexMap.keySet()) {
@@ -299,7 +403,7 @@ public class LiteralLookupTable {
         }
         else {
             os.write(OTHER_DATATYPE_MARKER);
-            iriLookupTable.writeIRI(literal.getDatatype().getIRI(), os);
+            iriLookupTable.writeEntityIRI(literal.getDatatype(), os);
         }
 
         byte[] literalBytes;
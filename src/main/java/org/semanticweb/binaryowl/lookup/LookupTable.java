@@ -111,10 +111,18 @@ public class LookupTable {
         iriLookupTable.writeIRI(iri, dataOutput);
     }
 
+    public void writeEntityIRI(OWLEntity entity, DataOutput dataOutput) throws IOException {
+        iriLookupTable.writeEntityIRI(entity, dataOutput);
+    }
+
     public IRI readIRI(DataInput dataInput) throws IOException {
         return iriLookupTable.readIRI(dataInput);
     }
     
+    public void skipIRI(DataInput dataInput) throws IOException {
+        iriLookupTable.skipIRI(dataInput);
+    }
+
     public OWLClass readClassIRI(DataInput dataInput) throws IOException {
         return iriLookupTable.readClassIRI(dataInput);
     }
@@ -0,0 +1,285 @@
+package org.semanticweb.binaryowl.owlapi;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.semanticweb.binaryowl.BinaryOWLChangeLogJournal;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     An {@link OWLOntologyChangeListener} that records applied changes in binary OWL form, either as change lists in
+ *     a change log (via a {@link BinaryOWLChangeLogJournal}) or as change chunks appended to the tail of a binary OWL
+ *     document.  Register it with an {@link org.semanticweb.owlapi.model.OWLOntologyManager} using
+ *     {@code addOntologyChangeListener}.
+ * </p>
+ * <p>
+ *     The listener never writes on the thread that applies the changes.  It captures the change records (so later
+ *     changes to ontology IDs do not affect them) and hands them to a background thread, which coalesces bursts of
+ *     changes: a batch is written once the coalescing window has passed since its first change, or as soon as it
+ *     reaches the maximum batch size, whichever comes first.  (Changes that arrive while a full batch is waiting for
+ *     the background thread join it, so a batch may exceed the maximum.)  Each batch becomes one chunk, timestamped when it
+ *     is written.
+ * </p>
+ * <p>
+ *     Changes are not dropped if a write fails: the batch is put back and retried after another window, and
+ *     {@link #flush()} and {@link #close()} report the failure to the caller.  Remove the listener from the manager
+ *     before closing it.
+ * </p>
+ */
+public final class BinaryOWLChangeJournalingListener implements OWLOntologyChangeListener, Closeable {
+
+    private final ChangeSink sink;
+
+    /**
+     * The ontology whose changes are recorded, or {@code null} if the changes to every ontology are recorded.
+     */
+    private final OWLOntology ontology;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final Runnable backgroundFlush = new Runnable() {
+        public void run() {
+            flushInBackground();
+        }
+    };
+
+    /**
+     * Guards the pending changes and the flags below.
+     */
+    private final Object lock = new Object();
+
+    private final List<OWLOntologyChangeRecord> pending = new ArrayList<OWLOntologyChangeRecord>();
+
+    private boolean windowFlushScheduled = false;
+
+    private boolean immediateFlushQueued = false;
+
+    private boolean closed = false;
+
+    /**
+     * Serializes writes, so that batches are written in the order in which they were taken.
+     */
+    private final Object writeLock = new Object();
+
+    private BinaryOWLChangeJournalingListener(ChangeSink sink, OWLOntology ontology, long window, TimeUnit unit, int maxBatchSize) {
+        checkArgument(window >= 0, "window must not be negative");
+        checkArgument(maxBatchSize > 0, "maxBatchSize must be greater than zero");
+        this.sink = sink;
+        this.ontology = ontology;
+        this.windowNanos = checkNotNull(unit).toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+        this.executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("BinaryOWL change journaling %d").build());
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Creates a listener that appends the changes to every ontology to a change log.
+     * @param journal The journal for the change log.  Not {@code null}.  The journal is not closed by the listener.
+     * @param window The coalescing window.  Must not be negative.
+     * @param unit The unit of the window.  Not {@code null}.
+     * @param maxBatchSize The number of pending changes at which a change list is written without waiting for the
+     *                     window to pass.  Must be greater than zero.
+     * @return The listener.
+     */
+    public static BinaryOWLChangeJournalingListener journalingTo(BinaryOWLChangeLogJournal journal, long window, TimeUnit unit, int maxBatchSize) {
+        return new BinaryOWLChangeJournalingListener(new JournalSink(checkNotNull(journal)), null, window, unit, maxBatchSize);
+    }
+
+    /**
+     * Creates a listener that appends the changes to one ontology to the tail of the binary OWL document it was
+     * loaded from (see {@link BinaryOWLOntologyDocumentSerializer#appendOntologyChanges(File, OntologyChangeDataList)}).
+     * @param documentFile The file that contains the document.  Not {@code null}.
+     * @param ontology The ontology.  Not {@code null}.  Changes to other ontologies are ignored.
+     * @param window The coalescing window.  Must not be negative.
+     * @param unit The unit of the window.  Not {@code null}.
+     * @param maxBatchSize The number of pending changes at which a chunk is written without waiting for the window to
+     *                     pass.  Must be greater than zero.
+     * @return The listener.
+     */
+    public static BinaryOWLChangeJournalingListener appendingTo(File documentFile, OWLOntology ontology, long window, TimeUnit unit, int maxBatchSize) {
+        return new BinaryOWLChangeJournalingListener(new DocumentSink(checkNotNull(documentFile)), checkNotNull(ontology), window, unit, maxBatchSize);
+    }
+
+    /**
+     * Queues the changes to be written in the background.  This does not block on I/O.
+     * @throws IllegalStateException If the listener has been closed.
+     */
+    public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+        synchronized (lock) {
+            if(closed) {
+                throw new IllegalStateException("The listener has been closed");
+            }
+            int previousSize = pending.size();
+            for(OWLOntologyChange change : changes) {
+                if(ontology == null || change.getOntology() == ontology) {
+                    pending.add(change.getChangeRecord());
+                }
+            }
+            if(pending.size() == previousSize) {
+                return;
+            }
+            if(pending.size() >= maxBatchSize) {
+                if(!immediateFlushQueued) {
+                    immediateFlushQueued = true;
+                    executor.execute(backgroundFlush);
+                }
+            }
+            else if(!windowFlushScheduled) {
+                windowFlushScheduled = true;
+                executor.schedule(backgroundFlush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes the pending changes on the calling thread, without waiting for the coalescing window.
+     * @throws IOException If the changes could not be written.  They remain pending.  Unchecked exceptions from
+     * encoding or writing the changes are passed on in the same way, and the changes remain pending.
+     */
+    public void flush() throws IOException {
+        writePending();
+    }
+
+    /**
+     * Stops the background thread and writes the pending changes on the calling thread.
+     * @throws IOException If the pending changes could not be written.
+     */
+    public void close() throws IOException {
+        synchronized (lock) {
+            if(closed) {
+                return;
+            }
+            closed = true;
+        }
+        executor.shutdown();
+        try {
+            while(!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Waiting for a write that is in progress
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst waiting for background writes to finish");
+        }
+        writePending();
+    }
+
+    private void flushInBackground() {
+        try {
+            writePending();
+        }
+        catch (IOException e) {
+            retryInBackground();
+        }
+        catch (RuntimeException e) {
+            // Nobody would see this on the background thread.  The failure is reported by flush() or close() if it
+            // persists.
+            retryInBackground();
+        }
+    }
+
+    /**
+     * Schedules another attempt to write the pending changes, which have been put back after a failed write.
+     */
+    private void retryInBackground() {
+        synchronized (lock) {
+            if(!closed && !windowFlushScheduled) {
+                windowFlushScheduled = true;
+                executor.schedule(backgroundFlush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void writePending() throws IOException {
+        synchronized (writeLock) {
+            List<OWLOntologyChangeRecord> batch;
+            synchronized (lock) {
+                if(pending.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<OWLOntologyChangeRecord>(pending);
+                pending.clear();
+                windowFlushScheduled = false;
+                immediateFlushQueued = false;
+            }
+            boolean written = false;
+            try {
+                sink.write(batch, System.currentTimeMillis());
+                written = true;
+            }
+            finally {
+                if(!written) {
+                    // Put the batch back, whatever the failure
+                    synchronized (lock) {
+                        pending.addAll(0, batch);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Somewhere that batches of changes are written to.
+     */
+    private interface ChangeSink {
+
+        void write(List<OWLOntologyChangeRecord> records, long timestamp) throws IOException;
+    }
+
+    private static class JournalSink implements ChangeSink {
+
+        private final BinaryOWLChangeLogJournal journal;
+
+        private JournalSink(BinaryOWLChangeLogJournal journal) {
+            this.journal = journal;
+        }
+
+        public void write(List<OWLOntologyChangeRecord> records, long timestamp) throws IOException {
+            OntologyChangeRecordList changeList = new OntologyChangeRecordList(timestamp, new BinaryOWLMetadata(), records);
+            Futures.get(journal.append(changeList), IOException.class);
+        }
+    }
+
+    private static class DocumentSink implements ChangeSink {
+
+        private final File documentFile;
+
+        private final BinaryOWLOntologyDocumentSerializer serializer = new BinaryOWLOntologyDocumentSerializer();
+
+        private DocumentSink(File documentFile) {
+            this.documentFile = documentFile;
+        }
+
+        public void write(List<OWLOntologyChangeRecord> records, long timestamp) throws IOException {
+            List<OWLOntologyChangeData> changeData = new ArrayList<OWLOntologyChangeData>(records.size());
+            for(OWLOntologyChangeRecord record : records) {
+                changeData.add(record.getData());
+            }
+            serializer.appendOntologyChanges(documentFile, new OntologyChangeDataList(changeData, timestamp, new BinaryOWLMetadata()));
+        }
+    }
+}
@@ -39,13 +39,20 @@
 
 package org.semanticweb.binaryowl.owlapi;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentPreamble;
 import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
 import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentTarget;
 import org.semanticweb.owlapi.model.*;
 
 import java.io.*;
 import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 /**
  * Author: Matthew Horridge<br>
@@ -69,12 +76,48 @@ public class BinaryOWLOntologyDocumentStorer implements OWLOntologyStorer{
 
     @Override
     public void storeOntology(OWLOntology ontology, IRI documentIRI, OWLOntologyFormat format) throws OWLOntologyStorageException, IOException {
+        File file = toFile(documentIRI);
+        BinaryOWLOntologyDocumentSerializer serializer = new BinaryOWLOntologyDocumentSerializer();
+        serializer.write(new OWLOntologyWrapper(ontology), file, new BinaryOWLMetadata(), BinaryOWLOntologyDocumentPreamble.DEFAULT_VERSION, new BinaryOWLWriterConfiguration());
+    }
+
+    /**
+     * Stores an ontology in the background.  A snapshot of the ontology (see {@link OWLOntologySnapshot}) is taken on
+     * the calling thread, which is the only time the ontology is read, so the ontology may be edited again as soon as
+     * this method returns.  The snapshot is then encoded on the executor, into a temporary file that is renamed over
+     * the document when it is complete, so the document never holds a partially written ontology.
+     * @param ontology The ontology to store.  It must not be changed while this method is running.
+     * @param documentIRI The IRI of the document, which must be a file IRI.
+     * @param executor The executor that the ontology is encoded and written on.
+     * @return A future that completes when the document has been replaced, or fails with the {@link IOException} that
+     * prevented it from being written.
+     * @throws OWLOntologyStorageException If the document IRI is not an absolute file IRI.
+     */
+    public ListenableFuture<Void> storeOntologyAsync(OWLOntology ontology, IRI documentIRI, Executor executor) throws OWLOntologyStorageException {
+        final File file = toFile(documentIRI);
+        final OWLOntologyDocument snapshot = new OWLOntologySnapshot(ontology);
+        ListenableFutureTask<Void> task = ListenableFutureTask.create(new Callable<Void>() {
+            public Void call() throws IOException {
+                BinaryOWLOntologyDocumentSerializer serializer = new BinaryOWLOntologyDocumentSerializer();
+                serializer.writeAtomically(snapshot, file, new BinaryOWLMetadata(), BinaryOWLOntologyDocumentPreamble.DEFAULT_VERSION, new BinaryOWLWriterConfiguration());
+                return null;
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    private static File toFile(IRI documentIRI) throws OWLOntologyStorageException {
         URI uri = documentIRI.toURI();
         if(!uri.isAbsolute()) {
             throw new OWLOntologyStorageException("Document IRI is not absolute: " + documentIRI);
         }
-        File file = new File(uri);
-        storeOntology(ontology, new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            return new File(uri);
+        }
+        catch (IllegalArgumentException e) {
+            throw new OWLOntologyStorageException("Document IRI is not a file IRI: " + documentIRI, e);
+        }
     }
 
     @Override
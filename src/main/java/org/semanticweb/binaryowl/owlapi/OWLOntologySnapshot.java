@@ -0,0 +1,116 @@
+package org.semanticweb.binaryowl.owlapi;
+
+import com.google.common.collect.ImmutableSet;
+import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ *     An {@link OWLOntologyDocument} that holds copies of the contents of an {@link OWLOntology}, taken when the
+ *     snapshot is created.  Unlike an {@link OWLOntologyWrapper}, a snapshot is not affected by later changes to the
+ *     ontology, so it can be encoded on another thread while the ontology continues to be edited.
+ * </p>
+ * <p>
+ *     Taking a snapshot copies the axiom sets and signature but does not encode anything.  The ontology must not be
+ *     changed while the snapshot is being taken.
+ * </p>
+ */
+public final class OWLOntologySnapshot implements OWLOntologyDocument {
+
+    private final OWLOntologyID ontologyID;
+
+    private final ImmutableSet<OWLImportsDeclaration> importsDeclarations;
+
+    private final ImmutableSet<OWLAnnotation> annotations;
+
+    private final Map<AxiomType<?>, ImmutableSet<? extends OWLAxiom>> axiomsByType = new HashMap<AxiomType<?>, ImmutableSet<? extends OWLAxiom>>();
+
+    private final ImmutableSet<OWLClass> classes;
+
+    private final ImmutableSet<OWLObjectProperty> objectProperties;
+
+    private final ImmutableSet<OWLDataProperty> dataProperties;
+
+    private final ImmutableSet<OWLAnnotationProperty> annotationProperties;
+
+    private final ImmutableSet<OWLNamedIndividual> individuals;
+
+    private final ImmutableSet<OWLDatatype> datatypes;
+
+    public OWLOntologySnapshot(OWLOntology ontology) {
+        ontologyID = ontology.getOntologyID();
+        importsDeclarations = ImmutableSet.copyOf(ontology.getImportsDeclarations());
+        annotations = ImmutableSet.copyOf(ontology.getAnnotations());
+        for(AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+            Set<? extends OWLAxiom> axioms = ontology.getAxioms(axiomType);
+            if(!axioms.isEmpty()) {
+                axiomsByType.put(axiomType, ImmutableSet.copyOf(axioms));
+            }
+        }
+        classes = ImmutableSet.copyOf(ontology.getClassesInSignature());
+        objectProperties = ImmutableSet.copyOf(ontology.getObjectPropertiesInSignature());
+        dataProperties = ImmutableSet.copyOf(ontology.getDataPropertiesInSignature());
+        annotationProperties = ImmutableSet.copyOf(ontology.getAnnotationPropertiesInSignature());
+        individuals = ImmutableSet.copyOf(ontology.getIndividualsInSignature());
+        datatypes = ImmutableSet.copyOf(ontology.getDatatypesInSignature());
+    }
+
+    @Override
+    public OWLOntologyID getOntologyID() {
+        return ontologyID;
+    }
+
+    @Override
+    public Set<OWLImportsDeclaration> getImportsDeclarations() {
+        return importsDeclarations;
+    }
+
+    @Override
+    public Set<OWLAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> axiomType) {
+        Set<T> axioms = (Set<T>) axiomsByType.get(axiomType);
+        if(axioms == null) {
+            return ImmutableSet.of();
+        }
+        return axioms;
+    }
+
+    @Override
+    public Set<OWLClass> getClassesInSignature() {
+        return classes;
+    }
+
+    @Override
+    public Set<OWLObjectProperty> getObjectPropertiesInSignature() {
+        return objectProperties;
+    }
+
+    @Override
+    public Set<OWLDataProperty> getDataPropertiesInSignature() {
+        return dataProperties;
+    }
+
+    @Override
+    public Set<OWLAnnotationProperty> getAnnotationPropertiesInSignature() {
+        return annotationProperties;
+    }
+
+    @Override
+    public Set<OWLNamedIndividual> getIndividualsInSignature() {
+        return individuals;
+    }
+
+    @Override
+    public Set<OWLDatatype> getDatatypesInSignature() {
+        return datatypes;
+    }
+}
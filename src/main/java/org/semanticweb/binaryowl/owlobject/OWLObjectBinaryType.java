@@ -300,17 +300,38 @@ public class OWLObjectBinaryType<C extends OWLObject> {
 
     private static OWLObjectBinaryTypeSelector selector = new OWLObjectBinaryTypeSelector();
 
+    /**
+     * From version 8 onwards, an anonymous class expression that has already been written to a stream is written as
+     * this marker, in place of its type marker, followed by a back-reference to it.  The back-reference is the index of
+     * the expression, as a varint, where the expressions in a stream are numbered in the order in which they were
+     * completely written (so nested expressions come before the expressions that contain them).  Readers number
+     * expressions in the same way and return the same instance for every reference to it.
+     */
+    public static final byte BACK_REFERENCE_MARKER = 0;
+
+    /**
+     * From version 11 onwards, the type marker of an axiom has this bit set if the axiom has annotations, which are
+     * then written after the marker as in earlier versions.  If the bit is clear the axiom has no annotations and
+     * nothing is written for them.
+     */
+    public static final int ANNOTATED_AXIOM_FLAG = 0x80;
+
     private byte marker;
 
     private Class<? extends OWLObject> cls;
 
     private OWLObjectSerializer<C> serializer;
 
+    private boolean backReferenced;
+
+    private boolean annotationFlagged;
+
     private OWLObjectBinaryType(int marker, Class<C> c, OWLObjectSerializer<C> serializer) {
         this.marker = (byte) marker;
         this.cls = c;
         this.serializer = serializer;
-
+        this.backReferenced = OWLClassExpression.class.isAssignableFrom(c) && !OWLClass.class.equals(c);
+        this.annotationFlagged = serializer instanceof AbstractAxiomSerializer;
     }
 
     public Class<? extends OWLObject> getOWLObjectClass() {
@@ -390,11 +411,51 @@ public class OWLObjectBinaryType<C extends OWLObject> {
      * @throws IOException if there was a problem reading the object.
      * @throws org.semanticweb.binaryowl.BinaryOWLParseException If the binary representation of the object is corrupt.
      */
+    @SuppressWarnings("unchecked")
     public static <C extends OWLObject> C read(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
         byte typeMarker = inputStream.readByte();
         checkPositionIndex(0, 84, "Invalid type marker");
-        OWLObjectBinaryType<C> type = getType(typeMarker);
-        return type.getSerializer().read(inputStream);
+        boolean backReferences = inputStream.getVersion().isClassExpressionBackReferenced();
+        if(typeMarker == BACK_REFERENCE_MARKER && backReferences) {
+            return (C) inputStream.getBackReference(inputStream.readCompactInt());
+        }
+        boolean annotationFlags = inputStream.getVersion().isAxiomAnnotationFlagged();
+        OWLObjectBinaryType<C> type = getType(annotationFlags ? (byte) (typeMarker & ~ANNOTATED_AXIOM_FLAG) : typeMarker);
+        if(annotationFlags && type.annotationFlagged && (typeMarker & ANNOTATED_AXIOM_FLAG) == 0) {
+            return (C) ((AbstractAxiomSerializer<?>) type.getSerializer()).readUnannotated(inputStream);
+        }
+        C object = type.getSerializer().read(inputStream);
+        if(type.backReferenced && backReferences) {
+            inputStream.addBackReference(object);
+        }
+        return object;
+    }
+
+    /**
+     * Moves past an OWLObject in a {@link BinaryOWLInputStream} without building it.  This method is thread safe.
+     * @param inputStream The input stream.  Not {@code null}.
+     * @throws IOException if there was a problem reading the object.
+     * @throws org.semanticweb.binaryowl.BinaryOWLParseException If the binary representation of the object is corrupt.
+     */
+    public static void skip(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        byte typeMarker = inputStream.readByte();
+        boolean backReferences = inputStream.getVersion().isClassExpressionBackReferenced();
+        if(typeMarker == BACK_REFERENCE_MARKER && backReferences) {
+            inputStream.readCompactInt();
+            return;
+        }
+        boolean annotationFlags = inputStream.getVersion().isAxiomAnnotationFlagged();
+        OWLObjectBinaryType<?> type = getType(annotationFlags ? (byte) (typeMarker & ~ANNOTATED_AXIOM_FLAG) : typeMarker);
+        if(annotationFlags && type.annotationFlagged && (typeMarker & ANNOTATED_AXIOM_FLAG) == 0) {
+            ((AbstractAxiomSerializer<?>) type.getSerializer()).skipUnannotated(inputStream);
+        }
+        else if(type.backReferenced && backReferences) {
+            // Expressions are read rather than skipped so that later back-references in the stream can be resolved
+            inputStream.addBackReference(type.getSerializer().read(inputStream));
+        }
+        else {
+            type.getSerializer().skip(inputStream);
+        }
     }
 
     /**
@@ -405,9 +466,25 @@ public class OWLObjectBinaryType<C extends OWLObject> {
      */
     public static void write(OWLObject object, BinaryOWLOutputStream outputStream) throws IOException {
         OWLObjectBinaryType<OWLObject> type = OWLObjectBinaryType.<OWLObject>getType(object);
-        outputStream.writeByte(type.getMarker());
+        boolean backReferenced = type.backReferenced && outputStream.getVersion().isClassExpressionBackReferenced();
+        if(backReferenced) {
+            int backReference = outputStream.getBackReference(object);
+            if(backReference != -1) {
+                outputStream.writeByte(BACK_REFERENCE_MARKER);
+                outputStream.writeCompactInt(backReference);
+                return;
+            }
+        }
+        int typeMarker = type.getMarker();
+        if(type.annotationFlagged && outputStream.getVersion().isAxiomAnnotationFlagged() && ((OWLAxiom) object).isAnnotated()) {
+            typeMarker |= ANNOTATED_AXIOM_FLAG;
+        }
+        outputStream.writeByte(typeMarker);
         final OWLObjectSerializer<OWLObject> serializer = type.getSerializer();
         serializer.write(object, outputStream);
+        if(backReferenced) {
+            outputStream.addBackReference(object);
+        }
     }
 
 
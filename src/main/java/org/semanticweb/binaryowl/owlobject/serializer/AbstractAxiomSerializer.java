@@ -46,6 +46,7 @@ import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLAxiom;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -58,7 +59,10 @@ public abstract class AbstractAxiomSerializer<O extends OWLAxiom> extends OWLObj
 
     @Override
     final protected void writeObject(O object, BinaryOWLOutputStream outputStream) throws IOException {
-        outputStream.writeOWLObjects(object.getAnnotations());
+        // From version 11 onwards the type marker says whether the axiom has annotations
+        if(!outputStream.getVersion().isAxiomAnnotationFlagged() || object.isAnnotated()) {
+            outputStream.writeOWLObjects(object.getAnnotations());
+        }
         writeAxiom(object, outputStream);
     }
     
@@ -69,7 +73,41 @@ public abstract class AbstractAxiomSerializer<O extends OWLAxiom> extends OWLObj
         Set<OWLAnnotation> annotations = inputStream.readOWLObjects();
         return readAxiom(inputStream, annotations);
     }
+
+    /**
+     * Reads an axiom whose type marker says that it has no annotations, in which case no annotations were written
+     * for it (see {@link org.semanticweb.binaryowl.owlobject.OWLObjectBinaryType#ANNOTATED_AXIOM_FLAG}).
+     * @param inputStream The stream to read the axiom from.
+     * @return The axiom, which has no annotations.
+     * @throws IOException If there was a problem reading the axiom.
+     */
+    final public O readUnannotated(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        return readAxiom(inputStream, Collections.<OWLAnnotation>emptySet());
+    }
     
     protected abstract O readAxiom(BinaryOWLInputStream inputStream, Set<OWLAnnotation> annotations) throws IOException, BinaryOWLParseException;
+
+    @Override
+    final protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObjects();
+        skipAxiom(inputStream);
+    }
+
+    /**
+     * Moves past an axiom whose type marker says that it has no annotations.
+     * @param inputStream The stream to skip the axiom in.
+     * @throws IOException If there was a problem reading from the stream.
+     */
+    final public void skipUnannotated(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        skipAxiom(inputStream);
+    }
+
+    /**
+     * Moves past the body of an axiom (the part written by {@link #writeAxiom}) without building the axiom.  By
+     * default the axiom is read and discarded.
+     */
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        readAxiom(inputStream, Collections.<OWLAnnotation>emptySet());
+    }
 }
 
@@ -64,7 +64,7 @@ public class BinaryOWLImportsDeclarationSet {
     }
     
     public BinaryOWLImportsDeclarationSet(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
-        int size = inputStream.readInt();
+        int size = inputStream.readCompactInt();
         if(size == 0) {
             importsDeclarations = Collections.emptySet();
         }
@@ -80,7 +80,7 @@ public class BinaryOWLImportsDeclarationSet {
     }
     
     public void write(BinaryOWLOutputStream dataOutput) throws IOException {
-        dataOutput.writeInt(importsDeclarations.size());
+        dataOutput.writeCompactInt(importsDeclarations.size());
         for(OWLImportsDeclaration declaration : importsDeclarations) {
             BinaryOWLImportsDeclaration binDecl = new BinaryOWLImportsDeclaration(declaration);
             binDecl.write(dataOutput);
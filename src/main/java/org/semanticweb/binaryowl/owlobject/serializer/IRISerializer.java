@@ -63,4 +63,9 @@ public class IRISerializer extends OWLObjectSerializer<IRI> {
     protected IRI readObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
         return inputStream.readIRI();
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipIRI();
+    }
 }
@@ -0,0 +1,413 @@
+package org.semanticweb.binaryowl.owlobject.serializer;
+
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+import uk.ac.manchester.cs.owl.owlapi.OWLDatatypeImpl;
+import uk.ac.manchester.cs.owl.owlapi.OWLLiteralImplNoCompression;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ *     Writes typed literals with common numeric and date-time datatypes in binary form, which is how they are written
+ *     in version 9 and later.  Each datatype has a type marker of its own, which is followed by:
+ *     <ul>
+ *         <li>{@code xsd:integer}, {@code xsd:int} and {@code xsd:long}: the value as a zig-zag varint</li>
+ *         <li>{@code xsd:double}: the IEEE 754 bits of the value, as a long</li>
+ *         <li>{@code xsd:float}: the IEEE 754 bits of the value, as an int</li>
+ *         <li>{@code xsd:decimal}: the scale and then the unscaled value, both as zig-zag varints</li>
+ *         <li>{@code xsd:dateTime}: a time zone marker (none, {@code Z} or an offset, which follows as a zig-zag
+ *         varint number of minutes), the number of seconds from the epoch to the date and time as written (that is,
+ *         in the time zone of the literal), as a zig-zag varint, and the number of digits in the fractional seconds
+ *         followed, if there are any, by the digits as a varint</li>
+ *     </ul>
+ * </p>
+ * <p>
+ *     The lexical form of a literal is part of its identity, so a literal is only written in binary form if its lexical
+ *     form is exactly the one that is produced when it is read back (for example {@code 42} but not {@code +42} or
+ *     {@code 042}).  Any other literal is written with its datatype IRI and lexical form as before.
+ * </p>
+ */
+final class NativeLiteralCodec {
+
+    static final byte XSD_INTEGER_MARKER = 4;
+
+    static final byte XSD_INT_MARKER = 5;
+
+    static final byte XSD_LONG_MARKER = 6;
+
+    static final byte XSD_DOUBLE_MARKER = 7;
+
+    static final byte XSD_FLOAT_MARKER = 8;
+
+    static final byte XSD_DECIMAL_MARKER = 9;
+
+    static final byte XSD_DATE_TIME_MARKER = 10;
+
+    private static final OWLDatatype XSD_INTEGER_DATATYPE = new OWLDatatypeImpl(OWL2Datatype.XSD_INTEGER.getIRI());
+
+    private static final OWLDatatype XSD_INT_DATATYPE = new OWLDatatypeImpl(OWL2Datatype.XSD_INT.getIRI());
+
+    private static final OWLDatatype XSD_LONG_DATATYPE = new OWLDatatypeImpl(OWL2Datatype.XSD_LONG.getIRI());
+
+    private static final OWLDatatype XSD_DOUBLE_DATATYPE = new OWLDatatypeImpl(OWL2Datatype.XSD_DOUBLE.getIRI());
+
+    private static final OWLDatatype XSD_FLOAT_DATATYPE = new OWLDatatypeImpl(OWL2Datatype.XSD_FLOAT.getIRI());
+
+    private static final OWLDatatype XSD_DECIMAL_DATATYPE = new OWLDatatypeImpl(OWL2Datatype.XSD_DECIMAL.getIRI());
+
+    private static final OWLDatatype XSD_DATE_TIME_DATATYPE = new OWLDatatypeImpl(OWL2Datatype.XSD_DATE_TIME.getIRI());
+
+    private static final int NO_TIME_ZONE = 0;
+
+    private static final int UTC_TIME_ZONE = 1;
+
+    private static final int OFFSET_TIME_ZONE = 2;
+
+    private static final int MAX_FRACTION_DIGITS = 9;
+
+    private static final Pattern DATE_TIME_PATTERN = Pattern.compile("(\\d{4})-(\\d{2})-(\\d{2})T(\\d{2}):(\\d{2}):(\\d{2})(?:\\.(\\d{1," + MAX_FRACTION_DIGITS + "}))?(Z|([+-])(\\d{2}):(\\d{2}))?");
+
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private NativeLiteralCodec() {
+    }
+
+    /**
+     * Determines whether a type marker is one that this codec writes.
+     * @param typeMarker The type marker.
+     * @return {@code true} if the marker is one of the markers of this codec.
+     */
+    static boolean isNativeMarker(int typeMarker) {
+        return typeMarker >= XSD_INTEGER_MARKER && typeMarker <= XSD_DATE_TIME_MARKER;
+    }
+
+    /**
+     * Writes a literal, including its type marker, in binary form if it can be written losslessly.
+     * @param literal The literal.
+     * @param outputStream The stream to write the literal to.
+     * @return {@code true} if the literal was written, or {@code false} if it cannot be written in binary form, in
+     * which case nothing was written.
+     * @throws IOException If there was a problem writing the literal.
+     */
+    static boolean write(OWLLiteral literal, BinaryOWLOutputStream outputStream) throws IOException {
+        IRI datatype = literal.getDatatype().getIRI();
+        String lexicalForm = literal.getLiteral();
+        if(datatype.equals(XSD_INTEGER_DATATYPE.getIRI())) {
+            return writeLong(XSD_INTEGER_MARKER, lexicalForm, Long.MIN_VALUE, Long.MAX_VALUE, outputStream);
+        }
+        else if(datatype.equals(XSD_INT_DATATYPE.getIRI())) {
+            return writeLong(XSD_INT_MARKER, lexicalForm, Integer.MIN_VALUE, Integer.MAX_VALUE, outputStream);
+        }
+        else if(datatype.equals(XSD_LONG_DATATYPE.getIRI())) {
+            return writeLong(XSD_LONG_MARKER, lexicalForm, Long.MIN_VALUE, Long.MAX_VALUE, outputStream);
+        }
+        else if(datatype.equals(XSD_DOUBLE_DATATYPE.getIRI())) {
+            return writeDouble(lexicalForm, outputStream);
+        }
+        else if(datatype.equals(XSD_FLOAT_DATATYPE.getIRI())) {
+            return writeFloat(lexicalForm, outputStream);
+        }
+        else if(datatype.equals(XSD_DECIMAL_DATATYPE.getIRI())) {
+            return writeDecimal(lexicalForm, outputStream);
+        }
+        else if(datatype.equals(XSD_DATE_TIME_DATATYPE.getIRI())) {
+            return writeDateTime(lexicalForm, outputStream);
+        }
+        else {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a literal that was written by {@link #write(OWLLiteral, BinaryOWLOutputStream)}.
+     * @param typeMarker The type marker of the literal, which has already been read.
+     * @param inputStream The stream to read the rest of the literal from.
+     * @return The literal.
+     * @throws IOException If there was a problem reading the literal.
+     */
+    static OWLLiteral read(int typeMarker, BinaryOWLInputStream inputStream) throws IOException {
+        switch (typeMarker) {
+            case XSD_INTEGER_MARKER:
+                return createLiteral(Long.toString(inputStream.readZigZagVarLong()), XSD_INTEGER_DATATYPE);
+            case XSD_INT_MARKER:
+                return createLiteral(Long.toString(inputStream.readZigZagVarLong()), XSD_INT_DATATYPE);
+            case XSD_LONG_MARKER:
+                return createLiteral(Long.toString(inputStream.readZigZagVarLong()), XSD_LONG_DATATYPE);
+            case XSD_DOUBLE_MARKER:
+                return createFloatingPointLiteral(Double.toString(Double.longBitsToDouble(inputStream.readLong())), XSD_DOUBLE_DATATYPE, inputStream.getDataFactory());
+            case XSD_FLOAT_MARKER:
+                return createFloatingPointLiteral(Float.toString(Float.intBitsToFloat(inputStream.readInt())), XSD_FLOAT_DATATYPE, inputStream.getDataFactory());
+            case XSD_DECIMAL_MARKER:
+                int scale = (int) inputStream.readZigZagVarLong();
+                long unscaledValue = inputStream.readZigZagVarLong();
+                return createLiteral(BigDecimal.valueOf(unscaledValue, scale).toPlainString(), XSD_DECIMAL_DATATYPE);
+            case XSD_DATE_TIME_MARKER:
+                return createLiteral(readDateTime(inputStream).toString(), XSD_DATE_TIME_DATATYPE);
+            default:
+                throw new IOException("Unknown type marker: " + typeMarker);
+        }
+    }
+
+    /**
+     * Moves past a literal that was written by {@link #write(OWLLiteral, BinaryOWLOutputStream)}.
+     * @param typeMarker The type marker of the literal, which has already been read.
+     * @param inputStream The stream to skip the rest of the literal in.
+     * @throws IOException If there was a problem reading from the stream.
+     */
+    static void skip(int typeMarker, BinaryOWLInputStream inputStream) throws IOException {
+        switch (typeMarker) {
+            case XSD_INTEGER_MARKER:
+            case XSD_INT_MARKER:
+            case XSD_LONG_MARKER:
+                inputStream.readZigZagVarLong();
+                break;
+            case XSD_DOUBLE_MARKER:
+                inputStream.readLong();
+                break;
+            case XSD_FLOAT_MARKER:
+                inputStream.readInt();
+                break;
+            case XSD_DECIMAL_MARKER:
+                inputStream.readZigZagVarLong();
+                inputStream.readZigZagVarLong();
+                break;
+            case XSD_DATE_TIME_MARKER:
+                readDateTime(inputStream);
+                break;
+            default:
+                throw new IOException("Unknown type marker: " + typeMarker);
+        }
+    }
+
+    private static OWLLiteral createLiteral(String lexicalForm, OWLDatatype datatype) {
+        return new OWLLiteralImplNoCompression(lexicalForm, null, datatype);
+    }
+
+    /**
+     * Creates an xsd:double or xsd:float literal.  The data factory builds these literals with a hash code that
+     * depends on their value, and a literal that is built any other way is equal to them but does not hash like them,
+     * so it would not be found in a set of the literals that were written.  NaN literals from the data factory are
+     * not even equal to each other, so they are built from their lexical form.
+     * @param lexicalForm The lexical form of the literal.
+     * @param datatype The datatype of the literal, either xsd:double or xsd:float.
+     * @param dataFactory The data factory to build the literal with.
+     * @return The literal.
+     */
+    static OWLLiteral createFloatingPointLiteral(String lexicalForm, OWLDatatype datatype, OWLDataFactory dataFactory) {
+        if(lexicalForm.equals("NaN")) {
+            return createLiteral(lexicalForm, datatype);
+        }
+        return dataFactory.getOWLLiteral(lexicalForm, datatype);
+    }
+
+    private static boolean writeLong(byte marker, String lexicalForm, long min, long max, BinaryOWLOutputStream outputStream) throws IOException {
+        long value;
+        try {
+            value = Long.parseLong(lexicalForm);
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
+        if(value < min || value > max || !Long.toString(value).equals(lexicalForm)) {
+            return false;
+        }
+        outputStream.writeByte(marker);
+        outputStream.writeZigZagVarLong(value);
+        return true;
+    }
+
+    private static boolean writeDouble(String lexicalForm, BinaryOWLOutputStream outputStream) throws IOException {
+        double value;
+        try {
+            value = Double.parseDouble(lexicalForm);
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
+        if(!Double.toString(value).equals(lexicalForm)) {
+            return false;
+        }
+        outputStream.writeByte(XSD_DOUBLE_MARKER);
+        outputStream.writeLong(Double.doubleToLongBits(value));
+        return true;
+    }
+
+    private static boolean writeFloat(String lexicalForm, BinaryOWLOutputStream outputStream) throws IOException {
+        float value;
+        try {
+            value = Float.parseFloat(lexicalForm);
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
+        if(!Float.toString(value).equals(lexicalForm)) {
+            return false;
+        }
+        outputStream.writeByte(XSD_FLOAT_MARKER);
+        outputStream.writeInt(Float.floatToIntBits(value));
+        return true;
+    }
+
+    private static boolean writeDecimal(String lexicalForm, BinaryOWLOutputStream outputStream) throws IOException {
+        BigDecimal value;
+        try {
+            value = new BigDecimal(lexicalForm);
+        }
+        catch (NumberFormatException e) {
+            return false;
+        }
+        if(value.unscaledValue().bitLength() > 63 || !value.toPlainString().equals(lexicalForm)) {
+            return false;
+        }
+        outputStream.writeByte(XSD_DECIMAL_MARKER);
+        outputStream.writeZigZagVarLong(value.scale());
+        outputStream.writeZigZagVarLong(value.unscaledValue().longValue());
+        return true;
+    }
+
+    private static boolean writeDateTime(String lexicalForm, BinaryOWLOutputStream outputStream) throws IOException {
+        DateTime dateTime = DateTime.parse(lexicalForm);
+        if(dateTime == null || !dateTime.toString().equals(lexicalForm)) {
+            return false;
+        }
+        outputStream.writeByte(XSD_DATE_TIME_MARKER);
+        outputStream.writeByte(dateTime.timeZone);
+        if(dateTime.timeZone == OFFSET_TIME_ZONE) {
+            outputStream.writeZigZagVarLong(dateTime.offsetMinutes);
+        }
+        outputStream.writeZigZagVarLong(dateTime.epochSeconds);
+        outputStream.writeCompactInt(dateTime.fractionDigits);
+        if(dateTime.fractionDigits > 0) {
+            outputStream.writeCompactInt(dateTime.fraction);
+        }
+        return true;
+    }
+
+    private static DateTime readDateTime(BinaryOWLInputStream inputStream) throws IOException {
+        int timeZone = inputStream.readByte();
+        if(timeZone != NO_TIME_ZONE && timeZone != UTC_TIME_ZONE && timeZone != OFFSET_TIME_ZONE) {
+            throw new IOException("Unknown time zone marker: " + timeZone);
+        }
+        int offsetMinutes = timeZone == OFFSET_TIME_ZONE ? (int) inputStream.readZigZagVarLong() : 0;
+        long epochSeconds = inputStream.readZigZagVarLong();
+        int fractionDigits = inputStream.readCompactInt();
+        if(fractionDigits > MAX_FRACTION_DIGITS) {
+            throw new IOException("Too many fractional second digits: " + fractionDigits);
+        }
+        int fraction = fractionDigits > 0 ? inputStream.readCompactInt() : 0;
+        return new DateTime(epochSeconds, fractionDigits, fraction, timeZone, offsetMinutes);
+    }
+
+    /**
+     * The fields of an {@code xsd:dateTime} lexical form.
+     */
+    private static class DateTime {
+
+        private final long epochSeconds;
+
+        private final int fractionDigits;
+
+        private final int fraction;
+
+        private final int timeZone;
+
+        private final int offsetMinutes;
+
+        private DateTime(long epochSeconds, int fractionDigits, int fraction, int timeZone, int offsetMinutes) {
+            this.epochSeconds = epochSeconds;
+            this.fractionDigits = fractionDigits;
+            this.fraction = fraction;
+            this.timeZone = timeZone;
+            this.offsetMinutes = offsetMinutes;
+        }
+
+        /**
+         * Parses a lexical form.  Out of range fields are not rejected here, but they do not survive being formatted
+         * again, so callers must compare {@link #toString()} with the lexical form.
+         * @return The fields, or {@code null} if the lexical form does not have the expected shape.
+         */
+        private static DateTime parse(String lexicalForm) {
+            Matcher matcher = DATE_TIME_PATTERN.matcher(lexicalForm);
+            if(!matcher.matches()) {
+                return null;
+            }
+            long days = getDaysFromEpoch(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+            long epochSeconds = days * SECONDS_PER_DAY + Integer.parseInt(matcher.group(4)) * 3600L + Integer.parseInt(matcher.group(5)) * 60L + Integer.parseInt(matcher.group(6));
+            String fractionDigits = matcher.group(7);
+            int fraction = fractionDigits != null ? Integer.parseInt(fractionDigits) : 0;
+            String zone = matcher.group(8);
+            int timeZone;
+            int offsetMinutes = 0;
+            if(zone == null) {
+                timeZone = NO_TIME_ZONE;
+            }
+            else if(zone.equals("Z")) {
+                timeZone = UTC_TIME_ZONE;
+            }
+            else {
+                timeZone = OFFSET_TIME_ZONE;
+                offsetMinutes = Integer.parseInt(matcher.group(10)) * 60 + Integer.parseInt(matcher.group(11));
+                if(matcher.group(9).equals("-")) {
+                    offsetMinutes = -offsetMinutes;
+                }
+            }
+            return new DateTime(epochSeconds, fractionDigits != null ? fractionDigits.length() : 0, fraction, timeZone, offsetMinutes);
+        }
+
+        /**
+         * Gets the number of days from 1970-01-01 to a date in the proleptic Gregorian calendar.
+         */
+        private static long getDaysFromEpoch(long year, int month, int day) {
+            long y = month <= 2 ? year - 1 : year;
+            long era = (y >= 0 ? y : y - 399) / 400;
+            long yearOfEra = y - era * 400;
+            long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+            long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+            return era * 146097 + dayOfEra - 719468;
+        }
+
+        @Override
+        public String toString() {
+            long days = epochSeconds / SECONDS_PER_DAY;
+            if(epochSeconds % SECONDS_PER_DAY < 0) {
+                days--;
+            }
+            long secondOfDay = epochSeconds - days * SECONDS_PER_DAY;
+            // Convert the number of days back into a date in the proleptic Gregorian calendar
+            long z = days + 719468;
+            long era = (z >= 0 ? z : z - 146096) / 146097;
+            long dayOfEra = z - era * 146097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long mp = (5 * dayOfYear + 2) / 153;
+            long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+            long month = mp < 10 ? mp + 3 : mp - 9;
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "%04d-%02d-%02dT%02d:%02d:%02d", year, month, day, secondOfDay / 3600, (secondOfDay / 60) % 60, secondOfDay % 60));
+            if(fractionDigits > 0) {
+                sb.append('.');
+                sb.append(String.format(Locale.ROOT, "%0" + fractionDigits + "d", fraction));
+            }
+            if(timeZone == UTC_TIME_ZONE) {
+                sb.append('Z');
+            }
+            else if(timeZone == OFFSET_TIME_ZONE) {
+                int absoluteOffset = Math.abs(offsetMinutes);
+                sb.append(offsetMinutes < 0 ? '-' : '+');
+                sb.append(String.format(Locale.ROOT, "%02d:%02d", absoluteOffset / 60, absoluteOffset % 60));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -69,4 +69,11 @@ public class OWLAnnotationAssertionAxiomSerializer extends AbstractAxiomSerializ
         OWLAnnotationValue value = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLAnnotationAssertionAxiom(property, subject, value, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
@@ -71,4 +71,11 @@ public class OWLAnnotationSerializer extends OWLObjectSerializer<OWLAnnotation>
         OWLAnnotationValue value = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLAnnotation(property, value, annotations);
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObjects();
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
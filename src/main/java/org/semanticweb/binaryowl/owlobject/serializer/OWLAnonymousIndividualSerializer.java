@@ -63,4 +63,9 @@ public class OWLAnonymousIndividualSerializer extends OWLObjectSerializer<OWLAno
     protected OWLAnonymousIndividual readObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
         return inputStream.readAnonymousIndividual();
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipAnonymousIndividual();
+    }
 }
@@ -70,4 +70,10 @@ public class OWLClassAssertionAxiomSerializer extends AbstractAxiomSerializer<OW
         OWLIndividual individual = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLClassAssertionAxiom(classExpression, individual, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
@@ -69,4 +69,11 @@ public class OWLDataPropertyAssertionAxiomSerializer extends AbstractAxiomSerial
         OWLLiteral object = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLDataPropertyAssertionAxiom(property, subject, object, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
@@ -68,4 +68,8 @@ public class OWLDeclarationSerializer extends AbstractAxiomSerializer<OWLDeclara
         return inputStream.getDataFactory().getOWLDeclarationAxiom(entity, annotations);
     }
 
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+    }
 }
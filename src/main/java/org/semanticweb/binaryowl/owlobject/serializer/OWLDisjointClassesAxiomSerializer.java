@@ -67,4 +67,9 @@ public class OWLDisjointClassesAxiomSerializer extends AbstractAxiomSerializer<O
         Set<OWLClassExpression> classExpressions = inputStream.readOWLObjects();
         return inputStream.getDataFactory().getOWLDisjointClassesAxiom(classExpressions, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObjects();
+    }
 }
@@ -64,8 +64,7 @@ public class OWLEntitySerializer<E extends OWLEntity> extends OWLObjectSerialize
 
     @Override
     protected void writeObject(E object, BinaryOWLOutputStream outputStream) throws IOException {
-        IRI iri = object.getIRI();
-        outputStream.writeIRI(iri);
+        outputStream.writeEntityIRI(object);
     }
 
     @SuppressWarnings("unchecked")
@@ -92,4 +91,9 @@ public class OWLEntitySerializer<E extends OWLEntity> extends OWLObjectSerialize
         IRI iri = inputStream.readIRI();
         return inputStream.getDataFactory().getOWLEntity(entityType, iri);
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipIRI();
+    }
 }
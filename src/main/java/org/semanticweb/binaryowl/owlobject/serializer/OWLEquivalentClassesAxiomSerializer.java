@@ -67,4 +67,9 @@ public class OWLEquivalentClassesAxiomSerializer extends AbstractAxiomSerializer
         Set<OWLClassExpression> classExpressions = inputStream.readOWLObjects();
         return inputStream.getDataFactory().getOWLEquivalentClassesAxiom(classExpressions, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObjects();
+    }
 }
@@ -59,13 +59,13 @@ public class OWLFacetRestrictionSerializer extends OWLObjectSerializer<OWLFacetR
     @Override
     protected void writeObject(OWLFacetRestriction object, BinaryOWLOutputStream outputStream) throws IOException {
         int facetMarker = getFacetMarker(object.getFacet());
-        outputStream.writeInt(facetMarker);
+        outputStream.writeCompactInt(facetMarker);
         outputStream.writeOWLObject(object.getFacetValue());
     }
 
     @Override
     protected OWLFacetRestriction readObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
-        int facetIndex = inputStream.readInt();
+        int facetIndex = inputStream.readCompactInt();
         OWLFacet facet = getFacet(facetIndex);
         OWLLiteral literal = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLFacetRestriction(facet, literal);
@@ -136,8 +136,14 @@ public class OWLLiteralSerializer extends OWLObjectSerializer<OWLLiteral> {
 
             OWLDatatype datatype = is.readDatatypeIRI();
             byte[] literalBytes = readBytes(is);
+            if(datatype.isDouble() || datatype.isFloat()) {
+                return NativeLiteralCodec.createFloatingPointLiteral(new String(literalBytes, UTF_8), datatype, is.getDataFactory());
+            }
             return new OWLLiteralImplNoCompression(literalBytes, null, datatype);
         }
+        else if(NativeLiteralCodec.isNativeMarker(typeMarker)) {
+            return NativeLiteralCodec.read(typeMarker, is);
+        }
         else {
             throw new RuntimeException("Unknown type marker: " + typeMarker);
         }
@@ -146,6 +152,42 @@ public class OWLLiteralSerializer extends OWLObjectSerializer<OWLLiteral> {
     }
 
 
+    /**
+     * Moves past a literal that was written by {@link #writeLiteral(BinaryOWLOutputStream, OWLLiteral)} without
+     * building it.
+     * @param is The stream to skip the literal in.
+     * @throws IOException If there was a problem reading from the stream.
+     */
+    public void skipLiteral(BinaryOWLInputStream is) throws IOException {
+        int typeMarker = is.readByte();
+        if (typeMarker == RDF_PLAIN_LITERAL_MARKER) {
+            int langMarker = is.readByte();
+            if (langMarker == LANG_MARKER) {
+                skipUTF(is);
+            }
+            else if (langMarker != NO_LANG_MARKER) {
+                throw new IOException("Unknown lang marker: " + langMarker);
+            }
+            skipBytes(is);
+        }
+        else if(typeMarker == XSD_STRING_MARKER) {
+            skipBytes(is);
+        }
+        else if(typeMarker == XSD_BOOLEAN_MARKER) {
+            is.readBoolean();
+        }
+        else if (typeMarker == OTHER_DATATYPE_MARKER) {
+            is.skipIRI();
+            skipBytes(is);
+        }
+        else if(NativeLiteralCodec.isNativeMarker(typeMarker)) {
+            NativeLiteralCodec.skip(typeMarker, is);
+        }
+        else {
+            throw new RuntimeException("Unknown type marker: " + typeMarker);
+        }
+    }
+
     public void writeLiteral(BinaryOWLOutputStream outputStream, OWLLiteral literal) throws IOException {
             writeRawLiteral(outputStream, literal);
 
@@ -158,6 +200,9 @@ public class OWLLiteralSerializer extends OWLObjectSerializer<OWLLiteral> {
             outputStream.writeBoolean(literal.parseBoolean());
             return;
         }
+        else if(outputStream.getVersion().isTypedLiteralNativelyEncoded() && NativeLiteralCodec.write(literal, outputStream)) {
+            return;
+        }
         else if (literal.isRDFPlainLiteral()) {
             outputStream.writeByte(RDF_PLAIN_LITERAL_MARKER);
             if (literal.hasLang()) {
@@ -173,7 +218,7 @@ public class OWLLiteralSerializer extends OWLObjectSerializer<OWLLiteral> {
         }
         else {
             outputStream.writeByte(OTHER_DATATYPE_MARKER);
-            outputStream.writeIRI(literal.getDatatype().getIRI());
+            outputStream.writeEntityIRI(literal.getDatatype());
         }
 
         byte[] literalBytes;
@@ -195,15 +240,44 @@ public class OWLLiteralSerializer extends OWLObjectSerializer<OWLLiteral> {
 
 
     private void writeBytes(byte[] bytes, BinaryOWLOutputStream os) throws IOException {
-        os.writeShort(bytes.length);
+        if(os.getVersion().isVarIntEncoded()) {
+            os.writeCompactInt(bytes.length);
+        }
+        else {
+            os.writeShort(bytes.length);
+        }
         os.write(bytes);
     }
 
+    private int readBytesLength(BinaryOWLInputStream is) throws IOException {
+        if(is.getVersion().isVarIntEncoded()) {
+            return is.readCompactInt();
+        }
+        else {
+            return is.readShort();
+        }
+    }
+
+
+    private void skipUTF(BinaryOWLInputStream is) throws IOException {
+        int length = is.readUnsignedShort();
+        is.skipBytes(length);
+    }
+
+    private void skipBytes(BinaryOWLInputStream is) throws IOException {
+        int length = readBytesLength(is);
+        is.skipBytes(length);
+    }
 
     private byte[] readBytes(BinaryOWLInputStream is) throws IOException {
-        int length = is.readShort();
+        int length = readBytesLength(is);
         byte[] bytes = new byte[length];
         is.readFully(bytes);
         return bytes;
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipLiteral();
+    }
 }
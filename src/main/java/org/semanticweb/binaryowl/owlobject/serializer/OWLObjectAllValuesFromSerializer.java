@@ -67,4 +67,10 @@ public class OWLObjectAllValuesFromSerializer extends OWLObjectSerializer<OWLObj
         OWLClassExpression filler = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLObjectAllValuesFrom(property, filler);
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
@@ -59,14 +59,14 @@ public abstract class OWLObjectCardinalityRestrictionSerializer<R extends OWLObj
 
     @Override
     protected void writeObject(R object, BinaryOWLOutputStream outputStream) throws IOException {
-        outputStream.writeInt(object.getCardinality());
+        outputStream.writeCompactInt(object.getCardinality());
         outputStream.writeOWLObject(object.getProperty());
         outputStream.writeOWLObject(object.getFiller());
     }
 
     @Override
     protected R readObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
-        int cardinality = inputStream.readInt();
+        int cardinality = inputStream.readCompactInt();
         OWLObjectPropertyExpression property = inputStream.readOWLObject();
         OWLClassExpression filler = inputStream.readOWLObject();
         return createRestriction(cardinality,  property, filler, inputStream.getDataFactory());
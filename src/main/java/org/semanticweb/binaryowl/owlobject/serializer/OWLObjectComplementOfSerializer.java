@@ -65,4 +65,9 @@ public class OWLObjectComplementOfSerializer extends OWLObjectSerializer<OWLObje
         OWLClassExpression classExpression = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLObjectComplementOf(classExpression);
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+    }
 }
@@ -66,4 +66,9 @@ public class OWLObjectIntersectionOfSerializer extends OWLObjectSerializer<OWLOb
         Set<OWLClassExpression> classExpressions = inputStream.readOWLObjects();
         return inputStream.getDataFactory().getOWLObjectIntersectionOf(classExpressions);
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObjects();
+    }
 }
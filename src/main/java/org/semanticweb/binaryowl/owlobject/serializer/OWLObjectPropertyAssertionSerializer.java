@@ -72,4 +72,11 @@ public class OWLObjectPropertyAssertionSerializer extends AbstractAxiomSerialize
         OWLIndividual object = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLObjectPropertyAssertionAxiom(property, subject, object, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
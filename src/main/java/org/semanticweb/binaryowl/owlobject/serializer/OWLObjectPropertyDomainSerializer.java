@@ -70,4 +70,10 @@ public class OWLObjectPropertyDomainSerializer extends AbstractAxiomSerializer<O
         OWLClassExpression classExpression = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLObjectPropertyDomainAxiom(propertyExpression, classExpression, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
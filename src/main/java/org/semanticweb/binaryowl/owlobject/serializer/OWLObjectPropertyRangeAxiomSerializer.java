@@ -70,4 +70,10 @@ public class OWLObjectPropertyRangeAxiomSerializer extends AbstractAxiomSerializ
         OWLClassExpression range = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLObjectPropertyRangeAxiom(propertyExpression, range, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
@@ -69,6 +69,10 @@ public abstract class OWLObjectSerializer<C extends OWLObject> extends Serialize
         return readObject(inputStream);
     }
 
+    final public void skip(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        skipObject(inputStream);
+    }
+
     /**
      * Writes a binary representation of an {@link OWLObject} to a {@link DataOutputStream}.  This method does NOT write the object type marker out -
      * only the data that represents the object.
@@ -89,4 +93,15 @@ public abstract class OWLObjectSerializer<C extends OWLObject> extends Serialize
      * @param inputStream@throws IOException If there was a problem reading the object from the stream.
      */
     protected abstract C readObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException;
+
+    /**
+     * Moves past the binary representation of an {@link OWLObject} without building the object.  The representation
+     * is NOT prefixed with the type marker for the object type.  By default the object is read and discarded;
+     * serializers for frequently occurring objects override this with a structural skip.
+     * @param inputStream The stream to skip the object in.
+     * @throws IOException If there was a problem reading from the stream.
+     */
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        readObject(inputStream);
+    }
 }
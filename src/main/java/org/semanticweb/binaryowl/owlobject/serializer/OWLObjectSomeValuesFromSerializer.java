@@ -68,4 +68,10 @@ public class OWLObjectSomeValuesFromSerializer extends OWLObjectSerializer<OWLOb
         OWLClassExpression filler = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLObjectSomeValuesFrom(property, filler);
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
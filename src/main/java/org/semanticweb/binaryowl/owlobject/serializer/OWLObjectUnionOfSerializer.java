@@ -66,4 +66,9 @@ public class OWLObjectUnionOfSerializer extends OWLObjectSerializer<OWLObjectUni
         Set<OWLClassExpression> classExpressions = inputStream.readOWLObjects();
         return inputStream.getDataFactory().getOWLObjectUnionOf(classExpressions);
     }
+
+    @Override
+    protected void skipObject(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObjects();
+    }
 }
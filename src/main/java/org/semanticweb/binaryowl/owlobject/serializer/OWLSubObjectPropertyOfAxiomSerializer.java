@@ -69,4 +69,10 @@ public class OWLSubObjectPropertyOfAxiomSerializer extends AbstractAxiomSerializ
         OWLObjectPropertyExpression superProperty = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLSubObjectPropertyOfAxiom(subProperty, superProperty, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
@@ -63,7 +63,7 @@ public class OWLSubPropertyChainOfAxiomSerializer extends AbstractAxiomSerialize
     protected void writeAxiom(OWLSubPropertyChainOfAxiom axiom, BinaryOWLOutputStream outputStream) throws IOException {
         // Must be a list
         List<OWLObjectPropertyExpression> propertyChain = axiom.getPropertyChain();
-        outputStream.writeInt(propertyChain.size());
+        outputStream.writeCompactInt(propertyChain.size());
         for(OWLObjectPropertyExpression propertyExpression : propertyChain) {
             outputStream.writeOWLObject(propertyExpression);
         }
@@ -72,7 +72,7 @@ public class OWLSubPropertyChainOfAxiomSerializer extends AbstractAxiomSerialize
 
     @Override
     protected OWLSubPropertyChainOfAxiom readAxiom(BinaryOWLInputStream inputStream, Set<OWLAnnotation> annotations) throws IOException, BinaryOWLParseException {
-        int size = inputStream.readInt();
+        int size = inputStream.readCompactInt();
         List<OWLObjectPropertyExpression> chain = new ArrayList<OWLObjectPropertyExpression>(size);
         for(int i = 0; i < size; i++) {
             OWLObjectPropertyExpression property = inputStream.readOWLObject();
@@ -69,4 +69,10 @@ public class OWLSubclassOfAxiomSerializer extends AbstractAxiomSerializer<OWLSub
         OWLClassExpression superClass = inputStream.readOWLObject();
         return inputStream.getDataFactory().getOWLSubClassOfAxiom(subClass, superClass, annotations);
     }
+
+    @Override
+    protected void skipAxiom(BinaryOWLInputStream inputStream) throws IOException, BinaryOWLParseException {
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+    }
 }
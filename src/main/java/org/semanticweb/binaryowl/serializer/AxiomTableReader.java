@@ -0,0 +1,95 @@
+package org.semanticweb.binaryowl.serializer;
+
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentAxiomStreamHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHandler;
+import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.BinaryOWLReaderConfiguration;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ *     Reads axiom tables and passes them to a document handler.  Streaming handlers
+ *     ({@link BinaryOWLOntologyDocumentAxiomStreamHandler}) receive the axioms of each table in batches as they are
+ *     decoded; other handlers receive each table as a set.
+ * </p>
+ */
+public final class AxiomTableReader {
+
+    private final BinaryOWLReaderConfiguration configuration;
+
+    private final int batchSize;
+
+    public AxiomTableReader(BinaryOWLReaderConfiguration configuration) {
+        this.configuration = configuration;
+        this.batchSize = configuration.getAxiomBatchSize();
+    }
+
+    /**
+     * Determines whether the table for an axiom type should be read, or skipped.
+     * @param axiomType The axiom type.
+     * @return {@code true} if the table should be read.
+     */
+    public boolean isIncluded(AxiomType<?> axiomType) {
+        return configuration.isAxiomTypeIncluded(axiomType);
+    }
+
+    /**
+     * Reads the next axiom table from an input stream.  If the configuration excludes the type of axioms in the table
+     * then the table is skipped without building any objects.
+     * @param inputStream The stream, positioned at the start of the table.
+     * @param axiomType The type of axioms in the table.
+     * @param handler The handler.
+     */
+    public <E extends Throwable> void readOrSkipAxiomTable(BinaryOWLInputStream inputStream, AxiomType<?> axiomType, BinaryOWLOntologyDocumentHandler<E> handler) throws IOException, BinaryOWLParseException, E {
+        if(isIncluded(axiomType)) {
+            readAxiomTable(inputStream, handler);
+        }
+        else {
+            inputStream.skipOWLObjects();
+        }
+    }
+
+    /**
+     * Determines whether a handler needs its axiom tables to be decoded one axiom at a time.
+     * @param handler The handler.
+     * @return {@code true} if the handler is a {@link BinaryOWLOntologyDocumentAxiomStreamHandler}.
+     */
+    public static boolean isStreamingHandler(BinaryOWLOntologyDocumentHandler<?> handler) {
+        return handler instanceof BinaryOWLOntologyDocumentAxiomStreamHandler;
+    }
+
+    /**
+     * Reads the next axiom table from an input stream and passes its axioms to a handler.
+     * @param inputStream The stream, positioned at the start of the table.
+     * @param handler The handler.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Throwable> void readAxiomTable(BinaryOWLInputStream inputStream, BinaryOWLOntologyDocumentHandler<E> handler) throws IOException, BinaryOWLParseException, E {
+        if(isStreamingHandler(handler)) {
+            BinaryOWLOntologyDocumentAxiomStreamHandler<E> streamHandler = (BinaryOWLOntologyDocumentAxiomStreamHandler<E>) handler;
+            int size = inputStream.readCollectionSize();
+            int remaining = size;
+            while(remaining > 0) {
+                int count = Math.min(remaining, batchSize);
+                List<OWLAxiom> batch = new ArrayList<OWLAxiom>(count);
+                for(int i = 0; i < count; i++) {
+                    OWLAxiom axiom = inputStream.readOWLObject();
+                    batch.add(axiom);
+                }
+                remaining -= count;
+                streamHandler.handleAxiomBatch(batch);
+            }
+        }
+        else {
+            Set<OWLAxiom> axiomsOfType = inputStream.readOWLObjects();
+            handler.handleAxioms(axiomsOfType);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.semanticweb.binaryowl.serializer;
+
+import com.google.common.primitives.UnsignedBytes;
+import org.semanticweb.binaryowl.BinaryOWLAxiomOrdering;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
+import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
+import org.semanticweb.binaryowl.lookup.AnonymousIndividualLookupTable;
+import org.semanticweb.binaryowl.lookup.LookupTable;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ *     Sorts and encodes the axiom tables of a document, one buffer per {@link AxiomType}, in the order of
+ *     {@link AxiomType#AXIOM_TYPES}.  The axioms in each table are ordered as the configuration specifies (see
+ *     {@link BinaryOWLAxiomOrdering}).  If the configuration specifies an executor then the tables are encoded
+ *     concurrently, using the IRI table as a read-only dictionary.  The output is byte-for-byte the same as encoding
+ *     the tables one after the other.
+ * </p>
+ * <p>
+ *     Anonymous individuals are numbered in the order in which they are written, so a table that contains them cannot
+ *     be encoded until all of the tables before it have been.  Workers skip such tables and they are encoded on the
+ *     calling thread, in order, once the tables before them are done.  Tables without anonymous individuals do
+ *     not depend on the numbering and are used as the workers encoded them.
+ * </p>
+ */
+public final class AxiomTableWriter {
+
+    private final BinaryOWLWriterConfiguration configuration;
+
+    private final LookupTable lookupTable;
+
+    private final BinaryOWLVersion version;
+
+    /**
+     * @param configuration The configuration, which supplies the executor (if any).
+     * @param lookupTable The lookup table used to encode the document.  Anonymous individuals are numbered in this
+     *                    table, on the calling thread.
+     * @param version The version of the format being written.
+     */
+    public AxiomTableWriter(BinaryOWLWriterConfiguration configuration, LookupTable lookupTable, BinaryOWLVersion version) {
+        this.configuration = configuration;
+        this.lookupTable = lookupTable;
+        this.version = version;
+    }
+
+    /**
+     * Encodes the axiom tables of a document.
+     * @param doc The document.
+     * @return One buffer per axiom type, in the order of {@link AxiomType#AXIOM_TYPES}.  Each buffer holds the encoded
+     * table, which is the number of axioms followed by the axioms in canonical order.
+     * @throws IOException If an axiom could not be encoded.
+     */
+    public List<ByteArrayOutputStream> writeAxiomTables(OWLOntologyDocument doc) throws IOException {
+        ExecutorService executor = configuration.getExecutor();
+        List<ByteArrayOutputStream> tables = new ArrayList<ByteArrayOutputStream>(AxiomType.AXIOM_TYPES.size());
+        if(executor == null) {
+            for (AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+                tables.add(encodeAxiomTable(doc.getAxioms(axiomType), lookupTable));
+            }
+            return tables;
+        }
+        List<AxiomType<?>> axiomTypes = new ArrayList<AxiomType<?>>(AxiomType.AXIOM_TYPES);
+        LookupTable workerLookupTable = new LookupTable(lookupTable.getIRILookupTable(), new RefusingAnonymousIndividualLookupTable(), lookupTable.getLiteralLookupTable());
+        List<Future<ByteArrayOutputStream>> pendingTables = new ArrayList<Future<ByteArrayOutputStream>>();
+        for (AxiomType<?> axiomType : axiomTypes) {
+            pendingTables.add(executor.submit(new AxiomTableEncoder(doc.getAxioms(axiomType), workerLookupTable)));
+        }
+        try {
+            for(int i = 0; i < pendingTables.size(); i++) {
+                ByteArrayOutputStream table = getEncodedTable(pendingTables.get(i));
+                if(table == null) {
+                    // The table contains anonymous individuals
+                    table = encodeAxiomTable(doc.getAxioms(axiomTypes.get(i)), lookupTable);
+                }
+                tables.add(table);
+            }
+        }
+        finally {
+            for(Future<ByteArrayOutputStream> future : pendingTables) {
+                future.cancel(true);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Waits for an axiom table to be encoded.
+     * @return The encoded table, or {@code null} if the worker skipped it because it contains anonymous individuals.
+     */
+    private static ByteArrayOutputStream getEncodedTable(Future<ByteArrayOutputStream> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst waiting for axiom tables to be encoded");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            else if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            else {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    /**
+     * Writes one axiom table, on the calling thread, straight to an output.
+     * @param axioms The axioms in the table.
+     * @param dataOutput The output to write the table to.
+     * @throws IOException If there was a problem writing the table.
+     */
+    public void writeAxiomTable(Set<? extends OWLAxiom> axioms, DataOutput dataOutput) throws IOException {
+        writeAxiomTable(axioms, dataOutput, lookupTable);
+    }
+
+    private ByteArrayOutputStream encodeAxiomTable(Set<? extends OWLAxiom> axioms, LookupTable lookupTable) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeAxiomTable(axioms, new DataOutputStream(buffer), lookupTable);
+        return buffer;
+    }
+
+    private void writeAxiomTable(Set<? extends OWLAxiom> axioms, DataOutput dataOutput, LookupTable lookupTable) throws IOException {
+        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(dataOutput, lookupTable, version);
+        switch (configuration.getAxiomOrdering()) {
+            case UNORDERED:
+                outputStream.writeOWLObjects(axioms);
+                break;
+            case ENCODED:
+                writeInEncodedOrder(axioms, outputStream, lookupTable);
+                break;
+            default:
+                List<OWLAxiom> orderedAxioms = new ArrayList<OWLAxiom>(axioms);
+                Collections.sort(orderedAxioms);
+                outputStream.writeOWLObjectList(orderedAxioms);
+        }
+    }
+
+    private void writeInEncodedOrder(Set<? extends OWLAxiom> axioms, BinaryOWLOutputStream outputStream, LookupTable lookupTable) throws IOException {
+        // From version 8 the encoding of an axiom depends on the axioms written before it in the same stream, because
+        // it may contain back-references to them.  Each axiom is then encoded on its own, so that its sort key does not
+        // depend on the order in which the set is iterated, and written again, in sorted order, into the table stream.
+        boolean backReferenced = version.isClassExpressionBackReferenced();
+        List<EncodedAxiom> encodedAxioms = new ArrayList<EncodedAxiom>(axioms.size());
+        List<OWLAxiom> axiomsWithAnonymousIndividuals = new ArrayList<OWLAxiom>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        BinaryOWLOutputStream axiomOutputStream = new BinaryOWLOutputStream(new DataOutputStream(buffer), lookupTable, version);
+        for(OWLAxiom axiom : axioms) {
+            if(axiom.getAnonymousIndividuals().isEmpty()) {
+                buffer.reset();
+                if(backReferenced) {
+                    axiomOutputStream = new BinaryOWLOutputStream(new DataOutputStream(buffer), lookupTable, version);
+                }
+                axiomOutputStream.writeOWLObject(axiom);
+                encodedAxioms.add(new EncodedAxiom(axiom, buffer.toByteArray()));
+            }
+            else {
+                // Anonymous individuals are numbered as they are written, so these can only be encoded in place
+                axiomsWithAnonymousIndividuals.add(axiom);
+            }
+        }
+        Collections.sort(encodedAxioms);
+        Collections.sort(axiomsWithAnonymousIndividuals);
+        outputStream.writeCollectionSize(axioms.size());
+        for(EncodedAxiom encodedAxiom : encodedAxioms) {
+            if(backReferenced) {
+                outputStream.writeOWLObject(encodedAxiom.axiom);
+            }
+            else {
+                outputStream.write(encodedAxiom.bytes);
+            }
+        }
+        for(OWLAxiom axiom : axiomsWithAnonymousIndividuals) {
+            outputStream.writeOWLObject(axiom);
+        }
+    }
+
+    /**
+     * An axiom and its encoding, which is its sort key in the encoded ordering.
+     */
+    private static class EncodedAxiom implements Comparable<EncodedAxiom> {
+
+        private final OWLAxiom axiom;
+
+        private final byte[] bytes;
+
+        private EncodedAxiom(OWLAxiom axiom, byte[] bytes) {
+            this.axiom = axiom;
+            this.bytes = bytes;
+        }
+
+        public int compareTo(EncodedAxiom o) {
+            return UnsignedBytes.lexicographicalComparator().compare(bytes, o.bytes);
+        }
+    }
+
+    /**
+     * Sorts and encodes one axiom table on a worker thread.
+     */
+    private class AxiomTableEncoder implements Callable<ByteArrayOutputStream> {
+
+        private final Set<? extends OWLAxiom> axioms;
+
+        private final LookupTable lookupTable;
+
+        private AxiomTableEncoder(Set<? extends OWLAxiom> axioms, LookupTable lookupTable) {
+            this.axioms = axioms;
+            this.lookupTable = lookupTable;
+        }
+
+        /**
+         * @return The encoded table, or {@code null} if the table contains anonymous individuals.
+         */
+        public ByteArrayOutputStream call() throws IOException {
+            for(OWLAxiom axiom : axioms) {
+                if(!axiom.getAnonymousIndividuals().isEmpty()) {
+                    return null;
+                }
+            }
+            return encodeAxiomTable(axioms, lookupTable);
+        }
+    }
+
+    /**
+     * Used by workers, which cannot number anonymous individuals because the numbering depends on the order in which
+     * they are written.  Workers skip tables with anonymous individuals, so this is never asked for an index.
+     */
+    private static class RefusingAnonymousIndividualLookupTable extends AnonymousIndividualLookupTable {
+
+        @Override
+        public int getIndex(OWLAnonymousIndividual ind) {
+            throw new IllegalStateException("Anonymous individuals must be numbered on the calling thread");
+        }
+    }
+}
@@ -2,14 +2,22 @@ package org.semanticweb.binaryowl.serializer;
 
 import org.semanticweb.binaryowl.BinaryOWLMetadata;
 import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHeader;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentPreamble;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSignature;
 import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.BinaryOWLReaderConfiguration;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
 import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.UnloadableImportException;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Set;
 
 /**
  * Author: Matthew Horridge<br>
@@ -23,8 +31,62 @@ import java.io.IOException;
  */
 public interface BinaryOWLDocumentBodySerializer {
 
-    <T extends Throwable> void read(DataInputStream dis, BinaryOWLOntologyDocumentHandler<T> handler, OWLDataFactory dataFactory) throws IOException, BinaryOWLParseException, UnloadableImportException, T;
+    /**
+     * Reads a document body.
+     * @param inputStream The stream to read from, positioned immediately after the document preamble.  If the stream
+     *                    implements {@link java.io.DataInput} (as {@link org.semanticweb.binaryowl.stream.ByteBufferInputStream}
+     *                    does) then primitive values are decoded by the stream itself.
+     * @param handler The handler that handles document elements as they are read.
+     * @param dataFactory The data factory used to instantiate objects.
+     * @param configuration Options that control how the body is read.
+     */
+    <T extends Throwable> void read(InputStream inputStream, BinaryOWLOntologyDocumentHandler<T> handler, OWLDataFactory dataFactory, BinaryOWLReaderConfiguration configuration) throws IOException, BinaryOWLParseException, UnloadableImportException, T;
 
-    void write(OWLOntologyDocument ontology, DataOutputStream dos, BinaryOWLMetadata documentMetadata) throws IOException;
+    /**
+     * Reads the axioms of a single type from a document body.  Formats that record where each section starts skip
+     * directly to the requested axiom table.
+     * @param inputStream The stream to read from, positioned immediately after the document preamble.
+     * @param axiomType The type of axioms to read.
+     * @param dataFactory The data factory used to instantiate objects.
+     * @return The axioms of the specified type.  Appended changes are not taken into account.
+     */
+    <A extends OWLAxiom> Set<A> readAxioms(InputStream inputStream, AxiomType<A> axiomType, OWLDataFactory dataFactory) throws IOException, BinaryOWLParseException;
+
+    /**
+     * Reads the metadata and ontology ID at the start of a document body, and nothing else.
+     * @param preamble The preamble of the document.
+     * @param inputStream The stream to read from, positioned immediately after the document preamble.
+     * @param dataFactory The data factory used to instantiate objects.
+     * @return The header of the document.
+     */
+    BinaryOWLOntologyDocumentHeader readHeader(BinaryOWLOntologyDocumentPreamble preamble, InputStream inputStream, OWLDataFactory dataFactory) throws IOException, BinaryOWLParseException;
+
+    /**
+     * Reads the header of a document body and the IRIs in its IRI table, without reading any axioms.
+     * @param preamble The preamble of the document.
+     * @param inputStream The stream to read from, positioned immediately after the document preamble.
+     * @param dataFactory The data factory used to instantiate objects.
+     * @return The signature of the document.
+     */
+    BinaryOWLOntologyDocumentSignature readSignature(BinaryOWLOntologyDocumentPreamble preamble, InputStream inputStream, OWLDataFactory dataFactory) throws IOException, BinaryOWLParseException;
+
+    /**
+     * Moves past a document body without building any of the objects in it.
+     * @param inputStream The stream to read from, positioned immediately after the document preamble.  On return it is
+     *                    positioned at the first of the changes that have been appended to the document (if any).
+     * @param dataFactory The data factory used to instantiate objects.
+     */
+    void skipBody(InputStream inputStream, OWLDataFactory dataFactory) throws IOException, BinaryOWLParseException;
+
+    /**
+     * Writes a document body.
+     * @param ontology The document to write.
+     * @param os The stream to write to, positioned immediately after the document preamble.  If the stream implements
+     *           {@link java.io.DataOutput} (as {@link org.semanticweb.binaryowl.stream.ChannelOutputStream} does) then
+     *           primitive values are encoded by the stream itself.  The stream is flushed, but not closed.
+     * @param documentMetadata The document metadata.
+     * @param configuration Options that control how the body is written.
+     */
+    void write(OWLOntologyDocument ontology, OutputStream os, BinaryOWLMetadata documentMetadata, BinaryOWLWriterConfiguration configuration) throws IOException;
 
 }
@@ -2,6 +2,7 @@ package org.semanticweb.binaryowl.serializer;
 
 import org.semanticweb.binaryowl.BinaryOWLVersion;
 import org.semanticweb.binaryowl.serializer.v1.BinaryOWLV1DocumentBodySerializer;
+import org.semanticweb.binaryowl.serializer.v3.BinaryOWLV3DocumentBodySerializer;
 
 /**
  * Author: Matthew Horridge<br>
@@ -15,6 +16,14 @@ public class BinaryOWLDocumentBodySerializerSelector {
         if(version.getVersion() == 1) {
             return new BinaryOWLV1DocumentBodySerializer();
         }
+        // Version 2 was the draft chunked format described in spec/ - it was never implemented
+        // Version 4 is version 3 with variable length integers, version 5 adds section compression, version 6
+        // front codes the IRI table, version 7 interns literals, version 8 back-references class expressions,
+        // version 9 writes numeric and date-time literals in binary form, version 10 partitions the IRI table by
+        // entity type and version 11 flags annotated axioms in their type markers
+        else if(version.getVersion() >= 3 && version.getVersion() <= 11) {
+            return new BinaryOWLV3DocumentBodySerializer(version);
+        }
         else {
             throw new RuntimeException("Unsupported Binary OWL Version: " + version);
         }
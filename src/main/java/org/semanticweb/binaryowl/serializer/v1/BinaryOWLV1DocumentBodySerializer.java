@@ -1,11 +1,19 @@
 package org.semanticweb.binaryowl.serializer.v1;
 
+import com.google.common.collect.ImmutableSet;
 import org.semanticweb.binaryowl.BinaryOWLMetadata;
 import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentAppendedChangeHandler;
 import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHeader;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentPreamble;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSignature;
 import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.BinaryOWLReaderConfiguration;
 import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
 import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.chunk.ChangeIndexChunk;
 import org.semanticweb.binaryowl.chunk.BinaryOWLMetadataChunk;
 import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
 import org.semanticweb.binaryowl.lookup.IRILookupTable;
@@ -13,10 +21,14 @@ import org.semanticweb.binaryowl.lookup.LiteralLookupTable;
 import org.semanticweb.binaryowl.lookup.LookupTable;
 import org.semanticweb.binaryowl.owlobject.serializer.BinaryOWLImportsDeclarationSet;
 import org.semanticweb.binaryowl.owlobject.serializer.BinaryOWLOntologyID;
+import org.semanticweb.binaryowl.serializer.AxiomTableReader;
+import org.semanticweb.binaryowl.serializer.AxiomTableWriter;
 import org.semanticweb.binaryowl.serializer.BinaryOWLDocumentBodySerializer;
 import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
 import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil;
 import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLDataFactory;
@@ -24,10 +36,11 @@ import org.semanticweb.owlapi.model.OWLImportsDeclaration;
 import org.semanticweb.owlapi.model.OWLOntologyID;
 import org.semanticweb.owlapi.model.UnloadableImportException;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -48,9 +61,14 @@ public class BinaryOWLV1DocumentBodySerializer implements BinaryOWLDocumentBodyS
      */
     private static final BinaryOWLVersion VERSION = BinaryOWLVersion.getVersion(1);
 
-    public <E extends Throwable> void read(DataInputStream dis, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+    /**
+     * Reads a version 1 body.  Axiom tables are not framed in this format, so they are always decoded on the calling
+     * thread, whatever executor the configuration specifies, and tables that the configuration excludes have to be
+     * skipped object by object.
+     */
+    public <E extends Throwable> void read(InputStream is, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df, BinaryOWLReaderConfiguration configuration) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
 
-        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(dis, df, VERSION);
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(is, df, VERSION);
 
         // Metadata
         BinaryOWLMetadataChunk chunk = new BinaryOWLMetadataChunk(inputStream);
@@ -70,7 +88,7 @@ public class BinaryOWLV1DocumentBodySerializer implements BinaryOWLDocumentBodyS
         handler.handleImportsDeclarations(importsDeclarations);
 
         // IRI Table
-        IRILookupTable iriLookupTable = new IRILookupTable(dis);
+        IRILookupTable iriLookupTable = inputStream.readIRILookupTable();
 
         // Used to be literal table
         // Skip 1 byte - the interning marker
@@ -80,42 +98,101 @@ public class BinaryOWLV1DocumentBodySerializer implements BinaryOWLDocumentBodyS
         LookupTable lookupTable = new LookupTable(iriLookupTable);
 
 
-        BinaryOWLInputStream lookupTableStream = new BinaryOWLInputStream(dis, lookupTable, df, VERSION);
+        BinaryOWLInputStream lookupTableStream = new BinaryOWLInputStream(is, lookupTable, df, VERSION);
 
         // Ontology Annotations
         Set<OWLAnnotation> annotations = lookupTableStream.readOWLObjects();
         handler.handleOntologyAnnotations(annotations);
 
         // Axiom tables - axioms by type
-        for (int i = 0; i < AxiomType.AXIOM_TYPES.size(); i++) {
-            Set<OWLAxiom> axiomsOfType = lookupTableStream.readOWLObjects();
-            handler.handleAxioms(axiomsOfType);
+        AxiomTableReader axiomTableReader = new AxiomTableReader(configuration);
+        for (AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+            axiomTableReader.readOrSkipAxiomTable(lookupTableStream, axiomType, handler);
         }
 
         handler.handleEndInitialDocumentBlock();
         handler.handleBeginDocumentChangesBlock();
-        BinaryOWLInputStream changesInputStream = new BinaryOWLInputStream(dis, df, VERSION);
+        BinaryOWLInputStream changesInputStream = new BinaryOWLInputStream(is, df, VERSION);
         // Read any changes that have been appended to the end of the file - no look up table for this
         readOntologyChanges(changesInputStream, handler);
         handler.handleEndDocumentChangesBlock();
         handler.handleEndDocument();
     }
 
+    public <A extends OWLAxiom> Set<A> readAxioms(InputStream is, AxiomType<A> axiomType, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(is, df, VERSION);
+        new BinaryOWLMetadataChunk(inputStream);
+        new BinaryOWLOntologyID(inputStream);
+        new BinaryOWLImportsDeclarationSet(inputStream);
+        IRILookupTable iriLookupTable = inputStream.readIRILookupTable();
+        inputStream.skip(1);
+        BinaryOWLInputStream lookupTableStream = new BinaryOWLInputStream(is, new LookupTable(iriLookupTable), df, VERSION);
+        // There are no offsets in this format, so everything in front of the requested table has to be skipped over
+        lookupTableStream.skipOWLObjects();
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            if(type.equals(axiomType)) {
+                return ImmutableSet.copyOf(lookupTableStream.<A>readOWLObjects());
+            }
+            lookupTableStream.skipOWLObjects();
+        }
+        return Collections.emptySet();
+    }
+
+    public BinaryOWLOntologyDocumentHeader readHeader(BinaryOWLOntologyDocumentPreamble preamble, InputStream is, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(is, df, VERSION);
+        BinaryOWLMetadata metadata = new BinaryOWLMetadataChunk(inputStream).getMetadata();
+        OWLOntologyID ontologyID = new BinaryOWLOntologyID(inputStream).getOntologyID();
+        return new BinaryOWLOntologyDocumentHeader(preamble, metadata, ontologyID);
+    }
+
+    public BinaryOWLOntologyDocumentSignature readSignature(BinaryOWLOntologyDocumentPreamble preamble, InputStream is, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(is, df, VERSION);
+        BinaryOWLMetadata metadata = new BinaryOWLMetadataChunk(inputStream).getMetadata();
+        OWLOntologyID ontologyID = new BinaryOWLOntologyID(inputStream).getOntologyID();
+        Set<OWLImportsDeclaration> importsDeclarations = new BinaryOWLImportsDeclarationSet(inputStream).getImportsDeclarations();
+        // The IRI table immediately precedes the ontology annotations and axioms, so nothing else needs to be read
+        IRILookupTable iriLookupTable = inputStream.readIRILookupTable();
+        return new BinaryOWLOntologyDocumentSignature(preamble, metadata, ontologyID, importsDeclarations, new LinkedHashSet<IRI>(iriLookupTable.getIRIs()));
+    }
+
+    public void skipBody(InputStream is, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(is, df, VERSION);
+        new BinaryOWLMetadataChunk(inputStream);
+        new BinaryOWLOntologyID(inputStream);
+        new BinaryOWLImportsDeclarationSet(inputStream);
+        IRILookupTable iriLookupTable = inputStream.readIRILookupTable();
+        inputStream.skip(1);
+        BinaryOWLInputStream lookupTableStream = new BinaryOWLInputStream(is, new LookupTable(iriLookupTable), df, VERSION);
+        // Ontology annotations, then one table per axiom type
+        lookupTableStream.skipOWLObjects();
+        for (int i = 0; i < AxiomType.AXIOM_TYPES.size(); i++) {
+            lookupTableStream.skipOWLObjects();
+        }
+    }
+
     private void readOntologyChanges(BinaryOWLInputStream inputStream, BinaryOWLOntologyDocumentAppendedChangeHandler changeHandler) throws IOException, BinaryOWLParseException {
-        byte chunkFollowsMarker = (byte) inputStream.read();
+        int chunkFollowsMarker = inputStream.read();
+        // Changes run up to the end of the document.  Change index footers are skipped, including superseded ones
+        // that have chunks after them.
         while (chunkFollowsMarker != -1) {
-            OntologyChangeDataList list = new OntologyChangeDataList(inputStream);
-            changeHandler.handleChanges(list);
-            chunkFollowsMarker = (byte) inputStream.read();
+            if(chunkFollowsMarker == BinaryOWLOntologyDocumentSerializer.CHANGE_INDEX_FOLLOWS_MARKER) {
+                ChangeIndexChunk.skipFooter(inputStream);
+            }
+            else {
+                OntologyChangeDataList list = new OntologyChangeDataList(inputStream);
+                changeHandler.handleChanges(list);
+            }
+            chunkFollowsMarker = inputStream.read();
         }
     }
 
 
 
 
-    public void write(OWLOntologyDocument doc, DataOutputStream dos, BinaryOWLMetadata documentMetadata) throws IOException {
+    public void write(OWLOntologyDocument doc, OutputStream os, BinaryOWLMetadata documentMetadata, BinaryOWLWriterConfiguration configuration) throws IOException {
 
-        BinaryOWLOutputStream nonLookupTableOutputStream = new BinaryOWLOutputStream(dos, VERSION);
+        DataOutput dos = BinaryOWLStreamUtil.asDataOutput(os);
+        BinaryOWLOutputStream nonLookupTableOutputStream = new BinaryOWLOutputStream(os, VERSION);
 
         // Metadata
         BinaryOWLMetadataChunk metadataChunk = new BinaryOWLMetadataChunk(documentMetadata);
@@ -145,15 +222,19 @@ public class BinaryOWLV1DocumentBodySerializer implements BinaryOWLDocumentBodyS
         lookupTableOutputStream.writeOWLObjects(doc.getAnnotations());
 
         // Axiom tables - axioms by type
-        for (AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
-            Set<? extends OWLAxiom> axioms = doc.getAxioms(axiomType);
-            ArrayList<? extends OWLAxiom> orderedAxioms = new ArrayList<OWLAxiom>(axioms);
-            Collections.sort(orderedAxioms);
-            LinkedHashSet<? extends OWLAxiom> tmp = new LinkedHashSet< OWLAxiom>(orderedAxioms);
-            lookupTableOutputStream.writeOWLObjects(tmp);
+        AxiomTableWriter axiomTableWriter = new AxiomTableWriter(configuration, lookupTable, VERSION);
+        if(configuration.getExecutor() != null) {
+            for(ByteArrayOutputStream axiomTable : axiomTableWriter.writeAxiomTables(doc)) {
+                axiomTable.writeTo(os);
+            }
+        }
+        else {
+            for (AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+                axiomTableWriter.writeAxiomTable(doc.getAxioms(axiomType), dos);
+            }
         }
 
-        dos.flush();
+        os.flush();
     }
 
 }
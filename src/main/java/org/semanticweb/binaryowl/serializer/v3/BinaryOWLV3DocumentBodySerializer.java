@@ -0,0 +1,575 @@
+package org.semanticweb.binaryowl.serializer.v3;
+
+import com.google.common.collect.ImmutableSet;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentAppendedChangeHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHeader;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentPreamble;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSignature;
+import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.BinaryOWLReaderConfiguration;
+import org.semanticweb.binaryowl.BinaryOWLSectionCompression;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
+import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.chunk.ChangeIndexChunk;
+import org.semanticweb.binaryowl.chunk.BinaryOWLMetadataChunk;
+import org.semanticweb.binaryowl.chunk.SectionDirectoryChunk;
+import org.semanticweb.binaryowl.doc.OWLOntologyDocument;
+import org.semanticweb.binaryowl.lookup.AnonymousIndividualLookupTable;
+import org.semanticweb.binaryowl.lookup.IRILookupTable;
+import org.semanticweb.binaryowl.lookup.LiteralLookupTable;
+import org.semanticweb.binaryowl.lookup.LookupTable;
+import org.semanticweb.binaryowl.owlobject.OWLObjectBinaryType;
+import org.semanticweb.binaryowl.owlobject.serializer.BinaryOWLImportsDeclarationSet;
+import org.semanticweb.binaryowl.owlobject.serializer.BinaryOWLOntologyID;
+import org.semanticweb.binaryowl.serializer.AxiomTableReader;
+import org.semanticweb.binaryowl.serializer.AxiomTableWriter;
+import org.semanticweb.binaryowl.serializer.BinaryOWLDocumentBodySerializer;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.binaryowl.stream.ByteBufferInputStream;
+import org.semanticweb.binaryowl.stream.ChannelInputStream;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.UnloadableImportException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ *     A serializer for the sectioned document body format, which was introduced in version 3.
+ * </p>
+ * <p>
+ *     The document header (metadata, ontology ID and imports) is the same as in version 1.  It is followed by a
+ *     {@link SectionDirectoryChunk} and then by the sections themselves: the IRI table, the literal table, the ontology
+ *     annotations and one table per {@link AxiomType}.  The sections are encoded exactly as in version 1, but because
+ *     the directory records where each one starts and how long it is, a reader can skip sections it is not
+ *     interested in without decoding them.  Changes that have been appended to the document follow the sections.
+ * </p>
+ * <p>
+ *     Version 4 has the same layout, but writes counts, indices and lengths as variable length integers (see
+ *     {@link BinaryOWLVersion#isVarIntEncoded()}).  The chunk sizes and the section directory stay fixed size.
+ * </p>
+ * <p>
+ *     Version 5 adds a codec marker to the start of each section, so that sections can be compressed independently
+ *     (see {@link SectionCodec} and {@link org.semanticweb.binaryowl.BinaryOWLSectionCompression}).  The lengths in
+ *     the section directory are the lengths of the sections as stored.
+ * </p>
+ * <p>
+ *     Version 6 writes the IRI table as a sorted, front coded dictionary (see
+ *     {@link org.semanticweb.binaryowl.lookup.FrontCodedIRIDictionary}).
+ * </p>
+ * <p>
+ *     Version 7 interns literals that occur more than once in the literal table, which must then precede the
+ *     sections that refer to it (see {@link LiteralLookupTable}).
+ * </p>
+ * <p>
+ *     Version 8 writes anonymous class expressions that are repeated within a section as back-references to their
+ *     first occurrence in the section (see {@link OWLObjectBinaryType#BACK_REFERENCE_MARKER}).
+ * </p>
+ * <p>
+ *     Version 9 writes {@code xsd:integer}, {@code xsd:int}, {@code xsd:long}, {@code xsd:double}, {@code xsd:float},
+ *     {@code xsd:decimal} and {@code xsd:dateTime} literals in binary form when their lexical form is the canonical
+ *     one, rather than as a datatype IRI and a UTF-8 lexical form.
+ * </p>
+ * <p>
+ *     Version 10 partitions the IRI table by entity type, so that entities are written as indices into a dictionary
+ *     for their type and a reader allocates entity caches that are no bigger than those dictionaries.
+ * </p>
+ * <p>
+ *     Version 11 sets a flag in the type marker of each axiom that has annotations (see
+ *     {@link OWLObjectBinaryType#ANNOTATED_AXIOM_FLAG}) and writes nothing for the annotations of other axioms.
+ * </p>
+ */
+public class BinaryOWLV3DocumentBodySerializer implements BinaryOWLDocumentBodySerializer {
+
+    private static final Map<Integer, AxiomType<?>> AXIOM_TYPES_BY_INDEX = new HashMap<Integer, AxiomType<?>>();
+
+    /**
+     * The most axiom tables that are sliced out of the stream and submitted for decoding ahead of the table that is
+     * next to be handled.  Each one holds its section, and then its decoded axioms, until it is handled.
+     */
+    private static final int MAX_PENDING_AXIOM_TABLES = 8;
+
+    static {
+        for(AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+            AXIOM_TYPES_BY_INDEX.put(axiomType.getIndex(), axiomType);
+        }
+    }
+
+    private final BinaryOWLVersion version;
+
+    public BinaryOWLV3DocumentBodySerializer(BinaryOWLVersion version) {
+        this.version = version;
+    }
+
+    /**
+     * Reads a sectioned body.  If the configuration specifies an executor then each axiom table is sliced out of the
+     * stream and decoded by a task of its own, with every task sharing the (read-only) IRI table.  No more than
+     * {@link #MAX_PENDING_AXIOM_TABLES} tables are read ahead of the one that the handler is waiting for.  The handler
+     * is still called on the calling thread, with axiom tables in document order.
+     */
+    public <E extends Throwable> void read(InputStream is, BinaryOWLOntologyDocumentHandler<E> handler, OWLDataFactory df, BinaryOWLReaderConfiguration configuration) throws IOException, BinaryOWLParseException, UnloadableImportException, E {
+        ByteBufferInputStream bis = getByteBufferInputStream(is);
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(bis, df, version);
+
+        // Metadata
+        BinaryOWLMetadataChunk chunk = new BinaryOWLMetadataChunk(inputStream);
+        BinaryOWLMetadata metadata = chunk.getMetadata();
+        handler.handleDocumentMetaData(metadata);
+
+        handler.handleBeginInitialDocumentBlock();
+
+        // Ontology ID
+        BinaryOWLOntologyID serializer = new BinaryOWLOntologyID(inputStream);
+        OWLOntologyID ontologyID = serializer.getOntologyID();
+        handler.handleOntologyID(ontologyID);
+
+        // Imported ontologies
+        BinaryOWLImportsDeclarationSet importsDeclarationSet = new BinaryOWLImportsDeclarationSet(inputStream);
+        Set<OWLImportsDeclaration> importsDeclarations = importsDeclarationSet.getImportsDeclarations();
+        handler.handleImportsDeclarations(importsDeclarations);
+
+        SectionDirectoryChunk directory = new SectionDirectoryChunk(inputStream);
+        long sectionsStart = bis.getPosition();
+
+        AxiomTableReader axiomTableReader = new AxiomTableReader(configuration);
+        // Streaming handlers see axioms as they are decoded, so their tables are never decoded ahead of time
+        ExecutorService executor = AxiomTableReader.isStreamingHandler(handler) ? null : configuration.getExecutor();
+        // Axiom tables that are being decoded concurrently, in document order
+        List<Future<Set<OWLAxiom>>> pendingAxiomTables = new ArrayList<Future<Set<OWLAxiom>>>();
+        try {
+            LookupTable lookupTable = null;
+            for(SectionDirectoryChunk.Entry entry : directory.getEntries()) {
+                skipTo(bis, sectionsStart + entry.getOffset());
+                int sectionId = entry.getSectionId();
+                if(sectionId == SectionDirectoryChunk.IRI_TABLE_SECTION) {
+                    IRILookupTable iriLookupTable = new BinaryOWLInputStream(openSection(bis, entry), df, version).readIRILookupTable();
+                    if(executor != null) {
+                        iriLookupTable.allocateEntityCaches();
+                    }
+                    lookupTable = new LookupTable(iriLookupTable);
+                }
+                else if(sectionId == SectionDirectoryChunk.LITERAL_TABLE_SECTION && version.isLiteralTableInterned()) {
+                    lookupTable = readLiteralTable(openSection(bis, entry), getLookupTable(lookupTable), df);
+                }
+                else if(sectionId == SectionDirectoryChunk.ONTOLOGY_ANNOTATIONS_SECTION) {
+                    BinaryOWLInputStream annotationsStream = new BinaryOWLInputStream(openSection(bis, entry), getLookupTable(lookupTable), df, version);
+                    Set<OWLAnnotation> annotations = annotationsStream.readOWLObjects();
+                    handler.handleOntologyAnnotations(annotations);
+                }
+                else if(AXIOM_TYPES_BY_INDEX.containsKey(sectionId) && axiomTableReader.isIncluded(AXIOM_TYPES_BY_INDEX.get(sectionId))) {
+                    getLookupTable(lookupTable);
+                    if(executor != null && entry.getLength() <= Integer.MAX_VALUE) {
+                        // Compressed sections are decompressed by the task that decodes them
+                        handlePendingAxiomTables(pendingAxiomTables, MAX_PENDING_AXIOM_TABLES - 1, handler);
+                        ByteBuffer section = bis.readBuffer((int) entry.getLength());
+                        pendingAxiomTables.add(executor.submit(new AxiomTableDecoder(section, lookupTable, df, version)));
+                    }
+                    else {
+                        handlePendingAxiomTables(pendingAxiomTables, 0, handler);
+                        BinaryOWLInputStream axiomsStream = new BinaryOWLInputStream(openSection(bis, entry), lookupTable, df, version);
+                        axiomTableReader.readAxiomTable(axiomsStream, handler);
+                    }
+                }
+                // Anything else (the literal table before version 7, and excluded axiom tables) is skipped over
+            }
+            handlePendingAxiomTables(pendingAxiomTables, 0, handler);
+        }
+        finally {
+            for(Future<Set<OWLAxiom>> future : pendingAxiomTables) {
+                future.cancel(true);
+            }
+        }
+        skipTo(bis, sectionsStart + getSectionsLength(directory));
+
+        handler.handleEndInitialDocumentBlock();
+        handler.handleBeginDocumentChangesBlock();
+        BinaryOWLInputStream changesInputStream = new BinaryOWLInputStream(bis, df, version);
+        // Read any changes that have been appended to the end of the file - no look up table for this
+        readOntologyChanges(changesInputStream, handler);
+        handler.handleEndDocumentChangesBlock();
+        handler.handleEndDocument();
+    }
+
+    public <A extends OWLAxiom> Set<A> readAxioms(InputStream is, AxiomType<A> axiomType, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        ByteBufferInputStream bis = getByteBufferInputStream(is);
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(bis, df, version);
+        new BinaryOWLMetadataChunk(inputStream);
+        new BinaryOWLOntologyID(inputStream);
+        new BinaryOWLImportsDeclarationSet(inputStream);
+        SectionDirectoryChunk directory = new SectionDirectoryChunk(inputStream);
+        long sectionsStart = bis.getPosition();
+
+        SectionDirectoryChunk.Entry axiomsEntry = directory.getEntry(axiomType.getIndex());
+        if(axiomsEntry == null) {
+            return Collections.emptySet();
+        }
+        SectionDirectoryChunk.Entry iriTableEntry = directory.getEntry(SectionDirectoryChunk.IRI_TABLE_SECTION);
+        if(iriTableEntry == null) {
+            throw new BinaryOWLParseException("Corrupt section directory: no IRI table");
+        }
+        skipTo(bis, sectionsStart + iriTableEntry.getOffset());
+        IRILookupTable iriLookupTable = new BinaryOWLInputStream(openSection(bis, iriTableEntry), df, version).readIRILookupTable();
+        LookupTable lookupTable = new LookupTable(iriLookupTable);
+        SectionDirectoryChunk.Entry literalTableEntry = directory.getEntry(SectionDirectoryChunk.LITERAL_TABLE_SECTION);
+        if(version.isLiteralTableInterned() && literalTableEntry != null) {
+            skipTo(bis, sectionsStart + literalTableEntry.getOffset());
+            lookupTable = readLiteralTable(openSection(bis, literalTableEntry), lookupTable, df);
+        }
+        skipTo(bis, sectionsStart + axiomsEntry.getOffset());
+        BinaryOWLInputStream lookupTableStream = new BinaryOWLInputStream(openSection(bis, axiomsEntry), lookupTable, df, version);
+        return ImmutableSet.copyOf(lookupTableStream.<A>readOWLObjects());
+    }
+
+    public BinaryOWLOntologyDocumentHeader readHeader(BinaryOWLOntologyDocumentPreamble preamble, InputStream is, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(is, df, version);
+        BinaryOWLMetadata metadata = new BinaryOWLMetadataChunk(inputStream).getMetadata();
+        OWLOntologyID ontologyID = new BinaryOWLOntologyID(inputStream).getOntologyID();
+        return new BinaryOWLOntologyDocumentHeader(preamble, metadata, ontologyID);
+    }
+
+    public BinaryOWLOntologyDocumentSignature readSignature(BinaryOWLOntologyDocumentPreamble preamble, InputStream is, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        ByteBufferInputStream bis = getByteBufferInputStream(is);
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(bis, df, version);
+        BinaryOWLMetadata metadata = new BinaryOWLMetadataChunk(inputStream).getMetadata();
+        OWLOntologyID ontologyID = new BinaryOWLOntologyID(inputStream).getOntologyID();
+        Set<OWLImportsDeclaration> importsDeclarations = new BinaryOWLImportsDeclarationSet(inputStream).getImportsDeclarations();
+        SectionDirectoryChunk directory = new SectionDirectoryChunk(inputStream);
+        long sectionsStart = bis.getPosition();
+        Set<IRI> iris = new LinkedHashSet<IRI>();
+        SectionDirectoryChunk.Entry iriTableEntry = directory.getEntry(SectionDirectoryChunk.IRI_TABLE_SECTION);
+        if(iriTableEntry != null) {
+            skipTo(bis, sectionsStart + iriTableEntry.getOffset());
+            iris.addAll(new BinaryOWLInputStream(openSection(bis, iriTableEntry), df, version).readIRILookupTable().getIRIs());
+        }
+        return new BinaryOWLOntologyDocumentSignature(preamble, metadata, ontologyID, importsDeclarations, iris);
+    }
+
+    public void skipBody(InputStream is, OWLDataFactory df) throws IOException, BinaryOWLParseException {
+        ByteBufferInputStream bis = getByteBufferInputStream(is);
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(bis, df, version);
+        new BinaryOWLMetadataChunk(inputStream);
+        new BinaryOWLOntologyID(inputStream);
+        new BinaryOWLImportsDeclarationSet(inputStream);
+        SectionDirectoryChunk directory = new SectionDirectoryChunk(inputStream);
+        long sectionsStart = bis.getPosition();
+        skipTo(bis, sectionsStart + getSectionsLength(directory));
+    }
+
+    /**
+     * Passes the results of decoded axiom tables to the handler, in the order in which the tables were submitted,
+     * waiting for each one to complete as necessary, until no more than {@code maxPending} tables are left.
+     */
+    private static <E extends Throwable> void handlePendingAxiomTables(List<Future<Set<OWLAxiom>>> pendingAxiomTables, int maxPending, BinaryOWLOntologyDocumentHandler<E> handler) throws IOException, BinaryOWLParseException, E {
+        while(pendingAxiomTables.size() > maxPending) {
+            Future<Set<OWLAxiom>> future = pendingAxiomTables.get(0);
+            Set<OWLAxiom> axiomsOfType;
+            try {
+                axiomsOfType = future.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted whilst waiting for axiom tables to be decoded");
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if(cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                else if(cause instanceof BinaryOWLParseException) {
+                    throw (BinaryOWLParseException) cause;
+                }
+                else if(cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                else if(cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                else {
+                    throw new RuntimeException(cause);
+                }
+            }
+            pendingAxiomTables.remove(0);
+            handler.handleAxioms(axiomsOfType);
+        }
+    }
+
+    /**
+     * Decodes one axiom table that has been sliced out of a document.
+     */
+    private static class AxiomTableDecoder implements Callable<Set<OWLAxiom>> {
+
+        private final ByteBuffer section;
+
+        private final LookupTable lookupTable;
+
+        private final OWLDataFactory df;
+
+        private final BinaryOWLVersion version;
+
+        private AxiomTableDecoder(ByteBuffer section, LookupTable lookupTable, OWLDataFactory df, BinaryOWLVersion version) {
+            this.section = section;
+            this.lookupTable = lookupTable;
+            this.df = df;
+            this.version = version;
+        }
+
+        public Set<OWLAxiom> call() throws IOException, BinaryOWLParseException {
+            ByteBuffer contents = version.isSectionCompressionSupported() ? SectionCodec.decode(section) : section;
+            BinaryOWLInputStream inputStream = new BinaryOWLInputStream(new ByteBufferInputStream(contents), lookupTable, df, version);
+            return inputStream.readOWLObjects();
+        }
+    }
+
+    private static ByteBufferInputStream getByteBufferInputStream(InputStream is) {
+        if(is instanceof ByteBufferInputStream) {
+            return (ByteBufferInputStream) is;
+        }
+        else {
+            return new ChannelInputStream(is);
+        }
+    }
+
+    private static LookupTable getLookupTable(LookupTable lookupTable) throws BinaryOWLParseException {
+        if(lookupTable == null) {
+            throw new BinaryOWLParseException("Corrupt section directory: IRI table does not precede the sections that use it");
+        }
+        return lookupTable;
+    }
+
+    /**
+     * Reads the literal table of a version 7 (or later) document.
+     * @return A lookup table that combines the literal table with the given lookup table.
+     */
+    private LookupTable readLiteralTable(ByteBufferInputStream section, LookupTable lookupTable, OWLDataFactory df) throws IOException {
+        LiteralLookupTable literalLookupTable = new LiteralLookupTable(lookupTable.getIRILookupTable(), section, df, version);
+        return new LookupTable(lookupTable.getIRILookupTable(), lookupTable.getAnonymousIndividualLookupTable(), literalLookupTable);
+    }
+
+    /**
+     * Opens the section that starts at the current position of the input.
+     * @return An input over the contents of the section, which is the input itself unless the section is compressed.
+     */
+    private ByteBufferInputStream openSection(ByteBufferInputStream bis, SectionDirectoryChunk.Entry entry) throws IOException, BinaryOWLParseException {
+        if(version.isSectionCompressionSupported()) {
+            return SectionCodec.open(bis, entry.getLength());
+        }
+        else {
+            return bis;
+        }
+    }
+
+    private static long getSectionsLength(SectionDirectoryChunk directory) {
+        long length = 0;
+        for(SectionDirectoryChunk.Entry entry : directory.getEntries()) {
+            length = Math.max(length, entry.getOffset() + entry.getLength());
+        }
+        return length;
+    }
+
+    private static void skipTo(ByteBufferInputStream bis, long position) throws IOException, BinaryOWLParseException {
+        long toSkip = position - bis.getPosition();
+        if(toSkip < 0) {
+            throw new BinaryOWLParseException("Corrupt section directory: section at " + position + " overlaps the previous section");
+        }
+        if(bis.skip(toSkip) != toSkip) {
+            throw new EOFException();
+        }
+    }
+
+    private void readOntologyChanges(BinaryOWLInputStream inputStream, BinaryOWLOntologyDocumentAppendedChangeHandler changeHandler) throws IOException, BinaryOWLParseException {
+        int chunkFollowsMarker = inputStream.read();
+        // Changes run up to the end of the document.  Change index footers are skipped, including superseded ones
+        // that have chunks after them.
+        while (chunkFollowsMarker != -1) {
+            if(chunkFollowsMarker == BinaryOWLOntologyDocumentSerializer.CHANGE_INDEX_FOLLOWS_MARKER) {
+                ChangeIndexChunk.skipFooter(inputStream);
+            }
+            else {
+                OntologyChangeDataList list = new OntologyChangeDataList(inputStream);
+                changeHandler.handleChanges(list);
+            }
+            chunkFollowsMarker = inputStream.read();
+        }
+    }
+
+
+    public void write(OWLOntologyDocument doc, OutputStream os, BinaryOWLMetadata documentMetadata, BinaryOWLWriterConfiguration configuration) throws IOException {
+
+        BinaryOWLOutputStream nonLookupTableOutputStream = new BinaryOWLOutputStream(os, version);
+
+        // Metadata
+        BinaryOWLMetadataChunk metadataChunk = new BinaryOWLMetadataChunk(documentMetadata);
+        metadataChunk.write(nonLookupTableOutputStream);
+
+        // Ontology ID
+        BinaryOWLOntologyID serializer = new BinaryOWLOntologyID(doc.getOntologyID());
+        serializer.write(nonLookupTableOutputStream);
+
+        // Imports
+        BinaryOWLImportsDeclarationSet importsDeclarationSet = new BinaryOWLImportsDeclarationSet(doc.getImportsDeclarations());
+        importsDeclarationSet.write(nonLookupTableOutputStream);
+
+        // Each section is encoded into its own buffer so that the directory, which precedes the sections, can record
+        // their lengths.
+        List<Integer> sectionIds = new ArrayList<Integer>();
+        List<ByteArrayOutputStream> sections = new ArrayList<ByteArrayOutputStream>();
+
+        // IRI Table
+        IRILookupTable iriLookupTable = new IRILookupTable(doc, version);
+        ByteArrayOutputStream iriTableBuffer = new ByteArrayOutputStream();
+        iriLookupTable.write(new DataOutputStream(iriTableBuffer));
+        sectionIds.add(SectionDirectoryChunk.IRI_TABLE_SECTION);
+        sections.add(iriTableBuffer);
+
+        // Literal Table
+        LiteralLookupTable literalLookupTable = new LiteralLookupTable(doc, iriLookupTable, version);
+        ByteArrayOutputStream literalTableBuffer = new ByteArrayOutputStream();
+        literalLookupTable.write(new DataOutputStream(literalTableBuffer));
+        sectionIds.add(SectionDirectoryChunk.LITERAL_TABLE_SECTION);
+        sections.add(literalTableBuffer);
+
+        LookupTable lookupTable = new LookupTable(iriLookupTable, new AnonymousIndividualLookupTable(), literalLookupTable);
+
+        // Ontology Annotations
+        ByteArrayOutputStream annotationsBuffer = new ByteArrayOutputStream();
+        new BinaryOWLOutputStream(new DataOutputStream(annotationsBuffer), lookupTable, version).writeOWLObjects(doc.getAnnotations());
+        sectionIds.add(SectionDirectoryChunk.ONTOLOGY_ANNOTATIONS_SECTION);
+        sections.add(annotationsBuffer);
+
+        // Axiom tables - axioms by type
+        List<ByteArrayOutputStream> axiomTables = new AxiomTableWriter(configuration, lookupTable, version).writeAxiomTables(doc);
+        Iterator<ByteArrayOutputStream> axiomTableIterator = axiomTables.iterator();
+        for (AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+            sectionIds.add(axiomType.getIndex());
+            sections.add(axiomTableIterator.next());
+        }
+
+        // Compressed sections, where compression is used and worthwhile (null entries are stored as they are)
+        List<ByteArrayOutputStream> compressedSections = compressSections(sections, configuration);
+
+        // Section directory
+        boolean codecMarkers = version.isSectionCompressionSupported();
+        List<SectionDirectoryChunk.Entry> entries = new ArrayList<SectionDirectoryChunk.Entry>();
+        long offset = 0;
+        for(int i = 0; i < sections.size(); i++) {
+            ByteArrayOutputStream compressedSection = compressedSections.get(i);
+            int length = compressedSection != null ? compressedSection.size() : sections.get(i).size();
+            if(codecMarkers) {
+                length++;
+            }
+            entries.add(new SectionDirectoryChunk.Entry(sectionIds.get(i), offset, length));
+            offset += length;
+        }
+        new SectionDirectoryChunk(entries).write(nonLookupTableOutputStream);
+
+        // Sections
+        for(int i = 0; i < sections.size(); i++) {
+            ByteArrayOutputStream compressedSection = compressedSections.get(i);
+            if(compressedSection != null) {
+                os.write(SectionCodec.DEFLATED);
+                compressedSection.writeTo(os);
+            }
+            else {
+                if(codecMarkers) {
+                    os.write(SectionCodec.STORED);
+                }
+                sections.get(i).writeTo(os);
+            }
+        }
+
+        os.flush();
+    }
+
+    /**
+     * Compresses sections as the configuration specifies, concurrently if the configuration specifies an executor.
+     * @return For each section, the compressed section or {@code null} if the section is to be stored as it is.
+     */
+    private List<ByteArrayOutputStream> compressSections(List<ByteArrayOutputStream> sections, BinaryOWLWriterConfiguration configuration) throws IOException {
+        List<ByteArrayOutputStream> compressedSections = new ArrayList<ByteArrayOutputStream>(sections.size());
+        if(!version.isSectionCompressionSupported() || configuration.getSectionCompression() == BinaryOWLSectionCompression.NONE) {
+            compressedSections.addAll(Collections.<ByteArrayOutputStream>nCopies(sections.size(), null));
+            return compressedSections;
+        }
+        ExecutorService executor = configuration.getExecutor();
+        if(executor == null) {
+            for(ByteArrayOutputStream section : sections) {
+                compressedSections.add(SectionCodec.deflate(section));
+            }
+            return compressedSections;
+        }
+        List<Future<ByteArrayOutputStream>> pendingSections = new ArrayList<Future<ByteArrayOutputStream>>(sections.size());
+        try {
+            for(final ByteArrayOutputStream section : sections) {
+                pendingSections.add(executor.submit(new Callable<ByteArrayOutputStream>() {
+                    public ByteArrayOutputStream call() throws IOException {
+                        return SectionCodec.deflate(section);
+                    }
+                }));
+            }
+            for(Future<ByteArrayOutputStream> pendingSection : pendingSections) {
+                compressedSections.add(getCompressedSection(pendingSection));
+            }
+        }
+        finally {
+            for(Future<ByteArrayOutputStream> pendingSection : pendingSections) {
+                pendingSection.cancel(true);
+            }
+        }
+        return compressedSections;
+    }
+
+    private static ByteArrayOutputStream getCompressedSection(Future<ByteArrayOutputStream> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst waiting for sections to be compressed");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            else if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            else {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package org.semanticweb.binaryowl.serializer.v3;
+
+import org.semanticweb.binaryowl.BinaryOWLParseException;
+import org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil;
+import org.semanticweb.binaryowl.stream.ByteBufferInputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * <p>
+ *     Compresses and decompresses the sections of version 5 and later documents.  In these documents every section
+ *     starts with a one byte codec marker.  A {@link #STORED} section continues with the section as it was encoded.  A
+ *     {@link #DEFLATED} section continues with the length of the encoded section, as a varint, followed by the encoded
+ *     section compressed as a raw deflate stream, which runs to the end of the section.
+ * </p>
+ */
+final class SectionCodec {
+
+    static final int STORED = 0;
+
+    static final int DEFLATED = 1;
+
+    /**
+     * Sections shorter than this are always stored.  The saving would be a handful of bytes at best.
+     */
+    static final int MIN_DEFLATED_LENGTH = 256;
+
+    private static final int DEFLATER_BUFFER_SIZE = 8 * 1024;
+
+    private SectionCodec() {
+    }
+
+    /**
+     * Compresses a section.
+     * @param section The encoded section.
+     * @return The compressed section, not including the codec marker, or {@code null} if the section should be stored
+     * because it is too short or did not get any shorter.
+     * @throws IOException If there was a problem compressing the section.
+     */
+    static ByteArrayOutputStream deflate(ByteArrayOutputStream section) throws IOException {
+        if(section.size() < MIN_DEFLATED_LENGTH) {
+            return null;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(section.size() / 4);
+        BinaryOWLStreamUtil.writeVarInt(section.size(), new DataOutputStream(compressed));
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(compressed, deflater, DEFLATER_BUFFER_SIZE);
+            section.writeTo(deflaterOutputStream);
+            deflaterOutputStream.finish();
+        }
+        finally {
+            deflater.end();
+        }
+        if(compressed.size() >= section.size()) {
+            return null;
+        }
+        return compressed;
+    }
+
+    /**
+     * Opens the section that starts at the current position of an input.
+     * @param bis The input, positioned at the codec marker of the section.
+     * @param length The length of the section, including the codec marker.
+     * @return An input over the contents of the section.  For a stored section this is {@code bis} itself, positioned
+     * just after the codec marker.  For a compressed section it is an input over the decompressed contents, and
+     * {@code bis} is positioned at the end of the section.
+     * @throws IOException If there was a problem reading the section.
+     * @throws BinaryOWLParseException If the section is corrupt.
+     */
+    static ByteBufferInputStream open(ByteBufferInputStream bis, long length) throws IOException, BinaryOWLParseException {
+        int codec = bis.read();
+        if(codec == STORED) {
+            return bis;
+        }
+        else if(codec == DEFLATED) {
+            if(length - 1 > Integer.MAX_VALUE) {
+                throw new BinaryOWLParseException("Compressed section is too long: " + length + " bytes");
+            }
+            return new ByteBufferInputStream(inflate(bis.readBuffer((int) (length - 1))));
+        }
+        else {
+            throw new BinaryOWLParseException("Unknown section codec: " + codec);
+        }
+    }
+
+    /**
+     * Decodes a section that has been sliced out of a document.
+     * @param section The section, including its codec marker.
+     * @return The contents of the section.
+     * @throws IOException If there was a problem decoding the section.
+     * @throws BinaryOWLParseException If the section is corrupt.
+     */
+    static ByteBuffer decode(ByteBuffer section) throws IOException, BinaryOWLParseException {
+        int codec = section.get();
+        if(codec == STORED) {
+            return section.slice();
+        }
+        else if(codec == DEFLATED) {
+            return inflate(section.slice());
+        }
+        else {
+            throw new BinaryOWLParseException("Unknown section codec: " + codec);
+        }
+    }
+
+    private static ByteBuffer inflate(ByteBuffer compressed) throws IOException, BinaryOWLParseException {
+        ByteBufferInputStream lengthInputStream = new ByteBufferInputStream(compressed);
+        int length = BinaryOWLStreamUtil.readVarInt(lengthInputStream);
+        compressed.position(compressed.position() + (int) lengthInputStream.getPosition());
+        byte[] input;
+        int offset;
+        if(compressed.hasArray()) {
+            input = compressed.array();
+            offset = compressed.arrayOffset() + compressed.position();
+        }
+        else {
+            input = new byte[compressed.remaining()];
+            compressed.duplicate().get(input);
+            offset = 0;
+        }
+        byte[] result = new byte[length];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input, offset, compressed.remaining());
+            int inflatedLength = 0;
+            while(inflatedLength < length) {
+                int n = inflater.inflate(result, inflatedLength, length - inflatedLength);
+                if(n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new BinaryOWLParseException("Corrupt compressed section: expected " + length + " bytes but found " + inflatedLength);
+                }
+                inflatedLength += n;
+            }
+        }
+        catch (DataFormatException e) {
+            throw new BinaryOWLParseException("Corrupt compressed section", e);
+        }
+        finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(result);
+    }
+}
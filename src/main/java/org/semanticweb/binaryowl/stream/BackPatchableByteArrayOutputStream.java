@@ -0,0 +1,201 @@
+package org.semanticweb.binaryowl.stream;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     A growable, in-memory {@link OutputStream} and {@link DataOutput} that supports back-patching.  Unlike
+ *     {@link java.io.ByteArrayOutputStream} its methods are not synchronized, primitives are encoded straight into the
+ *     array, and the stream can be {@link #reset()} and reused without giving up its array.
+ * </p>
+ */
+public class BackPatchableByteArrayOutputStream extends OutputStream implements DataOutput, BackPatchableOutput {
+
+    private byte[] buf;
+
+    private int count = 0;
+
+    public BackPatchableByteArrayOutputStream() {
+        this(256);
+    }
+
+    /**
+     * @param initialCapacity The initial size of the array, in bytes.
+     */
+    public BackPatchableByteArrayOutputStream(int initialCapacity) {
+        if(initialCapacity < 0) {
+            throw new IllegalArgumentException("Negative initial capacity: " + initialCapacity);
+        }
+        buf = new byte[initialCapacity];
+    }
+
+    /**
+     * Gets the number of bytes that have been written.
+     * @return The number of bytes.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the size of the array that bytes are written into.
+     * @return The capacity, in bytes.
+     */
+    public int capacity() {
+        return buf.length;
+    }
+
+    /**
+     * Discards the bytes that have been written, keeping the array for reuse.
+     */
+    public void reset() {
+        count = 0;
+    }
+
+    public long getPosition() {
+        return count;
+    }
+
+    public void writeIntAt(long position, int value) {
+        if(position < 0 || position > count - 4) {
+            throw new IndexOutOfBoundsException("Cannot patch 4 bytes at " + position + " of " + count);
+        }
+        putInt((int) position, value);
+    }
+
+    /**
+     * Copies the bytes that have been written to another stream.
+     * @param os The stream.
+     * @throws IOException If there was a problem writing to the stream.
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        os.write(buf, 0, count);
+    }
+
+    /**
+     * Gets a read-only view of the bytes that have been written, without copying them.  The view is only valid until
+     * the next write or {@link #reset()}.
+     * @return The view, positioned at the first byte.
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    private void ensureCapacity(int n) {
+        int required = count + n;
+        if(required < 0) {
+            throw new OutOfMemoryError("Buffer too large");
+        }
+        if(required > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(required, buf.length * 2));
+        }
+    }
+
+    private void putInt(int position, int v) {
+        buf[position] = (byte) (v >>> 24);
+        buf[position + 1] = (byte) (v >>> 16);
+        buf[position + 2] = (byte) (v >>> 8);
+        buf[position + 3] = (byte) v;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    public void writeBoolean(boolean v) {
+        write(v ? 1 : 0);
+    }
+
+    public void writeByte(int v) {
+        write(v);
+    }
+
+    public void writeShort(int v) {
+        ensureCapacity(2);
+        buf[count++] = (byte) (v >>> 8);
+        buf[count++] = (byte) v;
+    }
+
+    public void writeChar(int v) {
+        writeShort(v);
+    }
+
+    public void writeInt(int v) {
+        ensureCapacity(4);
+        putInt(count, v);
+        count += 4;
+    }
+
+    public void writeLong(long v) {
+        writeInt((int) (v >>> 32));
+        writeInt((int) v);
+    }
+
+    public void writeFloat(float v) {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    public void writeDouble(double v) {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    public void writeBytes(String s) {
+        ensureCapacity(s.length());
+        for(int i = 0; i < s.length(); i++) {
+            buf[count++] = (byte) s.charAt(i);
+        }
+    }
+
+    public void writeChars(String s) {
+        for(int i = 0; i < s.length(); i++) {
+            writeChar(s.charAt(i));
+        }
+    }
+
+    public void writeUTF(String s) throws IOException {
+        int utfLength = BinaryOWLStreamUtil.getUTFLength(s);
+        if(utfLength > 65535) {
+            throw new UTFDataFormatException("Encoded string too long: " + utfLength + " bytes");
+        }
+        ensureCapacity(2 + utfLength);
+        writeShort(utfLength);
+        for(int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if(c >= 0x0001 && c <= 0x007F) {
+                buf[count++] = (byte) c;
+            }
+            else if(c > 0x07FF) {
+                buf[count++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+                buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else {
+                buf[count++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.semanticweb.binaryowl.stream;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ *     An output that can overwrite bytes it has already been written.  Chunks written to such an output reserve their
+ *     size field, write their payload once, and then fill in the size, instead of encoding the payload into a
+ *     separate buffer just to find out how long it is.
+ * </p>
+ */
+public interface BackPatchableOutput {
+
+    /**
+     * Gets the number of bytes that have been written to this output.
+     * @return The position at which the next byte will be written.
+     */
+    long getPosition();
+
+    /**
+     * Overwrites four bytes that have already been written with a big-endian int, as written by
+     * {@link java.io.DataOutput#writeInt(int)}.
+     * @param position The position of the first of the four bytes.
+     * @param value The value to write.
+     * @throws IOException If the bytes cannot be overwritten.
+     * @throws IndexOutOfBoundsException If the four bytes have not all been written yet.
+     */
+    void writeIntAt(long position, int value) throws IOException;
+}
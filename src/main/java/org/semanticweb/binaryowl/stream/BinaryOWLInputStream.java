@@ -3,11 +3,13 @@ package org.semanticweb.binaryowl.stream;
 import org.semanticweb.binaryowl.BinaryOWLParseException;
 import org.semanticweb.binaryowl.BinaryOWLVersion;
 import org.semanticweb.binaryowl.lookup.IRILookupTable;
+import org.semanticweb.binaryowl.lookup.LiteralLookupTable;
 import org.semanticweb.binaryowl.owlobject.OWLObjectBinaryType;
 import org.semanticweb.binaryowl.lookup.LookupTable;
 import org.semanticweb.binaryowl.owlobject.serializer.OWLLiteralSerializer;
 import org.semanticweb.owlapi.model.*;
 
+import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,7 +26,9 @@ import static org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil.readVariableL
  */
 public class BinaryOWLInputStream extends InputStream {
 
-    private DataInputStream dataInput;
+    private InputStream inputStream;
+
+    private DataInput dataInput;
     
     private ArrayDeque<LookupTable> lookupTableStack;
     
@@ -36,6 +40,8 @@ public class BinaryOWLInputStream extends InputStream {
 
     private ArrayList<OWLAnonymousIndividual> anonIndividualList = new ArrayList<OWLAnonymousIndividual>();
 
+    private final List<OWLObject> backReferences = new ArrayList<OWLObject>();
+
     public BinaryOWLInputStream(InputStream inputStream, OWLDataFactory dataFactory, BinaryOWLVersion version) {
         this(inputStream, createEmptyLookupTable(dataFactory), dataFactory, version);
     }
@@ -45,12 +51,14 @@ public class BinaryOWLInputStream extends InputStream {
     }
 
     public BinaryOWLInputStream(InputStream inputStream, LookupTable lookupTable, OWLDataFactory dataFactory, BinaryOWLVersion version) {
-        if(inputStream instanceof DataInputStream) {
-            this.dataInput = (DataInputStream) inputStream;
+        // Streams that can decode primitives themselves (e.g. a ByteBufferInputStream) are used directly
+        if(inputStream instanceof DataInput) {
+            this.inputStream = inputStream;
         }
         else {
-            this.dataInput = new DataInputStream(inputStream);
+            this.inputStream = new DataInputStream(inputStream);
         }
+        this.dataInput = (DataInput) this.inputStream;
         this.lookupTableStack = new ArrayDeque<LookupTable>();
         this.lookupTableStack.push(lookupTable);
         this.dataFactory = dataFactory;
@@ -76,6 +84,17 @@ public class BinaryOWLInputStream extends InputStream {
         return version;
     }
 
+    /**
+     * Creates a stream that reads from the same underlying input as this one, but decodes objects using the rules of
+     * a different format version.  Reads from either stream advance both.  The new stream starts with an empty
+     * lookup table.
+     * @param version The version.  Not {@code null}.
+     * @return The stream.
+     */
+    public BinaryOWLInputStream withVersion(BinaryOWLVersion version) {
+        return new BinaryOWLInputStream(inputStream, LookupTable.emptyLookupTable(), dataFactory, version);
+    }
+
     public OWLDataFactory getDataFactory() {
         return dataFactory;
     }
@@ -87,7 +106,7 @@ public class BinaryOWLInputStream extends InputStream {
 
     @SuppressWarnings("unchecked")
     public <O extends OWLObject> Set<O> readOWLObjects() throws IOException, BinaryOWLParseException {
-        int length = readVariableLengthUnsignedInt(dataInput);
+        int length = readCollectionSize();
         if(length == 0) {
             return Collections.emptySet();
         }
@@ -101,8 +120,69 @@ public class BinaryOWLInputStream extends InputStream {
         }
     }
 
+    /**
+     * Reads the size of a collection of objects, as written in front of the elements of the collection by
+     * {@link BinaryOWLOutputStream#writeOWLObjects(java.util.Set)}.  This allows callers to read the elements one at a
+     * time with {@link #readOWLObject()} rather than materializing the whole collection.
+     * @return The number of elements that follow.
+     * @throws IOException If there was a problem reading the size.
+     */
+    public int readCollectionSize() throws IOException {
+        if(version.isVarIntEncoded()) {
+            return BinaryOWLStreamUtil.readVarInt(dataInput);
+        }
+        else {
+            return readVariableLengthUnsignedInt(dataInput);
+        }
+    }
+
+    /**
+     * Reads a non-negative int, such as a count or a length, that was written by
+     * {@link BinaryOWLOutputStream#writeCompactInt(int)}.
+     * @return The int.
+     * @throws IOException If there was a problem reading the int.
+     */
+    public int readCompactInt() throws IOException {
+        if(version.isVarIntEncoded()) {
+            return BinaryOWLStreamUtil.readVarInt(dataInput);
+        }
+        else {
+            return dataInput.readInt();
+        }
+    }
+
+    /**
+     * Reads a signed long that was written by {@link BinaryOWLOutputStream#writeZigZagVarLong(long)}.
+     * @return The long.
+     * @throws IOException If there was a problem reading the long.
+     */
+    public long readZigZagVarLong() throws IOException {
+        return BinaryOWLStreamUtil.readZigZagVarLong(dataInput);
+    }
+
+    /**
+     * Moves past an object without building it.
+     * @throws IOException If there was a problem reading the object.
+     * @throws BinaryOWLParseException If the binary representation of the object is corrupt.
+     */
+    public void skipOWLObject() throws IOException, BinaryOWLParseException {
+        OWLObjectBinaryType.skip(this);
+    }
+
+    /**
+     * Moves past a set or list of objects without building them.
+     * @throws IOException If there was a problem reading the objects.
+     * @throws BinaryOWLParseException If the binary representation of the objects is corrupt.
+     */
+    public void skipOWLObjects() throws IOException, BinaryOWLParseException {
+        int size = readCollectionSize();
+        for(int i = 0; i < size; i++) {
+            skipOWLObject();
+        }
+    }
+
     public <O extends OWLObject> List<O> readOWLObjectList() throws IOException, BinaryOWLParseException {
-        int size = readVariableLengthUnsignedInt(dataInput);
+        int size = readCollectionSize();
         if(size == 0) {
             return Collections.emptyList();
         }
@@ -120,6 +200,10 @@ public class BinaryOWLInputStream extends InputStream {
         return peekLookupTable().readIRI(dataInput);
     }
     
+    public void skipIRI() throws IOException {
+        peekLookupTable().skipIRI(dataInput);
+    }
+
     public OWLClass readClassIRI() throws IOException {
         return peekLookupTable().readClassIRI(dataInput);
     }
@@ -144,25 +228,79 @@ public class BinaryOWLInputStream extends InputStream {
         return peekLookupTable().readDatatypeIRI(dataInput);
     }
 
+    /**
+     * Reads a literal that was written by {@link BinaryOWLOutputStream#writeLiteral(OWLLiteral)}.
+     * @return The literal.  From version 7 onwards, literals that are in the literal table are shared.
+     * @throws IOException If there was a problem reading the literal.
+     * @throws BinaryOWLParseException If the literal refers to an index that is not in the literal table.
+     */
     public OWLLiteral readLiteral() throws IOException, BinaryOWLParseException {
-        if(version.getVersion() == 1) {
-            return LITERAL_SERIALIZER.readLiteral(this);
+        if(version.isLiteralTableInterned()) {
+            int index = BinaryOWLStreamUtil.readVarInt(dataInput) - 1;
+            if(index != -1) {
+                LiteralLookupTable literalLookupTable = peekLookupTable().getLiteralLookupTable();
+                if(literalLookupTable == null) {
+                    throw new BinaryOWLParseException("Literal index " + index + " found, but there is no literal table");
+                }
+                return literalLookupTable.getInternedLiteral(index);
+            }
         }
-        else {
-            // Just read as OWLObject
-            return readOWLObject();
+        return LITERAL_SERIALIZER.readLiteral(this);
+    }
+
+    public void skipLiteral() throws IOException {
+        if(version.isLiteralTableInterned()) {
+            if(BinaryOWLStreamUtil.readVarInt(dataInput) != 0) {
+                return;
+            }
         }
+        LITERAL_SERIALIZER.skipLiteral(this);
+    }
+
+    /**
+     * Gets an object that has been read from this stream, given a back-reference to it (see
+     * {@link OWLObjectBinaryType#BACK_REFERENCE_MARKER}).
+     * @param backReference The back-reference.
+     * @return The object.  The same instance is returned for every reference to it.
+     * @throws BinaryOWLParseException If no object has been read for the back-reference.
+     */
+    public OWLObject getBackReference(int backReference) throws BinaryOWLParseException {
+        if(backReference < 0 || backReference >= backReferences.size()) {
+            throw new BinaryOWLParseException("Back-reference " + backReference + " does not refer to an object that has been read (" + backReferences.size() + " objects have been read)");
+        }
+        return backReferences.get(backReference);
+    }
+
+    /**
+     * Records that an object has been read from this stream, so that later back-references to it can be resolved.
+     * @param object The object.
+     */
+    public void addBackReference(OWLObject object) {
+        backReferences.add(object);
     }
 
     public IRILookupTable readIRILookupTable() throws IOException {
-        return new IRILookupTable(dataInput);
+        return new IRILookupTable(dataInput, version);
     }
 
     
     private Map<Integer, OWLAnonymousIndividual> map = new HashMap<Integer, OWLAnonymousIndividual>();
 
+    public void skipAnonymousIndividual() throws IOException {
+        readAnonymousIndividualId();
+    }
+
+    private int readAnonymousIndividualId() throws IOException {
+        if(version.isVarIntEncoded()) {
+            return BinaryOWLStreamUtil.readZigZagVarInt(dataInput);
+        }
+        else {
+            return readInt();
+        }
+    }
+
     public OWLAnonymousIndividual readAnonymousIndividual() throws IOException {
-        int id = readInt();
+        int id = readAnonymousIndividualId();
 //        OWLAnonymousIndividual ind = map.get(id);
 //        if(ind == null) {
 //            ind = dataFactory.getOWLAnonymousIndividual(Integer.toString(id));
@@ -586,7 +724,7 @@ public class BinaryOWLInputStream extends InputStream {
     }
 
     public void skipBytes(int n) throws IOException {
-        dataInput.skipBytes(n);
+        BinaryOWLStreamUtil.skipFully(dataInput, n);
     }
 
     /**
@@ -604,6 +742,6 @@ public class BinaryOWLInputStream extends InputStream {
      */
     @Override
     public int read() throws IOException {
-        return dataInput.read();
+        return inputStream.read();
     }
 }
@@ -2,28 +2,30 @@ package org.semanticweb.binaryowl.stream;
 
 import org.semanticweb.binaryowl.BinaryOWLVersion;
 import org.semanticweb.binaryowl.owlobject.OWLObjectBinaryType;
+import org.semanticweb.binaryowl.lookup.LiteralLookupTable;
 import org.semanticweb.binaryowl.lookup.LookupTable;
 import org.semanticweb.binaryowl.owlobject.serializer.OWLLiteralSerializer;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLObject;
 
 import java.io.DataOutput;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-import static org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil.writeCollectionSize;
 /**
  * Author: Matthew Horridge<br>
  * Stanford University<br>
  * Bio-Medical Informatics Research Group<br>
  * Date: 23/10/2012
  */
-public class BinaryOWLOutputStream extends OutputStream {
+public class BinaryOWLOutputStream extends OutputStream implements DataOutput {
 
     private DataOutput dataOutput;
     
@@ -35,13 +37,10 @@ public class BinaryOWLOutputStream extends OutputStream {
 
     private final SetTransformer setTransformer;
 
+    private final Map<OWLObject, Integer> backReferences = new HashMap<OWLObject, Integer>();
+
     public BinaryOWLOutputStream(OutputStream dataOutput, BinaryOWLVersion version) {
-        if(dataOutput instanceof DataOutputStream) {
-            this.dataOutput = (DataOutput) dataOutput;
-        }
-        else {
-            this.dataOutput = new DataOutputStream(dataOutput);
-        }
+        this.dataOutput = BinaryOWLStreamUtil.asDataOutput(dataOutput);
         this.version = version;
         lookupTable = LookupTable.emptyLookupTable();
         this.setTransformer = new PassThroughSetTransformer();
@@ -53,6 +52,11 @@ public class BinaryOWLOutputStream extends OutputStream {
         this.setTransformer = new PassThroughSetTransformer();
     }
 
+    public BinaryOWLOutputStream(DataOutput dataOutput, LookupTable lookupTable, BinaryOWLVersion version) {
+        this(dataOutput, lookupTable);
+        this.version = version;
+    }
+
     public BinaryOWLOutputStream(DataOutput dataOutput, SetTransformer setTransformer) {
         this.dataOutput = dataOutput;
         this.setTransformer = setTransformer;
@@ -63,20 +67,115 @@ public class BinaryOWLOutputStream extends OutputStream {
         return version;
     }
 
+    /**
+     * Determines whether the bytes written to this stream can be overwritten after they have been written, using
+     * {@link #writeIntAt(long, int)}.  This is the case if the underlying output is a {@link BackPatchableOutput}, or is
+     * itself a back-patchable {@link BinaryOWLOutputStream}.
+     * @return {@code true} if this stream can be back-patched, otherwise {@code false}.
+     */
+    public boolean isBackPatchable() {
+        return getBackPatchableOutput() != null;
+    }
+
+    /**
+     * Gets the position of the underlying output.  Only supported if this stream {@link #isBackPatchable()}.
+     * @return The position at which the next byte will be written.
+     * @throws UnsupportedOperationException If this stream is not back-patchable.
+     */
+    public long getPosition() {
+        return requireBackPatchableOutput().getPosition();
+    }
+
+    /**
+     * Overwrites four bytes that have already been written with a big-endian int.  Only supported if this stream
+     * {@link #isBackPatchable()}.
+     * @param position The position of the first of the four bytes, as returned by {@link #getPosition()}.
+     * @param value The value to write.
+     * @throws IOException If the bytes could not be overwritten.
+     * @throws UnsupportedOperationException If this stream is not back-patchable.
+     */
+    public void writeIntAt(long position, int value) throws IOException {
+        requireBackPatchableOutput().writeIntAt(position, value);
+    }
+
+    private BackPatchableOutput getBackPatchableOutput() {
+        if(dataOutput instanceof BackPatchableOutput) {
+            return (BackPatchableOutput) dataOutput;
+        }
+        else if(dataOutput instanceof BinaryOWLOutputStream) {
+            return ((BinaryOWLOutputStream) dataOutput).getBackPatchableOutput();
+        }
+        else {
+            return null;
+        }
+    }
+
+    private BackPatchableOutput requireBackPatchableOutput() {
+        BackPatchableOutput backPatchableOutput = getBackPatchableOutput();
+        if(backPatchableOutput == null) {
+            throw new UnsupportedOperationException("The underlying output cannot be back-patched");
+        }
+        return backPatchableOutput;
+    }
+
     public void writeOWLObject(OWLObject object) throws IOException {
         OWLObjectBinaryType.write(object, this);
     }
     
     public void writeOWLObjects(Set<? extends OWLObject> objects) throws IOException {
         final int size = objects.size();
-        writeCollectionSize(size, dataOutput);
+        writeCollectionSize(size);
         for(OWLObject object : setTransformer.transform(objects)) {
             writeOWLObject(object);
         }
     }
 
+    /**
+     * Writes the size of a collection of objects, in the form that {@link BinaryOWLInputStream#readCollectionSize()}
+     * reads.  The caller is responsible for writing exactly that many objects after it.
+     * @param size The number of objects in the collection.
+     * @throws IOException If there was a problem writing the size.
+     */
+    public void writeCollectionSize(int size) throws IOException {
+        if(version.isVarIntEncoded()) {
+            BinaryOWLStreamUtil.writeVarInt(size, dataOutput);
+        }
+        else {
+            BinaryOWLStreamUtil.writeCollectionSize(size, dataOutput);
+        }
+    }
+
+    /**
+     * Writes a non-negative int, such as a count or a length, in the form that
+     * {@link BinaryOWLInputStream#readCompactInt()} reads.  Versions before 4 write a fixed size int, later versions
+     * write a variable length int.
+     * @param i The int.  Must not be negative.
+     * @throws IOException If there was a problem writing the int.
+     */
+    public void writeCompactInt(int i) throws IOException {
+        if(version.isVarIntEncoded()) {
+            if(i < 0) {
+                throw new IllegalArgumentException("Cannot write a negative int compactly: " + i);
+            }
+            BinaryOWLStreamUtil.writeVarInt(i, dataOutput);
+        }
+        else {
+            dataOutput.writeInt(i);
+        }
+    }
+
+    /**
+     * Writes a signed long as a zig-zag encoded varint, in the form that
+     * {@link BinaryOWLInputStream#readZigZagVarLong()} reads.
+     * @param l The long.
+     * @throws IOException If there was a problem writing the long.
+     */
+    public void writeZigZagVarLong(long l) throws IOException {
+        BinaryOWLStreamUtil.writeZigZagVarLong(l, dataOutput);
+    }
+
     public void writeOWLObjectList(List<? extends OWLObject> list) throws IOException {
-        writeCollectionSize(list.size(), dataOutput);
+        writeCollectionSize(list.size());
         for(OWLObject object : list) {
             writeOWLObject(object);
         }
@@ -86,18 +185,64 @@ public class BinaryOWLOutputStream extends OutputStream {
         lookupTable.writeIRI(iri, dataOutput);
     }
 
+    /**
+     * Writes an entity so that it can be read back with the read method for its type, for example
+     * {@link BinaryOWLInputStream#readClassIRI()}.  From version 10 onwards the entity is written as its index in the
+     * part of the IRI table for its type.
+     * @param entity The entity.
+     * @throws IOException If there was a problem writing the entity.
+     */
+    public void writeEntityIRI(OWLEntity entity) throws IOException {
+        lookupTable.writeEntityIRI(entity, dataOutput);
+    }
+
+    /**
+     * Writes a literal.  From version 7 onwards the literal is preceded by a varint that is one more than its index in
+     * the literal table, or zero if it is not in the table, in which case the literal itself follows.
+     * @param literal The literal.
+     * @throws IOException If there was a problem writing the literal.
+     */
     public void writeLiteral(OWLLiteral literal) throws IOException {
-        if (version.getVersion() == 1) {
-            LITERAL_SERIALIZER.writeLiteral(this, literal);
-        }
-        else {
-            writeOWLObject(literal);
+        if(version.isLiteralTableInterned()) {
+            LiteralLookupTable literalLookupTable = lookupTable.getLiteralLookupTable();
+            int index = literalLookupTable != null ? literalLookupTable.getIndex(literal) : -1;
+            BinaryOWLStreamUtil.writeVarInt(index + 1, dataOutput);
+            if(index != -1) {
+                return;
+            }
         }
+        // Literals are otherwise written raw.  They used to be written as OWLObjects for versions other than 1, but
+        // that recursed straight back into this method via the literal serializer.
+        LITERAL_SERIALIZER.writeLiteral(this, literal);
+    }
+
+    /**
+     * Gets the back-reference to an object that has already been written to this stream (see
+     * {@link OWLObjectBinaryType#BACK_REFERENCE_MARKER}).
+     * @param object The object.
+     * @return The back-reference, or -1 if the object has not been written to this stream.
+     */
+    public int getBackReference(OWLObject object) {
+        Integer backReference = backReferences.get(object);
+        return backReference != null ? backReference : -1;
+    }
+
+    /**
+     * Records that an object has been written to this stream, so that it can be back-referenced.
+     * @param object The object.
+     */
+    public void addBackReference(OWLObject object) {
+        backReferences.put(object, backReferences.size());
     }
 
     public void writeAnonymousIndividual(OWLAnonymousIndividual individual) throws IOException {
         int index = lookupTable.getAnonymousIndividualLookupTable().getIndex(individual);
-        dataOutput.writeInt(index);
+        if(version.isVarIntEncoded()) {
+            BinaryOWLStreamUtil.writeZigZagVarInt(index, dataOutput);
+        }
+        else {
+            dataOutput.writeInt(index);
+        }
     }
 
     /**
@@ -390,6 +535,11 @@ public class BinaryOWLOutputStream extends OutputStream {
         dataOutput.write(bytes);
     }
 
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        dataOutput.write(bytes, off, len);
+    }
+
 
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
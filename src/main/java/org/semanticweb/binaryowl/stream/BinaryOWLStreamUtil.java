@@ -27,6 +27,124 @@ public final class BinaryOWLStreamUtil {
     }
 
 
+    /**
+     * Gets a {@link DataOutput} view of an output stream.
+     * @param os The stream.
+     * @return The stream itself if it implements {@link DataOutput}, otherwise an unbuffered
+     * {@link java.io.DataOutputStream} over it, so that writes to the view and to the stream stay in order.
+     */
+    public static DataOutput asDataOutput(OutputStream os) {
+        if(os instanceof DataOutput) {
+            return (DataOutput) os;
+        }
+        else {
+            return new DataOutputStream(os);
+        }
+    }
+
+    /**
+     * Gets the number of bytes that a string occupies in the modified UTF-8 encoding used by
+     * {@link DataOutput#writeUTF(String)}, not counting the two byte length prefix.
+     * @param s The string.
+     * @return The number of bytes.
+     */
+    public static int getUTFLength(String s) {
+        int utfLength = 0;
+        for(int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if(c >= 0x0001 && c <= 0x007F) {
+                utfLength++;
+            }
+            else if(c > 0x07FF) {
+                utfLength += 3;
+            }
+            else {
+                utfLength += 2;
+            }
+        }
+        return utfLength;
+    }
+
+    /**
+     * Encodes a string in the modified UTF-8 encoding used by {@link DataOutput#writeUTF(String)}, without the two
+     * byte length prefix.  Unlike {@link String#getBytes(String)}, every string has its own encoding, including
+     * strings that contain unpaired surrogates, and the encodings of two strings sort in the same order as their
+     * chars (apart from supplementary characters, which are encoded as two surrogates).
+     * @param s The string.
+     * @return The encoded bytes.
+     */
+    public static byte [] encodeUTF(String s) {
+        byte [] bytes = new byte[getUTFLength(s)];
+        int count = 0;
+        for(int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if(c >= 0x0001 && c <= 0x007F) {
+                bytes[count++] = (byte) c;
+            }
+            else if(c > 0x07FF) {
+                bytes[count++] = (byte) (0xE0 | ((c >> 12) & 0x0F));
+                bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else {
+                bytes[count++] = (byte) (0xC0 | ((c >> 6) & 0x1F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes a string that was encoded by {@link #encodeUTF(String)}.
+     * @param bytes The bytes to decode from.
+     * @param offset The offset of the encoded string in {@code bytes}.
+     * @param length The number of bytes in the encoded string.
+     * @return The string.
+     * @throws UTFDataFormatException If the bytes are not a valid modified UTF-8 encoding.
+     */
+    public static String decodeUTF(byte [] bytes, int offset, int length) throws UTFDataFormatException {
+        char [] chars = new char[length];
+        int charCount = 0;
+        int count = 0;
+        while(count < length) {
+            int c = bytes[offset + count] & 0xFF;
+            count++;
+            switch (c >> 4) {
+                case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
+                    chars[charCount++] = (char) c;
+                    break;
+                case 12: case 13: {
+                    if(count + 1 > length) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    int c2 = bytes[offset + count] & 0xFF;
+                    count++;
+                    if((c2 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + count);
+                    }
+                    chars[charCount++] = (char) (((c & 0x1F) << 6) | (c2 & 0x3F));
+                    break;
+                }
+                case 14: {
+                    if(count + 2 > length) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    int c2 = bytes[offset + count] & 0xFF;
+                    int c3 = bytes[offset + count + 1] & 0xFF;
+                    count += 2;
+                    if((c2 & 0xC0) != 0x80 || (c3 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + (count - 1));
+                    }
+                    chars[charCount++] = (char) (((c & 0x0F) << 12) | ((c2 & 0x3F) << 6) | (c3 & 0x3F));
+                    break;
+                }
+                default:
+                    throw new UTFDataFormatException("malformed input around byte " + count);
+            }
+        }
+        return new String(chars, 0, charCount);
+    }
+
     protected static int readCollectionSize(DataInput dataInput) throws IOException {
         return readVariableLengthUnsignedInt(dataInput);
     }
@@ -74,6 +192,152 @@ public final class BinaryOWLStreamUtil {
         }
     }
 
+    /**
+     * Writes an int as an unsigned LEB128 varint: seven bits per byte, least significant group first, with the high
+     * bit of each byte set if more bytes follow.  Values below 128 take one byte, values below 16384 take two, and so
+     * on up to five bytes.  Negative values are treated as unsigned, so they always take five bytes - use
+     * {@link #writeZigZagVarInt(int, DataOutput)} for values that may be negative.
+     * @param i The value.
+     * @param dataOutput The output to write the value to.
+     * @throws IOException If there was a problem writing the value.
+     */
+    public static void writeVarInt(int i, DataOutput dataOutput) throws IOException {
+        while((i & ~0x7F) != 0) {
+            dataOutput.writeByte((i & 0x7F) | 0x80);
+            i >>>= 7;
+        }
+        dataOutput.writeByte(i);
+    }
+
+    /**
+     * Reads an int that was written by {@link #writeVarInt(int, DataOutput)}.
+     * @param dataInput The input to read the value from.
+     * @return The value.
+     * @throws IOException If there was a problem reading the value, or if the encoding is longer than five bytes.
+     */
+    public static int readVarInt(DataInput dataInput) throws IOException {
+        int result = 0;
+        for(int shift = 0; shift < 35; shift += 7) {
+            byte b = dataInput.readByte();
+            result |= (b & 0x7F) << shift;
+            if(b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint: more than five bytes");
+    }
+
+    /**
+     * Writes a signed int as a zig-zag encoded varint.  Zig-zag encoding interleaves negative and positive values
+     * (0, -1, 1, -2, 2...) so that values with a small magnitude take few bytes whatever their sign.
+     * @param i The value.
+     * @param dataOutput The output to write the value to.
+     * @throws IOException If there was a problem writing the value.
+     */
+    public static void writeZigZagVarInt(int i, DataOutput dataOutput) throws IOException {
+        writeVarInt((i << 1) ^ (i >> 31), dataOutput);
+    }
+
+    /**
+     * Reads an int that was written by {@link #writeZigZagVarInt(int, DataOutput)}.
+     * @param dataInput The input to read the value from.
+     * @return The value.
+     * @throws IOException If there was a problem reading the value.
+     */
+    public static int readZigZagVarInt(DataInput dataInput) throws IOException {
+        int i = readVarInt(dataInput);
+        return (i >>> 1) ^ -(i & 1);
+    }
+
+    /**
+     * Writes a long as an unsigned LEB128 varint, in the same way as {@link #writeVarInt(int, DataOutput)}.  Values
+     * take between one and ten bytes.
+     * @param l The value.
+     * @param dataOutput The output to write the value to.
+     * @throws IOException If there was a problem writing the value.
+     */
+    public static void writeVarLong(long l, DataOutput dataOutput) throws IOException {
+        while((l & ~0x7FL) != 0) {
+            dataOutput.writeByte((int) ((l & 0x7F) | 0x80));
+            l >>>= 7;
+        }
+        dataOutput.writeByte((int) l);
+    }
+
+    /**
+     * Reads a long that was written by {@link #writeVarLong(long, DataOutput)}.
+     * @param dataInput The input to read the value from.
+     * @return The value.
+     * @throws IOException If there was a problem reading the value, or if the encoding is longer than ten bytes.
+     */
+    public static long readVarLong(DataInput dataInput) throws IOException {
+        long result = 0;
+        for(int shift = 0; shift < 70; shift += 7) {
+            byte b = dataInput.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if(b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint: more than ten bytes");
+    }
+
+    /**
+     * Writes a signed long as a zig-zag encoded varint (see {@link #writeZigZagVarInt(int, DataOutput)}).
+     * @param l The value.
+     * @param dataOutput The output to write the value to.
+     * @throws IOException If there was a problem writing the value.
+     */
+    public static void writeZigZagVarLong(long l, DataOutput dataOutput) throws IOException {
+        writeVarLong((l << 1) ^ (l >> 63), dataOutput);
+    }
+
+    /**
+     * Reads a long that was written by {@link #writeZigZagVarLong(long, DataOutput)}.
+     * @param dataInput The input to read the value from.
+     * @return The value.
+     * @throws IOException If there was a problem reading the value.
+     */
+    public static long readZigZagVarLong(DataInput dataInput) throws IOException {
+        long l = readVarLong(dataInput);
+        return (l >>> 1) ^ -(l & 1);
+    }
+
+    /**
+     * Gets the number of bytes that {@link #writeVarInt(int, DataOutput)} uses to write a value.
+     * @param i The value.
+     * @return The number of bytes, between one and five.
+     */
+    public static int getVarIntLength(int i) {
+        int length = 1;
+        while((i & ~0x7F) != 0) {
+            length++;
+            i >>>= 7;
+        }
+        return length;
+    }
+
+
+    /**
+     * Skips exactly {@code n} bytes of input.  Unlike {@link DataInput#skipBytes(int)}, this never skips fewer bytes
+     * than requested.
+     * @param dataInput The input.
+     * @param n The number of bytes to skip.
+     * @throws EOFException If the end of the input is reached first.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void skipFully(DataInput dataInput, int n) throws IOException {
+        int remaining = n;
+        while(remaining > 0) {
+            int skipped = dataInput.skipBytes(remaining);
+            if(skipped <= 0) {
+                // skipBytes may give up before the end of the input, so make sure by reading a byte
+                dataInput.readByte();
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
 
     public static DataInputStream getDataInputStream(InputStream inputStream) {
         DataInputStream dis;
@@ -0,0 +1,324 @@
+package org.semanticweb.binaryowl.stream;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     An {@link InputStream} that also implements {@link DataInput} and decodes primitive values straight out of a
+ *     {@link ByteBuffer}.  When a value lies completely inside the current buffer it is decoded with a single
+ *     relative get on the buffer; only values that straddle the end of the buffer fall back to byte-at-a-time
+ *     decoding.  This avoids the per-call overhead (and, for unbuffered streams, the per-byte system calls) of
+ *     {@link java.io.DataInputStream}.
+ * </p>
+ * <p>
+ *     On its own this class reads a single buffer.  Subclasses supply further data by overriding
+ *     {@link #nextBuffer()}, either by refilling {@link #buffer} or by replacing it.  Replacement buffers must be
+ *     big-endian.
+ * </p>
+ */
+public class ByteBufferInputStream extends InputStream implements DataInput {
+
+    /**
+     * The buffer that values are currently being decoded from.  The bytes between the buffer's position and its
+     * limit are the bytes that have not been read yet.
+     */
+    protected ByteBuffer buffer;
+
+    private final int initialBufferPosition;
+
+    private char[] charBuffer = new char[128];
+
+    /**
+     * Creates a stream that reads the remaining bytes of the specified buffer.  The stream reads a big-endian view of
+     * the buffer, as {@link DataInput} requires, whatever the byte order of the buffer itself.  The position of the
+     * specified buffer is not changed by reading from the stream.
+     * @param buffer The buffer.  Not {@code null}.
+     */
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = checkNotNull(buffer).duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.initialBufferPosition = buffer.position();
+    }
+
+    /**
+     * Gets the position of this stream, which is the number of bytes that have been read or skipped since the stream
+     * was created.
+     * @return The position.
+     */
+    public long getPosition() {
+        return buffer.position() - initialBufferPosition;
+    }
+
+    /**
+     * Called when the current buffer has been exhausted.  Implementations should make more bytes available in
+     * {@link #buffer} (by refilling it or by replacing it with another buffer).
+     * @return {@code true} if more bytes may be available, or {@code false} if the end of the data has been
+     * reached.  The default implementation always returns {@code false}.
+     * @throws IOException If more bytes could not be read.
+     */
+    protected boolean nextBuffer() throws IOException {
+        return false;
+    }
+
+    /**
+     * Skips bytes that lie beyond the end of the current buffer.  This is called after the current buffer has been
+     * exhausted.  The default implementation reads and discards buffers, subclasses that can reposition their
+     * underlying source should do so.
+     * @param n The number of bytes to skip.  Greater than zero.
+     * @return The number of bytes actually skipped.
+     * @throws IOException If an I/O error occurs.
+     */
+    protected long skipBeyondBuffer(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && fill()) {
+            int count = (int) Math.min(n - skipped, buffer.remaining());
+            buffer.position(buffer.position() + count);
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    private boolean fill() throws IOException {
+        while (!buffer.hasRemaining()) {
+            if (!nextBuffer()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        int inBuffer = (int) Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + inBuffer);
+        if (inBuffer == n) {
+            return n;
+        }
+        return inBuffer + skipBeyondBuffer(n - inBuffer);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return buffer.remaining();
+    }
+
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = read(b, off, len);
+            if (count == -1) {
+                throw new EOFException();
+            }
+            off += count;
+            len -= count;
+        }
+    }
+
+    /**
+     * Reads the next {@code length} bytes as a buffer of their own.  The returned buffer shares its content with the
+     * buffer that this stream reads from, so nothing is copied, provided that the bytes lie inside the current
+     * buffer.  Otherwise they are copied into a new heap buffer.
+     * @param length The number of bytes to read.
+     * @return A buffer whose remaining bytes are the bytes that were read.
+     * @throws IOException If an I/O error occurs.
+     */
+    public ByteBuffer readBuffer(int length) throws IOException {
+        if (buffer.remaining() >= length) {
+            ByteBuffer slice = buffer.slice();
+            slice.limit(length);
+            buffer.position(buffer.position() + length);
+            return slice;
+        }
+        return copyToHeapBuffer(length);
+    }
+
+    /**
+     * Reads the next {@code length} bytes into a new heap buffer.
+     * @param length The number of bytes to read.
+     * @return The buffer.
+     * @throws IOException If an I/O error occurs.
+     */
+    protected final ByteBuffer copyToHeapBuffer(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        readFully(bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    public int skipBytes(int n) throws IOException {
+        return (int) skip(n);
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readUnsignedByte() != 0;
+    }
+
+    public byte readByte() throws IOException {
+        return (byte) readUnsignedByte();
+    }
+
+    public int readUnsignedByte() throws IOException {
+        if (!fill()) {
+            throw new EOFException();
+        }
+        return buffer.get() & 0xff;
+    }
+
+    public short readShort() throws IOException {
+        if (buffer.remaining() >= 2) {
+            return buffer.getShort();
+        }
+        return (short) ((readUnsignedByte() << 8) | readUnsignedByte());
+    }
+
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xffff;
+    }
+
+    public char readChar() throws IOException {
+        return (char) readShort();
+    }
+
+    public int readInt() throws IOException {
+        if (buffer.remaining() >= 4) {
+            return buffer.getInt();
+        }
+        return (readUnsignedByte() << 24) | (readUnsignedByte() << 16) | (readUnsignedByte() << 8) | readUnsignedByte();
+    }
+
+    public long readLong() throws IOException {
+        if (buffer.remaining() >= 8) {
+            return buffer.getLong();
+        }
+        return ((long) readInt() << 32) | (readInt() & 0xffffffffL);
+    }
+
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads a line of text in the manner of {@link java.io.DataInputStream#readLine()}.  Present to satisfy
+     * {@link DataInput}; binary OWL never stores lines of text.
+     */
+    public String readLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int b = read();
+        if (b == -1) {
+            return null;
+        }
+        while (b != -1 && b != '\n') {
+            if (b == '\r') {
+                if (fill() && buffer.get(buffer.position()) == '\n') {
+                    buffer.get();
+                }
+                break;
+            }
+            sb.append((char) b);
+            b = read();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads a string in modified UTF-8 format, as written by {@link java.io.DataOutput#writeUTF(String)}.  Strings
+     * that lie completely inside the current buffer are decoded directly from the buffer.
+     */
+    public String readUTF() throws IOException {
+        int utfLength = readUnsignedShort();
+        if (charBuffer.length < utfLength) {
+            charBuffer = new char[Math.max(utfLength, charBuffer.length * 2)];
+        }
+        char[] chars = charBuffer;
+        int charCount = 0;
+        int count = 0;
+        if (buffer.remaining() >= utfLength) {
+            // Fast path for the common all-ASCII case
+            int start = buffer.position();
+            while (count < utfLength) {
+                int c = buffer.get(start + count);
+                if (c < 0) {
+                    break;
+                }
+                chars[charCount] = (char) c;
+                charCount++;
+                count++;
+            }
+            buffer.position(start + count);
+        }
+        while (count < utfLength) {
+            int c = readUnsignedByte();
+            count++;
+            switch (c >> 4) {
+                case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
+                    chars[charCount++] = (char) c;
+                    break;
+                case 12: case 13: {
+                    if (count + 1 > utfLength) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    int c2 = readUnsignedByte();
+                    count++;
+                    if ((c2 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + count);
+                    }
+                    chars[charCount++] = (char) (((c & 0x1F) << 6) | (c2 & 0x3F));
+                    break;
+                }
+                case 14: {
+                    if (count + 2 > utfLength) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    int c2 = readUnsignedByte();
+                    int c3 = readUnsignedByte();
+                    count += 2;
+                    if ((c2 & 0xC0) != 0x80 || (c3 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + (count - 1));
+                    }
+                    chars[charCount++] = (char) (((c & 0x0F) << 12) | ((c2 & 0x3F) << 6) | (c3 & 0x3F));
+                    break;
+                }
+                default:
+                    throw new UTFDataFormatException("malformed input around byte " + count);
+            }
+        }
+        return new String(chars, 0, charCount);
+    }
+}
@@ -0,0 +1,115 @@
+package org.semanticweb.binaryowl.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     A {@link ByteBufferInputStream} that reads from a {@link ReadableByteChannel} into a single, reusable buffer.
+ *     Bytes are pulled from the channel in large blocks, so decoding a document costs one read call per block
+ *     rather than several calls per value.
+ * </p>
+ * <p>
+ *     If the channel is a {@link FileChannel} then large skips reposition the channel instead of reading the
+ *     skipped bytes.
+ * </p>
+ */
+public class ChannelInputStream extends ByteBufferInputStream {
+
+    /**
+     * The default size, in bytes, of the buffer that is filled from the channel.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+
+    /**
+     * The stream position of the first byte in the buffer.
+     */
+    private long bufferStart = 0;
+
+    /**
+     * Creates a stream that reads from the specified channel using a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     * @param channel The channel.  Not {@code null}.
+     */
+    public ChannelInputStream(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a stream that reads from the specified channel.
+     * @param channel The channel.  Not {@code null}.
+     * @param bufferSize The size of the buffer, in bytes, that is filled from the channel.  Must be at least 8
+     *                   bytes.
+     */
+    public ChannelInputStream(ReadableByteChannel channel, int bufferSize) {
+        super(createEmptyBuffer(bufferSize));
+        this.channel = checkNotNull(channel);
+    }
+
+    /**
+     * Creates a stream that reads from the specified input stream.  If the input stream is a plain
+     * {@link java.io.FileInputStream} then its channel is read directly.
+     * @param inputStream The input stream.  Not {@code null}.
+     */
+    public ChannelInputStream(InputStream inputStream) {
+        this(Channels.newChannel(checkNotNull(inputStream)));
+    }
+
+    private static ByteBuffer createEmptyBuffer(int bufferSize) {
+        if(bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size must be at least 8 bytes: " + bufferSize);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        buffer.limit(0);
+        return buffer;
+    }
+
+    @Override
+    public long getPosition() {
+        return bufferStart + buffer.position();
+    }
+
+    @Override
+    protected boolean nextBuffer() throws IOException {
+        bufferStart += buffer.limit();
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read != -1;
+    }
+
+    /**
+     * Always copies, because the buffer that this stream reads into is refilled.
+     */
+    @Override
+    public ByteBuffer readBuffer(int length) throws IOException {
+        return copyToHeapBuffer(length);
+    }
+
+    @Override
+    protected long skipBeyondBuffer(long n) throws IOException {
+        if(channel instanceof FileChannel) {
+            FileChannel fileChannel = (FileChannel) channel;
+            long position = fileChannel.position();
+            long skipped = Math.min(n, Math.max(0, fileChannel.size() - position));
+            fileChannel.position(position + skipped);
+            bufferStart += buffer.limit() + skipped;
+            buffer.clear();
+            buffer.limit(0);
+            return skipped;
+        }
+        return super.skipBeyondBuffer(n);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,242 @@
+package org.semanticweb.binaryowl.stream;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     An {@link OutputStream} and {@link DataOutput} that encodes primitive values straight into a single, reusable
+ *     direct buffer, which is drained to a {@link WritableByteChannel} whenever it fills up.  This replaces the usual
+ *     {@link java.io.DataOutputStream} over {@link java.io.BufferedOutputStream} layering, where every byte passes
+ *     through a synchronized method call.
+ * </p>
+ * <p>
+ *     Byte arrays that are too large to fit in the buffer are written directly from the array.  If the channel is a
+ *     {@link GatheringByteChannel} (as {@link java.nio.channels.FileChannel} is) then the buffered bytes and the array
+ *     are written with a single gathering write.
+ * </p>
+ * <p>
+ *     Bytes are only guaranteed to have reached the channel after {@link #flush()} or {@link #close()}.
+ * </p>
+ */
+public class ChannelOutputStream extends OutputStream implements DataOutput {
+
+    /**
+     * The default size, in bytes, of the buffer that is drained to the channel.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * The number of bytes that have been drained to the channel.
+     */
+    private long bytesDrained = 0;
+
+    /**
+     * Creates a stream that writes to the specified channel using a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     * @param channel The channel.  Not {@code null}.
+     */
+    public ChannelOutputStream(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a stream that writes to the specified channel.
+     * @param channel The channel.  Not {@code null}.
+     * @param bufferSize The size of the buffer, in bytes, that is drained to the channel.  Must be at least 8 bytes.
+     */
+    public ChannelOutputStream(WritableByteChannel channel, int bufferSize) {
+        if(bufferSize < 8) {
+            throw new IllegalArgumentException("Buffer size must be at least 8 bytes: " + bufferSize);
+        }
+        this.channel = checkNotNull(channel);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Gets the number of bytes that have been written to this stream.
+     * @return The number of bytes, including those that are still buffered.
+     */
+    public long getPosition() {
+        return bytesDrained + buffer.position();
+    }
+
+    private void ensureRemaining(int n) throws IOException {
+        if(buffer.remaining() < n) {
+            drainBuffer();
+        }
+    }
+
+    private void drainBuffer() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            bytesDrained += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureRemaining(1);
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if(len <= buffer.remaining()) {
+            buffer.put(b, off, len);
+        }
+        else if(len < buffer.capacity()) {
+            drainBuffer();
+            buffer.put(b, off, len);
+        }
+        else {
+            writeDirectly(ByteBuffer.wrap(b, off, len));
+        }
+    }
+
+    /**
+     * Writes the buffered bytes followed by the bytes in the specified buffer, without copying the latter.
+     */
+    private void writeDirectly(ByteBuffer src) throws IOException {
+        buffer.flip();
+        if(channel instanceof GatheringByteChannel) {
+            ByteBuffer[] srcs = {buffer, src};
+            GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+            while(src.hasRemaining()) {
+                bytesDrained += gatheringChannel.write(srcs);
+            }
+        }
+        else {
+            while(buffer.hasRemaining()) {
+                bytesDrained += channel.write(buffer);
+            }
+            while(src.hasRemaining()) {
+                bytesDrained += channel.write(src);
+            }
+        }
+        buffer.clear();
+    }
+
+    public void writeBoolean(boolean v) throws IOException {
+        write(v ? 1 : 0);
+    }
+
+    public void writeByte(int v) throws IOException {
+        write(v);
+    }
+
+    public void writeShort(int v) throws IOException {
+        ensureRemaining(2);
+        buffer.putShort((short) v);
+    }
+
+    public void writeChar(int v) throws IOException {
+        ensureRemaining(2);
+        buffer.putChar((char) v);
+    }
+
+    public void writeInt(int v) throws IOException {
+        ensureRemaining(4);
+        buffer.putInt(v);
+    }
+
+    public void writeLong(long v) throws IOException {
+        ensureRemaining(8);
+        buffer.putLong(v);
+    }
+
+    public void writeFloat(float v) throws IOException {
+        ensureRemaining(4);
+        buffer.putFloat(v);
+    }
+
+    public void writeDouble(double v) throws IOException {
+        ensureRemaining(8);
+        buffer.putDouble(v);
+    }
+
+    public void writeBytes(String s) throws IOException {
+        for(int i = 0; i < s.length(); i++) {
+            write(s.charAt(i));
+        }
+    }
+
+    public void writeChars(String s) throws IOException {
+        for(int i = 0; i < s.length(); i++) {
+            writeChar(s.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a string in the modified UTF-8 encoding described by {@link DataOutput#writeUTF(String)}, encoding the
+     * characters straight into the buffer.
+     */
+    public void writeUTF(String s) throws IOException {
+        int length = s.length();
+        int utfLength = BinaryOWLStreamUtil.getUTFLength(s);
+        if(utfLength > 65535) {
+            throw new UTFDataFormatException("Encoded string too long: " + utfLength + " bytes");
+        }
+        writeShort(utfLength);
+        for(int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if(c >= 0x0001 && c <= 0x007F) {
+                ensureRemaining(1);
+                buffer.put((byte) c);
+            }
+            else if(c > 0x07FF) {
+                ensureRemaining(3);
+                buffer.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+            else {
+                ensureRemaining(2);
+                buffer.put((byte) (0xC0 | ((c >> 6) & 0x1F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Drains the buffer to the channel.
+     * @throws IOException If there was a problem writing to the channel.
+     */
+    @Override
+    public void flush() throws IOException {
+        drainBuffer();
+    }
+
+    /**
+     * Drains the buffer to the channel and closes the channel.
+     * @throws IOException If there was a problem writing to or closing the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        if(!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+        }
+        finally {
+            channel.close();
+        }
+    }
+}
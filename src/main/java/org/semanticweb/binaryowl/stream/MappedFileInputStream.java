@@ -0,0 +1,118 @@
+package org.semanticweb.binaryowl.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * <p>
+ *     A {@link ByteBufferInputStream} that decodes a file directly from memory mapped {@link java.nio.MappedByteBuffer}s.
+ *     Nothing is copied through heap byte arrays, and processes that map the same file share the operating system's
+ *     page cache.
+ * </p>
+ * <p>
+ *     A single mapping cannot exceed {@link Integer#MAX_VALUE} bytes, so the file is mapped in consecutive segments.
+ *     A segment is mapped when the stream first reaches it and is released when the stream moves on.  Values that
+ *     straddle a segment boundary are decoded a byte at a time.
+ * </p>
+ */
+public class MappedFileInputStream extends ByteBufferInputStream {
+
+    /**
+     * The largest segment that is mapped in one go.
+     */
+    public static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final long initialPosition;
+
+    private final int segmentSize;
+
+    /**
+     * The file position of the first byte in the current segment.
+     */
+    private long segmentStart;
+
+    /**
+     * Creates a stream that reads the specified channel from its current position to the end of the file.
+     * @param channel The channel.  Not {@code null}.
+     * @throws IOException If the file could not be mapped.
+     */
+    public MappedFileInputStream(FileChannel channel) throws IOException {
+        this(channel, MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a stream that reads the specified channel from its current position to the end of the file, mapping
+     * at most {@code segmentSize} bytes at a time.
+     * @param channel The channel.  Not {@code null}.
+     * @param segmentSize The maximum size of each mapped segment.  Must be greater than zero.
+     * @throws IOException If the file could not be mapped.
+     */
+    public MappedFileInputStream(FileChannel channel, int segmentSize) throws IOException {
+        super(EMPTY_BUFFER);
+        if(segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be greater than zero: " + segmentSize);
+        }
+        this.channel = checkNotNull(channel);
+        this.size = channel.size();
+        this.segmentSize = segmentSize;
+        this.initialPosition = channel.position();
+        mapSegment(initialPosition);
+    }
+
+    @Override
+    public long getPosition() {
+        return segmentStart + buffer.position() - initialPosition;
+    }
+
+    private void mapSegment(long start) throws IOException {
+        segmentStart = Math.min(start, size);
+        long length = Math.min(segmentSize, size - segmentStart);
+        if(length == 0) {
+            buffer = EMPTY_BUFFER;
+        }
+        else {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, length);
+        }
+    }
+
+    @Override
+    protected boolean nextBuffer() throws IOException {
+        long nextStart = segmentStart + buffer.limit();
+        if(nextStart >= size) {
+            return false;
+        }
+        mapSegment(nextStart);
+        return true;
+    }
+
+    @Override
+    protected long skipBeyondBuffer(long n) throws IOException {
+        long position = segmentStart + buffer.position();
+        long skipped = Math.min(n, size - position);
+        mapSegment(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, size - segmentStart - buffer.position());
+    }
+
+    /**
+     * Closes the underlying channel.  Segments that have already been mapped stay valid until they are garbage
+     * collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,100 @@
+package org.semanticweb.binaryowl.tests;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyDocumentStorer;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+/**
+ * Checks that an asynchronous save writes the ontology as it was when the save was requested, even if the ontology
+ * is edited before the background write starts, and that the document is replaced in one step.
+ */
+public class AsyncStoreTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldStoreSnapshotTakenWhenSaveWasRequested() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ont = manager.loadOntologyFromOntologyDocument(IRI.create(AsyncStoreTestCase.class.getResource("/allconstructs.owl")));
+        Set<OWLAxiom> expectedAxioms = new HashSet<OWLAxiom>(ont.getAxioms());
+        Set<OWLAnnotation> expectedAnnotations = new HashSet<OWLAnnotation>(ont.getAnnotations());
+        File file = temporaryFolder.newFile("async.binaryowl");
+
+        final CountDownLatch edited = new CountDownLatch(1);
+        final ExecutorService delegate = Executors.newSingleThreadExecutor();
+        Executor executor = new Executor() {
+            public void execute(final Runnable command) {
+                delegate.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            edited.await();
+                        }
+                        catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        command.run();
+                    }
+                });
+            }
+        };
+        ListenableFuture<Void> future = new BinaryOWLOntologyDocumentStorer().storeOntologyAsync(ont, IRI.create(file), executor);
+        OWLDataFactory df = manager.getOWLDataFactory();
+        manager.addAxiom(ont, df.getOWLDeclarationAxiom(df.getOWLClass(IRI.create("http://example.org/AddedAfterSave"))));
+        manager.removeAxiom(ont, expectedAxioms.iterator().next());
+        edited.countDown();
+        future.get(30, TimeUnit.SECONDS);
+        delegate.shutdown();
+
+        OWLOntologyManager readManager = OWLManager.createOWLOntologyManager();
+        OWLOntology read = readManager.createOntology();
+        new BinaryOWLOntologyDocumentSerializer().read(file, new BinaryOWLOntologyBuildingHandler(read), readManager.getOWLDataFactory());
+        assertEquals(expectedAxioms, read.getAxioms());
+        assertEquals(expectedAnnotations, read.getAnnotations());
+        File[] files = file.getParentFile().listFiles();
+        assertEquals(1, files.length);
+    }
+
+    @Test
+    public void shouldReportWriteFailureThroughFuture() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ont = manager.createOntology(IRI.create("http://example.org/ont"));
+        File directory = temporaryFolder.newFolder("missing");
+        File file = new File(directory, "doc.binaryowl");
+        assertTrue(directory.delete());
+        ListenableFuture<Void> future = new BinaryOWLOntologyDocumentStorer().storeOntologyAsync(ont, IRI.create(file), new Executor() {
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        try {
+            future.get();
+            fail("Expected the save to fail");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof java.io.IOException);
+        }
+        assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,71 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.lookup.LookupTable;
+import org.semanticweb.binaryowl.owlobject.OWLObjectBinaryType;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.Collections;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Tests the annotation flag in the axiom type markers of version 11 documents.
+ */
+public class AxiomAnnotationFlagTestCase {
+
+    private static final BinaryOWLVersion VERSION_10 = BinaryOWLVersion.getVersion(10);
+
+    private static final BinaryOWLVersion VERSION_11 = BinaryOWLVersion.getVersion(11);
+
+    private OWLDataFactory df;
+
+    @Before
+    public void setUp() {
+        df = OWLManager.getOWLDataFactory();
+    }
+
+    @Test
+    public void shouldFlagAnnotatedAxiomsOnly() throws Exception {
+        OWLClass cls = df.getOWLClass(IRI.create("http://example.org/ontology#A"));
+        OWLAxiom plain = df.getOWLSubClassOfAxiom(cls, df.getOWLThing());
+        OWLAxiom annotated = df.getOWLSubClassOfAxiom(cls, df.getOWLThing(), Collections.singleton(df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("Annotated"))));
+        byte marker = OWLObjectBinaryType.OWL_SUBCLASS_OF.getMarker();
+        byte [] plainBytes = writeObjects(VERSION_11, plain);
+        assertEquals(marker, plainBytes[0]);
+        byte [] annotatedBytes = writeObjects(VERSION_11, annotated);
+        assertEquals((byte) (marker | OWLObjectBinaryType.ANNOTATED_AXIOM_FLAG), annotatedBytes[0]);
+        // The plain axiom has no annotation count after its marker, and the annotated axiom is written as before
+        assertEquals(writeObjects(VERSION_10, plain).length - 1, plainBytes.length);
+        assertEquals(writeObjects(VERSION_10, annotated).length, annotatedBytes.length);
+    }
+
+    @Test
+    public void shouldSkipAnnotatedAndPlainAxioms() throws Exception {
+        OWLClass cls = df.getOWLClass(IRI.create("http://example.org/ontology#A"));
+        OWLAxiom plain = df.getOWLDeclarationAxiom(cls);
+        OWLAxiom annotated = df.getOWLDeclarationAxiom(cls, Collections.singleton(df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("Annotated"))));
+        OWLAxiom last = df.getOWLSubClassOfAxiom(cls, df.getOWLThing());
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(new ByteArrayInputStream(writeObjects(VERSION_11, plain, annotated, last)), df, VERSION_11);
+        inputStream.skipOWLObject();
+        inputStream.skipOWLObject();
+        assertEquals(last, inputStream.readOWLObject());
+    }
+
+    private byte [] writeObjects(BinaryOWLVersion version, OWLObject... objects) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(new DataOutputStream(bos), new LookupTable(), version);
+        for(OWLObject object : objects) {
+            outputStream.writeOWLObject(object);
+        }
+        return bos.toByteArray();
+    }
+}
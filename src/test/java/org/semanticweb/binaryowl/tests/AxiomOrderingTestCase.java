@@ -0,0 +1,103 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLAxiomOrdering;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Checks that documents written with each axiom ordering read back as the same ontology, and that the encoded
+ * ordering is deterministic.
+ */
+public class AxiomOrderingTestCase {
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(AxiomOrderingTestCase.class.getResource("/allconstructs.owl")));
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldRoundTripWithEveryOrdering() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for(BinaryOWLAxiomOrdering ordering : BinaryOWLAxiomOrdering.values()) {
+                for(int version : new int [] {1, 3, 8, 9, 10, 11}) {
+                    BinaryOWLWriterConfiguration configuration = new BinaryOWLWriterConfiguration().withAxiomOrdering(ordering);
+                    assertRoundTrips(ordering + " v" + version, write(version, configuration));
+                    assertRoundTrips(ordering + " v" + version + " concurrent", write(version, configuration.withExecutor(executor)));
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRoundTripRepeatedClassExpressionsInEncodedOrder() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        ont = manager.createOntology(IRI.create("http://example.org/ontology"));
+        OWLClassExpression partOfCell = df.getOWLObjectSomeValuesFrom(df.getOWLObjectProperty(IRI.create("http://example.org/ontology#partOf")), df.getOWLClass(IRI.create("http://example.org/ontology#Cell")));
+        for(int i = 0; i < 20; i++) {
+            OWLClass cls = df.getOWLClass(IRI.create("http://example.org/ontology#C" + i));
+            manager.addAxiom(ont, df.getOWLSubClassOfAxiom(cls, df.getOWLObjectIntersectionOf(cls, partOfCell)));
+            manager.addAxiom(ont, df.getOWLSubClassOfAxiom(cls, df.getOWLObjectComplementOf(partOfCell)));
+        }
+        for(int version : new int [] {8, 11}) {
+            assertRoundTrips("v" + version, write(version, new BinaryOWLWriterConfiguration().withAxiomOrdering(BinaryOWLAxiomOrdering.ENCODED)));
+        }
+    }
+
+    private void assertRoundTrips(String message, byte[] bytes) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology read = manager.createOntology();
+        serializer.read(new ByteArrayInputStream(bytes), new BinaryOWLOntologyBuildingHandler(read), manager.getOWLDataFactory());
+        assertEquals(message, ont.getAxioms(), read.getAxioms());
+    }
+
+    @Test
+    public void shouldWriteEncodedOrderDeterministically() throws Exception {
+        BinaryOWLWriterConfiguration configuration = new BinaryOWLWriterConfiguration().withAxiomOrdering(BinaryOWLAxiomOrdering.ENCODED);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for(int version : new int [] {3, 8}) {
+                byte[] first = write(version, configuration);
+                assertTrue(Arrays.equals(first, write(version, configuration)));
+                assertTrue(Arrays.equals(first, write(version, configuration.withExecutor(executor))));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] write(int version, BinaryOWLWriterConfiguration configuration) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(version), configuration);
+        return outputStream.toByteArray();
+    }
+}
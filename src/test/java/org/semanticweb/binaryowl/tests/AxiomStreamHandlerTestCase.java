@@ -0,0 +1,96 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentAxiomStreamHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHandlerAdapter;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLReaderConfiguration;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Checks that streaming handlers receive every axiom of a document in bounded batches.
+ */
+public class AxiomStreamHandlerTestCase {
+
+    private static final int BATCH_SIZE = 3;
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(AxiomStreamHandlerTestCase.class.getResource("/allconstructs.owl")));
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldStreamAxiomsOfVersion1Document() throws Exception {
+        StreamHandler handler = read(BinaryOWLVersion.getVersion(1), new BinaryOWLReaderConfiguration().withAxiomBatchSize(BATCH_SIZE));
+        assertEquals(ont.getAxioms(), handler.axioms);
+    }
+
+    @Test
+    public void shouldStreamAxiomsOfVersion3Document() throws Exception {
+        StreamHandler handler = read(BinaryOWLVersion.getVersion(3), new BinaryOWLReaderConfiguration().withAxiomBatchSize(BATCH_SIZE));
+        assertEquals(ont.getAxioms(), handler.axioms);
+    }
+
+    @Test
+    public void shouldStreamAxiomsWhenExecutorIsConfigured() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            StreamHandler handler = read(BinaryOWLVersion.getVersion(3), new BinaryOWLReaderConfiguration().withAxiomBatchSize(BATCH_SIZE).withExecutor(executor));
+            assertEquals(ont.getAxioms(), handler.axioms);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private StreamHandler read(BinaryOWLVersion version, BinaryOWLReaderConfiguration configuration) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream, new BinaryOWLMetadata(), version);
+        StreamHandler handler = new StreamHandler();
+        serializer.read(new ByteArrayInputStream(outputStream.toByteArray()), handler, ont.getOWLOntologyManager().getOWLDataFactory(), configuration);
+        return handler;
+    }
+
+    private static class StreamHandler extends BinaryOWLOntologyDocumentHandlerAdapter<RuntimeException> implements BinaryOWLOntologyDocumentAxiomStreamHandler<RuntimeException> {
+
+        private final Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+
+        @Override
+        public void handleAxioms(Set<OWLAxiom> axioms) {
+            throw new AssertionError("Streaming handler was passed a whole axiom table");
+        }
+
+        @Override
+        public void handleAxiomBatch(List<OWLAxiom> batch) {
+            assertFalse(batch.isEmpty());
+            assertTrue(batch.size() <= BATCH_SIZE);
+            axioms.addAll(batch);
+        }
+    }
+}
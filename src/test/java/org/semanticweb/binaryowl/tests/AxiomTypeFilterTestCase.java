@@ -0,0 +1,93 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLReaderConfiguration;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Checks that axiom tables excluded by the reader configuration are skipped, and that everything else is still read.
+ */
+public class AxiomTypeFilterTestCase {
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(AxiomTypeFilterTestCase.class.getResource("/allconstructs.owl")));
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldReadOnlyIncludedAxiomTypesFromVersion1Document() throws Exception {
+        assertReadsOnlyIncludedAxiomTypes(BinaryOWLVersion.getVersion(1));
+    }
+
+    @Test
+    public void shouldReadOnlyIncludedAxiomTypesFromVersion3Document() throws Exception {
+        assertReadsOnlyIncludedAxiomTypes(BinaryOWLVersion.getVersion(3));
+    }
+
+    /**
+     * Reading each axiom type on its own from a version 1 document skips every other table, so this exercises the
+     * structural skip for every kind of object in the test ontology.
+     */
+    @Test
+    public void shouldSkipEveryOtherTableInVersion1Document() throws Exception {
+        byte[] bytes = write(BinaryOWLVersion.getVersion(1));
+        for(AxiomType<?> axiomType : AxiomType.AXIOM_TYPES) {
+            Set<AxiomType<?>> axiomTypes = Collections.<AxiomType<?>>singleton(axiomType);
+            OWLOntology ontIn = read(bytes, new BinaryOWLReaderConfiguration().withAxiomTypes(axiomTypes));
+            assertEquals(ont.getAxioms(axiomType), ontIn.getAxioms(axiomType));
+            assertEquals(ont.getAxiomCount(axiomType), ontIn.getAxiomCount());
+            assertEquals(ont.getAnnotations(), ontIn.getAnnotations());
+        }
+    }
+
+    private void assertReadsOnlyIncludedAxiomTypes(BinaryOWLVersion version) throws Exception {
+        Set<AxiomType<?>> axiomTypes = new HashSet<AxiomType<?>>();
+        axiomTypes.add(AxiomType.DECLARATION);
+        axiomTypes.add(AxiomType.SUBCLASS_OF);
+        OWLOntology ontIn = read(write(version), new BinaryOWLReaderConfiguration().withAxiomTypes(axiomTypes));
+
+        Set<OWLAxiom> expected = new HashSet<OWLAxiom>();
+        expected.addAll(ont.getAxioms(AxiomType.DECLARATION));
+        expected.addAll(ont.getAxioms(AxiomType.SUBCLASS_OF));
+        assertEquals(expected, ontIn.getAxioms());
+        assertEquals(ont.getOntologyID(), ontIn.getOntologyID());
+    }
+
+    private byte[] write(BinaryOWLVersion version) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream, new BinaryOWLMetadata(), version);
+        return outputStream.toByteArray();
+    }
+
+    private OWLOntology read(byte[] bytes, BinaryOWLReaderConfiguration configuration) throws Exception {
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        OWLOntology ontIn = manIn.createOntology();
+        serializer.read(new ByteArrayInputStream(bytes), new BinaryOWLOntologyBuildingHandler(ontIn), manIn.getOWLDataFactory(), configuration);
+        return ontIn;
+    }
+}
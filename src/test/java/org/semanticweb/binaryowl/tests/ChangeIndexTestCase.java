@@ -0,0 +1,151 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentAppendedChangeHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHandlerAdapter;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Checks that change chunks can be read by timestamp, with and without a change index footer, and that the footer
+ * does not disturb readers that process the whole document.
+ */
+public class ChangeIndexTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(ChangeIndexTestCase.class.getResource("/allconstructs.owl")));
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldReadRecentChangesThroughIndex() throws Exception {
+        File file = writeDocument("indexed.binaryowl", 1);
+        appendChanges(file, 1, 2);
+        serializer.indexOntologyChanges(file, dataFactory);
+        appendChanges(file, 3, 4);
+        // Indexing twice leaves the document alone
+        long length = file.length();
+        serializer.indexOntologyChanges(file, dataFactory);
+        assertEquals(length, file.length());
+
+        assertEquals(Arrays.asList(3L, 4L), readTimestampsSince(file, 3));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), readTimestampsSince(file, 0));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), readAllTimestamps(file));
+    }
+
+    @Test
+    public void shouldReadRecentChangesWithoutIndex() throws Exception {
+        File file = writeDocument("unindexed.binaryowl", 1);
+        appendChanges(file, 1, 2, 3);
+        assertEquals(Arrays.asList(2L, 3L), readTimestampsSince(file, 2));
+        assertEquals(Collections.<Long>emptyList(), readTimestampsSince(file, 4));
+    }
+
+    @Test
+    public void shouldIndexVersion3Document() throws Exception {
+        File file = writeDocument("indexed-v3.binaryowl", 3);
+        serializer.indexOntologyChanges(file, dataFactory);
+        appendChanges(file, 5, 6);
+        assertEquals(Arrays.asList(6L), readTimestampsSince(file, 6));
+        assertEquals(Arrays.asList(5L, 6L), readAllTimestamps(file));
+    }
+
+    @Test
+    public void shouldReadChangesAppendedToStreamAfterIndex() throws Exception {
+        File file = writeDocument("stream-appended.binaryowl", 1);
+        appendChanges(file, 1);
+        serializer.indexOntologyChanges(file, dataFactory);
+        // The stream append cannot update the footer, which is left behind the first chunk
+        FileOutputStream fos = new FileOutputStream(file, true);
+        OWLOntologyChangeData change = new AddAxiomData(dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://stuff.com#C2"))));
+        serializer.appendOntologyChanges(new BinaryOWLOutputStream(fos, BinaryOWLVersion.getVersion(1)), new OntologyChangeDataList(Arrays.asList(change), 2));
+        fos.close();
+
+        assertEquals(Arrays.asList(1L, 2L), readAllTimestamps(file));
+        assertEquals(Arrays.asList(1L, 2L), readTimestampsSince(file, 0));
+        assertEquals(Arrays.asList(2L), readTimestampsSince(file, 2));
+
+        // Indexing again covers both chunks
+        serializer.indexOntologyChanges(file, dataFactory);
+        appendChanges(file, 3);
+        assertEquals(Arrays.asList(2L, 3L), readTimestampsSince(file, 2));
+        assertEquals(Arrays.asList(1L, 2L, 3L), readAllTimestamps(file));
+    }
+
+    private File writeDocument(String name, int version) throws Exception {
+        File file = temporaryFolder.newFile(name);
+        FileOutputStream fos = new FileOutputStream(file);
+        serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(version));
+        fos.close();
+        return file;
+    }
+
+    private void appendChanges(File file, long... timestamps) throws Exception {
+        for(long timestamp : timestamps) {
+            OWLOntologyChangeData change = new AddAxiomData(dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://stuff.com#C" + timestamp))));
+            serializer.appendOntologyChanges(file, new OntologyChangeDataList(Arrays.asList(change), timestamp));
+        }
+    }
+
+    private List<Long> readTimestampsSince(File file, long timestamp) throws Exception {
+        TimestampHandler handler = new TimestampHandler();
+        serializer.readOntologyChangesSince(file, timestamp, dataFactory, handler);
+        return handler.timestamps;
+    }
+
+    private List<Long> readAllTimestamps(File file) throws Exception {
+        final TimestampHandler changeHandler = new TimestampHandler();
+        serializer.read(file, new BinaryOWLOntologyDocumentHandlerAdapter<RuntimeException>() {
+            @Override
+            public void handleChanges(OntologyChangeDataList changesList) {
+                changeHandler.handleChanges(changesList);
+            }
+        }, dataFactory);
+        return changeHandler.timestamps;
+    }
+
+    private static class TimestampHandler implements BinaryOWLOntologyDocumentAppendedChangeHandler {
+
+        private final List<Long> timestamps = new ArrayList<Long>();
+
+        @Override
+        public void handleChanges(OntologyChangeDataList changesList) {
+            timestamps.add(changesList.getTimestamp());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.semanticweb.binaryowl.tests;
+
+import com.google.common.util.concurrent.Futures;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.semanticweb.binaryowl.BinaryOWLChangeLogHandler;
+import org.semanticweb.binaryowl.BinaryOWLChangeLogJournal;
+import org.semanticweb.binaryowl.BinaryOWLJournalDurability;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyChangeLog;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentAppendedChangeHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
+import org.semanticweb.binaryowl.chunk.SkipSetting;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLChangeJournalingListener;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Applies changes through an {@link OWLOntologyManager} and checks that the listener records all of them, in order,
+ * coalesced into as few chunks as the window and batch size allow.
+ */
+public class ChangeJournalingListenerTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLOntologyManager manager;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ont;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ont = manager.createOntology(IRI.create("http://example.org/ont"));
+    }
+
+    @Test
+    public void shouldCoalesceChangesWithinWindow() throws Exception {
+        File file = temporaryFolder.newFile("changes.binaryowl");
+        BinaryOWLChangeLogJournal journal = new BinaryOWLChangeLogJournal(file, BinaryOWLJournalDurability.neverSync());
+        BinaryOWLChangeJournalingListener listener = BinaryOWLChangeJournalingListener.journalingTo(journal, 1, TimeUnit.MINUTES, 1000);
+        manager.addOntologyChangeListener(listener);
+        List<OWLOntologyChangeRecord> expected = new ArrayList<OWLOntologyChangeRecord>();
+        for(int i = 0; i < 5; i++) {
+            expected.add(manager.addAxiom(ont, createAxiom(i)).get(0).getChangeRecord());
+        }
+        manager.removeOntologyChangeListener(listener);
+        listener.close();
+        journal.close();
+
+        List<OntologyChangeRecordList> changeLists = readChangeLog(file);
+        assertEquals(1, changeLists.size());
+        assertEquals(expected, changeLists.get(0).getChangeRecords());
+    }
+
+    @Test
+    public void shouldWriteFullBatchWithoutWaitingForWindow() throws Exception {
+        File file = temporaryFolder.newFile("batched.binaryowl");
+        BinaryOWLChangeLogJournal journal = new BinaryOWLChangeLogJournal(file, BinaryOWLJournalDurability.neverSync());
+        BinaryOWLChangeJournalingListener listener = BinaryOWLChangeJournalingListener.journalingTo(journal, 1, TimeUnit.MINUTES, 2);
+        manager.addOntologyChangeListener(listener);
+        manager.addAxiom(ont, createAxiom(0));
+        manager.addAxiom(ont, createAxiom(1));
+        long deadline = System.currentTimeMillis() + 10000;
+        while(file.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(file.length() > 0);
+        manager.removeOntologyChangeListener(listener);
+        listener.close();
+        journal.close();
+        assertEquals(2, readChangeLog(file).get(0).getChangeRecords().size());
+    }
+
+    @Test
+    public void shouldKeepBatchWhenWriteThrowsUncheckedException() throws Exception {
+        BinaryOWLChangeLogJournal journal = mock(BinaryOWLChangeLogJournal.class);
+        when(journal.append(any(OntologyChangeRecordList.class))).thenThrow(new IllegalStateException("Encoding failed")).thenReturn(Futures.<Void>immediateFuture(null));
+        BinaryOWLChangeJournalingListener listener = BinaryOWLChangeJournalingListener.journalingTo(journal, 1, TimeUnit.MINUTES, 1000);
+        manager.addOntologyChangeListener(listener);
+        List<OWLOntologyChangeRecord> expected = new ArrayList<OWLOntologyChangeRecord>();
+        expected.add(manager.addAxiom(ont, createAxiom(0)).get(0).getChangeRecord());
+        manager.removeOntologyChangeListener(listener);
+        try {
+            listener.flush();
+            fail("Expected the write to fail");
+        }
+        catch (IllegalStateException e) {
+            // The batch is put back
+        }
+        listener.close();
+
+        ArgumentCaptor<OntologyChangeRecordList> changeLists = ArgumentCaptor.forClass(OntologyChangeRecordList.class);
+        verify(journal, times(2)).append(changeLists.capture());
+        assertEquals(expected, changeLists.getValue().getChangeRecords());
+    }
+
+    @Test
+    public void shouldAppendChangesToDocumentTail() throws Exception {
+        File file = temporaryFolder.newFile("document.binaryowl");
+        BinaryOWLOntologyDocumentSerializer serializer = new BinaryOWLOntologyDocumentSerializer();
+        FileOutputStream fos = new FileOutputStream(file);
+        serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(1));
+        fos.close();
+        OWLOntology other = manager.createOntology(IRI.create("http://example.org/other"));
+
+        BinaryOWLChangeJournalingListener listener = BinaryOWLChangeJournalingListener.appendingTo(file, ont, 0, TimeUnit.MILLISECONDS, 1000);
+        manager.addOntologyChangeListener(listener);
+        List<OWLOntologyChangeData> expected = new ArrayList<OWLOntologyChangeData>();
+        for(int i = 0; i < 5; i++) {
+            manager.addAxiom(other, createAxiom(100 + i));
+            expected.add(new AddAxiomData(createAxiom(i)));
+            manager.addAxiom(ont, createAxiom(i));
+        }
+        manager.removeOntologyChangeListener(listener);
+        listener.close();
+
+        final List<OWLOntologyChangeData> actual = new ArrayList<OWLOntologyChangeData>();
+        serializer.readOntologyChangesSince(file, 0, dataFactory, new BinaryOWLOntologyDocumentAppendedChangeHandler() {
+            @Override
+            public void handleChanges(OntologyChangeDataList changesList) {
+                for(OWLOntologyChangeData data : changesList) {
+                    actual.add(data);
+                }
+            }
+        });
+        assertEquals(expected, actual);
+    }
+
+    private OWLAxiom createAxiom(int index) {
+        return dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/C" + index)));
+    }
+
+    private List<OntologyChangeRecordList> readChangeLog(File file) throws Exception {
+        final List<OntologyChangeRecordList> changeLists = new ArrayList<OntologyChangeRecordList>();
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            new BinaryOWLOntologyChangeLog().readChanges(fis, dataFactory, new BinaryOWLChangeLogHandler() {
+                public void handleChangesRead(OntologyChangeRecordList list, SkipSetting skipSetting, long filePosition) {
+                    changeLists.add(list);
+                }
+            });
+        }
+        finally {
+            fis.close();
+        }
+        return changeLists;
+    }
+}
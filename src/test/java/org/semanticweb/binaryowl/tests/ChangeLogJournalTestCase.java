@@ -0,0 +1,114 @@
+package org.semanticweb.binaryowl.tests;
+
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLChangeLogHandler;
+import org.semanticweb.binaryowl.BinaryOWLChangeLogJournal;
+import org.semanticweb.binaryowl.BinaryOWLJournalDurability;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyChangeLog;
+import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
+import org.semanticweb.binaryowl.chunk.SkipSetting;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class ChangeLogJournalTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLDataFactory dataFactory;
+
+    @Before
+    public void setUp() {
+        dataFactory = OWLManager.getOWLDataFactory();
+    }
+
+    @Test
+    public void shouldWriteSameFileAsChangeLog() throws Exception {
+        File expected = temporaryFolder.newFile("expected.binaryowl");
+        File actual = temporaryFolder.newFile("actual.binaryowl");
+        BinaryOWLOntologyChangeLog changeLog = new BinaryOWLOntologyChangeLog();
+        BinaryOWLChangeLogJournal journal = new BinaryOWLChangeLogJournal(actual, BinaryOWLJournalDurability.syncEachBatch());
+        ListenableFuture<Void> lastAppend = null;
+        for(int i = 0; i < 10; i++) {
+            changeLog.appendChanges(createChangeList(i), expected);
+            lastAppend = journal.append(createChangeList(i));
+        }
+        lastAppend.get(10, TimeUnit.SECONDS);
+        journal.close();
+        assertTrue(Arrays.equals(Files.toByteArray(expected), Files.toByteArray(actual)));
+    }
+
+    @Test
+    public void shouldAcceptAppendsFromManyThreads() throws Exception {
+        for(BinaryOWLJournalDurability durability : Arrays.asList(BinaryOWLJournalDurability.syncEachBatch(), BinaryOWLJournalDurability.syncPeriodically(5, TimeUnit.MILLISECONDS), BinaryOWLJournalDurability.neverSync())) {
+            File file = temporaryFolder.newFile("journal-" + durability.hashCode() + ".binaryowl");
+            final BinaryOWLChangeLogJournal journal = new BinaryOWLChangeLogJournal(file, durability);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<ListenableFuture<Void>>> appends = new ArrayList<Future<ListenableFuture<Void>>>();
+            for(int i = 0; i < 200; i++) {
+                final int index = i;
+                appends.add(executor.submit(new Callable<ListenableFuture<Void>>() {
+                    public ListenableFuture<Void> call() throws IOException {
+                        return journal.append(createChangeList(index));
+                    }
+                }));
+            }
+            for(Future<ListenableFuture<Void>> append : appends) {
+                append.get().get(10, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+            journal.close();
+
+            final Set<Long> timestamps = new HashSet<Long>();
+            new BinaryOWLOntologyChangeLog().readChanges(new FileInputStream(file), dataFactory, new BinaryOWLChangeLogHandler() {
+                public void handleChangesRead(OntologyChangeRecordList list, SkipSetting skipSetting, long filePosition) {
+                    assertEquals(1, list.getChangeRecords().size());
+                    timestamps.add(list.getTimestamp());
+                }
+            });
+            assertEquals(200, timestamps.size());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectAppendsAfterClose() throws IOException {
+        BinaryOWLChangeLogJournal journal = new BinaryOWLChangeLogJournal(temporaryFolder.newFile("closed.binaryowl"), BinaryOWLJournalDurability.neverSync());
+        journal.close();
+        journal.close();
+        journal.append(createChangeList(0));
+    }
+
+    private OntologyChangeRecordList createChangeList(int index) {
+        OWLOntologyID ontologyID = new OWLOntologyID(IRI.create("http://example.org/ont"));
+        AddAxiomData data = new AddAxiomData(dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/C" + index))));
+        return new OntologyChangeRecordList(index, new BinaryOWLMetadata(), Collections.singletonList(new OWLOntologyChangeRecord(ontologyID, data)));
+    }
+}
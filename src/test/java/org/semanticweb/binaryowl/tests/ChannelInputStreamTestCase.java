@@ -0,0 +1,107 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.binaryowl.stream.ByteBufferInputStream;
+import org.semanticweb.binaryowl.stream.ChannelInputStream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+
+import static junit.framework.Assert.assertEquals;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Reads primitives through a deliberately tiny buffer so that values straddle buffer boundaries.
+ */
+public class ChannelInputStreamTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadPrimitivesAcrossBufferBoundaries() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bytes);
+        dos.writeByte(7);
+        dos.writeInt(0x12345678);
+        dos.writeLong(-3L);
+        dos.writeShort(-2);
+        dos.writeUTF("http://example.org/\u00e9t\u00e9#\u4e2d");
+        dos.writeDouble(33.3);
+        dos.writeUTF("plain");
+        dos.writeInt(-1);
+        ChannelInputStream in = new ChannelInputStream(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), 8);
+        assertThat(in.readByte(), is((byte) 7));
+        assertThat(in.readInt(), is(0x12345678));
+        assertThat(in.readLong(), is(-3L));
+        assertThat(in.readShort(), is((short) -2));
+        assertThat(in.readUTF(), is("http://example.org/\u00e9t\u00e9#\u4e2d"));
+        assertThat(in.readDouble(), is(33.3));
+        assertThat(in.readUTF(), is("plain"));
+        assertThat(in.readInt(), is(-1));
+        assertThat(in.read(), is(-1));
+    }
+
+    @Test
+    public void shouldReadLittleEndianBufferAsBigEndian() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{0x12, 0x34, 0x56, 0x78}).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBufferInputStream in = new ByteBufferInputStream(buffer);
+        assertThat(in.readInt(), is(0x12345678));
+        // The buffer itself is left as it was
+        assertThat(buffer.position(), is(0));
+        assertThat(buffer.order(), is(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    @Test(expected = EOFException.class)
+    public void shouldThrowEOFExceptionForTruncatedValue() throws IOException {
+        ChannelInputStream in = new ChannelInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        in.readInt();
+    }
+
+    @Test
+    public void shouldSkipByRepositioningFileChannel() throws IOException {
+        File file = temporaryFolder.newFile("skip.bin");
+        DataOutputStream dos = new DataOutputStream(new FileOutputStream(file));
+        dos.write(new byte[100]);
+        dos.writeInt(42);
+        dos.close();
+        FileInputStream fis = new FileInputStream(file);
+        ChannelInputStream in = new ChannelInputStream(fis.getChannel(), 16);
+        assertThat(in.skip(100), is(100L));
+        assertThat(in.readInt(), is(42));
+        assertThat(in.skip(10), is(0L));
+        in.close();
+    }
+
+    @Test
+    public void shouldReadDocumentFromFile() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ont = manager.loadOntologyFromOntologyDocument(IRI.create(ChannelInputStreamTestCase.class.getResource("/allconstructs.owl")));
+        File file = temporaryFolder.newFile("allconstructs.binaryowl");
+        BinaryOWLOntologyDocumentSerializer serializer = new BinaryOWLOntologyDocumentSerializer();
+        FileOutputStream fos = new FileOutputStream(file);
+        serializer.write(new OWLOntologyWrapper(ont), fos);
+        fos.close();
+
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        OWLOntology ontIn = manIn.createOntology();
+        serializer.read(file, new BinaryOWLOntologyBuildingHandler(ontIn), manIn.getOWLDataFactory());
+        for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(ont.getAxioms(type), ontIn.getAxioms(type));
+        }
+        assertEquals(ont.getAnnotations(), ontIn.getAnnotations());
+    }
+}
@@ -0,0 +1,95 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.binaryowl.stream.ChannelOutputStream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Writes primitives through a deliberately tiny buffer so that values straddle buffer boundaries, and checks the
+ * bytes against those written by {@link DataOutputStream}.
+ */
+public class ChannelOutputStreamTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteSameBytesAsDataOutputStream() throws IOException {
+        byte[] large = new byte[100];
+        for(int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        writeValues(new DataOutputStream(expected), large);
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        ChannelOutputStream os = new ChannelOutputStream(Channels.newChannel(actual), 8);
+        writeValues(os, large);
+        assertEquals(expected.size(), os.getPosition());
+        os.flush();
+        assertTrue(Arrays.equals(expected.toByteArray(), actual.toByteArray()));
+    }
+
+    private static void writeValues(DataOutput out, byte[] large) throws IOException {
+        out.writeByte(7);
+        out.writeInt(0x12345678);
+        out.writeLong(-3L);
+        out.writeShort(-2);
+        out.writeUTF("http://example.org/\u00e9t\u00e9#\u4e2d\u0000");
+        out.write(large, 3, 90);
+        out.writeDouble(33.3);
+        out.writeBoolean(true);
+        out.writeUTF("plain");
+        out.writeChars("ab");
+        out.writeInt(-1);
+    }
+
+    @Test(expected = UTFDataFormatException.class)
+    public void shouldRejectStringThatIsTooLong() throws IOException {
+        char[] chars = new char[40000];
+        Arrays.fill(chars, '\u00e9');
+        new ChannelOutputStream(Channels.newChannel(new ByteArrayOutputStream())).writeUTF(new String(chars));
+    }
+
+    @Test
+    public void shouldWriteSameDocumentToFileAsToStream() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ont = manager.loadOntologyFromOntologyDocument(IRI.create(ChannelOutputStreamTestCase.class.getResource("/allconstructs.owl")));
+        BinaryOWLOntologyDocumentSerializer serializer = new BinaryOWLOntologyDocumentSerializer();
+        for(int version : new int [] {1, 3}) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            serializer.write(new OWLOntologyWrapper(ont), expected, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(version));
+            File file = temporaryFolder.newFile("channel-v" + version + ".binaryowl");
+            serializer.write(new OWLOntologyWrapper(ont), file, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(version), new BinaryOWLWriterConfiguration());
+            assertTrue(Arrays.equals(expected.toByteArray(), readFile(file)));
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        DataInputStream dis = new DataInputStream(new FileInputStream(file));
+        try {
+            dis.readFully(bytes);
+        }
+        finally {
+            dis.close();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,185 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.change.OntologyChangeDataType;
+import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
+import org.semanticweb.binaryowl.chunk.BinaryOWLMetadataChunk;
+import org.semanticweb.binaryowl.chunk.SkipSetting;
+import org.semanticweb.binaryowl.lookup.LookupTable;
+import org.semanticweb.binaryowl.stream.BackPatchableByteArrayOutputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.change.RemoveAxiomData;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Writes chunks both to back-patchable streams, where sizes are filled in after the payload, and to plain streams,
+ * where payloads are buffered, and checks that the bytes are the same as the original buffer-then-copy layout.
+ */
+public class ChunkWriterTestCase {
+
+    private static final BinaryOWLVersion VERSION = BinaryOWLVersion.getVersion(1);
+
+    private OWLDataFactory dataFactory;
+
+    private BinaryOWLMetadata metadata;
+
+    private List<OWLOntologyChangeData> changes;
+
+    @Before
+    public void setUp() {
+        dataFactory = OWLManager.getOWLDataFactory();
+        metadata = new BinaryOWLMetadata();
+        metadata.setStringAttribute("author", "someone");
+        metadata.setLongAttribute("revision", 42L);
+        changes = Arrays.<OWLOntologyChangeData>asList(
+                new AddAxiomData(dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/A")))),
+                new RemoveAxiomData(dataFactory.getOWLSubClassOfAxiom(dataFactory.getOWLClass(IRI.create("http://example.org/A")), dataFactory.getOWLClass(IRI.create("http://example.org/B")))));
+    }
+
+    @Test
+    public void shouldWriteChangeDataListInOriginalLayout() throws IOException {
+        OntologyChangeDataList list = new OntologyChangeDataList(changes, 1234L, metadata);
+        byte[] expected = writeChangeDataListInOriginalLayout(list);
+        assertTrue(Arrays.equals(expected, writeToPlainStream(list)));
+        assertTrue(Arrays.equals(expected, writeToBackPatchableStream(list)));
+    }
+
+    @Test
+    public void shouldWriteMetadataChunkInOriginalLayout() throws IOException {
+        BinaryOWLMetadataChunk chunk = new BinaryOWLMetadataChunk(metadata);
+        ByteArrayOutputStream metadataBytes = new ByteArrayOutputStream();
+        metadata.write(new BinaryOWLOutputStream(metadataBytes, VERSION));
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(expected);
+        dos.writeInt(metadataBytes.size());
+        dos.writeInt(BinaryOWLMetadataChunk.CHUNK_TYPE);
+        metadataBytes.writeTo(dos);
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        chunk.write(new BinaryOWLOutputStream(new DataOutputStream(plain), VERSION));
+        assertTrue(Arrays.equals(expected.toByteArray(), plain.toByteArray()));
+
+        BackPatchableByteArrayOutputStream patchable = new BackPatchableByteArrayOutputStream();
+        chunk.write(new BinaryOWLOutputStream(patchable, VERSION));
+        assertTrue(Arrays.equals(expected.toByteArray(), patchable.toByteArray()));
+    }
+
+    @Test
+    public void shouldRoundTripChangeRecordList() throws Exception {
+        OWLOntologyID ontologyID = new OWLOntologyID(IRI.create("http://example.org/ont"));
+        List<OWLOntologyChangeRecord> records = Arrays.asList(
+                new OWLOntologyChangeRecord(ontologyID, changes.get(0)),
+                new OWLOntologyChangeRecord(new OWLOntologyID(IRI.create("http://example.org/other")), changes.get(1)));
+        OntologyChangeRecordList list = new OntologyChangeRecordList(99L, metadata, records);
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        list.write(new BinaryOWLOutputStream(new DataOutputStream(plain), VERSION));
+        BackPatchableByteArrayOutputStream patchable = new BackPatchableByteArrayOutputStream();
+        list.write(new BinaryOWLOutputStream(patchable, VERSION));
+        assertTrue(Arrays.equals(plain.toByteArray(), patchable.toByteArray()));
+
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(new ByteArrayInputStream(patchable.toByteArray()), dataFactory, VERSION);
+        OntologyChangeRecordList read = new OntologyChangeRecordList(inputStream, SkipSetting.SKIP_NONE);
+        assertEquals(99L, read.getTimestamp());
+        assertEquals("someone", read.getMetadata().getStringAttribute("author", null));
+        assertEquals(Long.valueOf(42L), read.getMetadata().getLongAttribute("revision", null));
+        assertEquals(records, read.getChangeRecords());
+    }
+
+    @Test
+    public void shouldWriteChunksInsideChunksToPlainStream() throws IOException {
+        // The second chunk is written while the first is still being buffered
+        final OntologyChangeDataList list = new OntologyChangeDataList(changes, 1L, metadata);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(new DataOutputStream(plain), VERSION);
+        new BinaryOWLMetadataChunk(metadata) {
+            @Override
+            public void write(BinaryOWLOutputStream outputStream) throws IOException {
+                super.write(outputStream);
+                list.write(outputStream);
+            }
+        }.write(outputStream);
+        byte[] expected = writeChangeDataListInOriginalLayout(list);
+        byte[] actual = plain.toByteArray();
+        assertTrue(Arrays.equals(expected, Arrays.copyOfRange(actual, actual.length - expected.length, actual.length)));
+    }
+
+    @Test
+    public void shouldOnlyBackPatchBackPatchableStreams() {
+        assertFalse(new BinaryOWLOutputStream(new ByteArrayOutputStream(), VERSION).isBackPatchable());
+        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(new BackPatchableByteArrayOutputStream(), VERSION);
+        assertTrue(outputStream.isBackPatchable());
+        assertTrue(new BinaryOWLOutputStream(outputStream, LookupTable.emptyLookupTable()).isBackPatchable());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotPatchBytesThatHaveNotBeenWritten() throws IOException {
+        BackPatchableByteArrayOutputStream os = new BackPatchableByteArrayOutputStream();
+        os.writeShort(1);
+        os.writeIntAt(0, 3);
+    }
+
+    private byte[] writeToPlainStream(OntologyChangeDataList list) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        list.write(new BinaryOWLOutputStream(new DataOutputStream(bos), VERSION));
+        return bos.toByteArray();
+    }
+
+    private byte[] writeToBackPatchableStream(OntologyChangeDataList list) throws IOException {
+        BackPatchableByteArrayOutputStream os = new BackPatchableByteArrayOutputStream(4);
+        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(os, VERSION);
+        assertTrue(outputStream.isBackPatchable());
+        list.write(outputStream);
+        return os.toByteArray();
+    }
+
+    /**
+     * The layout of a change chunk, built the way it was before chunks were written in a single pass.
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] writeChangeDataListInOriginalLayout(OntologyChangeDataList list) throws IOException {
+        ByteArrayOutputStream metadataBytes = new ByteArrayOutputStream();
+        list.getMetadata().write(new BinaryOWLOutputStream(metadataBytes, VERSION));
+        ByteArrayOutputStream changeBytes = new ByteArrayOutputStream();
+        BinaryOWLOutputStream changeOutputStream = new BinaryOWLOutputStream(changeBytes, VERSION);
+        changeOutputStream.writeInt(list.size());
+        for(OWLOntologyChangeData data : list) {
+            OntologyChangeDataType.write(data, changeOutputStream);
+        }
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream payloadOutputStream = new DataOutputStream(payload);
+        payloadOutputStream.writeLong(list.getTimestamp());
+        payloadOutputStream.writeInt(metadataBytes.size());
+        metadataBytes.writeTo(payloadOutputStream);
+        payloadOutputStream.writeInt(changeBytes.size());
+        changeBytes.writeTo(payloadOutputStream);
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        DataOutputStream chunkOutputStream = new DataOutputStream(chunk);
+        chunkOutputStream.writeInt(payload.size());
+        chunkOutputStream.writeInt(OntologyChangeDataList.CHUNK_TYPE);
+        payload.writeTo(chunkOutputStream);
+        return chunk.toByteArray();
+    }
+}
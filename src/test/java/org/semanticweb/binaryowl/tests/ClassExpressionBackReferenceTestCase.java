@@ -0,0 +1,104 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.lookup.LookupTable;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+
+/**
+ * Tests the class expression back-references of version 8 documents.
+ */
+public class ClassExpressionBackReferenceTestCase {
+
+    private static final BinaryOWLVersion VERSION_8 = BinaryOWLVersion.getVersion(8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLOntology ont;
+
+    private OWLDataFactory df;
+
+    private OWLClassExpression partOfCell;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(ClassExpressionBackReferenceTestCase.class.getResource("/allconstructs.owl")));
+        OWLObjectProperty partOf = df.getOWLObjectProperty(IRI.create("http://purl.obolibrary.org/obo/BFO_0000050"));
+        OWLClass cell = df.getOWLClass(IRI.create("http://purl.obolibrary.org/obo/CL_0000000"));
+        partOfCell = df.getOWLObjectSomeValuesFrom(partOf, cell);
+        for(int i = 0; i < 300; i++) {
+            OWLClass cls = df.getOWLClass(IRI.create("http://purl.obolibrary.org/obo/GO_" + i));
+            manager.addAxiom(ont, df.getOWLSubClassOfAxiom(cls, partOfCell));
+            manager.addAxiom(ont, df.getOWLSubClassOfAxiom(cls, df.getOWLObjectIntersectionOf(cell, partOfCell)));
+        }
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldShareRepeatedClassExpressions() throws Exception {
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        OWLOntology ontIn = manIn.createOntology();
+        serializer.read(write(VERSION_8), new BinaryOWLOntologyBuildingHandler(ontIn), manIn.getOWLDataFactory());
+        OWLClassExpression shared = null;
+        int count = 0;
+        for(OWLSubClassOfAxiom ax : ontIn.getAxioms(AxiomType.SUBCLASS_OF)) {
+            if(ax.getSuperClass().equals(partOfCell)) {
+                if(shared == null) {
+                    shared = ax.getSuperClass();
+                }
+                assertSame(shared, ax.getSuperClass());
+                count++;
+            }
+        }
+        assertEquals(300, count);
+    }
+
+    @Test
+    public void shouldResolveBackReferencesAfterSkipping() throws Exception {
+        OWLAxiom first = df.getOWLSubClassOfAxiom(df.getOWLThing(), partOfCell);
+        OWLAxiom second = df.getOWLEquivalentClassesAxiom(df.getOWLNothing(), df.getOWLObjectComplementOf(partOfCell));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(new DataOutputStream(bos), new LookupTable(), VERSION_8);
+        outputStream.writeOWLObject(first);
+        outputStream.writeOWLObject(second);
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(new ByteArrayInputStream(bos.toByteArray()), df, VERSION_8);
+        inputStream.skipOWLObject();
+        assertEquals(second, inputStream.readOWLObject());
+    }
+
+    private File write(BinaryOWLVersion version) throws Exception {
+        File file = temporaryFolder.newFile("ontology-" + version.getVersion() + ".binaryowl");
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), version);
+        }
+        finally {
+            fos.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,171 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentAppendedChangeHandler;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentCompactor;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.change.OntologyChangeDataList;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.AddOntologyAnnotationData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.change.RemoveAxiomData;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Checks that compacting a document folds its appended changes into the body, and that the compacted document
+ * reads back as the same ontology.
+ */
+public class DocumentCompactorTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(DocumentCompactorTestCase.class.getResource("/allconstructs.owl")));
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldFoldChangesIntoBody() throws Exception {
+        compactAndCheck(1);
+    }
+
+    @Test
+    public void shouldFoldChangesIntoVersion3Body() throws Exception {
+        compactAndCheck(3);
+    }
+
+    @Test
+    public void shouldFoldChangesIntoVersion4Body() throws Exception {
+        compactAndCheck(4);
+    }
+
+    @Test
+    public void shouldLeaveDocumentWithoutChangesAlone() throws Exception {
+        File file = writeDocument("unchanged.binaryowl", 1);
+        long lastModified = file.lastModified();
+        long length = file.length();
+        assertFalse(new BinaryOWLOntologyDocumentCompactor().compact(file, dataFactory));
+        assertEquals(lastModified, file.lastModified());
+        assertEquals(length, file.length());
+    }
+
+    @Test
+    public void shouldLeaveNoTemporaryFilesBehind() throws Exception {
+        File file = writeDocument("compact-clean.binaryowl", 3);
+        append(file, 1, new AddAxiomData(dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://stuff.com#Added")))));
+        assertTrue(new BinaryOWLOntologyDocumentCompactor().compact(file, dataFactory));
+        assertEquals(Arrays.asList(file.getName()), Arrays.asList(file.getParentFile().list()));
+    }
+
+    @Test
+    public void shouldKeepChangesAppendedWhilstCompacting() throws Exception {
+        final File file = writeDocument("concurrent.binaryowl", 3);
+        final Set<OWLAxiom> addedAxioms = new HashSet<OWLAxiom>();
+        for(int i = 0; i < 50; i++) {
+            addedAxioms.add(dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://stuff.com#C" + i))));
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> appender = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    long timestamp = 0;
+                    for(OWLAxiom axiom : addedAxioms) {
+                        append(file, timestamp++, new AddAxiomData(axiom));
+                    }
+                    return null;
+                }
+            });
+            BinaryOWLOntologyDocumentCompactor compactor = new BinaryOWLOntologyDocumentCompactor();
+            while(!appender.isDone()) {
+                compactor.compact(file, dataFactory);
+            }
+            appender.get();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology compacted = manager.createOntology();
+        serializer.read(file, new BinaryOWLOntologyBuildingHandler(compacted), manager.getOWLDataFactory());
+        assertTrue(compacted.getAxioms().containsAll(addedAxioms));
+    }
+
+    private void compactAndCheck(int version) throws Exception {
+        File file = writeDocument("compact-v" + version + ".binaryowl", version);
+        OWLAxiom addedAxiom = dataFactory.getOWLDeclarationAxiom(dataFactory.getOWLClass(IRI.create("http://stuff.com#Added")));
+        OWLAxiom removedAxiom = ont.getLogicalAxioms().iterator().next();
+        OWLAnnotation addedAnnotation = dataFactory.getOWLAnnotation(dataFactory.getRDFSComment(), dataFactory.getOWLLiteral("compacted"));
+        append(file, 1, new AddAxiomData(addedAxiom), new RemoveAxiomData(removedAxiom));
+        append(file, 2, new RemoveAxiomData(addedAxiom), new AddAxiomData(addedAxiom), new AddOntologyAnnotationData(addedAnnotation));
+
+        assertTrue(new BinaryOWLOntologyDocumentCompactor().compact(file, dataFactory));
+
+        Set<OWLAxiom> expectedAxioms = new HashSet<OWLAxiom>(ont.getAxioms());
+        expectedAxioms.add(addedAxiom);
+        expectedAxioms.remove(removedAxiom);
+        Set<OWLAnnotation> expectedAnnotations = new HashSet<OWLAnnotation>(ont.getAnnotations());
+        expectedAnnotations.add(addedAnnotation);
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology compacted = manager.createOntology();
+        serializer.read(file, new BinaryOWLOntologyBuildingHandler(compacted), manager.getOWLDataFactory());
+        assertEquals(expectedAxioms, compacted.getAxioms());
+        assertEquals(expectedAnnotations, compacted.getAnnotations());
+        assertEquals(ont.getOntologyID(), compacted.getOntologyID());
+        assertEquals(version, BinaryOWLOntologyDocumentSerializer.peek(file).getPreamble().getFileFormatVersion().getVersion());
+
+        final int [] chunks = {0};
+        serializer.readOntologyChangesSince(file, 0, dataFactory, new BinaryOWLOntologyDocumentAppendedChangeHandler() {
+            @Override
+            public void handleChanges(OntologyChangeDataList changesList) {
+                chunks[0]++;
+            }
+        });
+        assertEquals(0, chunks[0]);
+    }
+
+    private File writeDocument(String name, int version) throws Exception {
+        File file = temporaryFolder.newFile(name);
+        FileOutputStream fos = new FileOutputStream(file);
+        serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(version));
+        fos.close();
+        return file;
+    }
+
+    private void append(File file, long timestamp, OWLOntologyChangeData... changes) throws Exception {
+        serializer.appendOntologyChanges(file, new OntologyChangeDataList(Arrays.asList(changes), timestamp));
+    }
+}
@@ -0,0 +1,57 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHeader;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Checks that the header of a document can be peeked at without reading the rest of the document.
+ */
+public class DocumentPeekTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldPeekAtVersion1Document() throws Exception {
+        assertPeek(BinaryOWLVersion.getVersion(1));
+    }
+
+    @Test
+    public void shouldPeekAtVersion3Document() throws Exception {
+        assertPeek(BinaryOWLVersion.getVersion(3));
+    }
+
+    private void assertPeek(BinaryOWLVersion version) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntologyID id = new OWLOntologyID(IRI.create("http://example.org/ont"), IRI.create("http://example.org/ont/1.0"));
+        OWLOntology ont = manager.createOntology(id);
+        BinaryOWLMetadata metadata = new BinaryOWLMetadata();
+        metadata.setStringAttribute("name", "value");
+
+        File file = temporaryFolder.newFile("peek" + version.getVersion() + ".binaryowl");
+        FileOutputStream fos = new FileOutputStream(file);
+        new BinaryOWLOntologyDocumentSerializer().write(new OWLOntologyWrapper(ont), fos, metadata, version);
+        fos.close();
+
+        BinaryOWLOntologyDocumentHeader header = BinaryOWLOntologyDocumentSerializer.peek(file);
+        assertEquals(version, header.getPreamble().getFileFormatVersion());
+        assertEquals("value", header.getMetadata().getStringAttribute("name", null));
+        assertEquals(id, header.getOntologyID());
+    }
+}
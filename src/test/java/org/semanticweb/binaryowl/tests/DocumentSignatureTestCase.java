@@ -0,0 +1,67 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSignature;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Checks that the signature of a document can be read without reading its axioms.
+ */
+public class DocumentSignatureTestCase {
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(DocumentSignatureTestCase.class.getResource("/allconstructs.owl")));
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldReadSignatureOfVersion1Document() throws Exception {
+        assertSignatureRead(BinaryOWLVersion.getVersion(1));
+    }
+
+    @Test
+    public void shouldReadSignatureOfVersion3Document() throws Exception {
+        assertSignatureRead(BinaryOWLVersion.getVersion(3));
+    }
+
+    private void assertSignatureRead(BinaryOWLVersion version) throws Exception {
+        BinaryOWLMetadata metadata = new BinaryOWLMetadata();
+        metadata.setStringAttribute("name", "value");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream, metadata, version);
+
+        BinaryOWLOntologyDocumentSignature signature = serializer.readSignature(new ByteArrayInputStream(outputStream.toByteArray()), ont.getOWLOntologyManager().getOWLDataFactory());
+
+        Set<IRI> expectedIRIs = new HashSet<IRI>();
+        for(OWLEntity entity : ont.getSignature()) {
+            expectedIRIs.add(entity.getIRI());
+        }
+        assertEquals(expectedIRIs, signature.getIRIs());
+        assertEquals(ont.getOntologyID(), signature.getOntologyID());
+        assertEquals(ont.getImportsDeclarations(), signature.getImportsDeclarations());
+        assertEquals("value", signature.getMetadata().getStringAttribute("name", null));
+        assertEquals(version, signature.getPreamble().getFileFormatVersion());
+    }
+}
@@ -0,0 +1,135 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.lookup.FrontCodedIRIDictionary;
+import org.semanticweb.binaryowl.lookup.IRILookupTable;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Tests the front coded IRI table of version 6 documents.
+ */
+public class FrontCodedIRIDictionaryTestCase {
+
+    private static final BinaryOWLVersion VERSION_6 = BinaryOWLVersion.getVersion(6);
+
+    private OWLDataFactory df;
+
+    @Before
+    public void setUp() {
+        df = OWLManager.getOWLDataFactory();
+    }
+
+    @Test
+    public void shouldRoundTripDictionary() throws Exception {
+        List<IRI> iris = FrontCodedIRIDictionary.sort(createIRIs());
+        FrontCodedIRIDictionary dictionary = roundTrip(iris);
+        assertEquals(iris.size(), dictionary.size());
+        assertEquals(iris, dictionary.getIRIs());
+        for(int i = 0; i < iris.size(); i++) {
+            assertEquals(iris.get(i), dictionary.get(i));
+        }
+    }
+
+    @Test
+    public void shouldPreserveStartAndFragment() throws Exception {
+        List<IRI> iris = new ArrayList<IRI>();
+        iris.add(IRI.create("http://example.org/", "A"));
+        iris.add(IRI.create("http://example.org/A", ""));
+        iris.add(IRI.create("http://example.org/\u00e9t\u00e9#", "\u4e2d"));
+        iris.add(IRI.create("urn:x"));
+        List<IRI> sorted = FrontCodedIRIDictionary.sort(iris);
+        List<IRI> read = roundTrip(sorted).getIRIs();
+        for(int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), read.get(i));
+            assertEquals(sorted.get(i).getStart(), read.get(i).getStart());
+            assertEquals(getFragment(sorted.get(i)), getFragment(read.get(i)));
+        }
+    }
+
+    @Test
+    public void shouldKeepIRIsWithUnpairedSurrogatesAndNulsDistinct() throws Exception {
+        List<IRI> iris = new ArrayList<IRI>();
+        iris.add(IRI.create("http://example.org/", "A\ud800"));
+        iris.add(IRI.create("http://example.org/", "A\udc00"));
+        iris.add(IRI.create("http://example.org/", "A?"));
+        iris.add(IRI.create("http://example.org/", "A\u0000"));
+        iris.add(IRI.create("http://example.org/", "A"));
+        iris.add(IRI.create("http://example.org/", "A\ud83d\ude00"));
+        iris.add(IRI.create("http://example.org/", "A\uffff"));
+        List<IRI> sorted = FrontCodedIRIDictionary.sort(iris);
+        assertEquals(new HashSet<IRI>(iris), new HashSet<IRI>(sorted));
+        FrontCodedIRIDictionary dictionary = roundTrip(sorted);
+        assertEquals(sorted, dictionary.getIRIs());
+        for(int i = 0; i < sorted.size(); i++) {
+            assertEquals(i, dictionary.indexOf(sorted.get(i)));
+        }
+        assertEquals(-1, dictionary.indexOf(IRI.create("http://example.org/", "A\udbff")));
+    }
+
+    @Test
+    public void shouldFindIndexWithBinarySearch() throws Exception {
+        List<IRI> iris = FrontCodedIRIDictionary.sort(createIRIs());
+        FrontCodedIRIDictionary dictionary = roundTrip(iris);
+        for(int i = 0; i < iris.size(); i++) {
+            assertEquals(i, dictionary.indexOf(iris.get(i)));
+        }
+        assertEquals(-1, dictionary.indexOf(IRI.create("http://purl.obolibrary.org/obo/GO_0000000")));
+        assertEquals(-1, dictionary.indexOf(IRI.create("http://purl.obolibrary.org/obo/GO_9999999")));
+        assertEquals(-1, dictionary.indexOf(IRI.create("http://purl.obolibrary.org/obo/GO_0001000x")));
+        assertEquals(-1, dictionary.indexOf(IRI.create("a")));
+    }
+
+    @Test
+    public void shouldRoundTripEmptyDictionary() throws Exception {
+        FrontCodedIRIDictionary dictionary = roundTrip(new ArrayList<IRI>());
+        assertEquals(0, dictionary.size());
+        assertEquals(-1, dictionary.indexOf(IRI.create("http://example.org/A")));
+    }
+
+    @Test
+    public void shouldIndexTableInSortedOrder() throws Exception {
+        Set<OWLEntity> signature = new HashSet<OWLEntity>();
+        for(IRI iri : createIRIs()) {
+            signature.add(df.getOWLClass(iri));
+        }
+        IRILookupTable table = new IRILookupTable(signature, VERSION_6);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        table.write(new DataOutputStream(bos));
+        IRILookupTable readTable = new IRILookupTable(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())), VERSION_6);
+        IRI iri = IRI.create("http://purl.obolibrary.org/obo/GO_0001234");
+        assertEquals(1233, readTable.indexOf(iri));
+        assertEquals(FrontCodedIRIDictionary.sort(createIRIs()), readTable.getIRIs());
+    }
+
+    private static String getFragment(IRI iri) {
+        return iri.getFragment() == null ? "" : iri.getFragment();
+    }
+
+    private Set<IRI> createIRIs() {
+        Set<IRI> iris = new HashSet<IRI>();
+        for(int i = 1; i <= 2000; i++) {
+            iris.add(IRI.create(String.format("http://purl.obolibrary.org/obo/GO_%07d", i)));
+        }
+        return iris;
+    }
+
+    private static FrontCodedIRIDictionary roundTrip(List<IRI> iris) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        FrontCodedIRIDictionary.write(iris, new DataOutputStream(bos));
+        return new FrontCodedIRIDictionary(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+    }
+}
@@ -0,0 +1,100 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.lookup.IRILookupTable;
+import org.semanticweb.binaryowl.lookup.LiteralLookupTable;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests the literal table of version 7 documents.
+ */
+public class LiteralInterningTestCase {
+
+    private static final BinaryOWLVersion VERSION_7 = BinaryOWLVersion.getVersion(7);
+
+    private static final String BOILERPLATE = "This term was imported from an external vocabulary and has not been reviewed.";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLOntology ont;
+
+    private OWLDataFactory df;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(LiteralInterningTestCase.class.getResource("/allconstructs.owl")));
+        OWLDataProperty deprecated = df.getOWLDataProperty(IRI.create("http://example.org/ontology#isObsolete"));
+        for(int i = 0; i < 300; i++) {
+            OWLClass cls = df.getOWLClass(IRI.create("http://example.org/ontology#Term" + i));
+            manager.addAxiom(ont, df.getOWLAnnotationAssertionAxiom(df.getRDFSComment(), cls.getIRI(), df.getOWLLiteral(BOILERPLATE, "en")));
+            manager.addAxiom(ont, df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), cls.getIRI(), df.getOWLLiteral("Term " + i)));
+            OWLNamedIndividual ind = df.getOWLNamedIndividual(IRI.create("http://example.org/ontology#ind" + i));
+            manager.addAxiom(ont, df.getOWLDataPropertyAssertionAxiom(deprecated, ind, i % 3 == 0));
+        }
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldRankMostFrequentLiteralFirst() {
+        OWLOntologyWrapper doc = new OWLOntologyWrapper(ont);
+        LiteralLookupTable table = new LiteralLookupTable(doc, new IRILookupTable(doc, VERSION_7), VERSION_7);
+        assertEquals(0, table.getIndex(df.getOWLLiteral(BOILERPLATE, "en")));
+        assertTrue(table.getIndex(df.getOWLLiteral(false)) > 0);
+        assertEquals(-1, table.getIndex(df.getOWLLiteral("Term 1")));
+    }
+
+    @Test
+    public void shouldShareInternedLiterals() throws Exception {
+        OWLOntology ontIn = read(write(VERSION_7));
+        OWLLiteral shared = null;
+        for(OWLAnnotationAssertionAxiom ax : ontIn.getAxioms(AxiomType.ANNOTATION_ASSERTION)) {
+            if(ax.getProperty().isComment() && ax.getValue().equals(df.getOWLLiteral(BOILERPLATE, "en"))) {
+                if(shared == null) {
+                    shared = (OWLLiteral) ax.getValue();
+                }
+                assertSame(shared, ax.getValue());
+            }
+        }
+        assertTrue(shared != null);
+    }
+
+    private OWLOntology read(File file) throws Exception {
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        OWLOntology ontIn = manIn.createOntology();
+        serializer.read(file, new BinaryOWLOntologyBuildingHandler(ontIn), manIn.getOWLDataFactory());
+        return ontIn;
+    }
+
+    private File write(BinaryOWLVersion version) throws Exception {
+        File file = temporaryFolder.newFile("ontology-" + version.getVersion() + ".binaryowl");
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), version);
+        }
+        finally {
+            fos.close();
+        }
+        return file;
+    }
+}
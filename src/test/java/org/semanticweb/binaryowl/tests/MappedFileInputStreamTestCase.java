@@ -0,0 +1,75 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.binaryowl.stream.MappedFileInputStream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static junit.framework.Assert.assertEquals;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Maps files in very small segments so that values straddle segment boundaries.
+ */
+public class MappedFileInputStreamTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadValuesAcrossSegmentBoundaries() throws IOException {
+        File file = temporaryFolder.newFile("segments.bin");
+        DataOutputStream dos = new DataOutputStream(new FileOutputStream(file));
+        dos.writeByte(1);
+        dos.writeLong(Long.MIN_VALUE);
+        dos.writeInt(99);
+        dos.writeUTF("http://example.org/A");
+        dos.write(new byte[50]);
+        dos.writeInt(7);
+        dos.close();
+        FileInputStream fis = new FileInputStream(file);
+        MappedFileInputStream in = new MappedFileInputStream(fis.getChannel(), 3);
+        assertThat(in.readByte(), is((byte) 1));
+        assertThat(in.readLong(), is(Long.MIN_VALUE));
+        assertThat(in.readInt(), is(99));
+        assertThat(in.readUTF(), is("http://example.org/A"));
+        assertThat(in.skip(50), is(50L));
+        assertThat(in.readInt(), is(7));
+        assertThat(in.read(), is(-1));
+        in.close();
+    }
+
+    @Test
+    public void shouldReadMemoryMappedDocument() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ont = manager.loadOntologyFromOntologyDocument(IRI.create(MappedFileInputStreamTestCase.class.getResource("/allconstructs.owl")));
+        File file = temporaryFolder.newFile("allconstructs.binaryowl");
+        BinaryOWLOntologyDocumentSerializer serializer = new BinaryOWLOntologyDocumentSerializer();
+        FileOutputStream fos = new FileOutputStream(file);
+        serializer.write(new OWLOntologyWrapper(ont), fos);
+        fos.close();
+
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        OWLOntology ontIn = manIn.createOntology();
+        serializer.readMemoryMapped(file, new BinaryOWLOntologyBuildingHandler(ontIn), manIn.getOWLDataFactory());
+        for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(ont.getAxioms(type), ontIn.getAxioms(type));
+        }
+        assertEquals(ont.getAnnotations(), ontIn.getAnnotations());
+    }
+}
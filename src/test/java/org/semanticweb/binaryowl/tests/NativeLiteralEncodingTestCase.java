@@ -0,0 +1,138 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.lookup.LookupTable;
+import org.semanticweb.binaryowl.stream.BinaryOWLInputStream;
+import org.semanticweb.binaryowl.stream.BinaryOWLOutputStream;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests the binary encoding of typed literals in version 9 documents.
+ */
+public class NativeLiteralEncodingTestCase {
+
+    private static final BinaryOWLVersion VERSION_8 = BinaryOWLVersion.getVersion(8);
+
+    private static final BinaryOWLVersion VERSION_9 = BinaryOWLVersion.getVersion(9);
+
+    private OWLDataFactory df;
+
+    @Before
+    public void setUp() {
+        df = OWLManager.getOWLDataFactory();
+    }
+
+    @Test
+    public void shouldRoundTripCanonicalLiterals() throws Exception {
+        assertRoundTrips(
+                literal("0", OWL2Datatype.XSD_INTEGER),
+                literal("-9223372036854775808", OWL2Datatype.XSD_INTEGER),
+                literal("2147483647", OWL2Datatype.XSD_INT),
+                literal("-42", OWL2Datatype.XSD_LONG),
+                literal("3.141592653589793", OWL2Datatype.XSD_DOUBLE),
+                literal("-0.0", OWL2Datatype.XSD_DOUBLE),
+                literal("1.0E-300", OWL2Datatype.XSD_DOUBLE),
+                literal("Infinity", OWL2Datatype.XSD_DOUBLE),
+                literal("NaN", OWL2Datatype.XSD_DOUBLE),
+                literal("1.5", OWL2Datatype.XSD_FLOAT),
+                literal("12.50", OWL2Datatype.XSD_DECIMAL),
+                literal("-0.001", OWL2Datatype.XSD_DECIMAL),
+                literal("7", OWL2Datatype.XSD_DECIMAL),
+                literal("2013-07-23T10:15:30", OWL2Datatype.XSD_DATE_TIME),
+                literal("1969-12-31T23:59:59.999Z", OWL2Datatype.XSD_DATE_TIME),
+                literal("2000-02-29T00:00:00.000000001+05:30", OWL2Datatype.XSD_DATE_TIME),
+                literal("0001-01-01T00:00:00-14:00", OWL2Datatype.XSD_DATE_TIME));
+    }
+
+    @Test
+    public void shouldPreserveNonCanonicalLexicalForms() throws Exception {
+        assertRoundTrips(
+                literal("01", OWL2Datatype.XSD_INTEGER),
+                literal("+1", OWL2Datatype.XSD_INTEGER),
+                literal("123456789012345678901234567890", OWL2Datatype.XSD_INTEGER),
+                literal("2147483648", OWL2Datatype.XSD_INT),
+                literal("1", OWL2Datatype.XSD_DOUBLE),
+                literal("INF", OWL2Datatype.XSD_DOUBLE),
+                literal(" 1.0", OWL2Datatype.XSD_DOUBLE),
+                literal("1.0d", OWL2Datatype.XSD_FLOAT),
+                literal(".5", OWL2Datatype.XSD_DECIMAL),
+                literal("1E+3", OWL2Datatype.XSD_DECIMAL),
+                literal("not a number", OWL2Datatype.XSD_DECIMAL),
+                literal("2013-02-30T00:00:00", OWL2Datatype.XSD_DATE_TIME),
+                literal("2013-07-23T24:00:00", OWL2Datatype.XSD_DATE_TIME),
+                literal("2013-07-23T10:15:30-00:00", OWL2Datatype.XSD_DATE_TIME),
+                literal("2013-07-23T10:15:30.1234567890Z", OWL2Datatype.XSD_DATE_TIME),
+                literal("-2013-07-23T10:15:30", OWL2Datatype.XSD_DATE_TIME));
+    }
+
+    @Test
+    public void shouldWriteDateTimesWithLatinDigitsInAnyLocale() throws Exception {
+        Locale defaultLocale = Locale.getDefault();
+        Locale nonLatinDigitLocale = null;
+        for(Locale locale : Arrays.asList(new Locale("th", "TH", "TH"), new Locale("ar", "SA"), new Locale("fa", "IR"), new Locale("hi", "IN"))) {
+            if(!String.format(locale, "%d", 1).equals("1")) {
+                nonLatinDigitLocale = locale;
+                break;
+            }
+        }
+        Assume.assumeNotNull(nonLatinDigitLocale);
+        Locale.setDefault(nonLatinDigitLocale);
+        try {
+            OWLLiteral literal = literal("2013-07-23T10:15:30.5+05:30", OWL2Datatype.XSD_DATE_TIME);
+            byte [] bytes = writeObjects(VERSION_9, literal);
+            // Written in binary form rather than as a datatype IRI and lexical form
+            assertTrue(bytes.length < writeObjects(VERSION_8, literal).length);
+            assertRoundTrips(literal);
+        }
+        finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    private OWLLiteral literal(String lexicalForm, OWL2Datatype datatype) {
+        return df.getOWLLiteral(lexicalForm, df.getOWLDatatype(datatype.getIRI()));
+    }
+
+    private byte [] writeObjects(BinaryOWLVersion version, OWLObject... objects) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        BinaryOWLOutputStream outputStream = new BinaryOWLOutputStream(new DataOutputStream(bos), new LookupTable(), version);
+        for(OWLObject object : objects) {
+            outputStream.writeOWLObject(object);
+        }
+        return bos.toByteArray();
+    }
+
+    private void assertRoundTrips(OWLLiteral... literals) throws Exception {
+        byte [] bytes = writeObjects(VERSION_9, literals);
+        BinaryOWLInputStream inputStream = new BinaryOWLInputStream(new ByteArrayInputStream(bytes), df, VERSION_9);
+        List<OWLLiteral> read = new ArrayList<OWLLiteral>();
+        for(int i = 0; i < literals.length; i++) {
+            read.add(inputStream.<OWLLiteral>readOWLObject());
+        }
+        for(int i = 0; i < literals.length; i++) {
+            assertEquals(literals[i], read.get(i));
+            assertEquals(literals[i].getLiteral(), read.get(i).getLiteral());
+        }
+        BinaryOWLInputStream skippingStream = new BinaryOWLInputStream(new ByteArrayInputStream(bytes), df, VERSION_9);
+        for(int i = 0; i < literals.length - 1; i++) {
+            skippingStream.skipOWLObject();
+        }
+        assertEquals(literals[literals.length - 1], skippingStream.readOWLObject());
+    }
+}
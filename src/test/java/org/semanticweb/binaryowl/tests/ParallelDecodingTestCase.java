@@ -0,0 +1,155 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentHandlerAdapter;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLReaderConfiguration;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Checks that decoding axiom tables on an executor hands exactly the same tables to the handler, in the same order,
+ * as decoding them on the calling thread.
+ */
+public class ParallelDecodingTestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLOntology ont;
+
+    private ExecutorService executor;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(ParallelDecodingTestCase.class.getResource("/allconstructs.owl")));
+        executor = Executors.newFixedThreadPool(4);
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldDecodeAxiomTablesInDocumentOrder() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(3));
+        byte[] bytes = outputStream.toByteArray();
+
+        AxiomTablesHandler serialHandler = new AxiomTablesHandler();
+        serializer.read(new ByteArrayInputStream(bytes), serialHandler, ont.getOWLOntologyManager().getOWLDataFactory());
+
+        AxiomTablesHandler parallelHandler = new AxiomTablesHandler();
+        serializer.read(new ByteArrayInputStream(bytes), parallelHandler, ont.getOWLOntologyManager().getOWLDataFactory(), new BinaryOWLReaderConfiguration().withExecutor(executor));
+
+        assertEquals(serialHandler.axiomTables, parallelHandler.axiomTables);
+        assertEquals(ont.getAxioms(), parallelHandler.getAllAxioms());
+    }
+
+    @Test
+    public void shouldDecodeMemoryMappedAxiomTablesConcurrently() throws Exception {
+        File file = temporaryFolder.newFile("parallel.binaryowl");
+        FileOutputStream fos = new FileOutputStream(file);
+        serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(3));
+        fos.close();
+
+        AxiomTablesHandler parallelHandler = new AxiomTablesHandler();
+        serializer.readMemoryMapped(file, parallelHandler, ont.getOWLOntologyManager().getOWLDataFactory(), new BinaryOWLReaderConfiguration().withExecutor(executor));
+        assertEquals(ont.getAxioms(), parallelHandler.getAllAxioms());
+    }
+
+    @Test
+    public void shouldBoundAxiomTablesDecodedAhead() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(3));
+        final AtomicInteger submitted = new AtomicInteger();
+        ExecutorService countingExecutor = new ThreadPoolExecutor(4, 4, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            public void execute(Runnable command) {
+                submitted.incrementAndGet();
+                super.execute(command);
+            }
+        };
+        final int[] maxInFlight = new int[1];
+        AxiomTablesHandler handler = new AxiomTablesHandler() {
+            @Override
+            public void handleAxioms(Set<OWLAxiom> axioms) {
+                maxInFlight[0] = Math.max(maxInFlight[0], submitted.get() - getAxiomTableCount());
+                super.handleAxioms(axioms);
+            }
+        };
+        try {
+            serializer.read(new ByteArrayInputStream(outputStream.toByteArray()), handler, ont.getOWLOntologyManager().getOWLDataFactory(), new BinaryOWLReaderConfiguration().withExecutor(countingExecutor));
+        }
+        finally {
+            countingExecutor.shutdownNow();
+        }
+        assertEquals(ont.getAxioms(), handler.getAllAxioms());
+        assertTrue(handler.getAxiomTableCount() > 8);
+        assertTrue(maxInFlight[0] <= 8);
+    }
+
+    @Test
+    public void shouldDecodeVersion1DocumentOnCallingThread() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream);
+        AxiomTablesHandler handler = new AxiomTablesHandler();
+        serializer.read(new ByteArrayInputStream(outputStream.toByteArray()), handler, ont.getOWLOntologyManager().getOWLDataFactory(), new BinaryOWLReaderConfiguration().withExecutor(executor));
+        assertEquals(ont.getAxioms(), handler.getAllAxioms());
+    }
+
+    private static class AxiomTablesHandler extends BinaryOWLOntologyDocumentHandlerAdapter<RuntimeException> {
+
+        private final List<Set<OWLAxiom>> axiomTables = new ArrayList<Set<OWLAxiom>>();
+
+        @Override
+        public void handleAxioms(Set<OWLAxiom> axioms) {
+            axiomTables.add(new HashSet<OWLAxiom>(axioms));
+        }
+
+        public int getAxiomTableCount() {
+            return axiomTables.size();
+        }
+
+        public Set<OWLAxiom> getAllAxioms() {
+            Set<OWLAxiom> result = new HashSet<OWLAxiom>();
+            for(Set<OWLAxiom> axiomTable : axiomTables) {
+                result.addAll(axiomTable);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Checks that encoding axiom tables on an executor produces exactly the same bytes as encoding them on the calling
+ * thread, including when some of the tables contain anonymous individuals.
+ */
+public class ParallelEncodingTestCase {
+
+    private OWLOntology ont;
+
+    private ExecutorService executor;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(ParallelEncodingTestCase.class.getResource("/allconstructs.owl")));
+        executor = Executors.newFixedThreadPool(4);
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteSameBytesAsSerialVersion1() throws Exception {
+        checkSameBytes(1);
+    }
+
+    @Test
+    public void shouldWriteSameBytesAsSerialVersion3() throws Exception {
+        checkSameBytes(3);
+    }
+
+    @Test
+    public void shouldNumberAnonymousIndividualsInDocumentOrder() throws Exception {
+        OWLDataFactory df = ont.getOWLOntologyManager().getOWLDataFactory();
+        OWLAnonymousIndividual first = df.getOWLAnonymousIndividual();
+        OWLAnonymousIndividual second = df.getOWLAnonymousIndividual();
+        OWLNamedIndividual named = df.getOWLNamedIndividual(IRI.create("http://stuff.com#i"));
+        OWLObjectProperty property = df.getOWLObjectProperty(IRI.create("http://stuff.com#p"));
+        ont.getOWLOntologyManager().addAxioms(ont, new HashSet<OWLAxiom>(Arrays.asList(
+                df.getOWLClassAssertionAxiom(df.getOWLClass(IRI.create("http://stuff.com#A")), first),
+                df.getOWLObjectPropertyAssertionAxiom(property, second, named),
+                df.getOWLObjectPropertyAssertionAxiom(property, first, second))));
+        byte[] parallel = checkSameBytes(3);
+
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology read = manager.createOntology();
+        serializer.read(new ByteArrayInputStream(parallel), new BinaryOWLOntologyBuildingHandler(read), manager.getOWLDataFactory());
+        assertEquals(ont.getAxiomCount(), read.getAxiomCount());
+        assertEquals(ont.getReferencedAnonymousIndividuals().size(), read.getReferencedAnonymousIndividuals().size());
+    }
+
+    private byte[] checkSameBytes(int version) throws Exception {
+        byte[] serial = write(version, new BinaryOWLWriterConfiguration());
+        byte[] parallel = write(version, new BinaryOWLWriterConfiguration().withExecutor(executor));
+        assertTrue(Arrays.equals(serial, parallel));
+        return parallel;
+    }
+
+    private byte[] write(int version, BinaryOWLWriterConfiguration configuration) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream, new BinaryOWLMetadata(), BinaryOWLVersion.getVersion(version), configuration);
+        return outputStream.toByteArray();
+    }
+}
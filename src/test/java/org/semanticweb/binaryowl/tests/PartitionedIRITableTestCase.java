@@ -0,0 +1,81 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.lookup.IRILookupTable;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Tests the entity type partitioned IRI table of version 10 documents.
+ */
+public class PartitionedIRITableTestCase {
+
+    private static final BinaryOWLVersion VERSION_10 = BinaryOWLVersion.getVersion(10);
+
+    private OWLDataFactory df;
+
+    @Before
+    public void setUp() {
+        df = OWLManager.getOWLDataFactory();
+    }
+
+    @Test
+    public void shouldIndexEachEntityTypeFromZero() throws Exception {
+        Set<OWLEntity> signature = new HashSet<OWLEntity>();
+        for(int i = 0; i < 200; i++) {
+            signature.add(df.getOWLClass(IRI.create("http://example.org/ontology#A" + i)));
+        }
+        OWLNamedIndividual ind = df.getOWLNamedIndividual(IRI.create("http://example.org/ontology#z"));
+        signature.add(ind);
+        IRILookupTable table = new IRILookupTable(signature, VERSION_10);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        table.writeEntityIRI(ind, new DataOutputStream(bos));
+        // The index of the individual is zero, which is written as the varint 1
+        assertEquals(1, bos.size());
+        assertEquals(1, bos.toByteArray()[0]);
+
+        ByteArrayOutputStream tableBytes = new ByteArrayOutputStream();
+        table.write(new DataOutputStream(tableBytes));
+        IRILookupTable readTable = new IRILookupTable(new DataInputStream(new ByteArrayInputStream(tableBytes.toByteArray())), VERSION_10);
+        assertEquals(ind, readTable.readIndividualIRI(new DataInputStream(new ByteArrayInputStream(bos.toByteArray()))));
+        assertEquals(200, readTable.indexOf(ind.getIRI()));
+        assertEquals(201, readTable.getIRIs().size());
+    }
+
+    @Test
+    public void shouldReadPlainIRIsFromAnyPartition() throws Exception {
+        Set<OWLEntity> signature = new HashSet<OWLEntity>();
+        IRI punned = IRI.create("http://example.org/ontology#P");
+        signature.add(df.getOWLClass(IRI.create("http://example.org/ontology#A")));
+        signature.add(df.getOWLObjectProperty(IRI.create("http://example.org/ontology#p")));
+        signature.add(df.getOWLNamedIndividual(punned));
+        signature.add(df.getOWLClass(punned));
+        signature.add(df.getOWLDatatype(IRI.create("http://example.org/ontology#d")));
+        IRILookupTable table = new IRILookupTable(signature, VERSION_10);
+        ByteArrayOutputStream tableBytes = new ByteArrayOutputStream();
+        table.write(new DataOutputStream(tableBytes));
+        IRILookupTable readTable = new IRILookupTable(new DataInputStream(new ByteArrayInputStream(tableBytes.toByteArray())), VERSION_10);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        for(OWLEntity entity : signature) {
+            table.writeIRI(entity.getIRI(), dos);
+        }
+        table.writeIRI(IRI.create("http://example.org/ontology#notInTable"), dos);
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        for(OWLEntity entity : signature) {
+            assertEquals(entity.getIRI(), readTable.readIRI(dis));
+        }
+        assertEquals(IRI.create("http://example.org/ontology#notInTable"), readTable.readIRI(dis));
+    }
+}
@@ -0,0 +1,98 @@
+package org.semanticweb.binaryowl.tests;
+
+import com.google.common.io.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLSectionCompression;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests the section compression of version 5 documents.
+ */
+public class SectionCompressionTestCase {
+
+    private static final BinaryOWLVersion VERSION_4 = BinaryOWLVersion.getVersion(4);
+
+    private static final BinaryOWLVersion VERSION_5 = BinaryOWLVersion.getVersion(5);
+
+    private static final BinaryOWLWriterConfiguration DEFLATE = new BinaryOWLWriterConfiguration().withSectionCompression(BinaryOWLSectionCompression.DEFLATE);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(SectionCompressionTestCase.class.getResource("/allconstructs.owl")));
+        // Enough repetition for compression to be worthwhile
+        OWLDataFactory df = manager.getOWLDataFactory();
+        for(int i = 0; i < 500; i++) {
+            OWLClass cls = df.getOWLClass(IRI.create("http://example.org/ontology#Class" + i));
+            manager.addAxiom(ont, df.getOWLSubClassOfAxiom(cls, df.getOWLThing()));
+            manager.addAxiom(ont, df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), cls.getIRI(), df.getOWLLiteral("Class number " + i, "en")));
+        }
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCompressConcurrentlyToSameBytes() throws Exception {
+        File sequential = write("sequential.binaryowl", VERSION_5, DEFLATE);
+        File concurrent = write("concurrent.binaryowl", VERSION_5, DEFLATE.withExecutor(executor));
+        assertTrue(Arrays.equals(Files.toByteArray(sequential), Files.toByteArray(concurrent)));
+    }
+
+    @Test
+    public void shouldBeSmallerThanUncompressedDocument() throws Exception {
+        File compressed = write("compressed.binaryowl", VERSION_5, DEFLATE);
+        File uncompressed = write("uncompressed.binaryowl", VERSION_5, new BinaryOWLWriterConfiguration());
+        assertTrue(compressed.length() < uncompressed.length());
+    }
+
+    @Test
+    public void shouldIgnoreCompressionBeforeVersion5() throws Exception {
+        File compressed = write("compressed.binaryowl", VERSION_4, DEFLATE);
+        File uncompressed = write("uncompressed.binaryowl", VERSION_4, new BinaryOWLWriterConfiguration());
+        assertTrue(Arrays.equals(Files.toByteArray(uncompressed), Files.toByteArray(compressed)));
+    }
+
+    private File write(String name, BinaryOWLVersion version, BinaryOWLWriterConfiguration configuration) throws Exception {
+        File file = temporaryFolder.newFile(name);
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), version, configuration);
+        }
+        finally {
+            fos.close();
+        }
+        return file;
+    }
+}
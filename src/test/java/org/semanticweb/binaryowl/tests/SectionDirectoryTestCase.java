@@ -0,0 +1,98 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+
+/**
+ * Round trips documents in the sectioned (version 3) format.
+ */
+public class SectionDirectoryTestCase {
+
+    private static final BinaryOWLVersion VERSION_3 = BinaryOWLVersion.getVersion(3);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(SectionDirectoryTestCase.class.getResource("/allconstructs.owl")));
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldRoundTripVersion3Document() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ont), outputStream, new BinaryOWLMetadata(), VERSION_3);
+
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        OWLOntology ontIn = manIn.createOntology();
+        serializer.read(new ByteArrayInputStream(outputStream.toByteArray()), new BinaryOWLOntologyBuildingHandler(ontIn), manIn.getOWLDataFactory());
+
+        assertEquals(ont, ontIn);
+        assertEquals(ont.getAnnotations(), ontIn.getAnnotations());
+        for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(ont.getAxioms(type), ontIn.getAxioms(type));
+        }
+    }
+
+    @Test
+    public void shouldReadSingleAxiomTypeFromVersion3Document() throws Exception {
+        File file = write(VERSION_3);
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(ont.getAxioms(type), serializer.readAxioms(file, type, manIn.getOWLDataFactory()));
+        }
+    }
+
+    @Test
+    public void shouldReadSingleAxiomTypeFromVersion1Document() throws Exception {
+        File file = write(BinaryOWLVersion.getVersion(1));
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        assertEquals(ont.getAxioms(AxiomType.CLASS_ASSERTION), serializer.readAxioms(file, AxiomType.CLASS_ASSERTION, manIn.getOWLDataFactory()));
+    }
+
+    @Test
+    public void shouldReadSingleAxiomTypeAsSet() throws Exception {
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        for(int version : new int [] {1, 3}) {
+            Set<OWLClassAssertionAxiom> axioms = serializer.readAxioms(write(BinaryOWLVersion.getVersion(version)), AxiomType.CLASS_ASSERTION, manIn.getOWLDataFactory());
+            assertEquals(axioms, ont.getAxioms(AxiomType.CLASS_ASSERTION));
+            assertEquals(new HashSet<OWLClassAssertionAxiom>(ont.getAxioms(AxiomType.CLASS_ASSERTION)).hashCode(), axioms.hashCode());
+        }
+    }
+
+    private File write(BinaryOWLVersion version) throws Exception {
+        File file = temporaryFolder.newFile("v" + version.getVersion() + ".binaryowl");
+        FileOutputStream fos = new FileOutputStream(file);
+        serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), version);
+        fos.close();
+        return file;
+    }
+}
@@ -0,0 +1,174 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.binaryowl.BinaryOWLChangeLogHandler;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyChangeLog;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.change.OntologyChangeRecordList;
+import org.semanticweb.binaryowl.chunk.SkipSetting;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.binaryowl.stream.BinaryOWLStreamUtil;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.OWLOntologyChangeRecord;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Tests the variable length integers used by version 4 documents.
+ */
+public class VarIntTestCase {
+
+    private static final BinaryOWLVersion VERSION_3 = BinaryOWLVersion.getVersion(3);
+
+    private static final BinaryOWLVersion VERSION_4 = BinaryOWLVersion.getVersion(4);
+
+    private static final int [] VALUES = {0, 1, 127, 128, 16383, 16384, 2097151, 2097152, Short.MAX_VALUE, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OWLOntology ont;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(VarIntTestCase.class.getResource("/allconstructs.owl")));
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+    }
+
+    @Test
+    public void shouldRoundTripVarInts() throws IOException {
+        for(int value : VALUES) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            BinaryOWLStreamUtil.writeVarInt(value, new DataOutputStream(os));
+            byte[] bytes = os.toByteArray();
+            assertEquals(BinaryOWLStreamUtil.getVarIntLength(value), bytes.length);
+            assertEquals(value, BinaryOWLStreamUtil.readVarInt(new DataInputStream(new ByteArrayInputStream(bytes))));
+        }
+    }
+
+    @Test
+    public void shouldUseOneByteForSmallValues() throws IOException {
+        assertEquals(1, BinaryOWLStreamUtil.getVarIntLength(0));
+        assertEquals(1, BinaryOWLStreamUtil.getVarIntLength(127));
+        assertEquals(2, BinaryOWLStreamUtil.getVarIntLength(128));
+        assertEquals(5, BinaryOWLStreamUtil.getVarIntLength(-1));
+    }
+
+    @Test
+    public void shouldRoundTripZigZagVarInts() throws IOException {
+        for(int value : VALUES) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            BinaryOWLStreamUtil.writeZigZagVarInt(value, new DataOutputStream(os));
+            assertEquals(value, BinaryOWLStreamUtil.readZigZagVarInt(new DataInputStream(new ByteArrayInputStream(os.toByteArray()))));
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        BinaryOWLStreamUtil.writeZigZagVarInt(-1, new DataOutputStream(os));
+        assertEquals(1, os.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectOverlongVarInt() throws IOException {
+        byte[] bytes = {-1, -1, -1, -1, -1, 1};
+        BinaryOWLStreamUtil.readVarInt(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void shouldRoundTripVersion4Document() throws Exception {
+        byte[] bytes = write(ont, VERSION_4);
+        OWLOntology ontIn = read(bytes);
+        assertEquals(ont, ontIn);
+        assertEquals(ont.getAnnotations(), ontIn.getAnnotations());
+        for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(ont.getAxioms(type), ontIn.getAxioms(type));
+        }
+    }
+
+    @Test
+    public void shouldWriteSmallerDocumentsThanVersion3() throws Exception {
+        assertTrue(write(ont, VERSION_4).length < write(ont, VERSION_3).length);
+    }
+
+    @Test
+    public void shouldRoundTripLongLiteralInVersion4Document() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology longLiteralOntology = manager.createOntology(IRI.create("http://example.org/longliteral"));
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 40000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        OWLAxiom ax = df.getOWLAnnotationAssertionAxiom(df.getRDFSComment(), IRI.create("http://example.org/A"), df.getOWLLiteral(sb.toString()));
+        manager.addAxiom(longLiteralOntology, ax);
+        OWLOntology ontIn = read(write(longLiteralOntology, VERSION_4));
+        assertEquals(longLiteralOntology.getAxioms(), ontIn.getAxioms());
+    }
+
+    @Test
+    public void shouldRoundTripVersion4ChangeLog() throws Exception {
+        File file = temporaryFolder.newFile("changes.binaryowl");
+        List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+        for(OWLAxiom ax : ont.getAxioms()) {
+            changes.add(new AddAxiom(ont, ax));
+        }
+        new BinaryOWLOntologyChangeLog(VERSION_4).appendChanges(changes, 33L, BinaryOWLMetadata.emptyMetadata(), file);
+        new BinaryOWLOntologyChangeLog().appendChanges(Arrays.<OWLOntologyChange>asList(changes.get(0)), 34L, BinaryOWLMetadata.emptyMetadata(), file);
+
+        final List<OWLOntologyChangeRecord> records = new ArrayList<OWLOntologyChangeRecord>();
+        final List<Long> timestamps = new ArrayList<Long>();
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            new BinaryOWLOntologyChangeLog().readChanges(fis, OWLManager.getOWLDataFactory(), new BinaryOWLChangeLogHandler() {
+                @Override
+                public void handleChangesRead(OntologyChangeRecordList list, SkipSetting skipSetting, long filePosition) {
+                    timestamps.add(list.getTimestamp());
+                    records.addAll(list.getChangeRecords());
+                }
+            });
+        }
+        finally {
+            fis.close();
+        }
+        assertEquals(Arrays.asList(33L, 34L), timestamps);
+        List<OWLOntologyChangeRecord> expected = new ArrayList<OWLOntologyChangeRecord>();
+        for(OWLOntologyChange change : changes) {
+            expected.add(change.getChangeRecord());
+        }
+        expected.add(changes.get(0).getChangeRecord());
+        assertEquals(expected, records);
+    }
+
+    private byte[] write(OWLOntology ontology, BinaryOWLVersion version) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializer.write(new OWLOntologyWrapper(ontology), outputStream, new BinaryOWLMetadata(), version);
+        return outputStream.toByteArray();
+    }
+
+    private OWLOntology read(byte[] bytes) throws Exception {
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        OWLOntology ontIn = manIn.createOntology();
+        serializer.read(new ByteArrayInputStream(bytes), new BinaryOWLOntologyBuildingHandler(ontIn), manIn.getOWLDataFactory());
+        return ontIn;
+    }
+}
@@ -0,0 +1,198 @@
+package org.semanticweb.binaryowl.tests;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.semanticweb.binaryowl.BinaryOWLMetadata;
+import org.semanticweb.binaryowl.BinaryOWLOntologyDocumentSerializer;
+import org.semanticweb.binaryowl.BinaryOWLReaderConfiguration;
+import org.semanticweb.binaryowl.BinaryOWLSectionCompression;
+import org.semanticweb.binaryowl.BinaryOWLVersion;
+import org.semanticweb.binaryowl.BinaryOWLWriterConfiguration;
+import org.semanticweb.binaryowl.owlapi.BinaryOWLOntologyBuildingHandler;
+import org.semanticweb.binaryowl.owlapi.OWLOntologyWrapper;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Round trips a document that exercises every feature of the version 3 and later body formats, in each of those
+ * versions, with and without compressed sections.  The tests of the individual features only check what is particular
+ * to their feature.
+ */
+@RunWith(Parameterized.class)
+public class VersionedDocumentTestCase {
+
+    private static final int FIRST_VERSION = 3;
+
+    private static final int LAST_VERSION = 11;
+
+    private static OWLOntology ont;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final BinaryOWLVersion version;
+
+    private final BinaryOWLWriterConfiguration configuration;
+
+    private BinaryOWLOntologyDocumentSerializer serializer;
+
+    private ExecutorService executor;
+
+    public VersionedDocumentTestCase(int version, BinaryOWLSectionCompression sectionCompression) {
+        this.version = BinaryOWLVersion.getVersion(version);
+        this.configuration = new BinaryOWLWriterConfiguration().withSectionCompression(sectionCompression);
+    }
+
+    @Parameterized.Parameters
+    public static Collection<Object[]> getParameters() {
+        Collection<Object[]> parameters = new ArrayList<Object[]>();
+        for(int version = FIRST_VERSION; version <= LAST_VERSION; version++) {
+            parameters.add(new Object[]{version, BinaryOWLSectionCompression.NONE});
+            if(BinaryOWLVersion.getVersion(version).isSectionCompressionSupported()) {
+                parameters.add(new Object[]{version, BinaryOWLSectionCompression.DEFLATE});
+            }
+        }
+        return parameters;
+    }
+
+    @BeforeClass
+    public static void createOntology() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        ont = manager.loadOntologyFromOntologyDocument(IRI.create(VersionedDocumentTestCase.class.getResource("/allconstructs.owl")));
+        OWLObjectProperty partOf = df.getOWLObjectProperty(IRI.create("http://purl.obolibrary.org/obo/BFO_0000050"));
+        OWLClass cell = df.getOWLClass(IRI.create("http://purl.obolibrary.org/obo/CL_0000000"));
+        OWLClassExpression partOfCell = df.getOWLObjectSomeValuesFrom(partOf, cell);
+        OWLDataProperty count = df.getOWLDataProperty(IRI.create("http://example.org/ontology#count"));
+        OWLDataProperty weight = df.getOWLDataProperty(IRI.create("http://example.org/ontology#weight"));
+        OWLDataProperty price = df.getOWLDataProperty(IRI.create("http://example.org/ontology#price"));
+        OWLDataProperty created = df.getOWLDataProperty(IRI.create("http://example.org/ontology#created"));
+        OWLDataProperty obsolete = df.getOWLDataProperty(IRI.create("http://example.org/ontology#isObsolete"));
+        OWLLiteral boilerplate = df.getOWLLiteral("This term was imported from an external vocabulary and has not been reviewed.", "en");
+        OWLClass previous = df.getOWLThing();
+        for(int i = 0; i < 150; i++) {
+            OWLClass cls = df.getOWLClass(IRI.create(String.format("http://purl.obolibrary.org/obo/GO_%07d", i)));
+            manager.addAxiom(ont, df.getOWLDeclarationAxiom(cls));
+            manager.addAxiom(ont, df.getOWLSubClassOfAxiom(cls, previous));
+            manager.addAxiom(ont, df.getOWLSubClassOfAxiom(cls, partOfCell));
+            manager.addAxiom(ont, df.getOWLSubClassOfAxiom(cls, df.getOWLObjectIntersectionOf(cell, partOfCell)));
+            manager.addAxiom(ont, df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), cls.getIRI(), df.getOWLLiteral("Term " + i, "en")));
+            manager.addAxiom(ont, df.getOWLAnnotationAssertionAxiom(df.getRDFSComment(), cls.getIRI(), boilerplate));
+            previous = cls;
+            OWLObjectProperty prop = df.getOWLObjectProperty(IRI.create("http://example.org/ontology#p" + i));
+            OWLNamedIndividual ind = df.getOWLNamedIndividual(IRI.create("http://example.org/ontology#ind" + i));
+            OWLNamedIndividual next = df.getOWLNamedIndividual(IRI.create("http://example.org/ontology#ind" + (i + 1) % 150));
+            manager.addAxiom(ont, df.getOWLClassAssertionAxiom(cls, ind));
+            manager.addAxiom(ont, df.getOWLObjectPropertyAssertionAxiom(prop, ind, next));
+            manager.addAxiom(ont, df.getOWLSubObjectPropertyOfAxiom(prop, df.getOWLTopObjectProperty()));
+            manager.addAxiom(ont, df.getOWLDataPropertyAssertionAxiom(obsolete, ind, i % 3 == 0));
+            manager.addAxiom(ont, df.getOWLDataPropertyAssertionAxiom(count, ind, literal(df, Integer.toString(i * 7919), OWL2Datatype.XSD_INTEGER)));
+            manager.addAxiom(ont, df.getOWLDataPropertyAssertionAxiom(weight, ind, literal(df, Double.toString(i * 0.37), OWL2Datatype.XSD_DOUBLE)));
+            manager.addAxiom(ont, df.getOWLDataPropertyAssertionAxiom(price, ind, literal(df, i + "." + (i % 100), OWL2Datatype.XSD_DECIMAL)));
+            manager.addAxiom(ont, df.getOWLDataPropertyAssertionAxiom(created, ind, literal(df, String.format("2013-%02d-%02dT12:%02d:00Z", i % 12 + 1, i % 28 + 1, i % 60), OWL2Datatype.XSD_DATE_TIME)));
+        }
+        // A punned IRI, which is in the class and the individual partitions
+        IRI punned = IRI.create("http://purl.obolibrary.org/obo/GO_0000000");
+        manager.addAxiom(ont, df.getOWLClassAssertionAxiom(cell, df.getOWLNamedIndividual(punned)));
+    }
+
+    @Before
+    public void setUp() {
+        serializer = new BinaryOWLOntologyDocumentSerializer();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRoundTripDocument() throws Exception {
+        assertRoundTrips(write(version, configuration), new BinaryOWLReaderConfiguration());
+    }
+
+    @Test
+    public void shouldRoundTripDocumentConcurrently() throws Exception {
+        File file = write(version, configuration.withExecutor(executor));
+        assertRoundTrips(file, new BinaryOWLReaderConfiguration().withExecutor(executor));
+    }
+
+    @Test
+    public void shouldReadSingleAxiomType() throws Exception {
+        File file = write(version, configuration);
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(ont.getAxioms(type), serializer.readAxioms(file, type, df));
+        }
+    }
+
+    @Test
+    public void shouldReadSignature() throws Exception {
+        File file = write(version, configuration);
+        Set<IRI> iris = serializer.readSignature(file, OWLManager.getOWLDataFactory()).getIRIs();
+        for(OWLEntity entity : ont.getSignature()) {
+            assertTrue(iris.contains(entity.getIRI()));
+        }
+    }
+
+    @Test
+    public void shouldBeSmallerThanPreviousVersion() throws Exception {
+        Assume.assumeTrue(version.getVersion() > FIRST_VERSION);
+        BinaryOWLVersion previousVersion = BinaryOWLVersion.getVersion(version.getVersion() - 1);
+        // The version that added section compression saves space by compressing.  The other versions save space in
+        // the uncompressed encoding, and compression may absorb the saving.
+        boolean addsCompression = version.isSectionCompressionSupported() && !previousVersion.isSectionCompressionSupported();
+        boolean compressed = configuration.getSectionCompression() != BinaryOWLSectionCompression.NONE;
+        Assume.assumeTrue(compressed == addsCompression);
+        File file = write(version, configuration);
+        File previous = write(previousVersion, new BinaryOWLWriterConfiguration());
+        assertTrue(file.length() < previous.length());
+    }
+
+    private static OWLLiteral literal(OWLDataFactory df, String lexicalForm, OWL2Datatype datatype) {
+        return df.getOWLLiteral(lexicalForm, df.getOWLDatatype(datatype.getIRI()));
+    }
+
+    private void assertRoundTrips(File file, BinaryOWLReaderConfiguration readerConfiguration) throws Exception {
+        OWLOntologyManager manIn = OWLManager.createOWLOntologyManager();
+        OWLOntology ontIn = manIn.createOntology();
+        serializer.read(file, new BinaryOWLOntologyBuildingHandler(ontIn), manIn.getOWLDataFactory(), readerConfiguration);
+        assertEquals(ont.getOntologyID(), ontIn.getOntologyID());
+        assertEquals(ont.getAnnotations(), ontIn.getAnnotations());
+        for(AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(ont.getAxioms(type), ontIn.getAxioms(type));
+        }
+    }
+
+    private File write(BinaryOWLVersion version, BinaryOWLWriterConfiguration configuration) throws Exception {
+        File file = temporaryFolder.newFile("ontology-" + version.getVersion() + ".binaryowl");
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            serializer.write(new OWLOntologyWrapper(ont), fos, new BinaryOWLMetadata(), version, configuration);
+        }
+        finally {
+            fos.close();
+        }
+        return file;
+    }
+}